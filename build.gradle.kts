@@ -77,12 +77,27 @@ dependencies {
     compileOnly(files("libs/SpartanAPI.jar"))
     compileOnly(files("libs/mcMMO.jar"))
     compileOnly(files("libs/NoCheatPlus.jar")) //3.16.0-RC-sMD5NET-b1134
+
+    val junitVersion = "5.8.2"
+    testImplementation("org.junit.jupiter:junit-jupiter:$junitVersion")
+    testImplementation("org.spigotmc:spigot-api:$spigotVersion")
 }
 
 tasks.withType<JavaCompile> {
     options.encoding = "UTF-8"
 }
 
+tasks.withType<Test> {
+    useJUnitPlatform()
+}
+
+tasks.register<JavaExec>("chunkManagerBenchmark") {
+    group = "verification"
+    description = "Compares the placed block trackers, see ChunkManagerBenchmark"
+    classpath = sourceSets.test.get().runtimeClasspath
+    mainClass.set("us.eunoians.mcrpg.util.blockmeta.ChunkManagerBenchmark")
+}
+
 tasks.withType<Javadoc> {
     options.encoding = "UTF-8"
 }
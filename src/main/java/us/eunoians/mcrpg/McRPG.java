@@ -24,6 +24,7 @@ import us.eunoians.mcrpg.abilities.attributes.AbilityAttributeManager;
 import us.eunoians.mcrpg.api.displays.DisplayManager;
 import us.eunoians.mcrpg.api.leaderboards.LeaderboardHeadManager;
 import us.eunoians.mcrpg.api.leaderboards.LeaderboardManager;
+import us.eunoians.mcrpg.api.util.AreaBreakScheduler;
 import us.eunoians.mcrpg.api.util.BuriedTreasureData;
 import us.eunoians.mcrpg.api.util.DiamondFlowersData;
 import us.eunoians.mcrpg.api.util.FileManager;
@@ -36,6 +37,7 @@ import us.eunoians.mcrpg.api.util.blood.BloodManager;
 import us.eunoians.mcrpg.api.util.books.BookManager;
 import us.eunoians.mcrpg.api.util.brewing.BrewingStandManager;
 import us.eunoians.mcrpg.api.util.brewing.PotionRecipeManager;
+import us.eunoians.mcrpg.api.util.exp.ExpGainAggregator;
 import us.eunoians.mcrpg.api.util.exp.ExpPermissionManager;
 import us.eunoians.mcrpg.api.util.fishing.FishingItemManager;
 import us.eunoians.mcrpg.api.util.levelcmds.LevelCommandManager;
@@ -80,6 +82,7 @@ import us.eunoians.mcrpg.events.vanilla.DropItemEvent;
 import us.eunoians.mcrpg.events.vanilla.EnchantingEvent;
 import us.eunoians.mcrpg.events.vanilla.EntityDeathListener;
 import us.eunoians.mcrpg.events.vanilla.EntityTameListener;
+import us.eunoians.mcrpg.events.vanilla.EquipmentChangeEvent;
 import us.eunoians.mcrpg.events.vanilla.FakeBlockListener;
 import us.eunoians.mcrpg.events.vanilla.FishCatchEvent;
 import us.eunoians.mcrpg.events.vanilla.InteractHandler;
@@ -89,6 +92,7 @@ import us.eunoians.mcrpg.events.vanilla.MoveEvent;
 import us.eunoians.mcrpg.events.vanilla.MoveItemEvent;
 import us.eunoians.mcrpg.events.vanilla.PickupEvent;
 import us.eunoians.mcrpg.events.vanilla.PlayerLoginEvent;
+import us.eunoians.mcrpg.events.vanilla.PlayerPreLoginEvent;
 import us.eunoians.mcrpg.events.vanilla.PlayerLogoutEvent;
 import us.eunoians.mcrpg.events.vanilla.PlayerNomNomEvent;
 import us.eunoians.mcrpg.events.vanilla.PlayerTossItemEvent;
@@ -133,6 +137,10 @@ public class McRPG extends JavaPlugin {//implements //Initializable {
     @Getter
     private static ChunkManager placeStore;
     @Getter
+    private AreaBreakScheduler areaBreakScheduler;
+    @Getter
+    private ExpGainAggregator expGainAggregator;
+    @Getter
     private RemoteTransferTracker remoteTransferTracker;
     @Getter
     private FishingItemManager fishingItemManager;
@@ -262,6 +270,8 @@ public class McRPG extends JavaPlugin {//implements //Initializable {
             wgSupportManager = new WGSupportManager(this);
         }
         placeStore = ChunkManagerFactory.getChunkManager(); // Get our ChunkletManager
+        areaBreakScheduler = new AreaBreakScheduler(this);
+        expGainAggregator = new ExpGainAggregator(this);
         remoteTransferTracker = new RemoteTransferTracker();
         File folder = new File(getDataFolder(), File.separator + "remote_transfer_data");
         if (!folder.exists()) {
@@ -293,6 +303,7 @@ public class McRPG extends JavaPlugin {//implements //Initializable {
         getCommand("mcexp").setTabCompleter(new McExpPrompt());
         getCommand("mchelp").setTabCompleter(new McHelpPrompt());
         //Events
+        getServer().getPluginManager().registerEvents(new PlayerPreLoginEvent(), this);
         getServer().getPluginManager().registerEvents(new PlayerLoginEvent(), this);
         getServer().getPluginManager().registerEvents(new MoveEvent(), this);
         getServer().getPluginManager().registerEvents(new PlayerLogoutEvent(), this);
@@ -334,6 +345,7 @@ public class McRPG extends JavaPlugin {//implements //Initializable {
         getServer().getPluginManager().registerEvents(new WolfValidator(), this);
         getServer().getPluginManager().registerEvents(new CallOfWildListener(), this);
         getServer().getPluginManager().registerEvents(new FakeBlockListener(), this);
+        getServer().getPluginManager().registerEvents(new EquipmentChangeEvent(), this);
 
         if (sickleEnabled) {
             getServer().getPluginManager().registerEvents(new Sickle(), this);
@@ -382,13 +394,15 @@ public class McRPG extends JavaPlugin {//implements //Initializable {
 
     @Override
     public void onDisable() {
+        areaBreakScheduler.shutdown();
+        expGainAggregator.shutdown();
         brewingStandManager.shutDown();
         partyManager.saveAllParties();
         placeStore.closeAll();
 
         //Block main thread until saves are done
         PlayerManager.shutDownManager().join();
-        databaseManager.getDatabaseExecutorService().shutdown();
+        databaseManager.shutdown();
     }
 
     public static McRPG getInstance() {
@@ -4,20 +4,28 @@ import lombok.Getter;
 import lombok.Setter;
 import us.eunoians.mcrpg.types.GenericAbility;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 public abstract class BaseAbility {
 
   @Getter
   private GenericAbility genericAbility;
   @Getter
-  @Setter
   private boolean isToggled;
 
-  @Getter @Setter
+  @Getter
   private int currentTier;
 
   @Getter @Setter
   private boolean isUnlocked;
 
+  /**
+   * How many times the toggled state or tier of this ability has changed, and how many of those changes have been saved. A save only
+   * marks the changes it captured as saved, so a change made while a save is running is still picked up by the next one.
+   */
+  private final AtomicLong changeCount = new AtomicLong();
+  private volatile long savedChangeCount = 0;
+
   /**
    * Defines an ability that unlocks when currentTier > 0
    * If the ability needs to be unlocked with {@code currentTier <= 0}, see {@link #BaseAbility(GenericAbility, boolean, int, boolean)} instead
@@ -45,4 +53,62 @@ public abstract class BaseAbility {
     this.isUnlocked = isUnlocked;
   }
 
-}
\ No newline at end of file
+  /**
+   * Sets if the player has this ability toggled, marking the ability as dirty if this changes the stored state
+   *
+   * @param isToggled If the player has this ability toggled
+   */
+  public void setToggled(boolean isToggled) {
+    if (this.isToggled != isToggled) {
+      this.isToggled = isToggled;
+      markChanged();
+    }
+  }
+
+  /**
+   * Sets the current tier of this ability, marking the ability as dirty if this changes the stored state
+   *
+   * @param currentTier The current tier of this ability for the player
+   */
+  public void setCurrentTier(int currentTier) {
+    if (this.currentTier != currentTier) {
+      this.currentTier = currentTier;
+      markChanged();
+    }
+  }
+
+  /**
+   * Checks to see if the toggled state or tier of this ability has changed since it was last saved
+   *
+   * @return {@code true} if this ability has unsaved changes
+   */
+  public boolean isDirty() {
+    return changeCount.get() != savedChangeCount;
+  }
+
+  /**
+   * Gets how many times the toggled state or tier of this ability has changed. This should be read before the ability's data is captured
+   * for a save and passed to {@link #markSaved(long)} afterwards.
+   *
+   * @return How many times this ability has changed
+   */
+  public long getChangeCount() {
+    return changeCount.get();
+  }
+
+  /**
+   * Marks this ability as having unsaved changes, such as when a save that contained it failed
+   */
+  public void markChanged() {
+    changeCount.incrementAndGet();
+  }
+
+  /**
+   * Marks the changes up to the provided change count as saved. Any change made after that count was read keeps this ability dirty.
+   *
+   * @param capturedChangeCount The {@link #getChangeCount()} read before the ability's data was captured for the save
+   */
+  public void markSaved(long capturedChangeCount) {
+    this.savedChangeCount = capturedChangeCount;
+  }
+}
@@ -13,7 +13,7 @@ import us.eunoians.mcrpg.players.McRPGPlayer;
 import us.eunoians.mcrpg.skills.Skill;
 import us.eunoians.mcrpg.types.DisplayType;
 import us.eunoians.mcrpg.types.Skills;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
 
 public class DecayableExpBossBar extends GenericDisplay implements BossbarBase, ExpDisplayType, DecayableDisplay {
 
@@ -39,7 +39,7 @@ public class DecayableExpBossBar extends GenericDisplay implements BossbarBase,
             .replace("%Exp_To_Level%", Integer.toString(s.getExpToLevel() - s.getCurrentExp())).replace("%Current_Level%", Integer.toString(s.getCurrentLevel())));
     BarStyle style = BarStyle.SEGMENTED_10;
     BarColor color = us.eunoians.mcrpg.types.BarColor.fromString(McRPG.getInstance().getConfig().getString("DisplayConfig.BossBar.Color." + skill.getName()));
-    Parser equation = skill.getExpEquation();
+    ExpressionEvaluation equation = skill.getExpEvaluation();
     equation.setVariable("skill_level", s.getCurrentLevel());
     equation.setVariable("power_level", player.getPowerLevel());
     double progress = s.getCurrentExp()/equation.getValue();
@@ -58,7 +58,7 @@ public class DecayableExpBossBar extends GenericDisplay implements BossbarBase,
   @Override
   public void sendUpdate(int currentExp, int expToLevel, int currentLevel, int expGained){
     Skill s = this.player.getSkill(skill);
-    Parser equation = skill.getExpEquation();
+    ExpressionEvaluation equation = skill.getExpEvaluation();
     equation.setVariable("skill_level", s.getCurrentLevel());
     equation.setVariable("power_level", player.getPowerLevel());
     double progress = s.getCurrentExp()/equation.getValue();
@@ -0,0 +1,27 @@
+package us.eunoians.mcrpg.api.events.mcrpg;
+
+import lombok.Getter;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+
+/**
+ * Fired once for the whole area of an ability such as Heavy Swing or Larger Spade when the {@code AREA_EVENT} protection mode is used,
+ * instead of a {@link FakeBlockBreakEvent} for every block.
+ * <p>
+ * Protection plugins that support this event should remove any blocks the player isn't allowed to break from {@link #getBlocks()},
+ * or cancel the event to stop the whole area from breaking.
+ */
+public class AreaBreakTestEvent extends McRPGEvent {
+
+  @Getter
+  private Player player;
+  @Getter
+  private List<Block> blocks;
+
+  public AreaBreakTestEvent(Player player, List<Block> blocks){
+    this.player = player;
+    this.blocks = blocks;
+  }
+}
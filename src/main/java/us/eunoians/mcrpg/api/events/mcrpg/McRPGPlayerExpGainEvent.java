@@ -2,6 +2,9 @@ package us.eunoians.mcrpg.api.events.mcrpg;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.bukkit.Location;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import us.eunoians.mcrpg.players.McRPGPlayer;
 import us.eunoians.mcrpg.skills.Skill;
 import us.eunoians.mcrpg.types.GainReason;
@@ -15,12 +18,37 @@ public class McRPGPlayerExpGainEvent extends PlayerModifiedEvent {
   private Skill skillGained;
   @Getter
   private GainReason gainType;
+  /**
+   * How many gains were added up into this event, which is more than 1 when {@code Configuration.ExpAggregation} is enabled and the
+   * player gained exp in this skill for this reason more than once in a tick
+   */
+  @Getter
+  private int gainCount;
+  @Nullable
+  private Location gainLocation;
 
   public McRPGPlayerExpGainEvent(McRPGPlayer mcRPGPlayer, int expGained, Skill skillGained, GainReason gainType){
+    this(mcRPGPlayer, expGained, skillGained, gainType, 1, null);
+  }
+
+  public McRPGPlayerExpGainEvent(McRPGPlayer mcRPGPlayer, int expGained, Skill skillGained, GainReason gainType, int gainCount, @Nullable Location gainLocation){
     super(mcRPGPlayer);
     this.expGained = expGained;
     this.skillGained = skillGained;
     this.gainType = gainType;
+    this.gainCount = gainCount;
+    this.gainLocation = gainLocation;
+  }
+
+  /**
+   * Gets where the player was when they gained the exp. Added up gains are given a tick later, so this is where the player was for the
+   * first of them, which is what world and region rules should be checked against.
+   *
+   * @return Where the player was when they gained the exp
+   */
+  @NotNull
+  public Location getGainLocation(){
+    return gainLocation != null ? gainLocation.clone() : getMcRPGPlayer().getPlayer().getLocation();
   }
 
   public McRPGPlayer getMcRPGPlayer(){
@@ -0,0 +1,369 @@
+package us.eunoians.mcrpg.api.leaderboards;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A single leaderboard kept in order in memory.
+ * <p>
+ * Players are stored in a treap where every node knows the size of its subtree, which makes finding a player's rank, the player
+ * at a rank and a page of players all {@code O(log n)} instead of scanning the whole leaderboard. Players are ordered by highest
+ * level first, and players with the same level are ordered by their {@link UUID} so that their order is always the same. A second
+ * treap ordered by {@link UUID} finds a player's level without a {@link java.util.HashMap} that would need copying.
+ * <p>
+ * Players with the same level share the same rank, which is one more than the amount of players with a higher level. This is the same
+ * rank {@code RANK()} gives in the database, so ranks read from here and ranks looked up from the database always agree.
+ * <p>
+ * A leaderboard that only holds the top of the players, such as a paged leaderboard, has a minimum level. Players below it may be
+ * missing, so their rank can't be known and they are left off instead of being shown under players that are missing.
+ * <p>
+ * A leaderboard never changes once created. {@link #update(UUID, int)} and {@link #remove(UUID)} return a new leaderboard that only
+ * copies the {@code O(log n)} nodes along the path that changed and shares everything else, so it is safe to read from placeholders
+ * on other threads without any locking.
+ *
+ * @author DiamondDagger590
+ */
+public final class LeaderboardIndex {
+
+    private static final LeaderboardIndex EMPTY = new LeaderboardIndex(null, null, Integer.MIN_VALUE);
+
+    private static final Comparator<PlayerLeaderboardData> BY_RANK = (first, second) -> {
+        int compare = Integer.compare(second.getLevel(), first.getLevel());
+        return compare != 0 ? compare : first.getUUID().compareTo(second.getUUID());
+    };
+    private static final Comparator<PlayerLeaderboardData> BY_UUID = Comparator.comparing(PlayerLeaderboardData::getUUID);
+
+    @Nullable
+    private final Node byRank;
+    @Nullable
+    private final Node byUUID;
+    private final int minimumLevel;
+
+    private LeaderboardIndex(@Nullable Node byRank, @Nullable Node byUUID, int minimumLevel) {
+        this.byRank = byRank;
+        this.byUUID = byUUID;
+        this.minimumLevel = minimumLevel;
+    }
+
+    /**
+     * Gets a leaderboard with no players on it
+     *
+     * @return An empty leaderboard
+     */
+    @NotNull
+    public static LeaderboardIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a copy of this leaderboard with the provided player at the provided level, adding them if they aren't on it yet. If the
+     * level is below the {@link #getMinimumLevel() minimum level}, the player is taken off instead.
+     *
+     * @param uuid  The {@link UUID} of the player
+     * @param level The player's new level
+     * @return The updated leaderboard, or this leaderboard if nothing changed
+     */
+    @NotNull
+    public LeaderboardIndex update(@NotNull UUID uuid, int level) {
+        if (level < minimumLevel) {
+            return remove(uuid);
+        }
+        PlayerLeaderboardData current = find(uuid);
+        if (current != null && current.getLevel() == level) {
+            return this;
+        }
+        Node rankRoot = current == null ? byRank : remove(byRank, current, BY_RANK);
+        Node uuidRoot = current == null ? byUUID : remove(byUUID, current, BY_UUID);
+        PlayerLeaderboardData data = new PlayerLeaderboardData(uuid, level);
+        return new LeaderboardIndex(insert(rankRoot, data, BY_RANK), insert(uuidRoot, data, BY_UUID), minimumLevel);
+    }
+
+    /**
+     * Creates a copy of this leaderboard without the provided player
+     *
+     * @param uuid The {@link UUID} of the player to remove
+     * @return The updated leaderboard, or this leaderboard if the player wasn't on it
+     */
+    @NotNull
+    public LeaderboardIndex remove(@NotNull UUID uuid) {
+        PlayerLeaderboardData current = find(uuid);
+        if (current == null) {
+            return this;
+        }
+        return new LeaderboardIndex(remove(byRank, current, BY_RANK), remove(byUUID, current, BY_UUID), minimumLevel);
+    }
+
+    /**
+     * Creates a copy of this leaderboard that drops its lowest players until it holds no more than the provided amount. The level of
+     * the players dropped becomes the minimum level, since players at that level are no longer all on the leaderboard.
+     *
+     * @param maxSize The most players to keep
+     * @return The trimmed leaderboard, or this leaderboard if it didn't need trimming
+     */
+    @NotNull
+    public LeaderboardIndex trim(int maxSize) {
+        LeaderboardIndex leaderboardIndex = this;
+        while (leaderboardIndex.size() > maxSize) {
+            PlayerLeaderboardData lowestPlayer = leaderboardIndex.get(leaderboardIndex.size());
+            if (lowestPlayer == null) {
+                break;
+            }
+            leaderboardIndex = leaderboardIndex.remove(lowestPlayer.getUUID()).withMinimumLevel(lowestPlayer.getLevel());
+        }
+        return leaderboardIndex;
+    }
+
+    /**
+     * Creates a copy of this leaderboard that knows players below the provided level may be missing from it, and takes off any players
+     * it holds below that level
+     *
+     * @param minimumLevel The lowest level that every player at or above is on the leaderboard
+     * @return The updated leaderboard, or this leaderboard if its minimum level was already at least that high
+     */
+    @NotNull
+    public LeaderboardIndex withMinimumLevel(int minimumLevel) {
+        if (minimumLevel <= this.minimumLevel) {
+            return this;
+        }
+        LeaderboardIndex leaderboardIndex = new LeaderboardIndex(byRank, byUUID, minimumLevel);
+        PlayerLeaderboardData lowestPlayer;
+        while ((lowestPlayer = leaderboardIndex.get(leaderboardIndex.size())) != null && lowestPlayer.getLevel() < minimumLevel) {
+            leaderboardIndex = leaderboardIndex.remove(lowestPlayer.getUUID());
+        }
+        return leaderboardIndex;
+    }
+
+    /**
+     * Gets the lowest level that every player at or above is on this leaderboard. Players below it may be missing, so none are held.
+     *
+     * @return The minimum level, or {@link Integer#MIN_VALUE} if this leaderboard holds every player
+     */
+    public int getMinimumLevel() {
+        return minimumLevel;
+    }
+
+    /**
+     * Gets the level the provided player has on this leaderboard
+     *
+     * @param uuid The {@link UUID} of the player
+     * @return The player's level, or {@code -1} if they aren't on this leaderboard
+     */
+    public int getLevel(@NotNull UUID uuid) {
+        PlayerLeaderboardData data = find(uuid);
+        return data == null ? -1 : data.getLevel();
+    }
+
+    /**
+     * Gets the rank of the provided player, which is one more than the amount of players with a higher level. Players with the same
+     * level share the same rank.
+     *
+     * @param uuid The {@link UUID} of the player
+     * @return The player's rank, or {@code -1} if they aren't on this leaderboard
+     */
+    public int getRank(@NotNull UUID uuid) {
+        PlayerLeaderboardData data = find(uuid);
+        if (data == null) {
+            return -1;
+        }
+        int higher = 0;
+        Node current = byRank;
+        while (current != null) {
+            if (current.data.getLevel() > data.getLevel()) {
+                higher += size(current.left) + 1;
+                current = current.right;
+            }
+            else {
+                current = current.left;
+            }
+        }
+        return higher + 1;
+    }
+
+    /**
+     * Gets the player at the provided place, where the highest level player is in place 1. Players with the same level are placed in
+     * order of their {@link UUID}, so a player's place can be after their {@link #getRank(UUID) rank}.
+     *
+     * @param rank The place to get the player in
+     * @return The {@link PlayerLeaderboardData} of the player in that place, or {@code null} if there is no player in that place
+     */
+    @Nullable
+    public PlayerLeaderboardData get(int rank) {
+        if (rank < 1 || rank > size(byRank)) {
+            return null;
+        }
+        int index = rank - 1;
+        Node current = byRank;
+        while (current != null) {
+            int leftSize = size(current.left);
+            if (index < leftSize) {
+                current = current.left;
+            }
+            else if (index == leftSize) {
+                return current.data;
+            }
+            else {
+                index -= leftSize + 1;
+                current = current.right;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the players between the provided indexes in order, where the highest level player is at index 0
+     *
+     * @param fromIndex The first index to get, inclusive
+     * @param toIndex   The last index to get, exclusive
+     * @return The {@link PlayerLeaderboardData} of the players in that range, which will be shorter than asked for if the range goes
+     * past the end of this leaderboard
+     */
+    @NotNull
+    public List<PlayerLeaderboardData> getRange(int fromIndex, int toIndex) {
+        fromIndex = Math.max(0, fromIndex);
+        toIndex = Math.min(toIndex, size(byRank));
+        List<PlayerLeaderboardData> range = new ArrayList<>(Math.max(0, toIndex - fromIndex));
+        if (fromIndex < toIndex) {
+            collect(byRank, 0, fromIndex, toIndex, range);
+        }
+        return range;
+    }
+
+    /**
+     * Gets how many players are on this leaderboard
+     *
+     * @return The amount of players on this leaderboard
+     */
+    public int size() {
+        return size(byRank);
+    }
+
+    @Nullable
+    private PlayerLeaderboardData find(@NotNull UUID uuid) {
+        Node current = byUUID;
+        while (current != null) {
+            int compare = uuid.compareTo(current.data.getUUID());
+            if (compare == 0) {
+                return current.data;
+            }
+            current = compare < 0 ? current.left : current.right;
+        }
+        return null;
+    }
+
+    private static void collect(@Nullable Node node, int offset, int fromIndex, int toIndex, @NotNull List<PlayerLeaderboardData> range) {
+        if (node == null || offset >= toIndex || offset + node.size <= fromIndex) {
+            return;
+        }
+        collect(node.left, offset, fromIndex, toIndex, range);
+        int index = offset + size(node.left);
+        if (index >= fromIndex && index < toIndex) {
+            range.add(node.data);
+        }
+        collect(node.right, index + 1, fromIndex, toIndex, range);
+    }
+
+    @NotNull
+    private static Node insert(@Nullable Node node, @NotNull PlayerLeaderboardData data, @NotNull Comparator<PlayerLeaderboardData> order) {
+        int priority = priority(data);
+        if (node == null) {
+            return new Node(data, priority, null, null);
+        }
+        if (priority > node.priority) {
+            Node[] split = split(node, data, order);
+            return new Node(data, priority, split[0], split[1]);
+        }
+        if (order.compare(data, node.data) < 0) {
+            return node.withChildren(insert(node.left, data, order), node.right);
+        }
+        return node.withChildren(node.left, insert(node.right, data, order));
+    }
+
+    @Nullable
+    private static Node remove(@Nullable Node node, @NotNull PlayerLeaderboardData data, @NotNull Comparator<PlayerLeaderboardData> order) {
+        if (node == null) {
+            return null;
+        }
+        int compare = order.compare(data, node.data);
+        if (compare == 0) {
+            return merge(node.left, node.right);
+        }
+        if (compare < 0) {
+            return node.withChildren(remove(node.left, data, order), node.right);
+        }
+        return node.withChildren(node.left, remove(node.right, data, order));
+    }
+
+    /**
+     * Splits the provided tree into the nodes ordered before the provided data and the nodes ordered after it
+     */
+    @NotNull
+    private static Node[] split(@Nullable Node node, @NotNull PlayerLeaderboardData data, @NotNull Comparator<PlayerLeaderboardData> order) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (order.compare(node.data, data) < 0) {
+            Node[] split = split(node.right, data, order);
+            split[0] = node.withChildren(node.left, split[0]);
+            return split;
+        }
+        Node[] split = split(node.left, data, order);
+        split[1] = node.withChildren(split[1], node.right);
+        return split;
+    }
+
+    @Nullable
+    private static Node merge(@Nullable Node left, @Nullable Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            return left.withChildren(left.left, merge(left.right, right));
+        }
+        return right.withChildren(merge(left, right.left), right.right);
+    }
+
+    /**
+     * Works out the priority of a player from their {@link UUID}, so that the copy of a node always has the same priority as the original
+     */
+    private static int priority(@NotNull PlayerLeaderboardData data) {
+        long bits = data.getUUID().getMostSignificantBits() ^ data.getUUID().getLeastSignificantBits();
+        bits *= 0x9E3779B97F4A7C15L;
+        return (int) (bits >>> 32);
+    }
+
+    private static int size(@Nullable Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node {
+
+        private final PlayerLeaderboardData data;
+        private final int priority;
+        @Nullable
+        private final Node left;
+        @Nullable
+        private final Node right;
+        private final int size;
+
+        private Node(@NotNull PlayerLeaderboardData data, int priority, @Nullable Node left, @Nullable Node right) {
+            this.data = data;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + LeaderboardIndex.size(left) + LeaderboardIndex.size(right);
+        }
+
+        @NotNull
+        private Node withChildren(@Nullable Node left, @Nullable Node right) {
+            return left == this.left && right == this.right ? this : new Node(data, priority, left, right);
+        }
+    }
+}
@@ -2,228 +2,470 @@ package us.eunoians.mcrpg.api.leaderboards;
 
 import org.bukkit.Bukkit;
 import org.bukkit.scheduler.BukkitRunnable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import us.eunoians.mcrpg.McRPG;
+import us.eunoians.mcrpg.api.exceptions.McRPGPlayerNotFoundException;
+import us.eunoians.mcrpg.api.util.FileManager;
 import us.eunoians.mcrpg.api.util.Methods;
+import us.eunoians.mcrpg.database.DatabaseTaskPriority;
+import us.eunoians.mcrpg.database.tables.PlayerDataDAO;
 import us.eunoians.mcrpg.database.tables.SkillDAO;
 import us.eunoians.mcrpg.players.McRPGPlayer;
 import us.eunoians.mcrpg.players.PlayerManager;
+import us.eunoians.mcrpg.skills.Skill;
 import us.eunoians.mcrpg.types.Skills;
 
 import java.sql.Connection;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
+/**
+ * Keeps the power level and skill leaderboards in memory.
+ * <p>
+ * The leaderboards are loaded from the database once on startup and after that are kept up to date as players level up, so ranks and
+ * pages never have to wait on the database. Levels can also change without a level up (admin commands, resets, edits to the database),
+ * so the leaderboards can optionally be refreshed from the database every {@code Configuration.LeaderboardConsistencyCheck} minutes.
+ * <p>
+ * The leaderboards in use are held in a {@link LeaderboardSnapshot} that never changes. A refresh loads every leaderboard and swaps in
+ * a new snapshot all at once, and only one refresh runs at a time no matter how often one is asked for. A level up swaps in a new
+ * snapshot that only copies what it changed.
+ * <p>
+ * With {@link LeaderboardQueryMode#PAGED} only the top {@code Configuration.LeaderboardPagedSize} players of each leaderboard are kept in
+ * memory. The ranks of players below that are looked up from the database when asked for and reused for a minute. Players who drop
+ * below the lowest level kept are taken off, since players who aren't kept could now be above them.
+ */
 public class LeaderboardManager {
 
-    private List<PlayerLeaderboardData> powerLevel;
-    private Map<Skills, List<PlayerLeaderboardData>> skillSets;
+    private static final long RANK_LOOKUP_COOLDOWN_MILLIS = 60 * 1000;
 
-    private Map<Skills, Map<UUID, Integer>> playerSkillRanks;
-    private Map<UUID, Integer> playerPowerMap;
+    private volatile LeaderboardSnapshot snapshot = LeaderboardSnapshot.empty();
+    private final LeaderboardQueryMode queryMode;
+    private final int pagedSize;
 
-    private List<UUID> loadingPlayers = new ArrayList<>();
-    private long lastTimeRan = 0;
-    private long lastTimeCompleted = 0;
+    private volatile boolean initialized = false;
+    //How many rank lookups are running for each player, only used with paged leaderboards
+    private final Map<UUID, Integer> rankLookups = new ConcurrentHashMap<>();
+
+    private CompletableFuture<LeaderboardSnapshot> refreshInFlight;
+    private long completedRefreshes = 0;
+    private long failedRefreshes = 0;
+    private long coalescedRefreshes = 0;
+    private long lastRefreshDurationMillis = -1;
+    private long lastRefreshTime = 0;
     private McRPG plugin;
-    private static final Calendar cal = Calendar.getInstance();
 
     public LeaderboardManager(McRPG plugin) {
         this.plugin = plugin;
-        this.powerLevel = new ArrayList<>();
-        this.skillSets = new HashMap<>();
-        this.playerSkillRanks = new HashMap<>();
-        this.playerPowerMap = new HashMap<>();
+        this.queryMode = LeaderboardQueryMode.fromString(plugin.getFileManager().getFile(FileManager.Files.CONFIG).getString("Configuration.LeaderboardQueryMode", LeaderboardQueryMode.FULL.name()));
+        this.pagedSize = Math.max(10, plugin.getFileManager().getFile(FileManager.Files.CONFIG).getInt("Configuration.LeaderboardPagedSize", 100));
         startLeaderBoardTask();
     }
 
     public boolean hasInit() {
-        return lastTimeCompleted != 0;
+        return initialized;
+    }
+
+    /**
+     * Gets the leaderboards as of the last refresh. Callers that need more than one leaderboard to line up with each other should get
+     * the snapshot once and read everything from it.
+     *
+     * @return The {@link LeaderboardSnapshot} currently in use
+     */
+    @NotNull
+    public LeaderboardSnapshot getSnapshot() {
+        return snapshot;
     }
 
     public List<PlayerLeaderboardData> getPowerPage(int page) {
-        if ((10 * page) - 10 > powerLevel.size()) {
-            page = 1;
-        }
-        int max = Math.min(10 * page, powerLevel.size());
-        return powerLevel.subList((10 * page) - 10, max);
+        return getPage(snapshot.getPowerLevel(), page);
     }
 
     public List<PlayerLeaderboardData> getSkillPage(int page, Skills skill) {
-        if ((10 * page) - 10 > skillSets.get(skill).size()) {
-            page = 1;
-        }
-        int max = Math.min(10 * page, skillSets.get(skill).size());
-        return skillSets.get(skill).subList((10 * page) - 10, max);
+        return getPage(snapshot.getSkill(skill), page);
+    }
+
+    /**
+     * Gets how the leaderboards are loaded from the database
+     *
+     * @return The {@link LeaderboardQueryMode} in use
+     */
+    @NotNull
+    public LeaderboardQueryMode getQueryMode() {
+        return queryMode;
     }
 
     public int getPlayersPowerRank(UUID uuid) {
-        if (playerPowerMap != null && playerPowerMap.containsKey(uuid)) {
-            return playerPowerMap.get(uuid);
-        }
-        else {
-            return -1;
-        }
+        int rank = snapshot.getPowerLevel().getRank(uuid);
+        return rank != -1 || queryMode == LeaderboardQueryMode.FULL ? rank : getRankBelowTop(uuid, null);
     }
 
     public int getPlayersSkillRank(UUID uuid, Skills skill) {
-        if (playerSkillRanks != null && playerSkillRanks.containsKey(skill) && playerSkillRanks.get(skill).containsKey(uuid)) {
-            return playerSkillRanks.get(skill).get(uuid);
-        }
-        else {
-            return -1;
-        }
+        int rank = snapshot.getSkill(skill).getRank(uuid);
+        return rank != -1 || queryMode == LeaderboardQueryMode.FULL ? rank : getRankBelowTop(uuid, skill);
     }
 
     public PlayerLeaderboardData getPowerPlayer(int rank) {
-        if (powerLevel.size() <= rank - 1) {
+        PlayerLeaderboardData playerLeaderboardData = snapshot.getPowerLevel().get(rank);
+        if (playerLeaderboardData == null) {
             Bukkit.getLogger().log(Level.WARNING, Methods.color("&cYou are trying to get the #" + rank + "s player power level and it does not exist. This may be because you are using a placeholder, if so ignore this"));
-            return null;
         }
-        return powerLevel.get(rank - 1);
+        return playerLeaderboardData;
     }
 
     public PlayerLeaderboardData getSkillPlayer(int rank, Skills skill) {
-        if (skillSets.get(skill).size() <= rank - 1) {
+        PlayerLeaderboardData playerLeaderboardData = snapshot.getSkill(skill).get(rank);
+        if (playerLeaderboardData == null) {
             Bukkit.getLogger().log(Level.WARNING, Methods.color("&cYou are trying to get the #" + rank + "s player " + skill.getName() + " level and it does not exist. This may be because you are using a placeholder, if so ignore this"));
-            return null;
         }
-        return skillSets.get(skill).get(rank - 1);
+        return playerLeaderboardData;
     }
 
+    /**
+     * Updates the {@link PlayerRank} stored on the provided player for the provided leaderboard type.
+     * <p>
+     * Ranks are looked up straight from the leaderboards in memory, unless the leaderboards are paged and the player isn't in the top of
+     * that leaderboard, in which case their rank is loaded from the database.
+     *
+     * @param player The player to update the rank of
+     * @param type   Either {@code power} or the name of a skill
+     * @return {@code true} if the rank is being loaded from the database, or {@code false} if it was updated right away
+     */
     public boolean updateRank(McRPGPlayer player, String type) {
+        long now = System.currentTimeMillis();
         if (type.equalsIgnoreCase("power") || type.equalsIgnoreCase("powerlevel")) {
-            if (player.getPowerRank() == null || player.getPowerRank().getLastTimeUpdated() > lastTimeCompleted) {
-                generatePlayerPowerRank(player);
-                return true;
-            }
-            else {
+            int rank = snapshot.getPowerLevel().getRank(player.getUuid());
+            if (rank != -1 || queryMode == LeaderboardQueryMode.FULL) {
+                player.setPowerRank(new PlayerRank(rank, now));
                 return false;
             }
+            lookupRank(player, null);
+            return true;
         }
         else if (Skills.isSkill(type)) {
             Skills skill = Skills.fromString(type);
-            if (!player.getSkillRanks().containsKey(skill) || player.getSkillRanks().get(skill).getLastTimeUpdated() > lastTimeCompleted) {
-                generatePlayerSkillRank(player, skill);
-                return true;
-            }
-            else {
+            int rank = snapshot.getSkill(skill).getRank(player.getUuid());
+            if (rank != -1 || queryMode == LeaderboardQueryMode.FULL) {
+                player.getSkillRanks().put(skill, new PlayerRank(rank, now));
                 return false;
             }
+            lookupRank(player, skill);
+            return true;
         }
-        else {
-            return false;
-        }
+        return false;
     }
 
+    /**
+     * Checks if the provided player's ranks are still being worked out, which is the case until the leaderboards first load and while
+     * any of their ranks are being looked up from the database
+     *
+     * @param player The player to check
+     * @return {@code true} if the player's ranks are still being worked out
+     */
     public boolean isLoading(McRPGPlayer player) {
-        return loadingPlayers.contains(player.getUuid());
+        return !initialized || rankLookups.containsKey(player.getUuid());
     }
 
-    private void generatePlayerPowerRank(McRPGPlayer player) {
-        loadingPlayers.add(player.getUuid());
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                int i = 0;
-                for (PlayerLeaderboardData data : powerLevel) {
-                    i++;
-                    if (data.getUUID().equals(player.getUuid())) {
-                        break;
-                    }
-                }
-                if (PlayerManager.isPlayerStored(player.getUuid())) {
-                    player.setPowerRank(new PlayerRank(i, cal.getTimeInMillis()));
-                }
-                loadingPlayers.remove(player.getUuid());
-            }
-        }.runTaskAsynchronously(plugin);
+    /**
+     * Updates the provided player's spot on the leaderboard for the provided skill as well as the power level leaderboard by swapping in
+     * a new {@link LeaderboardSnapshot}. Must be called on the main thread whenever the player's level in that skill changes, which is
+     * also where refreshes are swapped in, so that neither can lose the other's changes.
+     *
+     * @param player The player whose level changed
+     * @param skill  The skill whose level changed
+     */
+    public void updatePlayer(McRPGPlayer player, Skills skill) {
+        Skill playerSkill = player.getSkill(skill);
+        if (playerSkill == null) {
+            return;
+        }
+        LeaderboardSnapshot currentSnapshot = snapshot;
+        LeaderboardIndex skillIndex = trimToPagedSize(currentSnapshot.getSkill(skill).update(player.getUuid(), playerSkill.getCurrentLevel()));
+        LeaderboardIndex powerIndex = trimToPagedSize(currentSnapshot.getPowerLevel().update(player.getUuid(), player.updatePowerLevel()));
+        if (skillIndex == currentSnapshot.getSkill(skill) && powerIndex == currentSnapshot.getPowerLevel()) {
+            return;
+        }
+        synchronized (this) {
+            snapshot = currentSnapshot.next(powerIndex, Map.of(skill, skillIndex));
+        }
     }
 
-    private void generatePlayerSkillRank(McRPGPlayer player, Skills skill) {
-        loadingPlayers.add(player.getUuid());
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                int i = 0;
-                List<PlayerLeaderboardData> playerLeaderboardData = skillSets.get(skill);
-                for (PlayerLeaderboardData data : playerLeaderboardData) {
-                    i++;
-                    if (data.getUUID().equals(player.getUuid())) {
-                        break;
-                    }
-                }
-                if (PlayerManager.isPlayerStored(player.getUuid())) {
-                    player.getSkillRanks().put(skill, new PlayerRank(i, cal.getTimeInMillis()));
-                }
-                loadingPlayers.remove(player.getUuid());
-            }
-        }.runTaskAsynchronously(plugin);
-    }
+    /**
+     * Reloads every leaderboard from the database and swaps them all in at once when done.
+     * <p>
+     * Only one refresh runs at a time. Asking for a refresh while one is running doesn't start another, it just returns the one that is
+     * already running.
+     *
+     * @return A {@link CompletableFuture} completed on the main thread with the new {@link LeaderboardSnapshot} once it is in use, or
+     * completed exceptionally if the refresh failed
+     */
+    @NotNull
+    public synchronized CompletableFuture<LeaderboardSnapshot> refresh() {
+        if (refreshInFlight != null) {
+            coalescedRefreshes++;
+            return refreshInFlight;
+        }
 
-    private void startLeaderBoardTask() {
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (lastTimeRan == 0 || lastTimeRan < lastTimeCompleted) {
-                    updateLeaderboards();
-                }
-            }
-        }.runTaskTimer(plugin, 5 * 20, 5 * 60 * 20);
-    }
+        long startTime = System.nanoTime();
+        CompletableFuture<LeaderboardSnapshot> refreshFuture = new CompletableFuture<>();
+        refreshInFlight = refreshFuture;
 
-    private void updateLeaderboards() {
+        loadLeaderboards()
+                .thenAccept(loadedLeaderboards -> Bukkit.getScheduler().runTask(plugin, () -> finishRefresh(refreshFuture, loadedLeaderboards, startTime)))
+                .exceptionally(throwable -> {
+                    throwable.printStackTrace();
+                    Bukkit.getScheduler().runTask(plugin, () -> failRefresh(refreshFuture, throwable));
+                    return null;
+                });
 
-        lastTimeRan = cal.getTimeInMillis();
+        return refreshFuture;
+    }
 
-        new BukkitRunnable() {
+    /**
+     * Gets how the leaderboard refreshes have been going. The same numbers are logged to the console whenever a refresh finishes or fails.
+     *
+     * @return The {@link LeaderboardRefreshStats} as of right now
+     */
+    @NotNull
+    public synchronized LeaderboardRefreshStats getRefreshStats() {
+        return new LeaderboardRefreshStats(snapshot.getGeneration(), refreshInFlight != null, completedRefreshes, failedRefreshes, coalescedRefreshes,
+                lastRefreshDurationMillis, lastRefreshTime);
+    }
 
-            @Override
-            public void run() {
+    private List<PlayerLeaderboardData> getPage(LeaderboardIndex leaderboardIndex, int page) {
+        if ((10 * page) - 10 > leaderboardIndex.size()) {
+            page = 1;
+        }
+        return leaderboardIndex.getRange((10 * page) - 10, 10 * page);
+    }
 
-                assert McRPG.getInstance().getDatabaseManager().getDatabase() != null;
-                Connection connection = McRPG.getInstance().getDatabaseManager().getDatabase().getConnection();
+    /**
+     * Gets the rank of a player who isn't in the top of a paged leaderboard. The rank is loaded from the database in the background and
+     * stored on the player, so the rank from the last lookup is returned until the new one is loaded.
+     *
+     * @param uuid  The {@link UUID} of the player
+     * @param skill The skill to get the rank for, or {@code null} for power level
+     * @return The player's last looked up rank, or {@code -1} if it hasn't been looked up yet or the player isn't loaded
+     */
+    private int getRankBelowTop(@NotNull UUID uuid, @Nullable Skills skill) {
+        McRPGPlayer mcRPGPlayer;
+        try {
+            mcRPGPlayer = PlayerManager.getPlayer(uuid);
+        }
+        catch (McRPGPlayerNotFoundException e) {
+            return -1;
+        }
 
+        PlayerRank playerRank = skill == null ? mcRPGPlayer.getPowerRank() : mcRPGPlayer.getSkillRanks().get(skill);
+        if (playerRank == null || System.currentTimeMillis() - playerRank.getLastTimeUpdated() > RANK_LOOKUP_COOLDOWN_MILLIS) {
+            lookupRank(mcRPGPlayer, skill);
+        }
+        return playerRank == null ? -1 : playerRank.getRank();
+    }
 
-                for (Skills skillType : Skills.values()) {
+    /**
+     * Loads the provided player's rank from the database and stores it on them once loaded. The player's last rank is marked as updated
+     * right away so that placeholders asking for it every tick don't start a lookup each time.
+     */
+    private void lookupRank(@NotNull McRPGPlayer mcRPGPlayer, @Nullable Skills skill) {
+        PlayerRank lastRank = skill == null ? mcRPGPlayer.getPowerRank() : mcRPGPlayer.getSkillRanks().get(skill);
+        setRank(mcRPGPlayer, skill, new PlayerRank(lastRank == null ? -1 : lastRank.getRank(), System.currentTimeMillis()));
+
+        assert McRPG.getInstance().getDatabaseManager().getDatabase() != null;
+        Connection connection = McRPG.getInstance().getDatabaseManager().getDatabase().getConnection();
+        UUID uuid = mcRPGPlayer.getUuid();
+        rankLookups.merge(uuid, 1, Integer::sum);
+
+        try {
+            McRPG.getInstance().getDatabaseManager().getDatabaseExecutorService().runWithPriority(DatabaseTaskPriority.BACKGROUND, () -> {
+                CompletableFuture<Integer> rankFuture = skill == null ? PlayerDataDAO.getPlayerPowerLeaderboardRank(connection, uuid)
+                                                            : SkillDAO.getPlayerLeaderboardRank(connection, uuid, skill);
+                rankFuture.thenAccept(rank -> Bukkit.getScheduler().runTask(plugin, () -> {
+                            setRank(mcRPGPlayer, skill, new PlayerRank(rank, System.currentTimeMillis()));
+                            finishRankLookup(uuid);
+                        }))
+                        .exceptionally(throwable -> {
+                            throwable.printStackTrace();
+                            finishRankLookup(uuid);
+                            return null;
+                        });
+            });
+        }
+        catch (RejectedExecutionException e) {
+            //The database is busy, so the last known rank is kept until the next lookup
+            finishRankLookup(uuid);
+        }
+    }
 
-                    SkillDAO.getPlayerLeaderboardRankings(connection, skillType)
-                            .thenAccept(leaderboardData -> {
+    private void finishRankLookup(@NotNull UUID uuid) {
+        rankLookups.computeIfPresent(uuid, (key, lookups) -> lookups > 1 ? lookups - 1 : null);
+    }
 
-                                List<PlayerLeaderboardData> playerLeaderboardData = leaderboardData.playerLeaderboardData();
-                                Map<UUID, Integer> playerRankings = leaderboardData.playerRankings();
+    private static void setRank(@NotNull McRPGPlayer mcRPGPlayer, @Nullable Skills skill, @NotNull PlayerRank playerRank) {
+        if (skill == null) {
+            mcRPGPlayer.setPowerRank(playerRank);
+        }
+        else {
+            mcRPGPlayer.getSkillRanks().put(skill, playerRank);
+        }
+    }
 
-                                playerSkillRanks.put(skillType, playerRankings);
-                                skillSets.put(skillType, playerLeaderboardData);
+    /**
+     * Drops the lowest players from the provided leaderboard until it is back down to the paged size, so that paged leaderboards only
+     * ever hold the top players even as others level up into them
+     *
+     * @return The trimmed leaderboard, or the provided one if it didn't need trimming
+     */
+    @NotNull
+    private LeaderboardIndex trimToPagedSize(@NotNull LeaderboardIndex leaderboardIndex) {
+        return queryMode == LeaderboardQueryMode.PAGED ? leaderboardIndex.trim(pagedSize) : leaderboardIndex;
+    }
 
-                            })
-                            .exceptionally(throwable -> {
-                                throwable.printStackTrace();
-                                return null;
-                            });
+    private void startLeaderBoardTask() {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                refresh();
+            }
+        }.runTaskLater(plugin, 5 * 20);
+
+        int checkInterval = plugin.getFileManager().getFile(FileManager.Files.CONFIG).getInt("Configuration.LeaderboardConsistencyCheck", 30);
+        if (checkInterval > 0) {
+            new BukkitRunnable() {
+                @Override
+                public void run() {
+                    refresh();
                 }
+            }.runTaskTimer(plugin, checkInterval * 1200L, checkInterval * 1200L);
+        }
+    }
+
+    /**
+     * Loads every leaderboard from the database without touching the ones in use. Paged leaderboards only load their top players, with
+     * power levels read from the stored power level of each player instead of being summed up.
+     */
+    @NotNull
+    private CompletableFuture<LoadedLeaderboards> loadLeaderboards() {
 
-                SkillDAO.getPlayerPowerLeaderboardRankings(connection)
-                        .thenAccept(leaderboardData -> {
+        CompletableFuture<LoadedLeaderboards> loadFuture = new CompletableFuture<>();
 
-                            List<PlayerLeaderboardData> playerLeaderboardData = leaderboardData.playerLeaderboardData();
-                            Map<UUID, Integer> playerRankings = leaderboardData.playerRankings();
+        assert McRPG.getInstance().getDatabaseManager().getDatabase() != null;
+        Connection connection = McRPG.getInstance().getDatabaseManager().getDatabase().getConnection();
 
-                            powerLevel = playerLeaderboardData;
-                            playerPowerMap = playerRankings;
+        //Leaderboards are refreshed in the background so they never hold up player loads
+        try {
+            McRPG.getInstance().getDatabaseManager().getDatabaseExecutorService().runWithPriority(DatabaseTaskPriority.BACKGROUND, () -> {
 
+                Map<Skills, CompletableFuture<LeaderboardData>> skillFutures = new EnumMap<>(Skills.class);
+                boolean paged = queryMode == LeaderboardQueryMode.PAGED;
+                for (Skills skillType : Skills.values()) {
+                    skillFutures.put(skillType, paged ? SkillDAO.getPlayerLeaderboardPage(connection, skillType, 0, pagedSize)
+                                                    : SkillDAO.getPlayerLeaderboardRankings(connection, skillType));
+                }
+                CompletableFuture<LeaderboardData> powerFuture = paged ? PlayerDataDAO.getPlayerPowerLeaderboardPage(connection, 0, pagedSize)
+                                                                     : SkillDAO.getPlayerPowerLeaderboardRankings(connection);
+
+                List<CompletableFuture<LeaderboardData>> allFutures = new ArrayList<>(skillFutures.values());
+                allFutures.add(powerFuture);
+
+                CompletableFuture.allOf(allFutures.toArray(new CompletableFuture[0]))
+                        .thenAccept(unused -> {
+                            Map<Skills, LeaderboardIndex> skills = new EnumMap<>(Skills.class);
+                            for (Map.Entry<Skills, CompletableFuture<LeaderboardData>> entry : skillFutures.entrySet()) {
+                                skills.put(entry.getKey(), toIndex(entry.getValue().join(), paged));
+                            }
+                            loadFuture.complete(new LoadedLeaderboards(toIndex(powerFuture.join(), paged), skills));
                         })
                         .exceptionally(throwable -> {
-                            throwable.printStackTrace();
+                            loadFuture.completeExceptionally(throwable);
                             return null;
                         });
-                lastTimeCompleted = cal.getTimeInMillis();
+            });
+        }
+        catch (RejectedExecutionException e) {
+            loadFuture.completeExceptionally(e);
+        }
+
+        return loadFuture;
+    }
+
+    /**
+     * Swaps in newly loaded leaderboards as the next {@link LeaderboardSnapshot}. Players who are loaded in memory may have levels that
+     * haven't been saved yet, so their spots are updated from memory first. This runs on the main thread so that no level ups can happen
+     * between that and the swap.
+     */
+    private void finishRefresh(@NotNull CompletableFuture<LeaderboardSnapshot> refreshFuture, @NotNull LoadedLeaderboards loadedLeaderboards, long startTime) {
+        Map<Skills, LeaderboardIndex> skills = new EnumMap<>(loadedLeaderboards.skills());
+        LeaderboardIndex powerLevel = loadedLeaderboards.powerLevel();
+        List<McRPGPlayer> storedPlayers = new ArrayList<>();
+        PlayerManager.forEachStoredPlayer(storedPlayers::add);
+        for (McRPGPlayer mcRPGPlayer : storedPlayers) {
+            for (Skills skill : Skills.values()) {
+                Skill playerSkill = mcRPGPlayer.getSkill(skill);
+                if (playerSkill != null) {
+                    skills.put(skill, skills.get(skill).update(mcRPGPlayer.getUuid(), playerSkill.getCurrentLevel()));
+                }
             }
+            powerLevel = powerLevel.update(mcRPGPlayer.getUuid(), mcRPGPlayer.getPowerLevel());
+        }
+        skills.replaceAll((skill, leaderboardIndex) -> trimToPagedSize(leaderboardIndex));
+
+        LeaderboardSnapshot refreshedSnapshot;
+        synchronized (this) {
+            refreshedSnapshot = snapshot.next(trimToPagedSize(powerLevel), skills);
+            snapshot = refreshedSnapshot;
+            initialized = true;
+            completedRefreshes++;
+            lastRefreshDurationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            lastRefreshTime = System.currentTimeMillis();
+            refreshInFlight = null;
+        }
+        LeaderboardRefreshStats refreshStats = getRefreshStats();
+        plugin.getLogger().log(Level.INFO, "Refreshed leaderboards to generation " + refreshStats.generation() + " in "
+                + refreshStats.lastRefreshDurationMillis() + "ms (" + refreshStats.coalescedRefreshes() + " requests merged into a running refresh and "
+                + refreshStats.failedRefreshes() + " failed refreshes since startup).");
+        refreshFuture.complete(refreshedSnapshot);
+    }
+
+    private void failRefresh(@NotNull CompletableFuture<LeaderboardSnapshot> refreshFuture, @NotNull Throwable throwable) {
+        synchronized (this) {
+            failedRefreshes++;
+            refreshInFlight = null;
+        }
+        LeaderboardRefreshStats refreshStats = getRefreshStats();
+        plugin.getLogger().log(Level.WARNING, "Failed to refresh leaderboards, still using generation " + refreshStats.generation() + " ("
+                + refreshStats.failedRefreshes() + " failed refreshes since startup).");
+        refreshFuture.completeExceptionally(throwable);
+    }
+
+    /**
+     * Builds a leaderboard from what was loaded. A full page may have left players out of the database, and those players can have the
+     * same level as the lowest player in the page, so that level becomes the minimum level of the leaderboard.
+     */
+    @NotNull
+    private LeaderboardIndex toIndex(@NotNull LeaderboardData leaderboardData, boolean paged) {
+        LeaderboardIndex leaderboardIndex = LeaderboardIndex.empty();
+        for (PlayerLeaderboardData playerLeaderboardData : leaderboardData.playerLeaderboardData()) {
+            leaderboardIndex = leaderboardIndex.update(playerLeaderboardData.getUUID(), playerLeaderboardData.getLevel());
+        }
+        PlayerLeaderboardData lowestPlayer = leaderboardIndex.get(leaderboardIndex.size());
+        if (paged && lowestPlayer != null && leaderboardIndex.size() >= pagedSize) {
+            leaderboardIndex = leaderboardIndex.withMinimumLevel(lowestPlayer.getLevel());
+        }
+        return leaderboardIndex;
+    }
 
-        }.runTaskTimer(McRPG.getInstance(), 0L, 5 * 60 * 20);
+    /**
+     * Every leaderboard as loaded from the database by a refresh, before the players loaded in memory are added
+     */
+    private record LoadedLeaderboards(@NotNull LeaderboardIndex powerLevel, @NotNull Map<Skills, LeaderboardIndex> skills) {
     }
 }
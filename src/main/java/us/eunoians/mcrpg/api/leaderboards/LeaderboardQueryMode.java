@@ -0,0 +1,28 @@
+package us.eunoians.mcrpg.api.leaderboards;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * How {@link LeaderboardManager} loads the leaderboards from the database, set by {@code Configuration.LeaderboardQueryMode} in the config.yml
+ *
+ * @author DiamondDagger590
+ */
+public enum LeaderboardQueryMode {
+
+    /**
+     * Every player on every leaderboard is loaded into memory, so every rank can be read without going to the database
+     */
+    FULL,
+    /**
+     * Only the top players of each leaderboard are loaded into memory, ranked by the database. The ranks of players below them are looked
+     * up from the database when asked for
+     */
+    PAGED;
+
+    @NotNull
+    public static LeaderboardQueryMode fromString(@NotNull String mode) {
+        return Arrays.stream(values()).filter(queryMode -> queryMode.name().equalsIgnoreCase(mode)).findFirst().orElse(FULL);
+    }
+}
@@ -0,0 +1,17 @@
+package us.eunoians.mcrpg.api.leaderboards;
+
+/**
+ * How the leaderboard refreshes done by {@link LeaderboardManager} have been going, for keeping an eye on how much work they are doing
+ *
+ * @param generation                The generation of the snapshot that is currently in use
+ * @param refreshing                If a refresh is running right now
+ * @param completedRefreshes        How many refreshes have finished since startup
+ * @param failedRefreshes           How many refreshes have failed since startup
+ * @param coalescedRefreshes        How many times a refresh was asked for while one was already running and was merged into it
+ * @param lastRefreshDurationMillis How long the last finished refresh took from starting to being swapped in, or {@code -1} if none have finished
+ * @param lastRefreshTime           When the last refresh finished as epoch millis, or {@code 0} if none have finished
+ * @author DiamondDagger590
+ */
+public record LeaderboardRefreshStats(long generation, boolean refreshing, long completedRefreshes, long failedRefreshes, long coalescedRefreshes,
+                                      long lastRefreshDurationMillis, long lastRefreshTime) {
+}
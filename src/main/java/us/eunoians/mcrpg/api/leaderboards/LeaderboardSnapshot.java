@@ -0,0 +1,89 @@
+package us.eunoians.mcrpg.api.leaderboards;
+
+import org.jetbrains.annotations.NotNull;
+import us.eunoians.mcrpg.types.Skills;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Every leaderboard at one point in time. A snapshot never changes once created: {@link LeaderboardManager} swaps in a whole new snapshot
+ * at once when a refresh finishes or a player levels up, so readers never see some leaderboards from one change and some from another.
+ * <p>
+ * A snapshot made for a level up shares every leaderboard that didn't change with the snapshot before it, and the ones that did change
+ * share everything but the changed path with their old versions, so a level up doesn't copy whole leaderboards.
+ *
+ * @author DiamondDagger590
+ */
+public final class LeaderboardSnapshot {
+
+    private final long generation;
+    private final LeaderboardIndex powerLevel;
+    private final Map<Skills, LeaderboardIndex> skills;
+
+    LeaderboardSnapshot(long generation, @NotNull LeaderboardIndex powerLevel, @NotNull Map<Skills, LeaderboardIndex> skills) {
+        this.generation = generation;
+        this.powerLevel = powerLevel;
+        this.skills = Collections.unmodifiableMap(new EnumMap<>(skills));
+    }
+
+    /**
+     * Creates a snapshot with every leaderboard empty, used until the first refresh finishes
+     *
+     * @return An empty snapshot
+     */
+    @NotNull
+    static LeaderboardSnapshot empty() {
+        Map<Skills, LeaderboardIndex> skills = new EnumMap<>(Skills.class);
+        for (Skills skill : Skills.values()) {
+            skills.put(skill, LeaderboardIndex.empty());
+        }
+        return new LeaderboardSnapshot(0, LeaderboardIndex.empty(), skills);
+    }
+
+    /**
+     * Creates the snapshot that follows this one, with the provided leaderboards swapped in and every other leaderboard kept
+     *
+     * @param powerLevel    The power level leaderboard of the new snapshot
+     * @param changedSkills The skill leaderboards that changed
+     * @return The next generation of this snapshot
+     */
+    @NotNull
+    LeaderboardSnapshot next(@NotNull LeaderboardIndex powerLevel, @NotNull Map<Skills, LeaderboardIndex> changedSkills) {
+        Map<Skills, LeaderboardIndex> skills = new EnumMap<>(this.skills);
+        skills.putAll(changedSkills);
+        return new LeaderboardSnapshot(generation + 1, powerLevel, skills);
+    }
+
+    /**
+     * Gets which change this snapshot came from. The empty snapshot used before the first refresh is generation 0, and every snapshot
+     * swapped in after that, whether from a refresh or a level up, is one higher than the last
+     *
+     * @return Which change this snapshot came from
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Gets the power level leaderboard
+     *
+     * @return The power level leaderboard
+     */
+    @NotNull
+    public LeaderboardIndex getPowerLevel() {
+        return powerLevel;
+    }
+
+    /**
+     * Gets the leaderboard for the provided skill
+     *
+     * @param skill The skill to get the leaderboard for
+     * @return The leaderboard for the provided skill
+     */
+    @NotNull
+    public LeaderboardIndex getSkill(@NotNull Skills skill) {
+        return skills.get(skill);
+    }
+}
@@ -0,0 +1,202 @@
+package us.eunoians.mcrpg.api.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import us.eunoians.mcrpg.McRPG;
+import us.eunoians.mcrpg.api.events.mcrpg.FakeBlockBreakEvent;
+import us.eunoians.mcrpg.api.util.protection.AreaProtectionCheck;
+import us.eunoians.mcrpg.api.util.protection.AreaProtectionMode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Breaks the blocks of area abilities such as Heavy Swing and Larger Spade over the following ticks instead of all at once.
+ * <p>
+ * Every tick the queued breaks are drained until the time budget set by {@code Configuration.AreaBreakTickBudget} runs out,
+ * taking one block from each queued break in turn so that one large area doesn't hold up everyone else's. Whether the player is allowed
+ * to break each block is decided by the {@link AreaProtectionCheck} set by {@code Configuration.AreaBreakProtection.Mode}.
+ * <p>
+ * A block is skipped if its chunk has unloaded or its type changed since it was queued, and all of a player's breaks are dropped
+ * if they log out.
+ *
+ * @author DiamondDagger590
+ */
+public class AreaBreakScheduler {
+
+  private static final double DEFAULT_TICK_BUDGET_MILLIS = 2;
+
+  private final ArrayDeque<AreaBreak> queue = new ArrayDeque<>();
+  private final BukkitTask task;
+  private AreaProtectionCheck protectionCheck;
+  private long tickBudgetNanos;
+
+  public AreaBreakScheduler(@NotNull McRPG plugin) {
+    reload();
+    task = new BukkitRunnable() {
+      @Override
+      public void run() {
+        drain(tickBudgetNanos);
+      }
+    }.runTaskTimer(plugin, 1, 1);
+  }
+
+  /**
+   * Queues the provided blocks to be broken by the provided player. Must be called on the main thread.
+   * <p>
+   * The tool the player is holding and the type of each block are captured now, so the drops are the same as if the blocks
+   * were broken right away and any block that changes before its turn is left alone.
+   *
+   * @param player           The player breaking the blocks
+   * @param blocks           The blocks to break
+   * @param testEventFactory Creates the test event for a block, for protection checks that fire one
+   */
+  public void queue(@NotNull Player player, @NotNull List<Block> blocks, @NotNull BiFunction<Player, Block, FakeBlockBreakEvent> testEventFactory) {
+    List<Block> toBreak = new ArrayList<>(blocks.size());
+    for(Block block : blocks) {
+      if(block != null && block.getType() != Material.AIR) {
+        toBreak.add(block);
+      }
+    }
+    if(toBreak.isEmpty()) {
+      return;
+    }
+    toBreak = protectionCheck.filterArea(player, toBreak, testEventFactory);
+    if(toBreak.isEmpty()) {
+      return;
+    }
+    int size = toBreak.size();
+    Block[] blockArray = toBreak.toArray(new Block[size]);
+    Material[] types = new Material[size];
+    for(int i = 0; i < size; i++) {
+      types[i] = blockArray[i].getType();
+    }
+    ItemStack tool = player.getItemInHand();
+    queue.add(new AreaBreak(player.getUniqueId(), tool == null ? null : tool.clone(), blockArray, types, testEventFactory));
+  }
+
+  /**
+   * Drops every break queued for the provided player and forgets any protection checks cached for them
+   *
+   * @param uuid The {@link UUID} of the player to drop the breaks of
+   */
+  public void cancel(@NotNull UUID uuid) {
+    queue.removeIf(areaBreak -> areaBreak.playerUUID.equals(uuid));
+    protectionCheck.invalidate(uuid);
+  }
+
+  /**
+   * Reads {@code Configuration.AreaBreakTickBudget} and {@code Configuration.AreaBreakProtection} from the config.yml again, throwing away
+   * anything the old protection check had cached
+   */
+  public void reload() {
+    FileConfiguration config = McRPG.getInstance().getFileManager().getFile(FileManager.Files.CONFIG);
+    double millis = config.getDouble("Configuration.AreaBreakTickBudget", DEFAULT_TICK_BUDGET_MILLIS);
+    tickBudgetNanos = (long) (Math.max(0, millis) * 1_000_000);
+    protectionCheck = AreaProtectionMode.createCheck(config);
+  }
+
+  /**
+   * Checks to see if the provided player has any blocks waiting to be broken
+   *
+   * @param uuid The {@link UUID} of the player to check
+   * @return {@code true} if the player has any blocks waiting to be broken
+   */
+  public boolean hasQueuedBreaks(@NotNull UUID uuid) {
+    for(AreaBreak areaBreak : queue) {
+      if(areaBreak.playerUUID.equals(uuid)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Stops draining every tick and breaks everything still queued right away. Should be called on disable so that an ability that
+   * was already activated isn't lost.
+   */
+  public void shutdown() {
+    task.cancel();
+    drain(Long.MAX_VALUE);
+  }
+
+  private void drain(long budgetNanos) {
+    if(queue.isEmpty()) {
+      return;
+    }
+    long start = System.nanoTime();
+    //Always try at least one block a tick so that a tiny budget can't stall the queue
+    do {
+      AreaBreak areaBreak = queue.poll();
+      Player player = Bukkit.getPlayer(areaBreak.playerUUID);
+      if(player == null || !player.isOnline()) {
+        continue;
+      }
+      areaBreak.breakNext(player, protectionCheck);
+      if(areaBreak.hasNext()) {
+        queue.add(areaBreak);
+      }
+    }
+    while(!queue.isEmpty() && System.nanoTime() - start < budgetNanos);
+  }
+
+  private static class AreaBreak {
+
+    private final UUID playerUUID;
+    @Nullable
+    private final ItemStack tool;
+    private final Block[] blocks;
+    private final Material[] types;
+    private final BiFunction<Player, Block, FakeBlockBreakEvent> testEventFactory;
+    private int next = 0;
+
+    private AreaBreak(@NotNull UUID playerUUID, @Nullable ItemStack tool, @NotNull Block[] blocks, @NotNull Material[] types,
+                      @NotNull BiFunction<Player, Block, FakeBlockBreakEvent> testEventFactory) {
+      this.playerUUID = playerUUID;
+      this.tool = tool;
+      this.blocks = blocks;
+      this.types = types;
+      this.testEventFactory = testEventFactory;
+    }
+
+    private boolean hasNext() {
+      return next < blocks.length;
+    }
+
+    /**
+     * Breaks the next block in this area if it hasn't changed since it was queued
+     *
+     * @param player          The player breaking the blocks
+     * @param protectionCheck The check deciding if the player is allowed to break the block
+     * @return {@code true} if the block was broken
+     */
+    private boolean breakNext(@NotNull Player player, @NotNull AreaProtectionCheck protectionCheck) {
+      Block block = blocks[next];
+      Material type = types[next];
+      blocks[next] = null;
+      next++;
+
+      World world = block.getWorld();
+      //Don't load a chunk just to break a block in it
+      if(!world.isChunkLoaded(block.getX() >> 4, block.getZ() >> 4) || block.getType() != type) {
+        return false;
+      }
+      if(!protectionCheck.canBreak(player, block, testEventFactory)) {
+        return false;
+      }
+      return tool == null ? block.breakNaturally() : block.breakNaturally(tool);
+    }
+  }
+}
@@ -12,7 +12,7 @@ import us.eunoians.mcrpg.players.McRPGPlayer;
 import us.eunoians.mcrpg.players.PlayerManager;
 import us.eunoians.mcrpg.types.DefaultAbilities;
 import us.eunoians.mcrpg.types.Skills;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
 
 import java.text.NumberFormat;
 
@@ -86,7 +86,7 @@ public class McRPGPlaceHolders extends PlaceholderExpansion {
     }
     else if(DefaultAbilities.getFromID(args[0]) != null && args[1].equalsIgnoreCase("Chance")){
       DefaultAbilities defaultAbility = DefaultAbilities.getFromID(args[0]);
-      Parser equation = defaultAbility.getActivationEquation();
+      ExpressionEvaluation equation = defaultAbility.getActivationEvaluation();
       equation.setVariable(defaultAbility.getSkill().getName().toLowerCase() + "_level", mp.getSkill(defaultAbility.getSkill()).getCurrentLevel());
       equation.setVariable("power_level", mp.getPowerLevel());
       NumberFormat nf = NumberFormat.getInstance();
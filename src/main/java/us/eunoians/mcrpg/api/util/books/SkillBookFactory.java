@@ -10,7 +10,8 @@ import us.eunoians.mcrpg.api.util.FileManager;
 import us.eunoians.mcrpg.api.util.Methods;
 import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
+import us.eunoians.mcrpg.util.ExpressionRegistry;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -48,7 +49,7 @@ public class SkillBookFactory {
     tempList.remove(skill.getDefaultAbility().getName().replace(" ", ""));
     List<UnlockedAbilities> enabledAbilities = tempList.stream().map(UnlockedAbilities::fromString).collect(Collectors.toList());
     HashMap<UnlockedAbilities, Double> chances = new HashMap<>();
-    Parser equation = new Parser(file.getString(key + "AbilityWeightEquation"));
+    ExpressionEvaluation equation = ExpressionRegistry.newEvaluation(file.getString(key + "AbilityWeightEquation"));
     for(UnlockedAbilities ab : enabledAbilities){
       if(ab == null){
         continue;
@@ -164,7 +165,7 @@ public class SkillBookFactory {
     tempList.remove(skill.getDefaultAbility().getName());
     List<UnlockedAbilities> enabledAbilities = tempList.stream().map(UnlockedAbilities::fromString).collect(Collectors.toList());
     HashMap<UnlockedAbilities, Double> chances = new HashMap<>();
-    Parser equation = new Parser(file.getString(key + "AbilityWeightEquation"));
+    ExpressionEvaluation equation = ExpressionRegistry.newEvaluation(file.getString(key + "AbilityWeightEquation"));
     for(UnlockedAbilities ab : enabledAbilities){
       if(ab == null){
         continue;
@@ -204,7 +205,7 @@ public class SkillBookFactory {
     String[] useTierData = file.getString(key + "UseTierRange").split("-");
     lowUseTier = Integer.parseInt(useTierData[0]);
     int tempHigh = useTierData.length > 1 ? Integer.parseInt(useTierData[1]) : lowUseTier;
-    Parser tierWeight = new Parser(file.getString(key + "UseTierWeight"));
+    ExpressionEvaluation tierWeight = ExpressionRegistry.newEvaluation(file.getString(key + "UseTierWeight"));
     int useTierChance = RANDOM.nextInt(100000);
     if(tempHigh > lowUseTier){
       for(int i = tempHigh; i >= lowUseTier; i--){
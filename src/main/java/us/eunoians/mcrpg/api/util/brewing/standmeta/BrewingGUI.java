@@ -52,7 +52,7 @@ import us.eunoians.mcrpg.types.DefaultAbilities;
 import us.eunoians.mcrpg.types.GainReason;
 import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
@@ -924,7 +924,7 @@ public class BrewingGUI extends GUI {
                 FileConfiguration sorceryFile = McRPG.getInstance().getFileManager().getFile(FileManager.Files.SORCERY_CONFIG);
                 if (sorceryFile.getBoolean("SorceryEnabled") && DefaultAbilities.HASTY_BREW.isEnabled() && mp.getBaseAbility(DefaultAbilities.HASTY_BREW).isToggled()) {
                     HastyBrew hastyBrew = (HastyBrew) mp.getBaseAbility(DefaultAbilities.HASTY_BREW);
-                    Parser parser = DefaultAbilities.HASTY_BREW.getActivationEquation();
+                    ExpressionEvaluation parser = DefaultAbilities.HASTY_BREW.getActivationEvaluation();
                     parser.setVariable("sorcery_level", mp.getSkill(Skills.SORCERY).getCurrentLevel());
                     parser.setVariable("power_level", mp.getPowerLevel());
                     double multiplier = parser.getValue();
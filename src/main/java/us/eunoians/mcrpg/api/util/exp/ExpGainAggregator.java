@@ -0,0 +1,165 @@
+package us.eunoians.mcrpg.api.util.exp;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.jetbrains.annotations.NotNull;
+import us.eunoians.mcrpg.McRPG;
+import us.eunoians.mcrpg.api.util.FileManager;
+import us.eunoians.mcrpg.players.McRPGPlayer;
+import us.eunoians.mcrpg.skills.Skill;
+import us.eunoians.mcrpg.types.GainReason;
+import us.eunoians.mcrpg.types.Skills;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Adds up the exp a player gains in one skill for one {@link GainReason} during a tick and gives it all at once on the next tick, so that
+ * something like an area break fires one {@link us.eunoians.mcrpg.api.events.mcrpg.McRPGPlayerExpGainEvent}, works out the player's level
+ * once and updates their exp display once instead of doing all of that for every block.
+ * <p>
+ * This is off unless {@code Configuration.ExpAggregation.Enabled} is set, and only the reasons listed in
+ * {@code Configuration.ExpAggregation.Reasons} are added up. The event given for added up gains reports how many gains went into it through
+ * {@link us.eunoians.mcrpg.api.events.mcrpg.McRPGPlayerExpGainEvent#getGainCount()}, so listeners that roll a chance for every gain can
+ * keep doing so.
+ * <p>
+ * World and region rules for added up gains are checked against where the player was for the first gain, so stepping into a region or
+ * another world before the next tick doesn't change how the exp is treated.
+ *
+ * @author DiamondDagger590
+ */
+public class ExpGainAggregator {
+
+  private final McRPG plugin;
+  private final Set<GainReason> aggregatedReasons = EnumSet.noneOf(GainReason.class);
+  private boolean enabled;
+
+  private Map<GainKey, PendingGain> pendingGains = new LinkedHashMap<>();
+  private boolean flushScheduled = false;
+
+  public ExpGainAggregator(@NotNull McRPG plugin) {
+    this.plugin = plugin;
+    reload();
+  }
+
+  /**
+   * Reads {@code Configuration.ExpAggregation} from the config.yml again, giving out any exp that is waiting first
+   */
+  public void reload() {
+    flush();
+    FileConfiguration config = plugin.getFileManager().getFile(FileManager.Files.CONFIG);
+    enabled = config.getBoolean("Configuration.ExpAggregation.Enabled", false);
+    aggregatedReasons.clear();
+    for(String reason : config.getStringList("Configuration.ExpAggregation.Reasons")) {
+      try {
+        aggregatedReasons.add(GainReason.valueOf(reason.toUpperCase()));
+      }
+      catch(IllegalArgumentException e) {
+        plugin.getLogger().warning("Unknown gain reason " + reason + " in Configuration.ExpAggregation.Reasons");
+      }
+    }
+  }
+
+  /**
+   * Holds onto the provided exp to be given with everything else the player gains in the same skill for the same reason this tick
+   *
+   * @param player     The player gaining the exp
+   * @param skill      The skill gaining the exp
+   * @param exp        The exp gained
+   * @param gainReason The reason the player is gaining the exp
+   * @return {@code true} if the exp will be given later, or {@code false} if it should be given right away
+   */
+  public boolean queue(@NotNull McRPGPlayer player, @NotNull Skill skill, int exp, @NotNull GainReason gainReason) {
+    if(!enabled || !aggregatedReasons.contains(gainReason) || !Bukkit.isPrimaryThread()) {
+      return false;
+    }
+    GainKey key = new GainKey(player.getUuid(), skill.getType(), gainReason);
+    PendingGain pendingGain = pendingGains.get(key);
+    if(pendingGain == null) {
+      pendingGain = new PendingGain(player, skill, gainReason, player.getPlayer().getLocation());
+      pendingGains.put(key, pendingGain);
+    }
+    pendingGain.exp += exp;
+    pendingGain.gainCount++;
+    if(!flushScheduled) {
+      flushScheduled = true;
+      Bukkit.getScheduler().runTask(plugin, this::flush);
+    }
+    return true;
+  }
+
+  /**
+   * Gives out all the exp that is waiting. Exp gained while this is running, such as exp shared with a party, waits for the next flush.
+   */
+  public void flush() {
+    flushScheduled = false;
+    if(pendingGains.isEmpty()) {
+      return;
+    }
+    Map<GainKey, PendingGain> toGive = pendingGains;
+    pendingGains = new LinkedHashMap<>();
+    for(PendingGain pendingGain : toGive.values()) {
+      pendingGain.give();
+    }
+  }
+
+  /**
+   * Gives out the exp waiting for the provided player right away, which should be done before they log out
+   *
+   * @param uuid The {@link UUID} of the player
+   */
+  public void flush(@NotNull UUID uuid) {
+    List<PendingGain> toGive = new ArrayList<>();
+    Iterator<Map.Entry<GainKey, PendingGain>> iterator = pendingGains.entrySet().iterator();
+    while(iterator.hasNext()) {
+      Map.Entry<GainKey, PendingGain> entry = iterator.next();
+      if(entry.getKey().uuid().equals(uuid)) {
+        iterator.remove();
+        toGive.add(entry.getValue());
+      }
+    }
+    //Given after removing since giving exp can queue more, such as exp shared with a party
+    for(PendingGain pendingGain : toGive) {
+      pendingGain.give();
+    }
+  }
+
+  /**
+   * Gives out everything that is waiting and gives all exp right away from here on. Should be called when the plugin disables.
+   */
+  public void shutdown() {
+    enabled = false;
+    flush();
+  }
+
+  private record GainKey(UUID uuid, Skills skill, GainReason reason) {
+  }
+
+  private static class PendingGain {
+
+    private final McRPGPlayer player;
+    private final Skill skill;
+    private final GainReason gainReason;
+    private final Location gainLocation;
+    private long exp;
+    private int gainCount;
+
+    private PendingGain(@NotNull McRPGPlayer player, @NotNull Skill skill, @NotNull GainReason gainReason, @NotNull Location gainLocation) {
+      this.player = player;
+      this.skill = skill;
+      this.gainReason = gainReason;
+      this.gainLocation = gainLocation;
+    }
+
+    private void give() {
+      skill.giveExp(player, (int) Math.min(exp, Integer.MAX_VALUE), gainReason, gainCount, gainLocation);
+    }
+  }
+}
@@ -4,12 +4,22 @@ import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+import org.jetbrains.annotations.NotNull;
 import us.eunoians.mcrpg.McRPG;
 import us.eunoians.mcrpg.api.util.FileManager;
 import us.eunoians.mcrpg.skills.Skill;
 import us.eunoians.mcrpg.types.Skills;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 public class ExpPermissionManager {
 
@@ -19,17 +29,25 @@ public class ExpPermissionManager {
 
   @Getter private HashMap<String, ExpPerm> permissions;
 
+  //The permissions that affect each skill, highest priority first
+  private final Map<Skills, List<ExpPerm>> permissionsBySkill = new EnumMap<>(Skills.class);
+  private final Map<UUID, PlayerPermBoosts> playerBoosts = new HashMap<>();
+  private long recheckMillis;
+
   public ExpPermissionManager(){
     permissions = new HashMap<>();
   }
 
   public void reload(){
     permissions.clear();
+    permissionsBySkill.clear();
+    playerBoosts.clear();
     setup(p);
   }
 
   public ExpPermissionManager setup(McRPG p){
     this.p = p;
+    recheckMillis = p.getFileManager().getFile(FileManager.Files.CONFIG).getInt("Configuration.ExpPermissionRecheck", 30) * 1000L;
     FileConfiguration expFile = p.getFileManager().getFile(FileManager.Files.EXP_PERM_FILE);
     for(String s : expFile.getConfigurationSection("").getKeys(false)){
       String perm = expFile.getString(s + ".Perm");
@@ -43,32 +61,108 @@ public class ExpPermissionManager {
       ExpPerm expPerm = new ExpPerm(perm, expVals, prio);
       permissions.put(perm, expPerm);
     }
+    for(ExpPerm expPerm : permissions.values()){
+      for(Skills skill : expPerm.getExpValues().keySet()){
+        if(skill != null){
+          permissionsBySkill.computeIfAbsent(skill, k -> new ArrayList<>()).add(expPerm);
+        }
+      }
+    }
+    for(List<ExpPerm> skillPermissions : permissionsBySkill.values()){
+      skillPermissions.sort(Comparator.comparingInt(ExpPerm::getPriority).reversed());
+    }
     return this;
   }
 
+  /**
+   * Gets the exp boost the provided player gets for the provided skill, which comes from the highest priority permission in the
+   * exp_perms.yml that the player has and that affects the skill.
+   * <p>
+   * The boosts are remembered for each player. A player's permissions are looked at again when they change worlds, when
+   * {@link #refreshPlayer(UUID)} is called and otherwise every {@code Configuration.ExpPermissionRecheck} seconds, and their boosts are
+   * only worked out again if their permissions actually changed.
+   *
+   * @param p     The player gaining exp
+   * @param skill The skill gaining exp
+   * @return The multiplier the player gets for the skill, or {@code 1} if they have no boost for it
+   */
   public double getPermBoost(Player p, Skill skill){
-    ExpPerm perm = null;
-    for(String s : permissions.keySet()){
-      if(p.hasPermission(s)){
-        if(perm != null){
-          if(perm.getPriority() < permissions.get(s).getPriority() && permissions.get(s).getExpValues().containsKey(skill.getType())){
-            perm = permissions.get(s);
-          }
-        }
-        else{
-          perm = permissions.get(s);
-        }
+    PlayerPermBoosts boosts = playerBoosts.get(p.getUniqueId());
+    if(boosts == null){
+      boosts = new PlayerPermBoosts();
+      playerBoosts.put(p.getUniqueId(), boosts);
+    }
+    boosts.validate(p, recheckMillis);
+    Double boost = boosts.boosts.get(skill.getType());
+    if(boost == null){
+      boost = findPermBoost(p, skill.getType());
+      boosts.boosts.put(skill.getType(), boost);
+    }
+    return boost;
+  }
+
+  /**
+   * Makes the provided player's exp boosts be worked out again the next time they gain exp. This is meant for permission plugins, or
+   * anything else that changes permissions, so that a rank change applies right away instead of at the next permission recheck.
+   *
+   * @param uuid The {@link UUID} of the player whose permissions changed
+   */
+  public void refreshPlayer(@NotNull UUID uuid){
+    playerBoosts.remove(uuid);
+  }
+
+  /**
+   * Makes every player's exp boosts be worked out again the next time they gain exp
+   */
+  public void refreshAll(){
+    playerBoosts.clear();
+  }
+
+  private double findPermBoost(@NotNull Player p, @NotNull Skills skill){
+    for(ExpPerm expPerm : permissionsBySkill.getOrDefault(skill, Collections.emptyList())){
+      if(p.hasPermission(expPerm.getPerm())){
+        return expPerm.getExpValues().get(skill);
       }
     }
-    if(perm == null){
-      return 1;
+    return 1;
+  }
+
+  /**
+   * Works out a value that changes whenever the provided player's effective permissions do
+   */
+  private static int getPermissionDigest(@NotNull Player p){
+    //Builds a new set every call, so only ask for it once
+    Set<PermissionAttachmentInfo> effectivePermissions = p.getEffectivePermissions();
+    int digest = 0;
+    //Added up so that the order the permissions come in doesn't matter
+    for(PermissionAttachmentInfo info : effectivePermissions){
+      digest += info.getPermission().hashCode() * 31 + (info.getValue() ? 1 : 0);
     }
-    else{
-      if(perm.getExpValues().containsKey(skill.getType())){
-        return perm.getExpValues().get(skill.getType());
+    return digest * 31 + effectivePermissions.size();
+  }
+
+  private static class PlayerPermBoosts {
+
+    private final Map<Skills, Double> boosts = new EnumMap<>(Skills.class);
+    private UUID worldUUID;
+    private long checkedAt;
+    private int permissionDigest;
+
+    /**
+     * Throws out the remembered boosts if the player's permissions changed since they were last looked at
+     */
+    private void validate(@NotNull Player p, long recheckMillis){
+      long now = System.currentTimeMillis();
+      //Permissions can be given per world, so always look again after changing worlds
+      if(p.getWorld().getUID().equals(worldUUID) && now - checkedAt < recheckMillis){
+        return;
       }
-      else{
-        return 1;
+      worldUUID = p.getWorld().getUID();
+      checkedAt = now;
+      int digest = getPermissionDigest(p);
+      if(digest != permissionDigest){
+        permissionDigest = digest;
+        boosts.clear();
       }
     }
   }
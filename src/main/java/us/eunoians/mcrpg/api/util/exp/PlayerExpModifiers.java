@@ -0,0 +1,238 @@
+package us.eunoians.mcrpg.api.util.exp;
+
+import de.tr7zw.changeme.nbtapi.NBTItem;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import us.eunoians.mcrpg.McRPG;
+import us.eunoians.mcrpg.api.util.WorldModifierManager;
+import us.eunoians.mcrpg.api.util.blood.BloodManager;
+import us.eunoians.mcrpg.types.Skills;
+
+import java.util.UUID;
+
+/**
+ * The exp modifiers of a single player that only change when the player does something, worked out once and kept until then instead of
+ * being worked out again on every exp gain.
+ * <p>
+ * This covers if McRPG is disabled in the player's world, the world's exp modifier and the blood items the player is holding and wearing.
+ * The world parts are worked out again when the player changes world and the blood items when the player's equipment changes. Everything
+ * is worked out again after {@code /mcrpg reload}. Exp permission boosts are remembered by the {@link ExpPermissionManager} itself.
+ * <p>
+ * Region exp multipliers aren't kept here since they depend on exactly where the player is, and are already looked up through the
+ * {@link us.eunoians.mcrpg.util.worldguard.WGRegionCache}.
+ *
+ * @author DiamondDagger590
+ */
+public class PlayerExpModifiers {
+
+  private static final int ARMOR_SLOTS = 4;
+  private static int configGeneration = 0;
+
+  private int generation = -1;
+
+  private UUID worldUUID;
+  private boolean worldDisabled;
+  @Nullable
+  private WorldModifierManager.ExpModifierWrapper worldModifier;
+
+  private boolean itemsDirty = true;
+  private int heldSlot = -1;
+  private Material heldType;
+  @Nullable
+  private BloodBoost heldBlood;
+  private final Material[] armorTypes = new Material[ARMOR_SLOTS];
+  private final BloodBoost[] armorBlood = new BloodBoost[ARMOR_SLOTS];
+
+  /**
+   * Makes every player's exp modifiers be worked out again the next time they gain exp. Should be called whenever the configs are reloaded.
+   */
+  public static void invalidateAll() {
+    configGeneration++;
+  }
+
+  /**
+   * Works out again anything that has changed since the last exp gain. Should be called before reading any of the modifiers for an exp gain.
+   *
+   * @param player The player these modifiers are for
+   */
+  public void update(@NotNull Player player) {
+    update(player, player.getWorld());
+  }
+
+  /**
+   * Works out again anything that has changed since the last exp gain, using the provided world instead of the player's current world
+   *
+   * @param player The player these modifiers are for
+   * @param world  The world the exp was gained in
+   */
+  public void update(@NotNull Player player, @NotNull World world) {
+    if(generation != configGeneration) {
+      generation = configGeneration;
+      worldUUID = null;
+      itemsDirty = true;
+    }
+
+    if(!world.getUID().equals(worldUUID)) {
+      worldUUID = world.getUID();
+      worldDisabled = McRPG.getInstance().getConfig().getStringList("Configuration.DisabledWorlds").contains(world.getName());
+      worldModifier = McRPG.getInstance().getWorldModifierManager().getWorldModifiers().get(world.getName());
+    }
+
+    if(itemsDirty || haveItemsChanged(player)) {
+      loadItems(player);
+    }
+  }
+
+  /**
+   * Makes the blood items be read again on the next exp gain. Should be called whenever the player's held item or armor might have been
+   * swapped for an item of the same type, since that can't be noticed otherwise.
+   */
+  public void invalidateItems() {
+    itemsDirty = true;
+  }
+
+  public boolean isWorldDisabled() {
+    return worldDisabled;
+  }
+
+  /**
+   * Gets the exp modifier of the player's world for the provided skill
+   *
+   * @param skill The skill gaining exp
+   * @return The world's modifier for the skill, or {@code 1} if the world doesn't modify it
+   */
+  public double getWorldModifier(@NotNull Skills skill) {
+    return worldModifier == null ? 1 : worldModifier.getModifier(skill);
+  }
+
+  /**
+   * Gets the blood boost of the item in the player's main hand
+   *
+   * @return The {@link BloodBoost} of the held item, or {@code null} if it isn't a blood item
+   */
+  @Nullable
+  public BloodBoost getHeldBlood() {
+    return heldBlood;
+  }
+
+  /**
+   * Gets the blood boost of the provided armor piece
+   *
+   * @param slot The index of the armor piece in {@link org.bukkit.inventory.PlayerInventory#getArmorContents()}
+   * @return The {@link BloodBoost} of the armor piece, or {@code null} if it isn't a blood item
+   */
+  @Nullable
+  public BloodBoost getArmorBlood(int slot) {
+    return slot >= 0 && slot < ARMOR_SLOTS ? armorBlood[slot] : null;
+  }
+
+  public boolean hasArmorBlood() {
+    for(BloodBoost bloodBoost : armorBlood) {
+      if(bloodBoost != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks the cheap parts of the player's equipment against what was read last time, so that most changes are noticed even without an event
+   */
+  private boolean haveItemsChanged(@NotNull Player player) {
+    if(player.getInventory().getHeldItemSlot() != heldSlot || player.getInventory().getItemInMainHand().getType() != heldType) {
+      return true;
+    }
+    ItemStack[] armorContents = player.getInventory().getArmorContents();
+    for(int i = 0; i < ARMOR_SLOTS; i++) {
+      if(getType(i < armorContents.length ? armorContents[i] : null) != armorTypes[i]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void loadItems(@NotNull Player player) {
+    itemsDirty = false;
+    ItemStack heldItem = player.getInventory().getItemInMainHand();
+    heldSlot = player.getInventory().getHeldItemSlot();
+    heldType = heldItem.getType();
+    heldBlood = BloodBoost.fromItem(heldItem);
+
+    ItemStack[] armorContents = player.getInventory().getArmorContents();
+    for(int i = 0; i < ARMOR_SLOTS; i++) {
+      ItemStack itemStack = i < armorContents.length ? armorContents[i] : null;
+      armorTypes[i] = getType(itemStack);
+      armorBlood[i] = BloodBoost.fromItem(itemStack);
+    }
+  }
+
+  @NotNull
+  private static Material getType(@Nullable ItemStack itemStack) {
+    return itemStack == null ? Material.AIR : itemStack.getType();
+  }
+
+  /**
+   * The exp boost and shatter chance read from a blood item
+   */
+  public static class BloodBoost {
+
+    private final int expBoost;
+    private final double shatterChance;
+    private final boolean tool;
+    private final boolean weapon;
+
+    private BloodBoost(int expBoost, double shatterChance, @NotNull Material material) {
+      this.expBoost = expBoost;
+      this.shatterChance = shatterChance;
+      this.tool = BloodManager.BloodType.TOOL.isMaterialApplicable(material);
+      this.weapon = BloodManager.BloodType.WEAPON.isMaterialApplicable(material);
+    }
+
+    @Nullable
+    private static BloodBoost fromItem(@Nullable ItemStack itemStack) {
+      if(itemStack == null || itemStack.getType() == Material.AIR) {
+        return null;
+      }
+      NBTItem nbtItem = new NBTItem(itemStack);
+      if(!nbtItem.hasKey("McRPGBloodItem")) {
+        return null;
+      }
+      return new BloodBoost(nbtItem.getInteger("ExpBoost"), nbtItem.getDouble("ShatterChance"), itemStack.getType());
+    }
+
+    /**
+     * Gets the {@code ExpBoost} stored on the item, which is a percentage
+     *
+     * @return The exp boost percentage of the item
+     */
+    public int getExpBoost() {
+      return expBoost;
+    }
+
+    public double getShatterChance() {
+      return shatterChance;
+    }
+
+    /**
+     * Checks if this item is a tool that blood can be applied to, which boosts exp from breaking blocks
+     *
+     * @return {@code true} if this item is a blood tool
+     */
+    public boolean isTool() {
+      return tool;
+    }
+
+    /**
+     * Checks if this item is a weapon that blood can be applied to, which boosts exp from killing
+     *
+     * @return {@code true} if this item is a blood weapon
+     */
+    public boolean isWeapon() {
+      return weapon;
+    }
+  }
+}
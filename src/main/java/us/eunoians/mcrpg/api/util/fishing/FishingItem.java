@@ -3,18 +3,24 @@ package us.eunoians.mcrpg.api.util.fishing;
 import lombok.Getter;
 import org.bukkit.Material;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
+import us.eunoians.mcrpg.util.CompiledExpression;
+import us.eunoians.mcrpg.util.ExpressionRegistry;
 import us.eunoians.mcrpg.util.Parser;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static us.eunoians.mcrpg.api.util.fishing.FishingItemManager.getFishingLootConfig;
 
 public class FishingItem {
 
+  //The variables set before a chance equation is evaluated
+  static final Set<String> CHANCE_VARIABLES = Set.of("tier");
+
   @Getter private Material itemType;
-  @Getter private Parser chance;
+  @Getter private CompiledExpression chanceExpression;
   @Getter private int lowEndAmount;
   @Getter private int highEndAmount;
 //  @Getter private int lowEndDurability;
@@ -30,7 +36,7 @@ public class FishingItem {
 
   public FishingItem(String filePath){
     this.itemType = Material.getMaterial(getFishingLootConfig().getString(filePath + "Material", "AIR"));
-    this.chance = new Parser(getFishingLootConfig().getString(filePath + "Chance", "1.0"));
+    this.chanceExpression = ExpressionRegistry.getExpression(getFishingLootConfig().getString(filePath + "Chance", "1.0"), CHANCE_VARIABLES);
     String[] amountRange = getFishingLootConfig().getString(filePath + "Amount", "1").split("-");
     this.lowEndAmount = Integer.parseInt(amountRange[0]);
     this.highEndAmount = amountRange.length > 1 ? Integer.parseInt(amountRange[1]) : lowEndAmount;
@@ -66,4 +72,12 @@ public class FishingItem {
       }
     }
   }
+
+  /**
+   * @deprecated This parses the chance equation again on every call. Use {@link #getChanceExpression()} instead.
+   */
+  @Deprecated
+  public Parser getChance(){
+    return new Parser(chanceExpression.getSource());
+  }
 }
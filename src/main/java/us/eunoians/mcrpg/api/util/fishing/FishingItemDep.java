@@ -2,6 +2,8 @@ package us.eunoians.mcrpg.api.util.fishing;
 
 import lombok.Getter;
 import org.bukkit.Material;
+import us.eunoians.mcrpg.util.CompiledExpression;
+import us.eunoians.mcrpg.util.ExpressionRegistry;
 import us.eunoians.mcrpg.util.Parser;
 
 import java.util.List;
@@ -13,7 +15,7 @@ public class FishingItemDep {
   @Getter
   private Material newType;
   @Getter
-  private Parser activationEquation;
+  private CompiledExpression activationExpression;
   @Getter
   private int lowEndAmount;
   @Getter
@@ -41,7 +43,7 @@ public class FishingItemDep {
 
   public FishingItemDep(String filePath){
     this.newType = Material.getMaterial(getFishingLootConfig().getString(filePath + "Material", "AIR"));
-    this.activationEquation = new Parser(getFishingLootConfig().getString(filePath + "ActivationChance", "50.0"));
+    this.activationExpression = ExpressionRegistry.getExpression(getFishingLootConfig().getString(filePath + "ActivationChance", "50.0"), FishingItem.CHANCE_VARIABLES);
 
     String[] amountRange = getFishingLootConfig().getString(filePath + "Amount", "1").split("-");
     this.lowEndAmount = Integer.parseInt(amountRange[0]);
@@ -67,4 +69,12 @@ public class FishingItemDep {
     this.overrideLowerDependencies = getFishingLootConfig().getBoolean(filePath + "OverrideLowerDependencies", true);
     this.priority = getFishingLootConfig().getInt(filePath + "Priority", 10);
   }
+
+  /**
+   * @deprecated This parses the activation equation again on every call. Use {@link #getActivationExpression()} instead.
+   */
+  @Deprecated
+  public Parser getActivationEquation(){
+    return new Parser(activationExpression.getSource());
+  }
 }
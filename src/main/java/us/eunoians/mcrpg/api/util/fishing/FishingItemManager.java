@@ -12,7 +12,7 @@ import us.eunoians.mcrpg.api.util.FileManager;
 import us.eunoians.mcrpg.api.util.Methods;
 import us.eunoians.mcrpg.players.McRPGPlayer;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
 
 import java.util.*;
 
@@ -53,7 +53,7 @@ public class FishingItemManager {
     List<FishingItem> returnItems = new ArrayList<>();
     while(returnItems.isEmpty()) {
       for (FishingItem fishingItem : items) {
-        Parser equation = fishingItem.getChance();
+        ExpressionEvaluation equation = fishingItem.getChanceExpression().newEvaluation();
         int tier = (ability != null && ability.getCurrentTier() != 0) ? ability.getCurrentTier() : 1;
         equation.setVariable("tier", tier);
         int chance = (int) (equation.getValue() * 1000);
@@ -102,7 +102,7 @@ public class FishingItemManager {
       if(player.getAbilityLoadout().contains(ab)){
         FishingItemDep fishingItemDep = resultItem.getDependancies().get(ab);
         if(player.getBaseAbility(ab).getCurrentTier() >= fishingItemDep.getLowTier() && player.getBaseAbility(ab).getCurrentTier() <= fishingItemDep.getHighTier()){
-          Parser equation = fishingItemDep.getActivationEquation();
+          ExpressionEvaluation equation = fishingItemDep.getActivationExpression().newEvaluation();
           equation.setVariable("tier", player.getBaseAbility(ab).getCurrentTier());
           int chance = (int) (equation.getValue() * 1000);
           int val = rand.nextInt(100000);
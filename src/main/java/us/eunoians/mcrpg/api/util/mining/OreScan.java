@@ -0,0 +1,168 @@
+package us.eunoians.mcrpg.api.util.mining;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import us.eunoians.mcrpg.McRPG;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Searches the blocks around a location for the ores that Ore Scanner points players towards.
+ * <p>
+ * Only copying the chunks has to happen on the main thread. The chunks are captured as {@link ChunkSnapshot}s and searched on an async
+ * thread, skipping any chunk whose palette doesn't have any of the ores in it, so a large radius doesn't hold up the tick.
+ *
+ * @author DiamondDagger590
+ */
+public class OreScan {
+
+  private static final Material[] ORES = {Material.GOLD_ORE, Material.EMERALD_ORE, Material.DIAMOND_ORE};
+
+  /**
+   * Scans the blocks around the provided location. Must be called on the main thread.
+   * <p>
+   * The same blocks are checked as the original scan, which is every block from {@code -radius} up to but not including {@code radius}
+   * away on each axis.
+   *
+   * @param center The location to scan around
+   * @param radius How far to scan
+   * @return A {@link CompletableFuture} that is completed on the main thread with the {@link OreScanResult}
+   */
+  @NotNull
+  public static CompletableFuture<OreScanResult> scan(@NotNull Location center, int radius) {
+    World world = center.getWorld();
+    int minX = center.getBlockX() - radius;
+    int minY = Math.max(center.getBlockY() - radius, world.getMinHeight());
+    int minZ = center.getBlockZ() - radius;
+    int maxX = center.getBlockX() + radius - 1;
+    int maxY = Math.min(center.getBlockY() + radius - 1, world.getMaxHeight() - 1);
+    int maxZ = center.getBlockZ() + radius - 1;
+
+    int minChunkX = minX >> 4;
+    int minChunkZ = minZ >> 4;
+    int chunksZ = (maxZ >> 4) - minChunkZ + 1;
+    ChunkSnapshot[] snapshots = new ChunkSnapshot[Math.max(0, ((maxX >> 4) - minChunkX + 1) * chunksZ)];
+    for(int cx = minChunkX; cx <= maxX >> 4; cx++) {
+      for(int cz = minChunkZ; cz <= maxZ >> 4; cz++) {
+        snapshots[(cx - minChunkX) * chunksZ + (cz - minChunkZ)] = world.getChunkAt(cx, cz).getChunkSnapshot(false, false, false);
+      }
+    }
+
+    BlockData[] oreData = new BlockData[ORES.length];
+    for(int i = 0; i < ORES.length; i++) {
+      oreData[i] = ORES[i].createBlockData();
+    }
+
+    Location origin = center.clone();
+    CompletableFuture<OreScanResult> result = new CompletableFuture<>();
+    Bukkit.getScheduler().runTaskAsynchronously(McRPG.getInstance(), () -> {
+      OreScanResult scanResult;
+      try {
+        scanResult = search(snapshots, oreData, minChunkX, minChunkZ, chunksZ, origin, minX, minY, minZ, maxX, maxY, maxZ);
+      }
+      catch(Exception e) {
+        e.printStackTrace();
+        Bukkit.getScheduler().runTask(McRPG.getInstance(), () -> result.completeExceptionally(e));
+        return;
+      }
+      Bukkit.getScheduler().runTask(McRPG.getInstance(), () -> result.complete(scanResult));
+    });
+    return result;
+  }
+
+  @NotNull
+  private static OreScanResult search(@NotNull ChunkSnapshot[] snapshots, @NotNull BlockData[] oreData, int minChunkX, int minChunkZ, int chunksZ,
+                                      @NotNull Location origin, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+    double originX = origin.getX();
+    double originY = origin.getY();
+    double originZ = origin.getZ();
+
+    int[] nearestX = new int[ORES.length];
+    int[] nearestY = new int[ORES.length];
+    int[] nearestZ = new int[ORES.length];
+    double[] nearestDistance = new double[ORES.length];
+    int[] amounts = new int[ORES.length];
+
+    boolean[] hasOre = new boolean[snapshots.length];
+    for(int i = 0; i < snapshots.length; i++) {
+      hasOre[i] = containsOre(snapshots[i], oreData);
+    }
+
+    //Keep the same order as the original scan so ties go to the same block
+    for(int x = minX; x <= maxX; x++) {
+      for(int z = minZ; z <= maxZ; z++) {
+        int chunkIndex = ((x >> 4) - minChunkX) * chunksZ + ((z >> 4) - minChunkZ);
+        if(!hasOre[chunkIndex]) {
+          continue;
+        }
+        ChunkSnapshot snapshot = snapshots[chunkIndex];
+        for(int y = minY; y <= maxY; y++) {
+          Material type = snapshot.getBlockType(x & 15, y, z & 15);
+          for(int ore = 0; ore < ORES.length; ore++) {
+            if(type != ORES[ore]) {
+              continue;
+            }
+            double dx = x - originX;
+            double dy = y - originY;
+            double dz = z - originZ;
+            double distance = dx * dx + dy * dy + dz * dz;
+            if(amounts[ore] == 0 || distance < nearestDistance[ore]) {
+              nearestDistance[ore] = distance;
+              nearestX[ore] = x;
+              nearestY[ore] = y;
+              nearestZ[ore] = z;
+            }
+            amounts[ore]++;
+            break;
+          }
+        }
+      }
+    }
+
+    Location[] nearest = new Location[ORES.length];
+    for(int ore = 0; ore < ORES.length; ore++) {
+      if(amounts[ore] > 0) {
+        nearest[ore] = new Location(origin.getWorld(), nearestX[ore], nearestY[ore], nearestZ[ore]);
+      }
+    }
+    return new OreScanResult(nearest[0], amounts[0], nearest[1], amounts[1], nearest[2], amounts[2]);
+  }
+
+  private static boolean containsOre(@NotNull ChunkSnapshot snapshot, @NotNull BlockData[] oreData) {
+    for(BlockData data : oreData) {
+      if(snapshot.contains(data)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The nearest of each ore found by an {@link OreScan} and how many of each were found
+   *
+   * @param goldOre       The location of the nearest gold ore, or {@code null} if none were found
+   * @param goldAmount    The amount of gold ore found
+   * @param emeraldOre    The location of the nearest emerald ore, or {@code null} if none were found
+   * @param emeraldAmount The amount of emerald ore found
+   * @param diamondOre    The location of the nearest diamond ore, or {@code null} if none were found
+   * @param diamondAmount The amount of diamond ore found
+   */
+  public record OreScanResult(@Nullable Location goldOre, int goldAmount, @Nullable Location emeraldOre, int emeraldAmount,
+                              @Nullable Location diamondOre, int diamondAmount) {
+
+    /**
+     * Checks to see if no ores were found
+     *
+     * @return {@code true} if no ores were found
+     */
+    public boolean isEmpty() {
+      return goldOre == null && emeraldOre == null && diamondOre == null;
+    }
+  }
+}
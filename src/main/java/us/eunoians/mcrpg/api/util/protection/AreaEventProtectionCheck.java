@@ -0,0 +1,35 @@
+package us.eunoians.mcrpg.api.util.protection;
+
+import org.bukkit.Bukkit;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import us.eunoians.mcrpg.api.events.mcrpg.AreaBreakTestEvent;
+import us.eunoians.mcrpg.api.events.mcrpg.FakeBlockBreakEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Fires a single {@link AreaBreakTestEvent} for the whole area when it is queued. Only plugins that listen for that event are able to
+ * protect blocks from area abilities with this check.
+ *
+ * @author DiamondDagger590
+ */
+public class AreaEventProtectionCheck implements AreaProtectionCheck {
+
+  @NotNull
+  @Override
+  public List<Block> filterArea(@NotNull Player player, @NotNull List<Block> blocks, @NotNull BiFunction<Player, Block, FakeBlockBreakEvent> testEventFactory) {
+    AreaBreakTestEvent areaBreakTestEvent = new AreaBreakTestEvent(player, new ArrayList<>(blocks));
+    Bukkit.getPluginManager().callEvent(areaBreakTestEvent);
+    return areaBreakTestEvent.isCancelled() ? Collections.emptyList() : areaBreakTestEvent.getBlocks();
+  }
+
+  @Override
+  public boolean canBreak(@NotNull Player player, @NotNull Block block, @NotNull BiFunction<Player, Block, FakeBlockBreakEvent> testEventFactory) {
+    return true;
+  }
+}
@@ -0,0 +1,51 @@
+package us.eunoians.mcrpg.api.util.protection;
+
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import us.eunoians.mcrpg.api.events.mcrpg.FakeBlockBreakEvent;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Decides which blocks of an area ability such as Heavy Swing or Larger Spade a player is allowed to break, so that other
+ * plugins' protections are respected.
+ * <p>
+ * An area is checked once by {@link #filterArea(Player, List, BiFunction)} when it is queued, then each block is checked by
+ * {@link #canBreak(Player, Block, BiFunction)} right before it is broken. Implementations only need to do real work in one of the two.
+ *
+ * @author DiamondDagger590
+ */
+public interface AreaProtectionCheck {
+
+  /**
+   * Checks a whole area when it is queued to be broken
+   *
+   * @param player           The player breaking the area
+   * @param blocks           The blocks in the area. This may be changed and returned
+   * @param testEventFactory Creates the fake break event for a block, for checks that need to fire one
+   * @return The blocks from the area the player is allowed to break
+   */
+  @NotNull
+  List<Block> filterArea(@NotNull Player player, @NotNull List<Block> blocks, @NotNull BiFunction<Player, Block, FakeBlockBreakEvent> testEventFactory);
+
+  /**
+   * Checks a single block right before it is broken
+   *
+   * @param player           The player breaking the block
+   * @param block            The block being broken
+   * @param testEventFactory Creates the fake break event for a block, for checks that need to fire one
+   * @return {@code true} if the player is allowed to break the block
+   */
+  boolean canBreak(@NotNull Player player, @NotNull Block block, @NotNull BiFunction<Player, Block, FakeBlockBreakEvent> testEventFactory);
+
+  /**
+   * Forgets anything cached for the provided player
+   *
+   * @param uuid The {@link UUID} of the player
+   */
+  default void invalidate(@NotNull UUID uuid) {
+  }
+}
@@ -0,0 +1,52 @@
+package us.eunoians.mcrpg.api.util.protection;
+
+import org.bukkit.configuration.file.FileConfiguration;
+import org.jetbrains.annotations.NotNull;
+import us.eunoians.mcrpg.McRPG;
+
+import java.util.Arrays;
+
+/**
+ * The ways that area abilities can check if a player is allowed to break each block, set by
+ * {@code Configuration.AreaBreakProtection.Mode} in the config.yml
+ *
+ * @author DiamondDagger590
+ */
+public enum AreaProtectionMode {
+
+  PER_BLOCK,
+  AREA_EVENT,
+  WORLDGUARD;
+
+  private static final int DEFAULT_CACHE_SECONDS = 10;
+
+  /**
+   * Creates the {@link AreaProtectionCheck} that is configured in the provided config, falling back to {@link #PER_BLOCK} if the mode
+   * is invalid or needs a plugin that isn't installed
+   *
+   * @param config The config.yml
+   * @return The {@link AreaProtectionCheck} to use
+   */
+  @NotNull
+  public static AreaProtectionCheck createCheck(@NotNull FileConfiguration config) {
+    AreaProtectionMode mode = fromString(config.getString("Configuration.AreaBreakProtection.Mode", PER_BLOCK.name()));
+    switch(mode) {
+      case AREA_EVENT:
+        return new AreaEventProtectionCheck();
+      case WORLDGUARD:
+        if(McRPG.getInstance().isWorldGuardEnabled()) {
+          long cacheMillis = Math.max(0, config.getInt("Configuration.AreaBreakProtection.CacheSeconds", DEFAULT_CACHE_SECONDS)) * 1000L;
+          return new WorldGuardProtectionCheck(cacheMillis);
+        }
+        McRPG.getInstance().getLogger().warning("The WORLDGUARD area break protection mode needs WorldGuard installed, using PER_BLOCK instead.");
+        return new PerBlockProtectionCheck();
+      default:
+        return new PerBlockProtectionCheck();
+    }
+  }
+
+  @NotNull
+  public static AreaProtectionMode fromString(@NotNull String mode) {
+    return Arrays.stream(values()).filter(protectionMode -> protectionMode.name().equalsIgnoreCase(mode)).findFirst().orElse(PER_BLOCK);
+  }
+}
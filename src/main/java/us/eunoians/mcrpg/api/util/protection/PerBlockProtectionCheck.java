@@ -0,0 +1,32 @@
+package us.eunoians.mcrpg.api.util.protection;
+
+import org.bukkit.Bukkit;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import us.eunoians.mcrpg.api.events.mcrpg.FakeBlockBreakEvent;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Fires a {@link FakeBlockBreakEvent} for every block before it is broken. This works with any protection plugin but every plugin
+ * listening to block breaks has to handle each block, so it is the slowest check.
+ *
+ * @author DiamondDagger590
+ */
+public class PerBlockProtectionCheck implements AreaProtectionCheck {
+
+  @NotNull
+  @Override
+  public List<Block> filterArea(@NotNull Player player, @NotNull List<Block> blocks, @NotNull BiFunction<Player, Block, FakeBlockBreakEvent> testEventFactory) {
+    return blocks;
+  }
+
+  @Override
+  public boolean canBreak(@NotNull Player player, @NotNull Block block, @NotNull BiFunction<Player, Block, FakeBlockBreakEvent> testEventFactory) {
+    FakeBlockBreakEvent testEvent = testEventFactory.apply(player, block);
+    Bukkit.getPluginManager().callEvent(testEvent);
+    return testEvent.hasPassedChecks();
+  }
+}
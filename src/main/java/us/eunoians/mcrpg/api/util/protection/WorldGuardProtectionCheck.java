@@ -0,0 +1,151 @@
+package us.eunoians.mcrpg.api.util.protection;
+
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.LocalPlayer;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.bukkit.WorldGuardPlugin;
+import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.flags.Flags;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import com.sk89q.worldguard.protection.regions.RegionQuery;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import us.eunoians.mcrpg.api.events.mcrpg.FakeBlockBreakEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+/**
+ * Asks WorldGuard directly if a player can break each block instead of firing an event, and caches the answer.
+ * <p>
+ * WorldGuard's answer only depends on the regions a block is in, so a chunk that no region touches is checked once for the whole chunk,
+ * and otherwise the answer is shared by every block in the same set of regions. A player's cached answers are thrown away once they
+ * are older than {@code Configuration.AreaBreakProtection.CacheSeconds}, when they change worlds and when they log out, so changes to
+ * regions are picked up shortly after.
+ *
+ * @author DiamondDagger590
+ */
+public class WorldGuardProtectionCheck implements AreaProtectionCheck {
+
+  private static final String CHUNK_PROBE_ID = "mcrpg_chunk_probe";
+
+  private final long cacheMillis;
+  private final Map<UUID, PlayerVerdicts> verdicts = new HashMap<>();
+
+  public WorldGuardProtectionCheck(long cacheMillis) {
+    this.cacheMillis = cacheMillis;
+  }
+
+  @NotNull
+  @Override
+  public List<Block> filterArea(@NotNull Player player, @NotNull List<Block> blocks, @NotNull BiFunction<Player, Block, FakeBlockBreakEvent> testEventFactory) {
+    return blocks;
+  }
+
+  @Override
+  public boolean canBreak(@NotNull Player player, @NotNull Block block, @NotNull BiFunction<Player, Block, FakeBlockBreakEvent> testEventFactory) {
+    World world = block.getWorld();
+    RegionManager regionManager = WorldGuard.getInstance().getPlatform().getRegionContainer().get(BukkitAdapter.adapt(world));
+    if(regionManager == null) {
+      //Region protection is turned off in this world
+      return true;
+    }
+
+    PlayerVerdicts playerVerdicts = verdicts.get(player.getUniqueId());
+    long now = System.currentTimeMillis();
+    if(playerVerdicts == null || !playerVerdicts.world.equals(world.getUID()) || now - playerVerdicts.createdAt > cacheMillis) {
+      LocalPlayer localPlayer = WorldGuardPlugin.inst().wrapPlayer(player);
+      boolean bypass = WorldGuard.getInstance().getPlatform().getSessionManager().hasBypass(localPlayer, BukkitAdapter.adapt(world));
+      playerVerdicts = new PlayerVerdicts(world.getUID(), now, localPlayer, bypass);
+      verdicts.put(player.getUniqueId(), playerVerdicts);
+    }
+    if(playerVerdicts.bypass) {
+      return true;
+    }
+
+    long chunkKey = ((long) (block.getX() >> 4) << 32) | ((block.getZ() >> 4) & 0xFFFFFFFFL);
+    Boolean chunkVerdict = playerVerdicts.chunkVerdicts.get(chunkKey);
+    if(chunkVerdict != null) {
+      return chunkVerdict;
+    }
+
+    //Only blocks in chunks without any regions can share a verdict for the whole chunk
+    if(!playerVerdicts.chunksWithRegions.contains(chunkKey)) {
+      int minX = (block.getX() >> 4) << 4;
+      int minZ = (block.getZ() >> 4) << 4;
+      ProtectedCuboidRegion probe = new ProtectedCuboidRegion(CHUNK_PROBE_ID, BlockVector3.at(minX, world.getMinHeight(), minZ),
+          BlockVector3.at(minX + 15, world.getMaxHeight() - 1, minZ + 15));
+      if(regionManager.getApplicableRegions(probe).size() == 0) {
+        boolean verdict = testBreak(playerVerdicts.localPlayer, block);
+        playerVerdicts.chunkVerdicts.put(chunkKey, verdict);
+        return verdict;
+      }
+      playerVerdicts.chunksWithRegions.add(chunkKey);
+    }
+
+    ApplicableRegionSet regions = regionManager.getApplicableRegions(BlockVector3.at(block.getX(), block.getY(), block.getZ()));
+    String regionKey = toRegionKey(regions);
+    Boolean regionVerdict = playerVerdicts.regionVerdicts.get(regionKey);
+    if(regionVerdict == null) {
+      regionVerdict = testBreak(playerVerdicts.localPlayer, block);
+      playerVerdicts.regionVerdicts.put(regionKey, regionVerdict);
+    }
+    return regionVerdict;
+  }
+
+  @Override
+  public void invalidate(@NotNull UUID uuid) {
+    verdicts.remove(uuid);
+  }
+
+  private static boolean testBreak(@NotNull LocalPlayer localPlayer, @NotNull Block block) {
+    RegionQuery query = WorldGuard.getInstance().getPlatform().getRegionContainer().createQuery();
+    return query.testBuild(BukkitAdapter.adapt(block.getLocation()), localPlayer, Flags.BLOCK_BREAK);
+  }
+
+  @NotNull
+  private static String toRegionKey(@NotNull ApplicableRegionSet regions) {
+    if(regions.size() == 0) {
+      return "";
+    }
+    List<String> ids = new ArrayList<>(regions.size());
+    for(ProtectedRegion region : regions) {
+      ids.add(region.getId());
+    }
+    if(ids.size() == 1) {
+      return ids.get(0);
+    }
+    Collections.sort(ids);
+    return String.join(",", ids);
+  }
+
+  private static class PlayerVerdicts {
+
+    private final UUID world;
+    private final long createdAt;
+    private final LocalPlayer localPlayer;
+    private final boolean bypass;
+    private final Set<Long> chunksWithRegions = new HashSet<>();
+    private final Map<Long, Boolean> chunkVerdicts = new HashMap<>();
+    private final Map<String, Boolean> regionVerdicts = new HashMap<>();
+
+    private PlayerVerdicts(@NotNull UUID world, long createdAt, @NotNull LocalPlayer localPlayer, boolean bypass) {
+      this.world = world;
+      this.createdAt = createdAt;
+      this.localPlayer = localPlayer;
+      this.bypass = bypass;
+    }
+  }
+}
@@ -12,7 +12,8 @@ import org.bukkit.entity.Player;
 import us.eunoians.mcrpg.McRPG;
 import us.eunoians.mcrpg.api.util.Methods;
 import us.eunoians.mcrpg.players.McRPGPlayer;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
+import us.eunoians.mcrpg.util.ExpressionRegistry;
 
 import java.util.logging.Level;
 
@@ -26,7 +27,7 @@ public class McConvert implements CommandExecutor {
     else{
       if(McRPG.getInstance().isMcmmoEnabled()){
         Bukkit.getLogger().log(Level.INFO, Methods.color(McRPG.getInstance().getPluginPrefix() + "&eBeginning McMMO conversion... please hold."));
-        Parser equation = new Parser(McRPG.getInstance().getConfig().getString("Configuration.McMMOConversionEquation"));
+        ExpressionEvaluation equation = ExpressionRegistry.newEvaluation(McRPG.getInstance().getConfig().getString("Configuration.McMMOConversionEquation"));
         int playersConverted = 0;
         a: for(OfflinePlayer offlinePlayer : Bukkit.getOfflinePlayers()){
           if(playersConverted != 0 && playersConverted % 5 == 0){
@@ -10,15 +10,19 @@ import us.eunoians.mcrpg.api.exceptions.McRPGPlayerNotFoundException;
 import us.eunoians.mcrpg.api.util.BuriedTreasureData;
 import us.eunoians.mcrpg.api.util.DiamondFlowersData;
 import us.eunoians.mcrpg.api.util.Methods;
+import us.eunoians.mcrpg.api.util.exp.PlayerExpModifiers;
 import us.eunoians.mcrpg.gui.AbilityOverrideGUI;
 import us.eunoians.mcrpg.gui.AcceptAbilityGUI;
 import us.eunoians.mcrpg.gui.GUI;
 import us.eunoians.mcrpg.gui.GUITracker;
 import us.eunoians.mcrpg.gui.HomeGUI;
 import us.eunoians.mcrpg.players.McRPGPlayer;
+import us.eunoians.mcrpg.players.MovementPassives;
 import us.eunoians.mcrpg.players.PlayerManager;
 import us.eunoians.mcrpg.types.AbilityType;
+import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
+import us.eunoians.mcrpg.util.ExpressionRegistry;
 import us.eunoians.mcrpg.util.worldguard.WGSupportManager;
 
 public class McRPGStub implements CommandExecutor {
@@ -79,6 +83,9 @@ public class McRPGStub implements CommandExecutor {
         if(args[0].equalsIgnoreCase("reload")) {
           if(p.hasPermission("mcrpg.*") || p.hasPermission("mcrpg.admin.*") || p.hasPermission("mcrpg.admin.reload")) {
             McRPG.getInstance().getFileManager().reloadFiles();
+            ExpressionRegistry.clear();
+            Skills.reloadExpCurves();
+            McRPG.getInstance().getPartyManager().reloadExpCurve();
             p.sendMessage(Methods.color(plugin.getPluginPrefix() + plugin.getLangFile().getString("Messages.Commands.ReloadFiles")));
             PlayerManager.startSave(plugin);
             DiamondFlowersData.init();
@@ -87,6 +94,10 @@ public class McRPGStub implements CommandExecutor {
             McRPG.getInstance().getArtifactManager().reload();
             McRPG.getInstance().getExpPermissionManager().reload();
             McRPG.getInstance().setWgSupportManager(new WGSupportManager(plugin));
+            McRPG.getInstance().getAreaBreakScheduler().reload();
+            MovementPassives.invalidateAll();
+            PlayerExpModifiers.invalidateAll();
+            McRPG.getInstance().getExpGainAggregator().reload();
             McRPG.getInstance().getLevelCommandManager().reload();
             return true;
           }
@@ -109,6 +120,9 @@ public class McRPGStub implements CommandExecutor {
       else if(args.length == 1) {
         if(args[0].equalsIgnoreCase("reload")) {
           McRPG.getInstance().getFileManager().reloadFiles();
+          ExpressionRegistry.clear();
+          Skills.reloadExpCurves();
+          McRPG.getInstance().getPartyManager().reloadExpCurve();
           sender.sendMessage(Methods.color(plugin.getPluginPrefix() + plugin.getLangFile().getString("Messages.Commands.ReloadFiles")));
           PlayerManager.startSave(plugin);
           DiamondFlowersData.init();
@@ -117,6 +131,10 @@ public class McRPGStub implements CommandExecutor {
           McRPG.getInstance().getArtifactManager().reload();
           McRPG.getInstance().getExpPermissionManager().reload();
           McRPG.getInstance().setWgSupportManager(new WGSupportManager(plugin));
+          McRPG.getInstance().getAreaBreakScheduler().reload();
+          MovementPassives.invalidateAll();
+          PlayerExpModifiers.invalidateAll();
+          McRPG.getInstance().getExpGainAggregator().reload();
           return true;
         }
         else {
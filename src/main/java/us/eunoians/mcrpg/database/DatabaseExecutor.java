@@ -0,0 +1,483 @@
+package us.eunoians.mcrpg.database;
+
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The executor that runs all of McRPG's database work.
+ * <p>
+ * Tasks are queued in one of the {@link DatabaseTaskPriority} lanes, each with its own bounded queue. Work in the {@link DatabaseTaskPriority#INTERACTIVE} lane
+ * is run ahead of {@link DatabaseTaskPriority#BACKGROUND} work, so loading a player never has to wait behind a save sweep. When a lane is full, a submitter
+ * on another thread waits for room up until the configured timeout, after which the task is rejected. The server's main thread never waits, so a task it
+ * submits to a full lane is rejected right away and whoever submitted it has to try again later, such as a save leaving its players unsaved for the next
+ * save to pick up.
+ * <p>
+ * Tasks are submitted to {@link DatabaseTaskPriority#INTERACTIVE} by default. Code that queues background work should wrap the calls that submit it
+ * with {@link #runWithPriority(DatabaseTaskPriority, Runnable)} or {@link #supplyWithPriority(DatabaseTaskPriority, Supplier)}.
+ * <p>
+ * Any task that is submitted by a task already running on this executor (such as the chained {@link java.util.concurrent.CompletableFuture}s used by the DAOs)
+ * is treated as a continuation of that task. Continuations are queued at the front of the same lane as the task that submitted them and never wait on
+ * the lane's capacity, meaning a worker can never block on a full queue that only it could empty, and work that has already started finishes before new
+ * work is picked up.
+ *
+ * @author DiamondDagger590
+ */
+public class DatabaseExecutor extends AbstractExecutorService {
+
+    /**
+     * How many interactive tasks can be run back to back while background work is waiting before a background task is given a turn
+     */
+    private static final int INTERACTIVE_BURST = 8;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition taskAvailable = lock.newCondition();
+    private final Condition terminated = lock.newCondition();
+    private final Map<DatabaseTaskPriority, Lane> lanes = new EnumMap<>(DatabaseTaskPriority.class);
+    private final List<Thread> workers = new ArrayList<>();
+    private final long submitTimeoutNanos;
+    private final Runnable afterTask;
+
+    private final ThreadLocal<DatabaseTaskPriority> submissionPriority = new ThreadLocal<>();
+    private final ThreadLocal<DatabaseTaskPriority> runningPriority = new ThreadLocal<>();
+
+    private boolean shutdown = false;
+    private int aliveWorkers;
+    private int interactiveStreak = 0;
+
+    /**
+     * @param threadCount           The amount of worker threads to run tasks on
+     * @param interactiveCapacity   The maximum amount of tasks that can be queued in the {@link DatabaseTaskPriority#INTERACTIVE} lane
+     * @param backgroundCapacity    The maximum amount of tasks that can be queued in the {@link DatabaseTaskPriority#BACKGROUND} lane
+     * @param submitTimeoutMillis   How long a submitter off of the main thread will wait for room in a full lane before the task is rejected
+     * @param afterTask             A {@link Runnable} that is run on the worker thread after every task, such as handing back the task's connection
+     */
+    public DatabaseExecutor(int threadCount, int interactiveCapacity, int backgroundCapacity, long submitTimeoutMillis, @NotNull Runnable afterTask) {
+
+        this.submitTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, submitTimeoutMillis));
+        this.afterTask = afterTask;
+
+        lanes.put(DatabaseTaskPriority.INTERACTIVE, new Lane(Math.max(1, interactiveCapacity)));
+        lanes.put(DatabaseTaskPriority.BACKGROUND, new Lane(Math.max(1, backgroundCapacity)));
+
+        int workerCount = Math.max(1, threadCount);
+        this.aliveWorkers = workerCount;
+
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::runWorker, "McRPG-Database-" + (i + 1));
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues the provided {@link Runnable} in the lane of the current submission priority, which is {@link DatabaseTaskPriority#INTERACTIVE} unless
+     * changed by {@link #supplyWithPriority(DatabaseTaskPriority, Supplier)}.
+     *
+     * @param command The {@link Runnable} to run
+     * @throws RejectedExecutionException If this executor has been shut down or the lane stayed full for longer than the submit timeout
+     */
+    @Override
+    public void execute(@NotNull Runnable command) {
+
+        Objects.requireNonNull(command);
+
+        DatabaseTaskPriority parentPriority = runningPriority.get();
+
+        if (parentPriority != null) {
+            enqueueContinuation(parentPriority, command);
+        }
+        else {
+            DatabaseTaskPriority priority = submissionPriority.get();
+            enqueue(priority == null ? DatabaseTaskPriority.INTERACTIVE : priority, command);
+        }
+    }
+
+    /**
+     * Calls the provided {@link Supplier}, queueing any database tasks it submits from the current thread in the provided lane
+     * instead of the default {@link DatabaseTaskPriority#INTERACTIVE} lane.
+     *
+     * @param priority The {@link DatabaseTaskPriority} to queue any submitted tasks with
+     * @param supplier The {@link Supplier} that submits the database work
+     * @param <T>      The type returned by the supplier
+     * @return The value returned by the supplier
+     */
+    public <T> T supplyWithPriority(@NotNull DatabaseTaskPriority priority, @NotNull Supplier<T> supplier) {
+
+        DatabaseTaskPriority previousPriority = submissionPriority.get();
+        submissionPriority.set(priority);
+
+        try {
+            return supplier.get();
+        }
+        finally {
+            if (previousPriority == null) {
+                submissionPriority.remove();
+            }
+            else {
+                submissionPriority.set(previousPriority);
+            }
+        }
+    }
+
+    /**
+     * Runs the provided {@link Runnable}, queueing any database tasks it submits from the current thread in the provided lane
+     * instead of the default {@link DatabaseTaskPriority#INTERACTIVE} lane.
+     *
+     * @param priority The {@link DatabaseTaskPriority} to queue any submitted tasks with
+     * @param runnable The {@link Runnable} that submits the database work
+     */
+    public void runWithPriority(@NotNull DatabaseTaskPriority priority, @NotNull Runnable runnable) {
+        supplyWithPriority(priority, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    /**
+     * Gets a snapshot of the current metrics for the provided lane
+     *
+     * @param priority The {@link DatabaseTaskPriority} lane to get the metrics of
+     * @return A {@link LaneMetrics} snapshot of the provided lane
+     */
+    @NotNull
+    public LaneMetrics getMetrics(@NotNull DatabaseTaskPriority priority) {
+
+        lock.lock();
+
+        try {
+            Lane lane = lanes.get(priority);
+            long startedTasks = lane.submittedTasks - lane.tasks.size();
+
+            return new LaneMetrics(priority, lane.tasks.size(), lane.capacity, lane.submittedTasks, lane.completedTasks, lane.rejectedTasks,
+                    startedTasks > 0 ? TimeUnit.NANOSECONDS.toMillis(lane.totalWaitNanos / startedTasks) : 0,
+                    TimeUnit.NANOSECONDS.toMillis(lane.maxWaitNanos));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the amount of worker threads this executor runs tasks on
+     *
+     * @return The amount of worker threads this executor runs tasks on
+     */
+    public int getThreadCount() {
+        return workers.size();
+    }
+
+    @Override
+    public void shutdown() {
+
+        lock.lock();
+
+        try {
+            shutdown = true;
+            //Wake any idle workers so they can exit once the queues have drained
+            taskAvailable.signalAll();
+            lanes.values().forEach(lane -> lane.notFull.signalAll());
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @NotNull
+    @Override
+    public List<Runnable> shutdownNow() {
+
+        List<Runnable> unstartedTasks = new ArrayList<>();
+
+        lock.lock();
+
+        try {
+            shutdown = true;
+
+            for (Lane lane : lanes.values()) {
+                for (QueuedTask queuedTask : lane.tasks) {
+                    unstartedTasks.add(queuedTask.runnable());
+                }
+                lane.tasks.clear();
+                lane.notFull.signalAll();
+            }
+
+            taskAvailable.signalAll();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        workers.forEach(Thread::interrupt);
+        return unstartedTasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+
+        lock.lock();
+
+        try {
+            return shutdown;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+
+        lock.lock();
+
+        try {
+            return shutdown && aliveWorkers == 0;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+
+        long remainingNanos = unit.toNanos(timeout);
+
+        lock.lock();
+
+        try {
+            while (!(shutdown && aliveWorkers == 0)) {
+
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+
+                remainingNanos = terminated.awaitNanos(remainingNanos);
+            }
+
+            return true;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(@NotNull DatabaseTaskPriority priority, @NotNull Runnable command) {
+
+        //Stalling the main thread would freeze the whole server, so it only ever gets an answer right away
+        boolean mainThread = Bukkit.getServer() != null && Bukkit.isPrimaryThread();
+
+        lock.lock();
+
+        try {
+            Lane lane = lanes.get(priority);
+            long remainingNanos = mainThread ? 0 : submitTimeoutNanos;
+
+            //Apply backpressure by making the submitter wait for room in the lane
+            while (!shutdown && lane.tasks.size() >= lane.capacity) {
+
+                if (remainingNanos <= 0) {
+                    lane.rejectedTasks++;
+                    throw new RejectedExecutionException(mainThread ? "The " + priority.name().toLowerCase() + " database queue is full."
+                                                                    : "The " + priority.name().toLowerCase() + " database queue has been full for over "
+                                                                      + TimeUnit.NANOSECONDS.toMillis(submitTimeoutNanos) + "ms.");
+                }
+
+                try {
+                    remainingNanos = lane.notFull.awaitNanos(remainingNanos);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    lane.rejectedTasks++;
+                    throw new RejectedExecutionException("Interrupted while waiting for room in the " + priority.name().toLowerCase() + " database queue.", e);
+                }
+            }
+
+            if (shutdown) {
+                lane.rejectedTasks++;
+                throw new RejectedExecutionException("The database executor has been shut down.");
+            }
+
+            lane.tasks.addLast(new QueuedTask(command, priority, System.nanoTime()));
+            lane.submittedTasks++;
+            taskAvailable.signal();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueueContinuation(@NotNull DatabaseTaskPriority priority, @NotNull Runnable command) {
+
+        lock.lock();
+
+        try {
+            //Continuations skip the capacity check and are still accepted while shutting down, since the worker submitting them keeps this executor alive
+            Lane lane = lanes.get(priority);
+            lane.tasks.addFirst(new QueuedTask(command, priority, System.nanoTime()));
+            lane.submittedTasks++;
+            taskAvailable.signal();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void runWorker() {
+
+        try {
+            while (true) {
+
+                QueuedTask queuedTask;
+
+                lock.lock();
+
+                try {
+                    while ((queuedTask = pollNextTask()) == null) {
+
+                        if (shutdown) {
+                            return;
+                        }
+
+                        taskAvailable.await();
+                    }
+                }
+                catch (InterruptedException e) {
+                    if (shutdown) {
+                        return;
+                    }
+                    continue;
+                }
+                finally {
+                    lock.unlock();
+                }
+
+                runningPriority.set(queuedTask.priority());
+
+                try {
+                    queuedTask.runnable().run();
+                }
+                catch (Throwable throwable) {
+                    throwable.printStackTrace();
+                }
+                finally {
+                    runningPriority.remove();
+
+                    try {
+                        afterTask.run();
+                    }
+                    catch (Throwable throwable) {
+                        throwable.printStackTrace();
+                    }
+
+                    lock.lock();
+
+                    try {
+                        lanes.get(queuedTask.priority()).completedTasks++;
+                    }
+                    finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        }
+        finally {
+            lock.lock();
+
+            try {
+                aliveWorkers--;
+
+                if (aliveWorkers == 0) {
+                    terminated.signalAll();
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Takes the next task that should be run. Must be called while holding the lock.
+     *
+     * @return The next {@link QueuedTask} to run or {@code null} if every lane is empty
+     */
+    private QueuedTask pollNextTask() {
+
+        Lane interactiveLane = lanes.get(DatabaseTaskPriority.INTERACTIVE);
+        Lane backgroundLane = lanes.get(DatabaseTaskPriority.BACKGROUND);
+        Lane lane;
+
+        if (backgroundLane.tasks.isEmpty()) {
+            interactiveStreak = 0;
+        }
+
+        if (!interactiveLane.tasks.isEmpty() && interactiveStreak < INTERACTIVE_BURST) {
+            lane = interactiveLane;
+            interactiveStreak++;
+        }
+        else if (!backgroundLane.tasks.isEmpty()) {
+            lane = backgroundLane;
+            interactiveStreak = 0;
+        }
+        else {
+            return null;
+        }
+
+        QueuedTask queuedTask = lane.tasks.pollFirst();
+        long waitNanos = System.nanoTime() - queuedTask.enqueuedAt();
+        lane.totalWaitNanos += waitNanos;
+        lane.maxWaitNanos = Math.max(lane.maxWaitNanos, waitNanos);
+        lane.notFull.signal();
+
+        return queuedTask;
+    }
+
+    /**
+     * A snapshot of the metrics of a single lane of the {@link DatabaseExecutor}
+     *
+     * @param priority          The {@link DatabaseTaskPriority} of the lane
+     * @param queueDepth        The amount of tasks currently waiting in the lane
+     * @param capacity          The maximum amount of tasks that can wait in the lane before submitters have to wait
+     * @param submittedTasks    The total amount of tasks that have been queued in the lane
+     * @param completedTasks    The total amount of tasks from the lane that have finished running
+     * @param rejectedTasks     The total amount of tasks that were rejected from the lane
+     * @param averageWaitMillis The average amount of time a task waited in the lane before it started running
+     * @param maxWaitMillis     The longest amount of time a task has waited in the lane before it started running
+     */
+    public record LaneMetrics(@NotNull DatabaseTaskPriority priority, int queueDepth, int capacity, long submittedTasks, long completedTasks,
+                              long rejectedTasks, long averageWaitMillis, long maxWaitMillis) {
+    }
+
+    private record QueuedTask(@NotNull Runnable runnable, @NotNull DatabaseTaskPriority priority, long enqueuedAt) {
+    }
+
+    private class Lane {
+
+        private final ArrayDeque<QueuedTask> tasks = new ArrayDeque<>();
+        private final Condition notFull = lock.newCondition();
+        private final int capacity;
+
+        private long submittedTasks = 0;
+        private long completedTasks = 0;
+        private long rejectedTasks = 0;
+        private long totalWaitNanos = 0;
+        private long maxWaitNanos = 0;
+
+        private Lane(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+}
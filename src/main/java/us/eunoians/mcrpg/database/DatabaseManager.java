@@ -1,5 +1,6 @@
 package us.eunoians.mcrpg.database;
 
+import org.bukkit.configuration.file.FileConfiguration;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import us.eunoians.mcrpg.McRPG;
@@ -18,8 +19,6 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -28,8 +27,7 @@ public class DatabaseManager {
 
     private McRPG plugin;
     private Database database;
-    private final ThreadPoolExecutor databaseExecutorService =
-            new ThreadPoolExecutor(1, 4, 30, TimeUnit.SECONDS, new LinkedBlockingDeque<>());
+    private final DatabaseExecutor databaseExecutorService;
     private final DatabaseDriver driver;
 
     public DatabaseManager(@NotNull McRPG plugin) {
@@ -41,6 +39,18 @@ public class DatabaseManager {
             databaseDriver = Optional.of(DatabaseDriver.SQLITE);
         }
         this.driver = databaseDriver.get();
+
+        FileConfiguration config = plugin.getFileManager().getFile(FileManager.Files.CONFIG);
+        this.databaseExecutorService = new DatabaseExecutor(config.getInt("Configuration.DatabaseExecutor.Threads", 4),
+                config.getInt("Configuration.DatabaseExecutor.InteractiveQueueSize", 1000),
+                config.getInt("Configuration.DatabaseExecutor.BackgroundQueueSize", 5000),
+                TimeUnit.SECONDS.toMillis(config.getInt("Configuration.DatabaseExecutor.SubmitTimeout", 10)),
+                () -> {
+                    //Hand the connection this task used back to the pool so other tasks can use it
+                    if (database != null) {
+                        database.releaseConnection();
+                    }
+                });
     }
 
     public CompletableFuture<Void> initialize() {
@@ -54,7 +64,12 @@ public class DatabaseManager {
             databaseFolder.mkdir();
         }
 
-        dbBuilder.setPath(plugin.getDataFolder().getAbsolutePath() + "/database/mcrpg");
+        FileConfiguration config = plugin.getFileManager().getFile(FileManager.Files.CONFIG);
+
+        dbBuilder.setPath(plugin.getDataFolder().getAbsolutePath() + "/database/mcrpg")
+                .setMaximumConnections(config.getInt("Configuration.DatabasePool.MaximumConnections", 4))
+                .setConnectionTimeoutMillis(TimeUnit.SECONDS.toMillis(config.getInt("Configuration.DatabasePool.ConnectionTimeout", 30)))
+                .setValidationTimeoutSeconds(config.getInt("Configuration.DatabasePool.ValidationTimeout", 2));
 
         try {
             database = dbBuilder.build();
@@ -101,12 +116,12 @@ public class DatabaseManager {
     }
 
     /**
-     * Gets the {@link ThreadPoolExecutor} used to run database queries
+     * Gets the {@link DatabaseExecutor} used to run database queries
      *
-     * @return The {@link ThreadPoolExecutor} used to run database queries
+     * @return The {@link DatabaseExecutor} used to run database queries
      */
     @NotNull
-    public ThreadPoolExecutor getDatabaseExecutorService() {
+    public DatabaseExecutor getDatabaseExecutorService() {
         return databaseExecutorService;
     }
 
@@ -115,10 +130,31 @@ public class DatabaseManager {
         return this.driver;
     }
 
+    /**
+     * Stops accepting new database tasks, waits for any queued tasks to finish and then closes all pooled connections.
+     */
+    public void shutdown() {
+
+        databaseExecutorService.shutdown();
+
+        try {
+            if (!databaseExecutorService.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().log(Level.WARNING, "Timed out waiting for database tasks to finish, closing connections anyway.");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (database != null) {
+            database.close();
+        }
+    }
+
     @NotNull
     private CompletableFuture<Void> attemptCreateTables() {
 
-        Connection connection = database.getConnection();
+        Connection connection = database.getWriteConnection();
         Logger logger = McRPG.getInstance().getLogger();
 
         CompletableFuture<Void> tableCreationFuture = new CompletableFuture<>();
@@ -153,7 +189,7 @@ public class DatabaseManager {
     @NotNull
     private CompletableFuture<Void> updateTables() {
 
-        Connection connection = database.getConnection();
+        Connection connection = database.getWriteConnection();
         Logger logger = McRPG.getInstance().getLogger();
 
         CompletableFuture<Void> tableUpdateFuture = new CompletableFuture<>();
@@ -0,0 +1,21 @@
+package us.eunoians.mcrpg.database;
+
+/**
+ * The lanes that tasks submitted to the {@link DatabaseExecutor} are queued in. Each lane has its own bounded queue, so a flood
+ * of one kind of work can't stop another kind of work from being queued.
+ *
+ * @author DiamondDagger590
+ */
+public enum DatabaseTaskPriority {
+
+    /**
+     * Work that a player or command is actively waiting on, such as loading a player on join. This lane is always served first.
+     */
+    INTERACTIVE,
+
+    /**
+     * Work that nobody is directly waiting on, such as periodic save sweeps and leaderboard refreshes. This lane is served whenever
+     * there is no interactive work, and is also given a turn regularly while interactive work is queued so it can never be starved out.
+     */
+    BACKGROUND
+}
@@ -0,0 +1,216 @@
+package us.eunoians.mcrpg.database.builder;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of JDBC {@link Connection}s. Connections are opened lazily up to {@link #getMaximumConnections()},
+ * validated whenever they are borrowed and replaced if they are found to be broken.
+ * <p>
+ * Callers should always hand a borrowed connection back using {@link #release(Connection)}, as a connection that is never
+ * released permanently lowers the amount of connections the pool can hand out.
+ *
+ * @author DiamondDagger590
+ */
+public class ConnectionPool {
+
+    private final String connectionURL;
+    private final int maximumConnections;
+    private final long connectionTimeoutMillis;
+    private final int validationTimeoutSeconds;
+    private final ConnectionInitializer connectionInitializer;
+
+    private final LinkedBlockingQueue<Connection> idleConnections = new LinkedBlockingQueue<>();
+    private final Set<Connection> openConnections = ConcurrentHashMap.newKeySet();
+    private final Semaphore availableConnections;
+
+    private volatile boolean closed = false;
+
+    public ConnectionPool(@NotNull String connectionURL, int maximumConnections, long connectionTimeoutMillis,
+                          int validationTimeoutSeconds, @NotNull ConnectionInitializer connectionInitializer) {
+        this.connectionURL = connectionURL;
+        this.maximumConnections = Math.max(1, maximumConnections);
+        this.connectionTimeoutMillis = Math.max(0, connectionTimeoutMillis);
+        this.validationTimeoutSeconds = Math.max(0, validationTimeoutSeconds);
+        this.connectionInitializer = connectionInitializer;
+        this.availableConnections = new Semaphore(this.maximumConnections, true);
+    }
+
+    /**
+     * Borrows a {@link Connection} from this pool, waiting up to the configured connection timeout for one to become available.
+     * <p>
+     * Idle connections that fail validation are closed and replaced by a freshly opened connection.
+     *
+     * @return A valid {@link Connection} that is exclusively owned by the caller until it is released
+     * @throws SQLException If the pool is closed, no connection became available in time or a new connection could not be opened
+     */
+    @NotNull
+    public Connection borrow() throws SQLException {
+
+        if (closed) {
+            throw new SQLException("The connection pool has already been closed.");
+        }
+
+        try {
+            if (!availableConnections.tryAcquire(connectionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + connectionTimeoutMillis + "ms waiting for a database connection.");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            Connection connection;
+
+            while ((connection = idleConnections.poll()) != null) {
+
+                if (isHealthy(connection)) {
+                    return connection;
+                }
+
+                discard(connection);
+            }
+
+            return open();
+        }
+        catch (SQLException | RuntimeException e) {
+            availableConnections.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands a previously borrowed {@link Connection} back to this pool. Any transaction that was left open is rolled back
+     * and auto commit is restored so the next borrower always receives a clean connection.
+     *
+     * @param connection The {@link Connection} to release
+     */
+    public void release(@NotNull Connection connection) {
+
+        try {
+            if (closed || connection.isClosed()) {
+                discard(connection);
+                return;
+            }
+
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+
+            idleConnections.offer(connection);
+        }
+        catch (SQLException e) {
+            e.printStackTrace();
+            discard(connection);
+        }
+        finally {
+            availableConnections.release();
+        }
+    }
+
+    /**
+     * Closes this pool and every {@link Connection} that it has opened, including ones that are currently borrowed.
+     */
+    public void close() {
+
+        closed = true;
+
+        for (Connection connection : openConnections) {
+            discard(connection);
+        }
+
+        idleConnections.clear();
+    }
+
+    /**
+     * Gets the maximum amount of {@link Connection}s this pool will have open at once
+     *
+     * @return The maximum amount of {@link Connection}s this pool will have open at once
+     */
+    public int getMaximumConnections() {
+        return maximumConnections;
+    }
+
+    /**
+     * Gets the amount of {@link Connection}s that are currently open, whether idle or borrowed
+     *
+     * @return The amount of {@link Connection}s that are currently open
+     */
+    public int getOpenConnections() {
+        return openConnections.size();
+    }
+
+    /**
+     * Gets the amount of {@link Connection}s that could be borrowed right now without waiting
+     *
+     * @return The amount of {@link Connection}s that could be borrowed right now without waiting
+     */
+    public int getAvailableConnections() {
+        return availableConnections.availablePermits();
+    }
+
+    @NotNull
+    private Connection open() throws SQLException {
+
+        Connection connection = DriverManager.getConnection(connectionURL);
+
+        try {
+            connectionInitializer.initialize(connection);
+        }
+        catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+
+        openConnections.add(connection);
+        return connection;
+    }
+
+    private boolean isHealthy(@NotNull Connection connection) {
+        try {
+            return !connection.isClosed() && connection.isValid(validationTimeoutSeconds);
+        }
+        catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(@NotNull Connection connection) {
+
+        openConnections.remove(connection);
+
+        try {
+            connection.close();
+        }
+        catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Used to prepare a freshly opened {@link Connection} before it is handed out by a {@link ConnectionPool}, such as setting
+     * driver specific pragmas.
+     */
+    @FunctionalInterface
+    public interface ConnectionInitializer {
+
+        /**
+         * Prepares the provided {@link Connection} for use
+         *
+         * @param connection The freshly opened {@link Connection}
+         * @throws SQLException If the {@link Connection} could not be prepared
+         */
+        void initialize(@NotNull Connection connection) throws SQLException;
+    }
+}
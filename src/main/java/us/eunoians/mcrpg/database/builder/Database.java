@@ -39,8 +39,36 @@ public interface Database {
 
   Optional<DatabaseMetaData> getMetaData();
 
+  /**
+   * Gets a {@link Connection} for reading that can be shared between tasks. Each thread that uses it is transparently given its own
+   * pooled physical connection, which is kept until {@link #releaseConnection()} is called from that thread.
+   * <p>
+   * Nothing should be written through this connection, since for single writer databases it is backed by a read only connection.
+   *
+   * @return A {@link Connection} for reading that can be shared between tasks
+   */
   Connection getConnection();
 
+  /**
+   * Gets a {@link Connection} for writing that can be shared between tasks. Each thread that uses it is transparently given the
+   * pooled writer connection, which is handed back once a transaction on it ends or {@link #releaseConnection()} is called from that thread.
+   * <p>
+   * Reads that need to see the writes of an open transaction should also go through this connection.
+   *
+   * @return A {@link Connection} for writing that can be shared between tasks
+   */
+  Connection getWriteConnection();
+
+  /**
+   * Returns any pooled connections leased by the current thread back to the pool.
+   */
+  void releaseConnection();
+
+  /**
+   * Closes every pooled connection held by this database.
+   */
+  void close();
+
   Map<Class<?>, FlatTable> getTables();
 
   boolean tableExists(String tableName);
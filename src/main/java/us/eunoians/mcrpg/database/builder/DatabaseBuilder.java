@@ -32,11 +32,19 @@ public class DatabaseBuilder {
 
   @Getter private String path;
   @Getter private String driverName;
+  @Getter private DatabaseDriver databaseDriver;
+  @Getter private int maximumConnections;
+  @Getter private long connectionTimeoutMillis;
+  @Getter private int validationTimeoutSeconds;
 
   private String connectionURL;
 
   public DatabaseBuilder(DatabaseDriver databaseDriver) {
     path = "";
+    maximumConnections = 4;
+    connectionTimeoutMillis = 30000;
+    validationTimeoutSeconds = 2;
+    this.databaseDriver = databaseDriver;
     connectionURL = databaseDriver.getConnectionURL();
 
     tryDriverName(databaseDriver.getDatabaseDriverClass());
@@ -47,6 +55,21 @@ public class DatabaseBuilder {
     return this;
   }
 
+  public DatabaseBuilder setMaximumConnections(int maximumConnections) {
+    this.maximumConnections = maximumConnections;
+    return this;
+  }
+
+  public DatabaseBuilder setConnectionTimeoutMillis(long connectionTimeoutMillis) {
+    this.connectionTimeoutMillis = connectionTimeoutMillis;
+    return this;
+  }
+
+  public DatabaseBuilder setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+    this.validationTimeoutSeconds = validationTimeoutSeconds;
+    return this;
+  }
+
   private void tryDriverName(String driverName) {
 
     try {
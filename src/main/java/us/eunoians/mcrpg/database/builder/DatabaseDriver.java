@@ -2,6 +2,9 @@ package us.eunoians.mcrpg.database.builder;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.Arrays;
 import java.util.Optional;
 
@@ -12,17 +15,19 @@ import java.util.Optional;
  */
 public enum DatabaseDriver {
 
-    H2("h2", "org.h2.Driver", "jdbc:%s:%s;mode=MySQL;PAGE_SIZE=2048"),
-    SQLITE("sqlite", "org.sqlite.JDBC", "jdbc:%s:%s.db");
+    H2("h2", "org.h2.Driver", "jdbc:%s:%s;mode=MySQL;PAGE_SIZE=2048", false),
+    SQLITE("sqlite", "org.sqlite.JDBC", "jdbc:%s:%s.db", true);
 
     private final String databaseDriverName;
     private final String databaseDriverClass;
     private final String connectionURL;
+    private final boolean singleWriter;
 
-    DatabaseDriver(@NotNull String databaseDriverName, @NotNull String databaseDriverClass, @NotNull String connectionURL) {
+    DatabaseDriver(@NotNull String databaseDriverName, @NotNull String databaseDriverClass, @NotNull String connectionURL, boolean singleWriter) {
         this.databaseDriverName = databaseDriverName;
         this.databaseDriverClass = databaseDriverClass;
         this.connectionURL = connectionURL;
+        this.singleWriter = singleWriter;
     }
 
     /**
@@ -55,6 +60,43 @@ public enum DatabaseDriver {
         return connectionURL;
     }
 
+    /**
+     * Checks to see if this driver only supports a single connection writing at a time. Drivers that do will be given a
+     * single dedicated writer connection alongside a pool of read only connections.
+     *
+     * @return {@code true} if this driver only supports a single connection writing at a time
+     */
+    public boolean isSingleWriter() {
+        return singleWriter;
+    }
+
+    /**
+     * Prepares a freshly opened {@link Connection} for this driver before it is added to a {@link ConnectionPool}.
+     *
+     * @param connection        The freshly opened {@link Connection}
+     * @param readOnly          If the {@link Connection} will only be used for reading data
+     * @param busyTimeoutMillis How long in millis the {@link Connection} should wait on a locked database before failing
+     * @throws SQLException If the {@link Connection} could not be prepared
+     */
+    public void initializeConnection(@NotNull Connection connection, boolean readOnly, long busyTimeoutMillis) throws SQLException {
+
+        if (this != SQLITE) {
+            return;
+        }
+
+        try (Statement statement = connection.createStatement()) {
+
+            //WAL lets readers keep reading while the writer connection commits
+            if (!readOnly) {
+                statement.execute("PRAGMA journal_mode=WAL;");
+                statement.execute("PRAGMA synchronous=NORMAL;");
+            }
+
+            statement.execute("PRAGMA busy_timeout=" + busyTimeoutMillis + ";");
+            statement.execute("PRAGMA query_only=" + (readOnly ? 1 : 0) + ";");
+        }
+    }
+
     /**
      * Gets an {@link Optional} containing the {@link DatabaseDriver} that matches the provided database driver name,
      * or an empty {@link Optional} if no matches are found
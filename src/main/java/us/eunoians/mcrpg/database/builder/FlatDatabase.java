@@ -29,7 +29,6 @@ import org.intellij.lang.annotations.Language;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -42,30 +41,57 @@ import java.util.Optional;
 public class FlatDatabase implements Database {
 
   @Getter private Connection connection;
+  @Getter private Connection writeConnection;
   @Getter private Map<Class<?>, FlatTable> tables;
-  private Statement statement;
+  @Getter private ConnectionPool readerPool;
+  @Getter private ConnectionPool writerPool;
+  private ThreadBoundConnection threadBoundConnection;
 
   FlatDatabase(DatabaseBuilder builder) throws SQLException {
-    this.connection = DriverManager.getConnection(builder.getConnectionURL());
-    this.statement = connection.createStatement();
+    DatabaseDriver driver = builder.getDatabaseDriver();
+    String connectionURL = builder.getConnectionURL();
+    long connectionTimeoutMillis = builder.getConnectionTimeoutMillis();
+    int validationTimeoutSeconds = builder.getValidationTimeoutSeconds();
+
+    //Single writer databases get one dedicated writer connection alongside a pool of read only connections
+    if (driver.isSingleWriter()) {
+      this.writerPool = new ConnectionPool(connectionURL, 1, connectionTimeoutMillis, validationTimeoutSeconds,
+              connection -> driver.initializeConnection(connection, false, connectionTimeoutMillis));
+      this.readerPool = new ConnectionPool(connectionURL, builder.getMaximumConnections(), connectionTimeoutMillis, validationTimeoutSeconds,
+              connection -> driver.initializeConnection(connection, true, connectionTimeoutMillis));
+
+      //Open the writer up front so the journal mode is switched before any reader connects
+      writerPool.release(writerPool.borrow());
+    }
+    else {
+      this.readerPool = new ConnectionPool(connectionURL, builder.getMaximumConnections(), connectionTimeoutMillis, validationTimeoutSeconds,
+              connection -> driver.initializeConnection(connection, false, connectionTimeoutMillis));
+    }
+
+    this.threadBoundConnection = new ThreadBoundConnection(readerPool, writerPool);
+    this.connection = threadBoundConnection.createProxy(false);
+    this.writeConnection = threadBoundConnection.createProxy(true);
     this.tables = new HashMap<>();
   }
 
   @Override
   public Optional<ResultSet> executeQuery(@Language("SQL") String query, String... replacements) {
+    Statement statement = null;
     try {
-      Statement statement = connection.createStatement();
+      statement = connection.createStatement();
       String fQuery = String.format(query, (Object) replacements);
-      return Optional.of(statement.executeQuery(fQuery));
+      ResultSet resultSet = statement.executeQuery(fQuery);
+      //The caller still needs the results, so the statement is closed along with them
+      statement.closeOnCompletion();
+      return Optional.of(resultSet);
     } catch (SQLException e) {
       e.printStackTrace();
-    } finally {
       try {
-        if (!statement.isClosed()) {
+        if (statement != null) {
           statement.close();
         }
-      } catch (SQLException e) {
-        e.printStackTrace();
+      } catch (SQLException ex) {
+        ex.printStackTrace();
       }
     }
     return Optional.empty();
@@ -73,20 +99,11 @@ public class FlatDatabase implements Database {
 
   @Override
   public int executeUpdate(@Language("SQL") String sql, String... replacements) {
-    try {
-      Statement statement = connection.createStatement();
+    try (Statement statement = writeConnection.createStatement()) {
       String fSql = String.format(sql, (Object) replacements);
       return statement.executeUpdate(fSql);
     } catch (SQLException e) {
       e.printStackTrace();
-    } finally {
-      try {
-        if (!statement.isClosed()) {
-          statement.close();
-        }
-      } catch (SQLException e) {
-        e.printStackTrace();
-      }
     }
     return 0;
   }
@@ -101,6 +118,20 @@ public class FlatDatabase implements Database {
     return Optional.empty();
   }
 
+  @Override
+  public void releaseConnection() {
+    threadBoundConnection.release();
+  }
+
+  @Override
+  public void close() {
+    threadBoundConnection.release();
+    readerPool.close();
+    if (writerPool != null) {
+      writerPool.close();
+    }
+  }
+
   public boolean tableExists(String tableName) {
     List<String> tableNames = new ArrayList<>();
     getMetaData().ifPresent(dmd -> {
@@ -0,0 +1,179 @@
+package us.eunoians.mcrpg.database.builder;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Backs the {@link Connection}s that are handed out by {@link FlatDatabase#getConnection()} and {@link FlatDatabase#getWriteConnection()}.
+ * <p>
+ * Rather than sharing one physical connection between every thread, each thread that uses the returned connection
+ * leases its own physical connection from a {@link ConnectionPool} the first time it needs one and keeps it until
+ * {@link #release()} is called. This means that a transaction started by one database task can never swallow the
+ * statements of another task running at the same time.
+ * <p>
+ * When a separate writer pool is provided (as is the case for single writer databases like SQLite), callers say up front which
+ * connection they need instead of having it guessed from their SQL. Everything done through the read proxy goes to a reader
+ * connection and everything done through the write proxy goes to the writer connection, so reads done through the write proxy
+ * inside of a transaction always see that transaction's own writes. The writer connection is handed back as soon as a transaction
+ * on it ends, so a task that writes once and then keeps reading doesn't block every other writer until it finishes.
+ *
+ * @author DiamondDagger590
+ */
+class ThreadBoundConnection {
+
+    private final ConnectionPool readerPool;
+    @Nullable
+    private final ConnectionPool writerPool;
+    private final ThreadLocal<Lease> leases = ThreadLocal.withInitial(Lease::new);
+
+    ThreadBoundConnection(@NotNull ConnectionPool readerPool, @Nullable ConnectionPool writerPool) {
+        this.readerPool = readerPool;
+        this.writerPool = writerPool;
+    }
+
+    /**
+     * Creates a {@link Connection} proxy that routes all calls to the connections leased by the calling thread
+     *
+     * @param writer If the proxy should use the writer connection instead of a reader connection
+     * @return A {@link Connection} proxy that routes all calls to the connections leased by the calling thread
+     */
+    @NotNull
+    Connection createProxy(boolean writer) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Router(writer));
+    }
+
+    /**
+     * Hands any physical connections leased by the current thread back to their pools.
+     */
+    void release() {
+
+        Lease lease = leases.get();
+
+        if (lease.reader != null) {
+            readerPool.release(lease.reader);
+            lease.reader = null;
+        }
+
+        if (lease.writer != null && writerPool != null) {
+            writerPool.release(lease.writer);
+            lease.writer = null;
+        }
+
+        leases.remove();
+    }
+
+    /**
+     * Hands the writer connection leased by the current thread back to its pool, leaving any reader connection leased
+     */
+    private void releaseWriter() {
+
+        Lease lease = leases.get();
+
+        if (lease.writer != null && writerPool != null) {
+            writerPool.release(lease.writer);
+            lease.writer = null;
+        }
+    }
+
+    @NotNull
+    private Connection getTarget(boolean writer) throws SQLException {
+
+        Lease lease = leases.get();
+
+        //Without a dedicated writer every call can go to the same connection
+        if (writer && writerPool != null) {
+            return lease.getWriter(writerPool);
+        }
+
+        return lease.getReader(readerPool);
+    }
+
+    /**
+     * Routes the calls made on one of the proxies to the reader or writer connection of the calling thread
+     */
+    private class Router implements InvocationHandler {
+
+        private final boolean writer;
+
+        private Router(boolean writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+            String methodName = method.getName();
+
+            switch (methodName) {
+                case "close":
+                    if (writer) {
+                        releaseWriter();
+                    }
+                    else {
+                        release();
+                    }
+                    return null;
+                case "isClosed":
+                    return false;
+                case "unwrap":
+                case "isWrapperFor":
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ThreadBoundConnection[" + (writer ? "writer, " : "reader, ") + Thread.currentThread().getName() + "]";
+            }
+
+            Connection target = getTarget(writer);
+
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            //Going back to auto commit means a transaction just ended, so let other writers have the connection
+            if (writer && methodName.equals("setAutoCommit") && Boolean.TRUE.equals(args[0])) {
+                releaseWriter();
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * The physical connections currently leased by a single thread
+     */
+    private static class Lease {
+
+        private Connection reader;
+        private Connection writer;
+
+        @NotNull
+        private Connection getReader(@NotNull ConnectionPool pool) throws SQLException {
+            if (reader == null) {
+                reader = pool.borrow();
+            }
+            return reader;
+        }
+
+        @NotNull
+        private Connection getWriter(@NotNull ConnectionPool pool) throws SQLException {
+            if (writer == null) {
+                writer = pool.borrow();
+            }
+            return writer;
+        }
+    }
+}
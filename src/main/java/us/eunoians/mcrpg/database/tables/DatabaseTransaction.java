@@ -0,0 +1,71 @@
+package us.eunoians.mcrpg.database.tables;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Runs a unit of database work inside of a single transaction, rolling the work back if any part of it fails.
+ * <p>
+ * This should only ever be used from a task running on the database executor, as the work is run on the calling thread.
+ *
+ * @author DiamondDagger590
+ */
+final class DatabaseTransaction {
+
+    private DatabaseTransaction() {
+    }
+
+    /**
+     * Runs the provided {@link TransactionWork} inside of a single transaction, committing once it has finished
+     *
+     * @param connection      The {@link Connection} to run the transaction on
+     * @param transactionWork The {@link TransactionWork} to run inside of the transaction
+     * @throws SQLException If any part of the work fails, in which case nothing it did is committed
+     */
+    static void execute(@NotNull Connection connection, @NotNull TransactionWork transactionWork) throws SQLException {
+
+        connection.setAutoCommit(false);
+
+        try {
+            transactionWork.execute(connection);
+            connection.commit();
+        }
+        catch (SQLException | RuntimeException e) {
+
+            try {
+                connection.rollback();
+            }
+            catch (SQLException ex) {
+                e.addSuppressed(ex);
+            }
+
+            throw e;
+        }
+        finally {
+
+            try {
+                connection.setAutoCommit(true);
+            }
+            catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * A unit of database work that should either fully succeed or leave the database untouched
+     */
+    @FunctionalInterface
+    interface TransactionWork {
+
+        /**
+         * Runs this unit of work
+         *
+         * @param connection The {@link Connection} to use, which already has a transaction open
+         * @throws SQLException If any part of the work fails
+         */
+        void execute(@NotNull Connection connection) throws SQLException;
+    }
+}
@@ -3,6 +3,8 @@ package us.eunoians.mcrpg.database.tables;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import us.eunoians.mcrpg.McRPG;
+import us.eunoians.mcrpg.api.leaderboards.LeaderboardData;
+import us.eunoians.mcrpg.api.leaderboards.PlayerLeaderboardData;
 import us.eunoians.mcrpg.database.DatabaseManager;
 import us.eunoians.mcrpg.database.builder.DatabaseDriver;
 import us.eunoians.mcrpg.players.McRPGPlayer;
@@ -11,8 +13,15 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 
 /**
  * A DAO used to store data regarding a player's specific data that doesn't really belong in another table
@@ -22,7 +31,7 @@ import java.util.concurrent.CompletableFuture;
 public class PlayerDataDAO {
 
     private static final String TABLE_NAME = "mcrpg_player_data";
-    private static final int CURRENT_TABLE_VERSION = 1;
+    private static final int CURRENT_TABLE_VERSION = 2;
 
     private static boolean isAcceptingQueries = true;
 
@@ -135,6 +144,23 @@ public class PlayerDataDAO {
                         lastStoredVersion = 1;
                     }
 
+                    //Lets the power leaderboard be read in order and a player's power rank be counted without a full scan
+                    if (lastStoredVersion == 1) {
+
+                        try (PreparedStatement preparedStatement = connection.prepareStatement("CREATE INDEX IF NOT EXISTS mcrpg_player_data_power_level_index ON " + TABLE_NAME + " (power_level);")) {
+                            preparedStatement.executeUpdate();
+                        }
+                        catch (SQLException e) {
+                            //The index only speeds up leaderboards, so keep accepting queries and try again on the next start
+                            McRPG.getInstance().getLogger().log(Level.SEVERE, "Unable to create the power level index for " + TABLE_NAME + ", leaderboards will be slower until it is created", e);
+                            isAcceptingQueries = true;
+                            return;
+                        }
+
+                        TableVersionHistoryDAO.setTableVersion(connection, TABLE_NAME, 2);
+                        lastStoredVersion = 2;
+                    }
+
                     isAcceptingQueries = true;
                 });
 
@@ -227,38 +253,13 @@ public class PlayerDataDAO {
     public static CompletableFuture<Void> savePlayerData(@NotNull Connection connection, @NotNull McRPGPlayer mcRPGPlayer) {
 
         DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
-        DatabaseDriver databaseDriver = databaseManager.getDriver();
         CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+        PlayerDataSnapshot playerData = PlayerDataSnapshot.fromPlayer(mcRPGPlayer);
 
         databaseManager.getDatabaseExecutorService().submit(() -> {
 
-            try (PreparedStatement preparedStatement = databaseDriver == DatabaseDriver.H2 ? connection.prepareStatement("INSERT INTO " + TABLE_NAME +
-                                                                                                                             " (uuid, power_level, ability_points, redeemable_exp, redeemable_levels, " +
-                                                                                                                             "divine_escape_exp_debuff, divine_escape_damage_debuff, divine_escape_exp_end_time, divine_escape_damage_end_time, " +
-                                                                                                                             "replace_ability_cooldown_time, boosted_exp, party_uuid) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
-                                                                                                                             "power_level=VALUES(power_level), ability_points=VALUES(ability_points), " +
-                                                                                                                             "redeemable_exp=VALUES(redeemable_exp), redeemable_levels=VALUES(redeemable_levels), divine_escape_exp_debuff=VALUES(divine_escape_exp_debuff), " +
-                                                                                                                             "divine_escape_damage_debuff=VALUES(divine_escape_damage_debuff), divine_escape_exp_end_time=VALUES(divine_escape_exp_end_time), divine_escape_damage_end_time=VALUES(divine_escape_damage_end_time), " +
-                                                                                                                             "replace_ability_cooldown_time=VALUES(replace_ability_cooldown_time), boosted_exp=VALUES(boosted_exp), party_uuid=VALUES(party_uuid);")
-                                                           : connection.prepareStatement("REPLACE INTO " + TABLE_NAME +
-                                                                                             " (uuid, power_level, ability_points, redeemable_exp, redeemable_levels, " +
-                                                                                             "divine_escape_exp_debuff, divine_escape_damage_debuff, divine_escape_exp_end_time, divine_escape_damage_end_time, " +
-                                                                                             "replace_ability_cooldown_time, boosted_exp, party_uuid) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);")) {
-                preparedStatement.setString(1, mcRPGPlayer.getUuid().toString());
-                preparedStatement.setInt(2, mcRPGPlayer.getPowerLevel());
-                preparedStatement.setInt(3, mcRPGPlayer.getAbilityPoints());
-                preparedStatement.setInt(4, mcRPGPlayer.getRedeemableExp());
-                preparedStatement.setInt(5, mcRPGPlayer.getRedeemableLevels());
-                preparedStatement.setDouble(6, mcRPGPlayer.getDivineEscapeExpDebuff());
-                preparedStatement.setDouble(7, mcRPGPlayer.getDivineEscapeDamageDebuff());
-                preparedStatement.setLong(8, mcRPGPlayer.getDivineEscapeExpEnd());
-                preparedStatement.setLong(9, mcRPGPlayer.getDivineEscapeDamageEnd());
-                preparedStatement.setLong(10, mcRPGPlayer.getEndTimeForReplaceCooldown());
-                preparedStatement.setInt(11, mcRPGPlayer.getBoostedExp());
-                UUID partyID = mcRPGPlayer.getPartyID();
-                preparedStatement.setString(12, (partyID == null ? "nu" : partyID.toString()));
-
-                preparedStatement.executeUpdate();
+            try {
+                DatabaseTransaction.execute(connection, transactionConnection -> writePlayerData(transactionConnection, List.of(playerData)));
                 completableFuture.complete(null);
             }
             catch (SQLException e) {
@@ -268,12 +269,161 @@ public class PlayerDataDAO {
         return completableFuture;
     }
 
+    /**
+     * Writes the player data stored in every provided {@link PlayerDataSnapshot} using a single batched upsert.
+     * <p>
+     * This runs on the calling thread and does not manage transactions, so it is expected to be called from a database task that
+     * has already opened one.
+     *
+     * @param connection          The {@link Connection} to use to save the player data
+     * @param playerDataSnapshots The {@link PlayerDataSnapshot}s of the player data being saved
+     * @throws SQLException If there is an error with saving
+     */
+    static void writePlayerData(@NotNull Connection connection, @NotNull Collection<PlayerDataSnapshot> playerDataSnapshots) throws SQLException {
+
+        if (playerDataSnapshots.isEmpty()) {
+            return;
+        }
+
+        DatabaseDriver databaseDriver = McRPG.getInstance().getDatabaseManager().getDriver();
+
+        try (PreparedStatement preparedStatement = databaseDriver == DatabaseDriver.H2 ? connection.prepareStatement("INSERT INTO " + TABLE_NAME +
+                                                                                                                         " (uuid, power_level, ability_points, redeemable_exp, redeemable_levels, " +
+                                                                                                                         "divine_escape_exp_debuff, divine_escape_damage_debuff, divine_escape_exp_end_time, divine_escape_damage_end_time, " +
+                                                                                                                         "replace_ability_cooldown_time, boosted_exp, party_uuid) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+                                                                                                                         "power_level=VALUES(power_level), ability_points=VALUES(ability_points), " +
+                                                                                                                         "redeemable_exp=VALUES(redeemable_exp), redeemable_levels=VALUES(redeemable_levels), divine_escape_exp_debuff=VALUES(divine_escape_exp_debuff), " +
+                                                                                                                         "divine_escape_damage_debuff=VALUES(divine_escape_damage_debuff), divine_escape_exp_end_time=VALUES(divine_escape_exp_end_time), divine_escape_damage_end_time=VALUES(divine_escape_damage_end_time), " +
+                                                                                                                         "replace_ability_cooldown_time=VALUES(replace_ability_cooldown_time), boosted_exp=VALUES(boosted_exp), party_uuid=VALUES(party_uuid);")
+                                                       : connection.prepareStatement("REPLACE INTO " + TABLE_NAME +
+                                                                                         " (uuid, power_level, ability_points, redeemable_exp, redeemable_levels, " +
+                                                                                         "divine_escape_exp_debuff, divine_escape_damage_debuff, divine_escape_exp_end_time, divine_escape_damage_end_time, " +
+                                                                                         "replace_ability_cooldown_time, boosted_exp, party_uuid) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?);")) {
+
+            for (PlayerDataSnapshot playerData : playerDataSnapshots) {
+                preparedStatement.setString(1, playerData.getUuid().toString());
+                preparedStatement.setInt(2, playerData.getPowerLevel());
+                preparedStatement.setInt(3, playerData.getAbilityPoints());
+                preparedStatement.setInt(4, playerData.getRedeemableExp());
+                preparedStatement.setInt(5, playerData.getRedeemableLevels());
+                preparedStatement.setDouble(6, playerData.getDivineEscapeExpDebuff());
+                preparedStatement.setDouble(7, playerData.getDivineEscapeDamageDebuff());
+                preparedStatement.setLong(8, playerData.getDivineEscapeExpEndTime());
+                preparedStatement.setLong(9, playerData.getDivineEscapeDamageEndTime());
+                preparedStatement.setLong(10, playerData.getReplaceAbilityCooldownTime());
+                preparedStatement.setInt(11, playerData.getBoostedExp());
+                UUID partyID = playerData.getPartyUUID();
+                preparedStatement.setString(12, (partyID == null ? "nu" : partyID.toString()));
+
+                preparedStatement.addBatch();
+            }
+
+            preparedStatement.executeBatch();
+        }
+    }
+
     @Nullable
     public static CompletableFuture<Void> copyPlayerData(@NotNull UUID fromUUID, @NotNull UUID toUUID) {
         McRPGPlayer mcRPGPlayer = new McRPGPlayer(toUUID, fromUUID);
         return mcRPGPlayer.getCopyFuture();
     }
 
+    /**
+     * Gets one page of the power level leaderboard, ranked by the database from the stored power levels instead of loading the whole
+     * leaderboard.
+     * <p>
+     * Players with the same power level share the same rank, the same as {@code RANK()} in SQL, and are ordered by their {@link UUID}
+     * inside of the page.
+     *
+     * @param connection The {@link Connection} to use to get the page
+     * @param offset     How many of the highest ranked players to skip before the page starts
+     * @param limit      The most players to put in the page
+     * @return A {@link CompletableFuture} completed with a {@link LeaderboardData} which stores the players in the page and their ranks or will
+     * be completed exceptionally with an {@link SQLException} if an error occurs.
+     */
+    @NotNull
+    public static CompletableFuture<LeaderboardData> getPlayerPowerLeaderboardPage(@NotNull Connection connection, int offset, int limit) {
+
+        DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
+        CompletableFuture<LeaderboardData> completableFuture = new CompletableFuture<>();
+
+        databaseManager.getDatabaseExecutorService().submit(() -> {
+
+            List<PlayerLeaderboardData> playerLeaderboardData = new ArrayList<>();
+            Map<UUID, Integer> playerRankings = new HashMap<>();
+
+            try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT uuid, power_level, RANK() OVER (ORDER BY power_level DESC) AS player_rank FROM "
+                                                                                       + TABLE_NAME + " ORDER BY power_level DESC, uuid LIMIT ? OFFSET ?;")) {
+
+                preparedStatement.setInt(1, Math.max(0, limit));
+                preparedStatement.setInt(2, Math.max(0, offset));
+
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+
+                    while (resultSet.next()) {
+
+                        UUID uuid = UUID.fromString(resultSet.getString("uuid"));
+                        int powerLevel = resultSet.getInt("power_level");
+
+                        playerLeaderboardData.add(new PlayerLeaderboardData(uuid, powerLevel));
+                        playerRankings.put(uuid, resultSet.getInt("player_rank"));
+                    }
+                }
+
+            }
+            catch (SQLException e) {
+                completableFuture.completeExceptionally(e);
+                return;
+            }
+
+            completableFuture.complete(new LeaderboardData(playerLeaderboardData, playerRankings));
+        });
+
+        return completableFuture;
+    }
+
+    /**
+     * Gets the rank of the provided player on the power level leaderboard from the stored power levels, without loading the leaderboard.
+     *
+     * @param connection The {@link Connection} to use to get the rank
+     * @param uuid       The {@link UUID} of the player to get the rank of
+     * @return A {@link CompletableFuture} completed with the player's rank, {@code -1} if the player has no stored data, or will be
+     * completed exceptionally with an {@link SQLException} if an error occurs.
+     */
+    @NotNull
+    public static CompletableFuture<Integer> getPlayerPowerLeaderboardRank(@NotNull Connection connection, @NotNull UUID uuid) {
+
+        DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
+        CompletableFuture<Integer> completableFuture = new CompletableFuture<>();
+
+        databaseManager.getDatabaseExecutorService().submit(() -> {
+
+            int rank = -1;
+
+            try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT (SELECT COUNT(*) FROM " + TABLE_NAME + " other WHERE other.power_level > player.power_level) + 1 AS player_rank FROM "
+                                                                                       + TABLE_NAME + " player WHERE player.uuid = ?;")) {
+
+                preparedStatement.setString(1, uuid.toString());
+
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+
+                    if (resultSet.next()) {
+                        rank = resultSet.getInt("player_rank");
+                    }
+                }
+
+            }
+            catch (SQLException e) {
+                completableFuture.completeExceptionally(e);
+                return;
+            }
+
+            completableFuture.complete(rank);
+        });
+
+        return completableFuture;
+    }
+
     /**
      * Checks to see if this table is accepting queries at the moment. A reason it could be false is either the table is
      * in creation or the table is being updated and for some reason a query is attempting to be run.
@@ -518,5 +668,52 @@ public class PlayerDataDAO {
             this.divineEscapeDamageEndTime = divineEscapeDamageEndTime;
         }
 
+        /**
+         * Creates a new {@link PlayerDataSnapshot} containing the current data of the provided {@link McRPGPlayer}. This can be compared
+         * against the snapshot from the last save to tell if the player's data needs to be saved again.
+         *
+         * @param mcRPGPlayer The {@link McRPGPlayer} to snapshot the data of
+         * @return A {@link PlayerDataSnapshot} containing the current data of the provided {@link McRPGPlayer}
+         */
+        @NotNull
+        public static PlayerDataSnapshot fromPlayer(@NotNull McRPGPlayer mcRPGPlayer) {
+
+            PlayerDataSnapshot playerDataSnapshot = new PlayerDataSnapshot(mcRPGPlayer.getUuid());
+            playerDataSnapshot.setPartyUUID(mcRPGPlayer.getPartyID());
+            playerDataSnapshot.setPowerLevel(mcRPGPlayer.getPowerLevel());
+            playerDataSnapshot.setAbilityPoints(mcRPGPlayer.getAbilityPoints());
+            playerDataSnapshot.setReplaceAbilityCooldownTime(mcRPGPlayer.getEndTimeForReplaceCooldown());
+            playerDataSnapshot.setRedeemableExp(mcRPGPlayer.getRedeemableExp());
+            playerDataSnapshot.setRedeemableLevels(mcRPGPlayer.getRedeemableLevels());
+            playerDataSnapshot.setBoostedExp(mcRPGPlayer.getBoostedExp());
+            playerDataSnapshot.setDivineEscapeExpDebuff(mcRPGPlayer.getDivineEscapeExpDebuff());
+            playerDataSnapshot.setDivineEscapeDamageDebuff(mcRPGPlayer.getDivineEscapeDamageDebuff());
+            playerDataSnapshot.setDivineEscapeExpEndTime(mcRPGPlayer.getDivineEscapeExpEnd());
+            playerDataSnapshot.setDivineEscapeDamageEndTime(mcRPGPlayer.getDivineEscapeDamageEnd());
+
+            return playerDataSnapshot;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof PlayerDataSnapshot that)) {
+                return false;
+            }
+            return powerLevel == that.powerLevel && abilityPoints == that.abilityPoints && replaceAbilityCooldownTime == that.replaceAbilityCooldownTime
+                   && redeemableExp == that.redeemableExp && redeemableLevels == that.redeemableLevels && boostedExp == that.boostedExp
+                   && Double.compare(divineEscapeExpDebuff, that.divineEscapeExpDebuff) == 0
+                   && Double.compare(divineEscapeDamageDebuff, that.divineEscapeDamageDebuff) == 0
+                   && divineEscapeExpEndTime == that.divineEscapeExpEndTime && divineEscapeDamageEndTime == that.divineEscapeDamageEndTime
+                   && uuid.equals(that.uuid) && Objects.equals(partyUUID, that.partyUUID);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uuid, partyUUID, powerLevel, abilityPoints, replaceAbilityCooldownTime, redeemableExp, redeemableLevels,
+                    boostedExp, divineEscapeExpDebuff, divineEscapeDamageDebuff, divineEscapeExpEndTime, divineEscapeDamageEndTime);
+        }
     }
 }
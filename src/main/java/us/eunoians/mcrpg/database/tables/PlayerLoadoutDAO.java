@@ -11,13 +11,17 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
-import java.util.logging.Logger;
 
 /**
  * A DAO used to store a player's loadout
@@ -30,6 +34,8 @@ public class PlayerLoadoutDAO {
     private static final String LOADOUT_TABLE_NAME = "mcrpg_loadout_info";
     private static final String LOADOUT_SLOTS_TABLE_NAME = "mcrpg_loadout_slots";
     private static final int CURRENT_TABLE_VERSION = 1;
+    //How many players' loadouts are looked up per query when saving, which keeps each query well under the bound parameter limit of every driver
+    private static final int LOADOUT_LOOKUP_BATCH_SIZE = 500;
 
     private static boolean isAcceptingQueries = true;
 
@@ -261,7 +267,8 @@ public class PlayerLoadoutDAO {
                     getLoadoutByUUID(connection, loadoutUUID).thenAccept(completableFuture::complete);
                 }
                 else {
-                    initializeNewPlayerLoadout(connection, playerUUID).thenAccept(unused -> completableFuture.complete(new ArrayList<>())).exceptionally(throwable -> {
+                    //The provided connection is only meant for reading, so the new loadout is written through the writer
+                    initializeNewPlayerLoadout(databaseManager.getDatabase().getWriteConnection(), playerUUID).thenAccept(unused -> completableFuture.complete(new ArrayList<>())).exceptionally(throwable -> {
                         McRPG.getInstance().getLogger().log(Level.WARNING, "Player with UUID of " + playerUUID + " attempted to generate a new loadout but failed. Please report the following error to the McRPG developer.");
                         throwable.printStackTrace();
                         completableFuture.complete(new ArrayList<>());
@@ -357,7 +364,7 @@ public class PlayerLoadoutDAO {
      * <p>
      * This updates the {@link #LOADOUT_TABLE_NAME} with the loadout information but doesn't populate {@link #LOADOUT_SLOTS_TABLE_NAME}.
      *
-     * @param connection The {@link Connection} that is used to execute the update
+     * @param connection The {@link Connection} that is used to execute the update, which must be able to write
      * @param uuid       The player {@link UUID} to generate a new loadout for
      * @return A {@link CompletableFuture} that returns the new {@link UUID} of a created loadout whenever the table has been updated, or completes with an
      * exception provided something goes wrong with the update.
@@ -395,57 +402,103 @@ public class PlayerLoadoutDAO {
     @NotNull
     public static CompletableFuture<Void> savePlayerLoadout(@NotNull Connection connection, @NotNull McRPGPlayer mcRPGPlayer) {
 
-        UUID playerUUID = mcRPGPlayer.getUuid();
-        Logger logger = McRPG.getInstance().getLogger();
         DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
         CompletableFuture<Void> completableFuture = new CompletableFuture<>();
-        List<UnlockedAbilities> abilityLoadout = new ArrayList<>(mcRPGPlayer.getAbilityLoadout()); //Make a copy because async stuffs and I don't want the ghost of Trigary to haunt me
+        //Make a copy because async stuffs and I don't want the ghost of Trigary to haunt me
+        Map<UUID, List<UnlockedAbilities>> loadout = Map.of(mcRPGPlayer.getUuid(), new ArrayList<>(mcRPGPlayer.getAbilityLoadout()));
 
         databaseManager.getDatabaseExecutorService().submit(() -> {
-            getPlayerLoadoutUUID(connection, playerUUID).thenAccept(loadoutOptional -> {
-                if (loadoutOptional.isPresent()) {
-                    UUID loadoutUUID = loadoutOptional.get();
-                    try {
-                        connection.setAutoCommit(false);
-                        try (PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM " + LOADOUT_SLOTS_TABLE_NAME + " WHERE loadout_id = ?")) {
-                            preparedStatement.setString(1, loadoutUUID.toString());
-                            preparedStatement.executeUpdate();
-                        }
-                        try (PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO " + LOADOUT_SLOTS_TABLE_NAME + " (loadout_id, slot_number, ability_id) VALUES(?, ?, ?);")) {
 
-                            preparedStatement.setString(1, loadoutUUID.toString());
+            try {
+                DatabaseTransaction.execute(connection, transactionConnection -> writePlayerLoadouts(transactionConnection, loadout));
+                completableFuture.complete(null);
+            }
+            catch (SQLException e) {
+                e.printStackTrace();
+                completableFuture.completeExceptionally(e);
+            }
+        });
 
-                            for (int i = 0; i < abilityLoadout.size(); i++) {
-                                UnlockedAbilities abilityType = abilityLoadout.get(i);
-                                preparedStatement.setInt(2, i);
-                                preparedStatement.setString(3, abilityType.getName());
+        return completableFuture;
+    }
 
-                                preparedStatement.executeUpdate();
-                            }
-                        }
-                        connection.commit();
-                        connection.setAutoCommit(true);
-                    }
-                    catch (SQLException e) {
-                        e.printStackTrace();
-                        completableFuture.completeExceptionally(e);
-                        try {
-                            connection.rollback();
-                            connection.setAutoCommit(true);
-                        } catch (SQLException ex) {
-                            ex.printStackTrace();
-                        }
+    /**
+     * Writes every provided loadout, replacing the slots of each player's loadout using batched statements. The loadouts of all the players
+     * are looked up together instead of one query per player. Players that do not have a loadout yet are skipped, as their loadout is created
+     * whenever it is first loaded.
+     * <p>
+     * This runs on the calling thread and does not manage transactions, so it is expected to be called from a database task that
+     * has already opened one.
+     *
+     * @param connection     The {@link Connection} to use to save the player loadouts
+     * @param playerLoadouts The copied loadout of each player {@link UUID} being saved
+     * @throws SQLException If there is an error with saving
+     */
+    static void writePlayerLoadouts(@NotNull Connection connection, @NotNull Map<UUID, ? extends List<UnlockedAbilities>> playerLoadouts) throws SQLException {
+
+        if (playerLoadouts.isEmpty()) {
+            return;
+        }
+
+        int loadoutNumber = 1; //TODO Same as getPlayerLoadoutUUID, this needs to support multiple loadouts
+        Map<UUID, List<UnlockedAbilities>> loadoutsToSave = new LinkedHashMap<>();
+        Set<UUID> missingPlayers = new HashSet<>(playerLoadouts.keySet());
+        List<UUID> playerUUIDs = new ArrayList<>(playerLoadouts.keySet());
+
+        for (int start = 0; start < playerUUIDs.size(); start += LOADOUT_LOOKUP_BATCH_SIZE) {
+
+            List<UUID> lookupUUIDs = playerUUIDs.subList(start, Math.min(start + LOADOUT_LOOKUP_BATCH_SIZE, playerUUIDs.size()));
+            String parameters = String.join(", ", Collections.nCopies(lookupUUIDs.size(), "?"));
+
+            try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT player_uuid, loadout_id FROM " + LOADOUT_TABLE_NAME +
+                                                                                       " WHERE player_loadout_id = ? AND player_uuid IN (" + parameters + ");")) {
+
+                preparedStatement.setInt(1, loadoutNumber);
+                for (int i = 0; i < lookupUUIDs.size(); i++) {
+                    preparedStatement.setString(i + 2, lookupUUIDs.get(i).toString());
+                }
+
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        UUID playerUUID = UUID.fromString(resultSet.getString("player_uuid"));
+                        missingPlayers.remove(playerUUID);
+                        loadoutsToSave.put(UUID.fromString(resultSet.getString("loadout_id")), playerLoadouts.get(playerUUID));
                     }
                 }
-                completableFuture.complete(null);
-            }).exceptionally(throwable -> {
-                logger.log(Level.SEVERE, "An error occured while getting the loadout UUID to save for player with the UUID of: " + playerUUID);
-                throwable.printStackTrace();
-                return null;
-            });
-        });
+            }
+        }
 
-        return completableFuture;
+        for (UUID playerUUID : missingPlayers) {
+            McRPG.getInstance().getLogger().log(Level.WARNING, "Unable to find a loadout to save for player with the UUID of: " + playerUUID);
+        }
+
+        if (loadoutsToSave.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement deleteStatement = connection.prepareStatement("DELETE FROM " + LOADOUT_SLOTS_TABLE_NAME + " WHERE loadout_id = ?");
+             PreparedStatement insertStatement = connection.prepareStatement("INSERT INTO " + LOADOUT_SLOTS_TABLE_NAME + " (loadout_id, slot_number, ability_id) VALUES(?, ?, ?);")) {
+
+            for (Map.Entry<UUID, List<UnlockedAbilities>> loadoutEntry : loadoutsToSave.entrySet()) {
+
+                String loadoutUUID = loadoutEntry.getKey().toString();
+                List<UnlockedAbilities> abilityLoadout = loadoutEntry.getValue();
+
+                deleteStatement.setString(1, loadoutUUID);
+                deleteStatement.addBatch();
+
+                for (int i = 0; i < abilityLoadout.size(); i++) {
+                    insertStatement.setString(1, loadoutUUID);
+                    insertStatement.setInt(2, i);
+                    insertStatement.setString(3, abilityLoadout.get(i).getName());
+                    insertStatement.addBatch();
+                }
+            }
+
+            //The old slots have to be cleared before the new ones can be inserted
+            deleteStatement.executeBatch();
+            insertStatement.executeBatch();
+        }
     }
 
     /**
@@ -0,0 +1,212 @@
+package us.eunoians.mcrpg.database.tables;
+
+import org.jetbrains.annotations.NotNull;
+import us.eunoians.mcrpg.McRPG;
+import us.eunoians.mcrpg.database.DatabaseManager;
+import us.eunoians.mcrpg.players.McRPGPlayer;
+import us.eunoians.mcrpg.types.GenericAbility;
+import us.eunoians.mcrpg.types.Skills;
+import us.eunoians.mcrpg.types.UnlockedAbilities;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Collects the data of one or more {@link McRPGPlayer}s that needs to be saved across every player table, so that all of it can be written
+ * with batched statements inside of a single transaction.
+ * <p>
+ * Compared to calling each DAO's save method, this means a save is either fully written or not written at all, and on databases such as SQLite where
+ * every commit has to be synced to disk, only one commit is paid for no matter how many rows or players are being saved.
+ * <p>
+ * The data is copied out of each player as it is added, so the batch should be built on the main thread. The database thread that writes it
+ * only ever reads the copies, never the live player.
+ *
+ * @author DiamondDagger590
+ */
+public class PlayerSaveBatch {
+
+    private final Map<UUID, PlayerDataDAO.PlayerDataSnapshot> playerData = new LinkedHashMap<>();
+    private final Map<UUID, PlayerSettingsDAO.PlayerSettingsSnapshot> playerSettings = new LinkedHashMap<>();
+    private final Map<UUID, List<UnlockedAbilities>> playerLoadouts = new LinkedHashMap<>();
+    private final Map<UUID, Map<Skills, SkillDataSnapshot>> skillData = new LinkedHashMap<>();
+    private final Map<UUID, Map<GenericAbility, Boolean>> abilityToggles = new LinkedHashMap<>();
+    private final Map<UUID, Map<UnlockedAbilities, SkillDAO.AbilityAttributeSnapshot>> abilityAttributes = new LinkedHashMap<>();
+
+    /**
+     * Adds the data stored by {@link PlayerDataDAO} for the provided {@link McRPGPlayer} to this batch
+     *
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose data should be saved
+     * @return This {@link PlayerSaveBatch}
+     */
+    @NotNull
+    public PlayerSaveBatch addPlayerData(@NotNull McRPGPlayer mcRPGPlayer) {
+        playerData.put(mcRPGPlayer.getUuid(), PlayerDataDAO.PlayerDataSnapshot.fromPlayer(mcRPGPlayer));
+        return this;
+    }
+
+    /**
+     * Adds the settings stored by {@link PlayerSettingsDAO} for the provided {@link McRPGPlayer} to this batch
+     *
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose settings should be saved
+     * @return This {@link PlayerSaveBatch}
+     */
+    @NotNull
+    public PlayerSaveBatch addPlayerSettings(@NotNull McRPGPlayer mcRPGPlayer) {
+        playerSettings.put(mcRPGPlayer.getUuid(), PlayerSettingsDAO.PlayerSettingsSnapshot.fromPlayer(mcRPGPlayer));
+        return this;
+    }
+
+    /**
+     * Adds the loadout stored by {@link PlayerLoadoutDAO} for the provided {@link McRPGPlayer} to this batch
+     *
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose loadout should be saved
+     * @return This {@link PlayerSaveBatch}
+     */
+    @NotNull
+    public PlayerSaveBatch addPlayerLoadout(@NotNull McRPGPlayer mcRPGPlayer) {
+        playerLoadouts.put(mcRPGPlayer.getUuid(), new ArrayList<>(mcRPGPlayer.getAbilityLoadout()));
+        return this;
+    }
+
+    /**
+     * Adds the level and exp of the provided skills for the provided {@link McRPGPlayer} to this batch
+     *
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose skills should be saved
+     * @param skillTypes  The {@link Skills} that should be saved
+     * @return This {@link PlayerSaveBatch}
+     */
+    @NotNull
+    public PlayerSaveBatch addSkillData(@NotNull McRPGPlayer mcRPGPlayer, @NotNull Collection<Skills> skillTypes) {
+        if (!skillTypes.isEmpty()) {
+            Map<Skills, SkillDataSnapshot> playerSkillData = skillData.computeIfAbsent(mcRPGPlayer.getUuid(), key -> new LinkedHashMap<>());
+            for (SkillDataSnapshot skillDataSnapshot : SkillDAO.captureSkillData(mcRPGPlayer, skillTypes)) {
+                playerSkillData.put(skillDataSnapshot.getSkillType(), skillDataSnapshot);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds the toggled state of the provided abilities for the provided {@link McRPGPlayer} to this batch
+     *
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose ability toggles should be saved
+     * @param abilities   The {@link GenericAbility GenericAbilities} whose toggled state should be saved
+     * @return This {@link PlayerSaveBatch}
+     */
+    @NotNull
+    public PlayerSaveBatch addAbilityToggles(@NotNull McRPGPlayer mcRPGPlayer, @NotNull Collection<? extends GenericAbility> abilities) {
+        if (!abilities.isEmpty()) {
+            abilityToggles.computeIfAbsent(mcRPGPlayer.getUuid(), key -> new LinkedHashMap<>()).putAll(SkillDAO.captureAbilityToggles(mcRPGPlayer, abilities));
+        }
+        return this;
+    }
+
+    /**
+     * Adds the {@link us.eunoians.mcrpg.abilities.attributes.AbilityAttribute}s of the provided abilities for the provided {@link McRPGPlayer} to this batch
+     *
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose ability attributes should be saved
+     * @param abilities   The {@link UnlockedAbilities} whose attributes should be saved
+     * @return This {@link PlayerSaveBatch}
+     */
+    @NotNull
+    public PlayerSaveBatch addAbilityAttributes(@NotNull McRPGPlayer mcRPGPlayer, @NotNull Collection<UnlockedAbilities> abilities) {
+        if (!abilities.isEmpty()) {
+            Map<UnlockedAbilities, SkillDAO.AbilityAttributeSnapshot> playerAttributes = abilityAttributes.computeIfAbsent(mcRPGPlayer.getUuid(), key -> new LinkedHashMap<>());
+            for (SkillDAO.AbilityAttributeSnapshot attributeSnapshot : SkillDAO.captureAbilityAttributes(mcRPGPlayer, abilities)) {
+                playerAttributes.put(attributeSnapshot.ability(), attributeSnapshot);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds every piece of data stored for the provided {@link McRPGPlayer} to this batch
+     *
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose data should all be saved
+     * @return This {@link PlayerSaveBatch}
+     */
+    @NotNull
+    public PlayerSaveBatch addAll(@NotNull McRPGPlayer mcRPGPlayer) {
+        return addPlayerData(mcRPGPlayer)
+                   .addPlayerSettings(mcRPGPlayer)
+                   .addPlayerLoadout(mcRPGPlayer)
+                   .addSkillData(mcRPGPlayer, List.of(Skills.values()))
+                   .addAbilityToggles(mcRPGPlayer, SkillDAO.getAllAbilities())
+                   .addAbilityAttributes(mcRPGPlayer, SkillDAO.getAllUnlockedAbilities());
+    }
+
+    /**
+     * Checks to see if there is anything in this batch to save
+     *
+     * @return {@code true} if there is nothing in this batch to save
+     */
+    public boolean isEmpty() {
+        return playerData.isEmpty() && playerSettings.isEmpty() && playerLoadouts.isEmpty() && skillData.isEmpty()
+                   && abilityToggles.isEmpty() && abilityAttributes.isEmpty();
+    }
+
+    /**
+     * Writes everything in this batch as a single database task and a single transaction. If any part of the save fails then nothing in
+     * this batch is saved.
+     * <p>
+     * The contents of this batch are copied when this is called, so the batch can be reused afterwards without affecting the save.
+     *
+     * @param connection The {@link Connection} to use to save the batch
+     * @return A {@link CompletableFuture} that completes whenever the save has finished or completes with an {@link SQLException} if there
+     * is an error with saving, or a {@link RejectedExecutionException} if the database is too busy to take the save
+     */
+    @NotNull
+    public CompletableFuture<Void> save(@NotNull Connection connection) {
+
+        if (isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
+        CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+
+        List<PlayerDataDAO.PlayerDataSnapshot> playerDataToSave = new ArrayList<>(playerData.values());
+        List<PlayerSettingsDAO.PlayerSettingsSnapshot> playerSettingsToSave = new ArrayList<>(playerSettings.values());
+        Map<UUID, List<UnlockedAbilities>> playerLoadoutsToSave = new LinkedHashMap<>(playerLoadouts);
+        List<SkillDataSnapshot> skillDataToSave = new ArrayList<>();
+        skillData.values().forEach(playerSkillData -> skillDataToSave.addAll(playerSkillData.values()));
+        Map<UUID, Map<GenericAbility, Boolean>> abilityTogglesToSave = new LinkedHashMap<>();
+        abilityToggles.forEach((uuid, toggles) -> abilityTogglesToSave.put(uuid, new LinkedHashMap<>(toggles)));
+        Map<UUID, List<SkillDAO.AbilityAttributeSnapshot>> abilityAttributesToSave = new LinkedHashMap<>();
+        abilityAttributes.forEach((uuid, attributes) -> abilityAttributesToSave.put(uuid, new ArrayList<>(attributes.values())));
+
+        try {
+            databaseManager.getDatabaseExecutorService().submit(() -> {
+
+                try {
+                    DatabaseTransaction.execute(connection, transactionConnection -> {
+                        PlayerDataDAO.writePlayerData(transactionConnection, playerDataToSave);
+                        PlayerSettingsDAO.writePlayerSettings(transactionConnection, playerSettingsToSave);
+                        PlayerLoadoutDAO.writePlayerLoadouts(transactionConnection, playerLoadoutsToSave);
+                        SkillDAO.writePlayerSkillData(transactionConnection, skillDataToSave);
+                        SkillDAO.writePlayerAbilityToggles(transactionConnection, abilityTogglesToSave);
+                        SkillDAO.writePlayerAbilityAttributes(transactionConnection, abilityAttributesToSave);
+                    });
+                    completableFuture.complete(null);
+                }
+                catch (SQLException e) {
+                    completableFuture.completeExceptionally(e);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            //The database is too busy to take the save right now, so fail it and let the players be picked up again by the next save
+            completableFuture.completeExceptionally(e);
+        }
+
+        return completableFuture;
+    }
+}
@@ -12,6 +12,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -214,32 +217,14 @@ public class PlayerSettingsDAO {
     public static CompletableFuture<Void> savePlayerSettings(@NotNull Connection connection, @NotNull McRPGPlayer mcRPGPlayer) {
 
         DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
-        DatabaseDriver databaseDriver = databaseManager.getDriver();
         CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+        PlayerSettingsSnapshot playerSettings = PlayerSettingsSnapshot.fromPlayer(mcRPGPlayer);
 
         databaseManager.getDatabaseExecutorService().submit(() -> {
 
-            try (PreparedStatement preparedStatement = databaseDriver == DatabaseDriver.H2 ? connection.prepareStatement("INSERT INTO " + TABLE_NAME + " (uuid, keep_hand, ignore_tips, auto_deny, require_empty_offhand, display_type, health_type, unarmed_ignore_slot, auto_accept_party_teleports) " +
-                                                                                                                         "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
-                                                                                                                         "keep_hand = VALUES(keep_hand), ignore_tips = VALUES(ignore_tips), auto_deny = VALUES(auto_deny), require_empty_offhand = VALUES(require_empty_offhand), " +
-                                                                                                                         "display_type = VALUES(display_type), health_type = VALUES(health_type), unarmed_ignore_slot = VALUES(unarmed_ignore_slot), auto_accept_party_teleports = VALUES(auto_accept_party_teleports);")
-                                                                                           : connection.prepareStatement("REPLACE INTO " + TABLE_NAME + " (uuid, keep_hand, ignore_tips, auto_deny, require_empty_offhand, display_type, health_type, unarmed_ignore_slot, auto_accept_party_teleports) " +
-                                                                                                                         "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?);")) {
-
-                preparedStatement.setString(1, mcRPGPlayer.getUuid().toString());
-                preparedStatement.setBoolean(2, mcRPGPlayer.isKeepHandEmpty());
-                preparedStatement.setBoolean(3, mcRPGPlayer.isIgnoreTips());
-                preparedStatement.setBoolean(4, mcRPGPlayer.isAutoDeny());
-                preparedStatement.setBoolean(5, mcRPGPlayer.isRequireEmptyOffHand());
-                preparedStatement.setString(6, mcRPGPlayer.getDisplayType().getName());
-                preparedStatement.setString(7, mcRPGPlayer.getHealthbarType().getName());
-                preparedStatement.setInt(8, mcRPGPlayer.getUnarmedIgnoreSlot());
-                preparedStatement.setBoolean(9, mcRPGPlayer.isAutoAcceptPartyInvites());
-
-                preparedStatement.executeUpdate();
-
+            try {
+                DatabaseTransaction.execute(connection, transactionConnection -> writePlayerSettings(transactionConnection, List.of(playerSettings)));
                 completableFuture.complete(null);
-
             }
             catch (SQLException e) {
                 completableFuture.completeExceptionally(e);
@@ -248,6 +233,49 @@ public class PlayerSettingsDAO {
         return completableFuture;
     }
 
+    /**
+     * Writes the player settings stored in every provided {@link PlayerSettingsSnapshot} using a single batched upsert.
+     * <p>
+     * This runs on the calling thread and does not manage transactions, so it is expected to be called from a database task that
+     * has already opened one.
+     *
+     * @param connection     The {@link Connection} to use to save the player settings
+     * @param playerSettings The {@link PlayerSettingsSnapshot}s of the settings being saved
+     * @throws SQLException If there is an error with saving
+     */
+    static void writePlayerSettings(@NotNull Connection connection, @NotNull Collection<PlayerSettingsSnapshot> playerSettings) throws SQLException {
+
+        if (playerSettings.isEmpty()) {
+            return;
+        }
+
+        DatabaseDriver databaseDriver = McRPG.getInstance().getDatabaseManager().getDriver();
+
+        try (PreparedStatement preparedStatement = databaseDriver == DatabaseDriver.H2 ? connection.prepareStatement("INSERT INTO " + TABLE_NAME + " (uuid, keep_hand, ignore_tips, auto_deny, require_empty_offhand, display_type, health_type, unarmed_ignore_slot, auto_accept_party_teleports) " +
+                                                                                                                     "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+                                                                                                                     "keep_hand = VALUES(keep_hand), ignore_tips = VALUES(ignore_tips), auto_deny = VALUES(auto_deny), require_empty_offhand = VALUES(require_empty_offhand), " +
+                                                                                                                     "display_type = VALUES(display_type), health_type = VALUES(health_type), unarmed_ignore_slot = VALUES(unarmed_ignore_slot), auto_accept_party_teleports = VALUES(auto_accept_party_teleports);")
+                                                       : connection.prepareStatement("REPLACE INTO " + TABLE_NAME + " (uuid, keep_hand, ignore_tips, auto_deny, require_empty_offhand, display_type, health_type, unarmed_ignore_slot, auto_accept_party_teleports) " +
+                                                                                         "VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?);")) {
+
+            for (PlayerSettingsSnapshot playerSetting : playerSettings) {
+                preparedStatement.setString(1, playerSetting.getUuid().toString());
+                preparedStatement.setBoolean(2, playerSetting.isKeepHandEmpty());
+                preparedStatement.setBoolean(3, playerSetting.isIgnoreTips());
+                preparedStatement.setBoolean(4, playerSetting.isAutoDeny());
+                preparedStatement.setBoolean(5, playerSetting.isRequireOffHand());
+                preparedStatement.setString(6, playerSetting.getDisplayType().getName());
+                preparedStatement.setString(7, playerSetting.getHealthbarType().getName());
+                preparedStatement.setInt(8, playerSetting.getUnarmedIgnoreSlot());
+                preparedStatement.setBoolean(9, playerSetting.isAutoAcceptPartyTeleports());
+
+                preparedStatement.addBatch();
+            }
+
+            preparedStatement.executeBatch();
+        }
+    }
+
     /**
      * Checks to see if this table is accepting queries at the moment. A reason it could be false is either the table is
      * in creation or the table is being updated and for some reason a query is attempting to be run.
@@ -437,5 +465,46 @@ public class PlayerSettingsDAO {
             this.autoAcceptPartyTeleports = autoAcceptPartyTeleports;
         }
 
+        /**
+         * Creates a new {@link PlayerSettingsSnapshot} containing the current settings of the provided {@link McRPGPlayer}. This can be compared
+         * against the snapshot from the last save to tell if the player's settings need to be saved again.
+         *
+         * @param mcRPGPlayer The {@link McRPGPlayer} to snapshot the settings of
+         * @return A {@link PlayerSettingsSnapshot} containing the current settings of the provided {@link McRPGPlayer}
+         */
+        @NotNull
+        public static PlayerSettingsSnapshot fromPlayer(@NotNull McRPGPlayer mcRPGPlayer) {
+
+            PlayerSettingsSnapshot playerSettingsSnapshot = new PlayerSettingsSnapshot(mcRPGPlayer.getUuid());
+            playerSettingsSnapshot.setKeepHandEmpty(mcRPGPlayer.isKeepHandEmpty());
+            playerSettingsSnapshot.setIgnoreTips(mcRPGPlayer.isIgnoreTips());
+            playerSettingsSnapshot.setAutoDeny(mcRPGPlayer.isAutoDeny());
+            playerSettingsSnapshot.setRequireOffHand(mcRPGPlayer.isRequireEmptyOffHand());
+            playerSettingsSnapshot.setDisplayType(mcRPGPlayer.getDisplayType());
+            playerSettingsSnapshot.setHealthbarType(mcRPGPlayer.getHealthbarType());
+            playerSettingsSnapshot.setUnarmedIgnoreSlot(mcRPGPlayer.getUnarmedIgnoreSlot());
+            playerSettingsSnapshot.setAutoAcceptPartyTeleports(mcRPGPlayer.isAutoAcceptPartyInvites());
+
+            return playerSettingsSnapshot;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof PlayerSettingsSnapshot that)) {
+                return false;
+            }
+            return keepHandEmpty == that.keepHandEmpty && ignoreTips == that.ignoreTips && autoDeny == that.autoDeny
+                   && requireOffHand == that.requireOffHand && unarmedIgnoreSlot == that.unarmedIgnoreSlot
+                   && autoAcceptPartyTeleports == that.autoAcceptPartyTeleports && uuid.equals(that.uuid)
+                   && displayType == that.displayType && healthbarType == that.healthbarType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uuid, keepHandEmpty, ignoreTips, autoDeny, requireOffHand, displayType, healthbarType, unarmedIgnoreSlot, autoAcceptPartyTeleports);
+        }
     }
 }
@@ -2,7 +2,6 @@ package us.eunoians.mcrpg.database.tables;
 
 import org.jetbrains.annotations.NotNull;
 import us.eunoians.mcrpg.McRPG;
-import us.eunoians.mcrpg.abilities.BaseAbility;
 import us.eunoians.mcrpg.abilities.attributes.AbilityAttribute;
 import us.eunoians.mcrpg.abilities.attributes.AbilityAttributeManager;
 import us.eunoians.mcrpg.api.leaderboards.LeaderboardData;
@@ -21,13 +20,18 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
 
 /**
  * A DAO used to store data regarding a player's specific data that doesn't really belong in another table
@@ -40,6 +44,7 @@ public class SkillDAO {
     private static final String ABILITY_TOGGLED_OFF_TABLE_NAME = "mcrpg_toggled_off_abilities";
     private static final String ABILITY_ATTRIBUTE_TABLE_NAME = "mcrpg_ability_attributes";
     private static final int CURRENT_TABLE_VERSION = 1;
+    private static final int SKILL_DATA_TABLE_VERSION = 2;
 
     private static boolean isAcceptingQueries = true;
 
@@ -190,7 +195,7 @@ public class SkillDAO {
                 //Update skill data table
                 TableVersionHistoryDAO.getLatestVersion(connection, SKILL_DATA_TABLE_NAME).thenAccept(lastStoredVersion -> {
 
-                    if (lastStoredVersion >= CURRENT_TABLE_VERSION) {
+                    if (lastStoredVersion >= SKILL_DATA_TABLE_VERSION) {
                         return;
                     }
 
@@ -271,6 +276,35 @@ public class SkillDAO {
                         lastStoredVersion = 1;
                     }
 
+                    //Adds the indexes used by the paged leaderboard queries
+                    if (lastStoredVersion == 1) {
+
+                        List<String> queries = new ArrayList<>();
+
+                        //Lets a skill's leaderboard be read in level order and a player's rank be counted without scanning every skill's rows
+                        queries.add("CREATE INDEX IF NOT EXISTS mcrpg_skill_data_leaderboard_index ON " + SKILL_DATA_TABLE_NAME + " (skill_id, current_level);");
+
+                        //The power leaderboard reads the stored power level instead of summing skill levels, so bring it up to date for players who haven't saved since
+                        queries.add("UPDATE mcrpg_player_data SET power_level = COALESCE((SELECT SUM(current_level) FROM " + SKILL_DATA_TABLE_NAME +
+                                        " WHERE " + SKILL_DATA_TABLE_NAME + ".player_uuid = mcrpg_player_data.uuid), 0);");
+
+                        for (String query : queries) {
+
+                            try (PreparedStatement preparedStatement = connection.prepareStatement(query)) {
+                                preparedStatement.executeUpdate();
+                            }
+                            catch (SQLException e) {
+                                //Neither of these are needed to read or save skills, so keep accepting queries and try again on the next start
+                                McRPG.getInstance().getLogger().log(Level.SEVERE, "Unable to add the leaderboard index to " + SKILL_DATA_TABLE_NAME + ", leaderboards will be slower until it is added", e);
+                                isAcceptingQueries = true;
+                                return;
+                            }
+                        }
+
+                        TableVersionHistoryDAO.setTableVersion(connection, SKILL_DATA_TABLE_NAME, 2);
+                        lastStoredVersion = 2;
+                    }
+
                     isAcceptingQueries = true;
 
                 }).thenAccept(unused -> {
@@ -356,6 +390,129 @@ public class SkillDAO {
         return completableFuture;
     }
 
+    /**
+     * Gets all information that can be provided through this DAO for every {@link Skills} a player has, returning one {@link SkillDataSnapshot}
+     * per skill.
+     * <p>
+     * Unlike calling {@link #getAllPlayerSkillInformation(Connection, UUID, Skills)} for each skill, this runs as a single task that reads each
+     * of the skill data, toggled off ability and ability attribute tables exactly once for the player and then sorts the rows into their snapshots in memory.
+     * This should be preferred whenever a player's full skill data needs to be loaded, such as on login.
+     *
+     * @param connection The {@link Connection} to use to run the queries
+     * @param uuid       The {@link UUID} of the player to get the data for
+     * @return A {@link CompletableFuture} that contains a {@link Map} of every {@link Skills} to its populated {@link SkillDataSnapshot}. If
+     * there is an error, the {@link CompletableFuture} will instead complete with the {@link SQLException}.
+     */
+    @NotNull
+    public static CompletableFuture<Map<Skills, SkillDataSnapshot>> getAllPlayerSkillInformation(@NotNull Connection connection, @NotNull UUID uuid) {
+
+        DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
+        AbilityAttributeManager abilityAttributeManager = McRPG.getInstance().getAbilityAttributeManager();
+        CompletableFuture<Map<Skills, SkillDataSnapshot>> completableFuture = new CompletableFuture<>();
+
+        databaseManager.getDatabaseExecutorService().submit(() -> {
+
+            Map<Skills, SkillDataSnapshot> skillDataSnapshots = new EnumMap<>(Skills.class);
+            Map<String, Skills> skillsById = new HashMap<>();
+            Map<String, GenericAbility> abilitiesById = new HashMap<>();
+
+            for (Skills skillType : Skills.values()) {
+
+                skillDataSnapshots.put(skillType, new SkillDataSnapshot(uuid, skillType));
+                skillsById.put(skillType.getName().toLowerCase(Locale.ROOT), skillType);
+
+                for (GenericAbility genericAbility : skillType.getAllAbilities()) {
+                    abilitiesById.put(genericAbility.getName().toLowerCase(Locale.ROOT), genericAbility);
+                }
+            }
+
+            try {
+
+                //Skill leveling data
+                try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT skill_id, current_level, current_exp FROM " + SKILL_DATA_TABLE_NAME + " WHERE player_uuid = ?;")) {
+
+                    preparedStatement.setString(1, uuid.toString());
+
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+
+                        while (resultSet.next()) {
+
+                            Skills skillType = skillsById.get(resultSet.getString("skill_id").toLowerCase(Locale.ROOT));
+
+                            if (skillType != null) {
+                                SkillDataSnapshot skillDataSnapshot = skillDataSnapshots.get(skillType);
+                                skillDataSnapshot.setCurrentExp(resultSet.getInt("current_exp"));
+                                skillDataSnapshot.setCurrentLevel(resultSet.getInt("current_level"));
+                            }
+                        }
+                    }
+                }
+
+                //Toggled off abilities
+                try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT ability_id FROM " + ABILITY_TOGGLED_OFF_TABLE_NAME + " WHERE player_uuid = ?;")) {
+
+                    preparedStatement.setString(1, uuid.toString());
+
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+
+                        while (resultSet.next()) {
+
+                            GenericAbility genericAbility = abilitiesById.get(resultSet.getString("ability_id").toLowerCase(Locale.ROOT));
+
+                            if (genericAbility != null) {
+                                skillDataSnapshots.get(genericAbility.getSkill()).addAbilityToggledData(genericAbility, false);
+                            }
+                        }
+                    }
+                }
+
+                //Populate toggled on abilities
+                for (SkillDataSnapshot skillDataSnapshot : skillDataSnapshots.values()) {
+
+                    Map<GenericAbility, Boolean> savedToggledOffAbilities = skillDataSnapshot.getAbilityToggledMap();
+
+                    for (GenericAbility genericAbility : skillDataSnapshot.getSkillType().getAllAbilities()) {
+                        if (!savedToggledOffAbilities.containsKey(genericAbility)) {
+                            skillDataSnapshot.addAbilityToggledData(genericAbility, true);
+                        }
+                    }
+                }
+
+                //Ability attributes
+                try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT ability_id, key, value FROM " + ABILITY_ATTRIBUTE_TABLE_NAME + " WHERE player_uuid = ?;")) {
+
+                    preparedStatement.setString(1, uuid.toString());
+
+                    try (ResultSet resultSet = preparedStatement.executeQuery()) {
+
+                        while (resultSet.next()) {
+
+                            GenericAbility genericAbility = abilitiesById.get(resultSet.getString("ability_id").toLowerCase(Locale.ROOT));
+
+                            if (genericAbility == null) {
+                                continue;
+                            }
+
+                            Optional<AbilityAttribute<?>> attributeOptional = abilityAttributeManager.getAttribute(resultSet.getString("key"));
+
+                            if (attributeOptional.isPresent()) {
+                                AbilityAttribute<?> abilityAttribute = attributeOptional.get().create(resultSet.getString("value"));
+                                skillDataSnapshots.get(genericAbility.getSkill()).addAttribute(genericAbility, abilityAttribute);
+                            }
+                        }
+                    }
+                }
+
+                completableFuture.complete(skillDataSnapshots);
+            }
+            catch (SQLException e) {
+                completableFuture.completeExceptionally(e);
+            }
+        });
+
+        return completableFuture;
+    }
+
     /**
      * Gets the player leveling information for a specific player's skill. This method calls {@link #getPlayerSkillLevelingData(Connection, UUID, SkillDataSnapshot)},
      * providing an empty {@link SkillDataSnapshot} with only the provided {@link UUID} and {@link Skills}.
@@ -612,10 +769,10 @@ public class SkillDAO {
     }
 
     /**
-     * Saves all the player skill data for the provided {@link McRPGPlayer}.
+     * Saves all the player skill data for the provided {@link McRPGPlayer} inside of a single transaction.
      * <p>
-     * This method calls {@link #savePlayerSkillData(Connection, McRPGPlayer)}, {@link #savePlayerAbilityToggles(Connection, McRPGPlayer)} and {@link #savePlayerAbilityAttributes(Connection, McRPGPlayer)}
-     * and should serve as a generic save all method.
+     * This method writes everything that {@link #savePlayerSkillData(Connection, McRPGPlayer)}, {@link #savePlayerAbilityToggles(Connection, McRPGPlayer)} and {@link #savePlayerAbilityAttributes(Connection, McRPGPlayer)}
+     * would and should serve as a generic save all method.
      * <p>
      * To save specific information about a player and their skills, developers should call the specific methods that save the information they desire.
      *
@@ -629,17 +786,24 @@ public class SkillDAO {
 
         DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
         CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+        UUID uuid = mcRPGPlayer.getUuid();
+        List<SkillDataSnapshot> skillData = captureSkillData(mcRPGPlayer, List.of(Skills.values()));
+        Map<GenericAbility, Boolean> abilityToggles = captureAbilityToggles(mcRPGPlayer, getAllAbilities());
+        List<AbilityAttributeSnapshot> abilityAttributes = captureAbilityAttributes(mcRPGPlayer, getAllUnlockedAbilities());
 
         databaseManager.getDatabaseExecutorService().submit(() -> {
 
-            CompletableFuture.allOf(savePlayerSkillData(connection, mcRPGPlayer),
-                    savePlayerAbilityToggles(connection, mcRPGPlayer), savePlayerAbilityAttributes(connection, mcRPGPlayer))
-                .thenAccept(completableFuture::complete)
-                .exceptionally(throwable -> {
-                    throwable.printStackTrace();
-                    return null;
+            try {
+                DatabaseTransaction.execute(connection, transactionConnection -> {
+                    writePlayerSkillData(transactionConnection, skillData);
+                    writePlayerAbilityToggles(transactionConnection, Map.of(uuid, abilityToggles));
+                    writePlayerAbilityAttributes(transactionConnection, Map.of(uuid, abilityAttributes));
                 });
-
+                completableFuture.complete(null);
+            }
+            catch (SQLException e) {
+                completableFuture.completeExceptionally(e);
+            }
         });
         return completableFuture;
     }
@@ -654,95 +818,109 @@ public class SkillDAO {
      */
     @NotNull
     public static CompletableFuture<Void> savePlayerAbilityAttributes(@NotNull Connection connection, @NotNull McRPGPlayer mcRPGPlayer) {
+        return savePlayerAbilityAttributes(connection, mcRPGPlayer, getAllUnlockedAbilities());
+    }
+
+    /**
+     * Saves the various {@link AbilityAttribute}s related to only the provided abilities for the provided {@link McRPGPlayer}. The stored attributes
+     * of any ability not provided are left untouched, which makes this the preferred method when only a handful of abilities have changed.
+     *
+     * @param connection  The {@link Connection} to use to save the {@link AbilityAttribute} information
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose {@link AbilityAttribute}s are being saved
+     * @param abilities   The {@link UnlockedAbilities} whose {@link AbilityAttribute}s should be saved
+     * @return A {@link CompletableFuture} that completes whenever the save has finished or completes with an {@link SQLException} if there
+     * is an error with saving
+     */
+    @NotNull
+    public static CompletableFuture<Void> savePlayerAbilityAttributes(@NotNull Connection connection, @NotNull McRPGPlayer mcRPGPlayer, @NotNull Collection<UnlockedAbilities> abilities) {
+
+        if (abilities.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
 
         DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
         CompletableFuture<Void> completableFuture = new CompletableFuture<>();
-        UUID playerUUID = mcRPGPlayer.getUuid();
+        UUID uuid = mcRPGPlayer.getUuid();
+        List<AbilityAttributeSnapshot> abilitiesToSave = captureAbilityAttributes(mcRPGPlayer, abilities);
 
         databaseManager.getDatabaseExecutorService().submit(() -> {
 
             try {
+                DatabaseTransaction.execute(connection, transactionConnection -> writePlayerAbilityAttributes(transactionConnection, Map.of(uuid, abilitiesToSave)));
+                completableFuture.complete(null);
+            }
+            catch (SQLException e) {
+                completableFuture.completeExceptionally(e);
+            }
+        });
 
-                connection.setAutoCommit(false);
-
-                try (PreparedStatement deleteStatement = connection.prepareStatement("DELETE FROM " + ABILITY_ATTRIBUTE_TABLE_NAME + " WHERE player_uuid = ?;")) {
-
-                    deleteStatement.setString(1, playerUUID.toString());
-                    deleteStatement.executeUpdate();
-                }
-
-                try (PreparedStatement preparedStatement = connection.prepareStatement("INSERT INTO " + ABILITY_ATTRIBUTE_TABLE_NAME + " (player_uuid, ability_id, key, value) VALUES(?, ?, ?, ?);")) {
+        return completableFuture;
+    }
 
-                    preparedStatement.setString(1, playerUUID.toString());
+    /**
+     * Writes the provided {@link AbilityAttribute}s for each player, replacing whatever was stored for those abilities using batched statements.
+     * <p>
+     * This runs on the calling thread and does not manage transactions, so it is expected to be called from a database task that
+     * has already opened one.
+     *
+     * @param connection       The {@link Connection} to use to save the {@link AbilityAttribute} information
+     * @param abilitiesToWrite The {@link AbilityAttributeSnapshot}s that should be written for each player {@link UUID}
+     * @throws SQLException If there is an error with saving
+     */
+    static void writePlayerAbilityAttributes(@NotNull Connection connection, @NotNull Map<UUID, ? extends Collection<AbilityAttributeSnapshot>> abilitiesToWrite) throws SQLException {
 
-                    for (Skills skillType : Skills.values()) {
+        if (abilitiesToWrite.isEmpty()) {
+            return;
+        }
 
-                        for (UnlockedAbilities abilityType : skillType.getUnlockedAbilities()) {
-                            BaseAbility baseAbility = mcRPGPlayer.getBaseAbility(abilityType);
-                            preparedStatement.setString(2, abilityType.getName());
+        AbilityAttributeManager abilityAttributeManager = McRPG.getInstance().getAbilityAttributeManager();
+        Optional<AbilityAttribute<?>> tierAttribute = abilityAttributeManager.getAttribute(AbilityAttributeManager.ABILITY_TIER_ATTRIBUTE_KEY);
+        Optional<AbilityAttribute<?>> cooldownAttribute = abilityAttributeManager.getAttribute(AbilityAttributeManager.ABILITY_COOLDOWN_ATTRIBUTE_KEY);
+        Optional<AbilityAttribute<?>> pendingAttribute = abilityAttributeManager.getAttribute(AbilityAttributeManager.ABILITY_PENDING_ATTRIBUTE_KEY);
 
-                            //TODO this is a sloppy hard coded solution. The recode will have attributes inside of ability classes in which we can store/pull values
-                            if (baseAbility.getCurrentTier() > 0) {
-                                Optional<AbilityAttribute<?>> attributeOptional = McRPG.getInstance().getAbilityAttributeManager().getAttribute(AbilityAttributeManager.ABILITY_TIER_ATTRIBUTE_KEY);
+        try (PreparedStatement deleteStatement = connection.prepareStatement("DELETE FROM " + ABILITY_ATTRIBUTE_TABLE_NAME + " WHERE player_uuid = ? AND ability_id = ?;");
+             PreparedStatement insertStatement = connection.prepareStatement("INSERT INTO " + ABILITY_ATTRIBUTE_TABLE_NAME + " (player_uuid, ability_id, key, value) VALUES(?, ?, ?, ?);")) {
 
-                                if (attributeOptional.isPresent()) {
-                                    AbilityAttribute<?> abilityAttribute = attributeOptional.get();
-                                    preparedStatement.setString(3, abilityAttribute.getDatabaseKeyName());
-                                    preparedStatement.setString(4, Integer.toString(baseAbility.getCurrentTier()));
+            for (Map.Entry<UUID, ? extends Collection<AbilityAttributeSnapshot>> playerEntry : abilitiesToWrite.entrySet()) {
 
-                                    preparedStatement.executeUpdate();
-                                }
-                            }
+                String playerUUID = playerEntry.getKey().toString();
 
-                            if (mcRPGPlayer.getCooldown(abilityType) > 0) {
-                                Optional<AbilityAttribute<?>> attributeOptional = McRPG.getInstance().getAbilityAttributeManager().getAttribute(AbilityAttributeManager.ABILITY_COOLDOWN_ATTRIBUTE_KEY);
+                for (AbilityAttributeSnapshot attributeSnapshot : playerEntry.getValue()) {
 
-                                if (attributeOptional.isPresent()) {
-                                    AbilityAttribute<?> abilityAttribute = attributeOptional.get();
-                                    preparedStatement.setString(3, abilityAttribute.getDatabaseKeyName());
-                                    preparedStatement.setString(4, Long.toString(mcRPGPlayer.getCooldown(abilityType)));
+                    UnlockedAbilities abilityType = attributeSnapshot.ability();
 
-                                    preparedStatement.executeUpdate();
-                                }
-                            }
+                    deleteStatement.setString(1, playerUUID);
+                    deleteStatement.setString(2, abilityType.getName());
+                    deleteStatement.addBatch();
 
-                            if (mcRPGPlayer.getPendingUnlockAbilities().contains(abilityType)) {
-                                Optional<AbilityAttribute<?>> attributeOptional = McRPG.getInstance().getAbilityAttributeManager().getAttribute(AbilityAttributeManager.ABILITY_PENDING_ATTRIBUTE_KEY);
+                    //TODO this is a sloppy hard coded solution. The recode will have attributes inside of ability classes in which we can store/pull values
+                    if (attributeSnapshot.tier() > 0 && tierAttribute.isPresent()) {
+                        addAbilityAttributeToBatch(insertStatement, playerUUID, abilityType, tierAttribute.get(), Integer.toString(attributeSnapshot.tier()));
+                    }
 
-                                if (attributeOptional.isPresent()) {
-                                    AbilityAttribute<?> abilityAttribute = attributeOptional.get();
-                                    preparedStatement.setString(3, abilityAttribute.getDatabaseKeyName());
-                                    preparedStatement.setString(4, Boolean.toString(true));
+                    if (attributeSnapshot.cooldown() > 0 && cooldownAttribute.isPresent()) {
+                        addAbilityAttributeToBatch(insertStatement, playerUUID, abilityType, cooldownAttribute.get(), Long.toString(attributeSnapshot.cooldown()));
+                    }
 
-                                    preparedStatement.executeUpdate();
-                                }
-                            }
-                        }
+                    if (attributeSnapshot.pending() && pendingAttribute.isPresent()) {
+                        addAbilityAttributeToBatch(insertStatement, playerUUID, abilityType, pendingAttribute.get(), Boolean.toString(true));
                     }
                 }
-
-                connection.commit();
-                connection.setAutoCommit(true);
-
-                completableFuture.complete(null);
             }
-            catch (SQLException e) {
 
-                //If there is an error, attempt to rollback and set auto commit to true
-                try {
-                    connection.rollback();
-                    connection.setAutoCommit(true);
-                }
-                catch (SQLException ex) {
-                    ex.printStackTrace();
-                    completableFuture.completeExceptionally(ex);
-                }
-
-                completableFuture.completeExceptionally(e);
-            }
-        });
+            //The old attributes have to be cleared before the new ones can be inserted
+            deleteStatement.executeBatch();
+            insertStatement.executeBatch();
+        }
+    }
 
-        return completableFuture;
+    private static void addAbilityAttributeToBatch(@NotNull PreparedStatement insertStatement, @NotNull String playerUUID, @NotNull UnlockedAbilities abilityType,
+                                                   @NotNull AbilityAttribute<?> abilityAttribute, @NotNull String value) throws SQLException {
+        insertStatement.setString(1, playerUUID);
+        insertStatement.setString(2, abilityType.getName());
+        insertStatement.setString(3, abilityAttribute.getDatabaseKeyName());
+        insertStatement.setString(4, value);
+        insertStatement.addBatch();
     }
 
     /**
@@ -757,57 +935,88 @@ public class SkillDAO {
      */
     @NotNull
     public static CompletableFuture<Void> savePlayerAbilityToggles(@NotNull Connection connection, @NotNull McRPGPlayer mcRPGPlayer) {
+        return savePlayerAbilityToggles(connection, mcRPGPlayer, getAllAbilities());
+    }
+
+    /**
+     * Saves the toggled off state of only the provided abilities for the provided {@link McRPGPlayer}. The stored toggle state of any ability
+     * not provided is left untouched.
+     *
+     * @param connection  The {@link Connection} to use to save the ability toggles
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose ability toggles are being saved
+     * @param abilities   The {@link GenericAbility GenericAbilities} whose toggle state should be saved
+     * @return A {@link CompletableFuture} that completes whenever the save has finished or completes with an {@link SQLException} if there
+     * is an error with saving
+     */
+    @NotNull
+    public static CompletableFuture<Void> savePlayerAbilityToggles(@NotNull Connection connection, @NotNull McRPGPlayer mcRPGPlayer, @NotNull Collection<GenericAbility> abilities) {
+
+        if (abilities.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
 
         DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
         CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+        UUID uuid = mcRPGPlayer.getUuid();
+        Map<GenericAbility, Boolean> abilitiesToSave = captureAbilityToggles(mcRPGPlayer, abilities);
 
         databaseManager.getDatabaseExecutorService().submit(() -> {
 
             try {
+                DatabaseTransaction.execute(connection, transactionConnection -> writePlayerAbilityToggles(transactionConnection, Map.of(uuid, abilitiesToSave)));
+                completableFuture.complete(null);
+            }
+            catch (SQLException e) {
+                completableFuture.completeExceptionally(e);
+            }
+        });
 
-                connection.setAutoCommit(false);
+        return completableFuture;
+    }
 
-                //Remove existing values
-                try (PreparedStatement preparedStatement = connection.prepareStatement("DELETE FROM " + ABILITY_TOGGLED_OFF_TABLE_NAME + " WHERE player_uuid = ?;")) {
-                    preparedStatement.setString(1, mcRPGPlayer.getUuid().toString());
-                    preparedStatement.executeUpdate();
-                }
+    /**
+     * Writes the provided toggled states of abilities for each player using batched statements.
+     * <p>
+     * This runs on the calling thread and does not manage transactions, so it is expected to be called from a database task that
+     * has already opened one.
+     *
+     * @param connection       The {@link Connection} to use to save the ability toggles
+     * @param abilitiesToWrite The toggled state of each {@link GenericAbility} that should be written for each player {@link UUID}
+     * @throws SQLException If there is an error with saving
+     */
+    static void writePlayerAbilityToggles(@NotNull Connection connection, @NotNull Map<UUID, ? extends Map<GenericAbility, Boolean>> abilitiesToWrite) throws SQLException {
 
-                try (PreparedStatement abilityToggledOffStatement = connection.prepareStatement("INSERT INTO " + ABILITY_TOGGLED_OFF_TABLE_NAME + " (player_uuid, ability_id) VALUES(?, ?)")) {
+        if (abilitiesToWrite.isEmpty()) {
+            return;
+        }
 
-                    abilityToggledOffStatement.setString(1, mcRPGPlayer.getUuid().toString());
+        try (PreparedStatement deleteStatement = connection.prepareStatement("DELETE FROM " + ABILITY_TOGGLED_OFF_TABLE_NAME + " WHERE player_uuid = ? AND ability_id = ?;");
+             PreparedStatement abilityToggledOffStatement = connection.prepareStatement("INSERT INTO " + ABILITY_TOGGLED_OFF_TABLE_NAME + " (player_uuid, ability_id) VALUES(?, ?)")) {
 
-                    for (Skills skillType : Skills.values()) {
-                        for (GenericAbility genericAbility : skillType.getAllAbilities()) {
-                            if (!mcRPGPlayer.getBaseAbility(genericAbility).isToggled()) {
-                                abilityToggledOffStatement.setString(2, genericAbility.getName());
-                            }
-                        }
-                    }
-                }
+            for (Map.Entry<UUID, ? extends Map<GenericAbility, Boolean>> playerEntry : abilitiesToWrite.entrySet()) {
 
-                connection.commit();
-                connection.setAutoCommit(true);
+                String playerUUID = playerEntry.getKey().toString();
 
-                completableFuture.complete(null);
-            }
-            catch (SQLException e) {
+                for (Map.Entry<GenericAbility, Boolean> toggleEntry : playerEntry.getValue().entrySet()) {
 
-                try {
-                    connection.rollback();
-                    connection.setAutoCommit(true);
-                }
-                catch (SQLException ex) {
-                    ex.printStackTrace();
-                    completableFuture.completeExceptionally(ex);
-                }
+                    GenericAbility genericAbility = toggleEntry.getKey();
 
-                completableFuture.completeExceptionally(e);
-            }
+                    deleteStatement.setString(1, playerUUID);
+                    deleteStatement.setString(2, genericAbility.getName());
+                    deleteStatement.addBatch();
 
-        });
+                    if (!toggleEntry.getValue()) {
+                        abilityToggledOffStatement.setString(1, playerUUID);
+                        abilityToggledOffStatement.setString(2, genericAbility.getName());
+                        abilityToggledOffStatement.addBatch();
+                    }
+                }
+            }
 
-        return completableFuture;
+            //The old toggles have to be cleared before the new ones can be inserted
+            deleteStatement.executeBatch();
+            abilityToggledOffStatement.executeBatch();
+        }
     }
 
     /**
@@ -820,32 +1029,33 @@ public class SkillDAO {
      */
     @NotNull
     public static CompletableFuture<Void> savePlayerSkillData(@NotNull Connection connection, @NotNull McRPGPlayer mcRPGPlayer) {
+        return savePlayerSkillData(connection, mcRPGPlayer, List.of(Skills.values()));
+    }
+
+    /**
+     * Saves skill specific information such as exp for only the provided skills of the provided {@link McRPGPlayer}.
+     *
+     * @param connection  The {@link Connection} to use to save the skill information
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose skill information is being saved
+     * @param skillTypes  The {@link Skills} whose information should be saved
+     * @return A {@link CompletableFuture} that completes whenever the save has finished or completes with an {@link SQLException} if there
+     * is an error with saving
+     */
+    @NotNull
+    public static CompletableFuture<Void> savePlayerSkillData(@NotNull Connection connection, @NotNull McRPGPlayer mcRPGPlayer, @NotNull Collection<Skills> skillTypes) {
+
+        if (skillTypes.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
 
         DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
-        DatabaseDriver databaseDriver = databaseManager.getDriver();
         CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+        List<SkillDataSnapshot> skillsToSave = captureSkillData(mcRPGPlayer, skillTypes);
 
         databaseManager.getDatabaseExecutorService().submit(() -> {
 
-            try (PreparedStatement skillDataStatement = databaseDriver == DatabaseDriver.H2 ? connection.prepareStatement("INSERT INTO " + SKILL_DATA_TABLE_NAME + " (player_uuid, skill_id, current_level, current_exp) VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
-                                                                                                                              "current_level=VALUES(current_level), current_exp=VALUES(current_exp);")
-                                                            : connection.prepareStatement("REPLACE INTO " + SKILL_DATA_TABLE_NAME + " (player_uuid, skill_id, current_level, current_exp) VALUES (?, ?, ?, ?);")) {
-
-                skillDataStatement.setString(1, mcRPGPlayer.getUuid().toString());
-
-                for (Skills skillType : Skills.values()) {
-
-                    Skill skill = mcRPGPlayer.getSkill(skillType);
-                    int currentExp = skill.getCurrentExp();
-                    int currentLevel = skill.getCurrentLevel();
-
-                    skillDataStatement.setString(2, skill.getName().toLowerCase(Locale.ROOT));
-                    skillDataStatement.setInt(3, currentLevel);
-                    skillDataStatement.setInt(4, currentExp);
-
-                    skillDataStatement.executeUpdate();
-                }
-
+            try {
+                DatabaseTransaction.execute(connection, transactionConnection -> writePlayerSkillData(transactionConnection, skillsToSave));
                 completableFuture.complete(null);
             }
             catch (SQLException e) {
@@ -855,6 +1065,123 @@ public class SkillDAO {
         return completableFuture;
     }
 
+    /**
+     * Writes the level and exp stored in each provided {@link SkillDataSnapshot} using a single batched upsert.
+     * <p>
+     * This runs on the calling thread and does not manage transactions, so it is expected to be called from a database task that
+     * has already opened one.
+     *
+     * @param connection    The {@link Connection} to use to save the skill information
+     * @param skillsToWrite The {@link SkillDataSnapshot}s that should be written
+     * @throws SQLException If there is an error with saving
+     */
+    static void writePlayerSkillData(@NotNull Connection connection, @NotNull Collection<SkillDataSnapshot> skillsToWrite) throws SQLException {
+
+        if (skillsToWrite.isEmpty()) {
+            return;
+        }
+
+        DatabaseDriver databaseDriver = McRPG.getInstance().getDatabaseManager().getDriver();
+
+        try (PreparedStatement skillDataStatement = databaseDriver == DatabaseDriver.H2 ? connection.prepareStatement("INSERT INTO " + SKILL_DATA_TABLE_NAME + " (player_uuid, skill_id, current_level, current_exp) VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE " +
+                                                                                                                          "current_level=VALUES(current_level), current_exp=VALUES(current_exp);")
+                                                        : connection.prepareStatement("REPLACE INTO " + SKILL_DATA_TABLE_NAME + " (player_uuid, skill_id, current_level, current_exp) VALUES (?, ?, ?, ?);")) {
+
+            for (SkillDataSnapshot skillDataSnapshot : skillsToWrite) {
+
+                skillDataStatement.setString(1, skillDataSnapshot.getUUID().toString());
+                skillDataStatement.setString(2, skillDataSnapshot.getSkillType().getName().toLowerCase(Locale.ROOT));
+                skillDataStatement.setInt(3, skillDataSnapshot.getCurrentLevel());
+                skillDataStatement.setInt(4, skillDataSnapshot.getCurrentExp());
+
+                skillDataStatement.addBatch();
+            }
+
+            skillDataStatement.executeBatch();
+        }
+    }
+
+    /**
+     * Copies the level and exp of the provided skills of the provided {@link McRPGPlayer} so that they can be written later on a database thread.
+     * This should be called on the main thread, which is the thread that changes skills.
+     *
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose skills should be copied
+     * @param skillTypes  The {@link Skills} to copy
+     * @return A {@link List} of {@link SkillDataSnapshot}s holding the level and exp of each provided skill
+     */
+    @NotNull
+    static List<SkillDataSnapshot> captureSkillData(@NotNull McRPGPlayer mcRPGPlayer, @NotNull Collection<Skills> skillTypes) {
+        List<SkillDataSnapshot> skillData = new ArrayList<>(skillTypes.size());
+        for (Skills skillType : skillTypes) {
+            Skill skill = mcRPGPlayer.getSkill(skillType);
+            skillData.add(new SkillDataSnapshot(mcRPGPlayer.getUuid(), skillType, skill.getCurrentExp(), skill.getCurrentLevel()));
+        }
+        return skillData;
+    }
+
+    /**
+     * Copies the toggled state of the provided abilities of the provided {@link McRPGPlayer} so that they can be written later on a database thread.
+     * This should be called on the main thread, which is the thread that toggles abilities.
+     *
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose ability toggles should be copied
+     * @param abilities   The {@link GenericAbility GenericAbilities} to copy
+     * @return A {@link Map} of each provided {@link GenericAbility} to {@code true} if it is toggled on
+     */
+    @NotNull
+    static Map<GenericAbility, Boolean> captureAbilityToggles(@NotNull McRPGPlayer mcRPGPlayer, @NotNull Collection<? extends GenericAbility> abilities) {
+        Map<GenericAbility, Boolean> abilityToggles = new LinkedHashMap<>();
+        for (GenericAbility genericAbility : abilities) {
+            abilityToggles.put(genericAbility, mcRPGPlayer.getBaseAbility(genericAbility).isToggled());
+        }
+        return abilityToggles;
+    }
+
+    /**
+     * Copies the values of the {@link AbilityAttribute}s of the provided abilities of the provided {@link McRPGPlayer} so that they can be written
+     * later on a database thread. This should be called on the main thread, which is the thread that changes them.
+     *
+     * @param mcRPGPlayer The {@link McRPGPlayer} whose ability attributes should be copied
+     * @param abilities   The {@link UnlockedAbilities} to copy
+     * @return A {@link List} of {@link AbilityAttributeSnapshot}s holding the attribute values of each provided ability
+     */
+    @NotNull
+    static List<AbilityAttributeSnapshot> captureAbilityAttributes(@NotNull McRPGPlayer mcRPGPlayer, @NotNull Collection<UnlockedAbilities> abilities) {
+        List<AbilityAttributeSnapshot> abilityAttributes = new ArrayList<>(abilities.size());
+        for (UnlockedAbilities abilityType : abilities) {
+            abilityAttributes.add(new AbilityAttributeSnapshot(abilityType, mcRPGPlayer.getBaseAbility(abilityType).getCurrentTier(),
+                mcRPGPlayer.getCooldown(abilityType), mcRPGPlayer.getPendingUnlockAbilities().contains(abilityType)));
+        }
+        return abilityAttributes;
+    }
+
+    /**
+     * Gets every {@link GenericAbility} belonging to any {@link Skills}
+     *
+     * @return A {@link List} of every {@link GenericAbility} belonging to any {@link Skills}
+     */
+    @NotNull
+    static List<GenericAbility> getAllAbilities() {
+        List<GenericAbility> abilities = new ArrayList<>();
+        for (Skills skillType : Skills.values()) {
+            abilities.addAll(skillType.getAllAbilities());
+        }
+        return abilities;
+    }
+
+    /**
+     * Gets every {@link UnlockedAbilities} belonging to any {@link Skills}
+     *
+     * @return A {@link List} of every {@link UnlockedAbilities} belonging to any {@link Skills}
+     */
+    @NotNull
+    static List<UnlockedAbilities> getAllUnlockedAbilities() {
+        List<UnlockedAbilities> abilities = new ArrayList<>();
+        for (Skills skillType : Skills.values()) {
+            Collections.addAll(abilities, skillType.getUnlockedAbilities());
+        }
+        return abilities;
+    }
+
     /**
      * Gets the player leaderboard rankings for the provided {@link Skills} skill type.
      *
@@ -947,6 +1274,110 @@ public class SkillDAO {
         return completableFuture;
     }
 
+    /**
+     * Gets one page of the player leaderboard rankings for the provided {@link Skills} skill type, ranked by the database instead of
+     * loading the whole leaderboard.
+     * <p>
+     * Players with the same level share the same rank, the same as {@code RANK()} in SQL, and are ordered by their {@link UUID} inside of
+     * the page.
+     *
+     * @param connection The {@link Connection} to use to get the page
+     * @param skillType  The {@link Skills} skill type to get the page for
+     * @param offset     How many of the highest ranked players to skip before the page starts
+     * @param limit      The most players to put in the page
+     * @return A {@link CompletableFuture} completed with a {@link LeaderboardData} which stores the players in the page and their ranks or will
+     * be completed exceptionally with an {@link SQLException} if an error occurs.
+     */
+    @NotNull
+    public static CompletableFuture<LeaderboardData> getPlayerLeaderboardPage(@NotNull Connection connection, @NotNull Skills skillType, int offset, int limit) {
+
+        DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
+        CompletableFuture<LeaderboardData> completableFuture = new CompletableFuture<>();
+
+        databaseManager.getDatabaseExecutorService().submit(() -> {
+
+            List<PlayerLeaderboardData> playerLeaderboardData = new ArrayList<>();
+            Map<UUID, Integer> playerRankings = new HashMap<>();
+
+            try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT player_uuid, current_level, RANK() OVER (ORDER BY current_level DESC) AS player_rank FROM "
+                                                                                       + SKILL_DATA_TABLE_NAME + " WHERE skill_id = ? ORDER BY current_level DESC, player_uuid LIMIT ? OFFSET ?;")) {
+
+                preparedStatement.setString(1, skillType.getName().toLowerCase());
+                preparedStatement.setInt(2, Math.max(0, limit));
+                preparedStatement.setInt(3, Math.max(0, offset));
+
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+
+                    while (resultSet.next()) {
+
+                        UUID uuid = UUID.fromString(resultSet.getString("player_uuid"));
+                        int level = resultSet.getInt("current_level");
+
+                        playerLeaderboardData.add(new PlayerLeaderboardData(uuid, level));
+                        playerRankings.put(uuid, resultSet.getInt("player_rank"));
+                    }
+                }
+
+            }
+            catch (SQLException e) {
+                completableFuture.completeExceptionally(e);
+                return;
+            }
+
+            completableFuture.complete(new LeaderboardData(playerLeaderboardData, playerRankings));
+        });
+
+        return completableFuture;
+    }
+
+    /**
+     * Gets the rank of the provided player on the leaderboard for the provided {@link Skills} skill type, without loading the leaderboard.
+     * <p>
+     * The rank is one more than the amount of players with a higher level, which is the same rank {@code RANK()} would give but only has to
+     * count part of the skill's index.
+     *
+     * @param connection The {@link Connection} to use to get the rank
+     * @param uuid       The {@link UUID} of the player to get the rank of
+     * @param skillType  The {@link Skills} skill type to get the rank for
+     * @return A {@link CompletableFuture} completed with the player's rank, {@code -1} if the player has no data for that skill, or will be
+     * completed exceptionally with an {@link SQLException} if an error occurs.
+     */
+    @NotNull
+    public static CompletableFuture<Integer> getPlayerLeaderboardRank(@NotNull Connection connection, @NotNull UUID uuid, @NotNull Skills skillType) {
+
+        DatabaseManager databaseManager = McRPG.getInstance().getDatabaseManager();
+        CompletableFuture<Integer> completableFuture = new CompletableFuture<>();
+
+        databaseManager.getDatabaseExecutorService().submit(() -> {
+
+            int rank = -1;
+
+            try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT (SELECT COUNT(*) FROM " + SKILL_DATA_TABLE_NAME + " other WHERE other.skill_id = player.skill_id " +
+                                                                                       "AND other.current_level > player.current_level) + 1 AS player_rank FROM " + SKILL_DATA_TABLE_NAME +
+                                                                                       " player WHERE player.player_uuid = ? AND player.skill_id = ?;")) {
+
+                preparedStatement.setString(1, uuid.toString());
+                preparedStatement.setString(2, skillType.getName().toLowerCase());
+
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+
+                    if (resultSet.next()) {
+                        rank = resultSet.getInt("player_rank");
+                    }
+                }
+
+            }
+            catch (SQLException e) {
+                completableFuture.completeExceptionally(e);
+                return;
+            }
+
+            completableFuture.complete(rank);
+        });
+
+        return completableFuture;
+    }
+
     /**
      * Checks to see if this table is accepting queries at the moment. A reason it could be false is either the table is
      * in creation or the table is being updated and for some reason a query is attempting to be run.
@@ -957,4 +1388,14 @@ public class SkillDAO {
         return isAcceptingQueries;
     }
 
+    /**
+     * The values of the {@link AbilityAttribute}s of a single ability, copied from a player so that they can be written on a database thread
+     *
+     * @param ability  The {@link UnlockedAbilities} the values belong to
+     * @param tier     The tier of the ability
+     * @param cooldown The cooldown of the ability, or {@code 0} or less if it isn't on cooldown
+     * @param pending  If the ability is waiting to be accepted into the player's loadout
+     */
+    record AbilityAttributeSnapshot(@NotNull UnlockedAbilities ability, int tier, long cooldown, boolean pending) {
+    }
 }
@@ -1,11 +1,5 @@
 package us.eunoians.mcrpg.events.mcrpg;
 
-import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import com.sk89q.worldguard.WorldGuard;
-import com.sk89q.worldguard.protection.ApplicableRegionSet;
-import com.sk89q.worldguard.protection.managers.RegionManager;
-import com.sk89q.worldguard.protection.regions.ProtectedRegion;
-import com.sk89q.worldguard.protection.regions.RegionContainer;
 import fr.neatmonster.nocheatplus.hooks.NCPExemptionManager;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
@@ -20,7 +14,7 @@ import us.eunoians.mcrpg.api.util.FileManager;
 import us.eunoians.mcrpg.api.util.blood.BloodManager;
 import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
-import us.eunoians.mcrpg.util.worldguard.ActionLimiterParser;
+import us.eunoians.mcrpg.util.worldguard.LimiterExpression;
 import us.eunoians.mcrpg.util.worldguard.WGRegion;
 import us.eunoians.mcrpg.util.worldguard.WGSupportManager;
 
@@ -53,35 +47,24 @@ public class AbilityActivate implements Listener{
       if(!wgSupportManager.isWorldTracker(e.getMcRPGPlayer().getPlayer().getWorld())){
         return;
       }
-      RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
       Location loc = e.getMcRPGPlayer().getPlayer().getLocation();
-      RegionManager manager = container.get(BukkitAdapter.adapt(loc.getWorld()));
-      
-      HashMap<String, WGRegion> regions = wgSupportManager.getRegionManager().get(loc.getWorld());
-      
-      assert manager != null;
-      ApplicableRegionSet set = manager.getApplicableRegions(BukkitAdapter.asBlockVector(loc));
-      for(ProtectedRegion region : set){
-        if(regions.containsKey(region.getId())){
-          HashMap<String, List<String>> abilityExpressions = regions.get(region.getId()).getAbilityExpressions();
-          if(abilityExpressions.containsKey("All")){
-            List<String> expressions = abilityExpressions.get("All");
-            for(String s : expressions){
-              ActionLimiterParser actionLimiterParser = new ActionLimiterParser(s, e.getMcRPGPlayer());
-              if(actionLimiterParser.evaluateExpression((UnlockedAbilities) e.getAbility().getGenericAbility())){
-                e.setCancelled(true);
-                return;
-              }
+      for(WGRegion region : wgSupportManager.getRegionCache().getRegions(loc)){
+        HashMap<String, List<LimiterExpression>> abilityExpressions = region.getAbilityExpressions();
+        if(abilityExpressions.containsKey("All")){
+          for(LimiterExpression expression : abilityExpressions.get("All")){
+            if(expression.test(e.getMcRPGPlayer(), (UnlockedAbilities) e.getAbility().getGenericAbility())){
+              e.setCancelled(true);
+              return;
             }
           }
-          else if(abilityExpressions.containsKey(e.getAbility().getGenericAbility().getSkill())){
-            List<String> expressions = abilityExpressions.get(e.getAbility().getGenericAbility().getSkill());
-            if(evaluateExpressions(e, expressions)) return;
-          }
-          else if(abilityExpressions.containsKey(e.getAbility().getGenericAbility().getName())){
-            List<String> expressions = abilityExpressions.get(e.getAbility().getGenericAbility().getName());
-            if(evaluateExpressions(e, expressions)) return;
-          }
+        }
+        else if(abilityExpressions.containsKey(e.getAbility().getGenericAbility().getSkill())){
+          List<LimiterExpression> expressions = abilityExpressions.get(e.getAbility().getGenericAbility().getSkill());
+          if(evaluateExpressions(e, expressions)) return;
+        }
+        else if(abilityExpressions.containsKey(e.getAbility().getGenericAbility().getName())){
+          List<LimiterExpression> expressions = abilityExpressions.get(e.getAbility().getGenericAbility().getName());
+          if(evaluateExpressions(e, expressions)) return;
         }
       }
     }
@@ -109,10 +92,9 @@ public class AbilityActivate implements Listener{
     }
   }
   
-  private boolean evaluateExpressions(AbilityActivateEvent e, List<String> expressions){
-    for(String s : expressions){
-      ActionLimiterParser actionLimiterParser = new ActionLimiterParser(s, e.getMcRPGPlayer());
-      if(actionLimiterParser.evaluateExpression()){
+  private boolean evaluateExpressions(AbilityActivateEvent e, List<LimiterExpression> expressions){
+    for(LimiterExpression expression : expressions){
+      if(expression.test(e.getMcRPGPlayer())){
         e.setCancelled(true);
         return true;
       }
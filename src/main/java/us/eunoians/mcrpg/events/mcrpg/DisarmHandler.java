@@ -20,7 +20,7 @@ import us.eunoians.mcrpg.players.McRPGPlayer;
 import us.eunoians.mcrpg.types.DefaultAbilities;
 import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
 
 import java.util.Random;
 
@@ -31,7 +31,7 @@ public class DisarmHandler implements Listener{
     McRPGPlayer target = e.getTarget();
     StickyFingers stickyFingers = (StickyFingers) target.getBaseAbility(DefaultAbilities.STICKY_FINGERS);
     if(DefaultAbilities.STICKY_FINGERS.isEnabled() && stickyFingers.isToggled()){
-      Parser parser = DefaultAbilities.STICKY_FINGERS.getActivationEquation();
+      ExpressionEvaluation parser = DefaultAbilities.STICKY_FINGERS.getActivationEvaluation();
       parser.setVariable("swords_level", target.getSkill(Skills.UNARMED).getCurrentLevel());
       parser.setVariable("power_level", target.getPowerLevel());
       double bonus = 0.0;
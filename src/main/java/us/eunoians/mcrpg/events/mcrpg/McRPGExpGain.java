@@ -1,12 +1,5 @@
 package us.eunoians.mcrpg.events.mcrpg;
 
-import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import com.sk89q.worldguard.WorldGuard;
-import com.sk89q.worldguard.protection.ApplicableRegionSet;
-import com.sk89q.worldguard.protection.managers.RegionManager;
-import com.sk89q.worldguard.protection.regions.ProtectedRegion;
-import com.sk89q.worldguard.protection.regions.RegionContainer;
-import de.tr7zw.changeme.nbtapi.NBTItem;
 import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -27,10 +20,9 @@ import us.eunoians.mcrpg.api.events.mcrpg.sorcery.HadesDomainEvent;
 import us.eunoians.mcrpg.api.exceptions.McRPGPlayerNotFoundException;
 import us.eunoians.mcrpg.api.util.FileManager;
 import us.eunoians.mcrpg.api.util.Methods;
-import us.eunoians.mcrpg.api.util.WorldModifierManager;
-import us.eunoians.mcrpg.api.util.blood.BloodManager;
 import us.eunoians.mcrpg.api.util.books.BookManager;
 import us.eunoians.mcrpg.api.util.books.SkillBookFactory;
+import us.eunoians.mcrpg.api.util.exp.PlayerExpModifiers;
 import us.eunoians.mcrpg.party.Party;
 import us.eunoians.mcrpg.players.McRPGPlayer;
 import us.eunoians.mcrpg.players.PlayerManager;
@@ -38,8 +30,9 @@ import us.eunoians.mcrpg.types.GainReason;
 import us.eunoians.mcrpg.types.PartyUpgrades;
 import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
-import us.eunoians.mcrpg.util.Parser;
-import us.eunoians.mcrpg.util.worldguard.ActionLimiterParser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
+import us.eunoians.mcrpg.util.ExpressionRegistry;
+import us.eunoians.mcrpg.util.worldguard.LimiterExpression;
 import us.eunoians.mcrpg.util.worldguard.WGRegion;
 import us.eunoians.mcrpg.util.worldguard.WGSupportManager;
 
@@ -67,9 +60,12 @@ public class McRPGExpGain implements Listener{
       e.setCancelled(true);
       return;
     }
+    //Gains that were added up are given a tick late, so check the rules for where the player was when they gained the exp
+    Location gainLocation = e.getGainLocation();
+    PlayerExpModifiers expModifiers = mp.getExpModifiers();
+    expModifiers.update(p, gainLocation.getWorld());
     //Disabled Worlds
-    if(McRPG.getInstance().getConfig().contains("Configuration.DisabledWorlds") &&
-         McRPG.getInstance().getConfig().getStringList("Configuration.DisabledWorlds").contains(e.getMcRPGPlayer().getPlayer().getWorld().getName())) {
+    if(expModifiers.isWorldDisabled()) {
       return;
     }
     if(McRPG.getInstance().getConfig().getBoolean("Configuration.UseLevelPerms") && !(p.hasPermission("mcrpg.*") || p.hasPermission("mcrpg." + skill.getName().toLowerCase() + ".*")
@@ -83,49 +79,36 @@ public class McRPGExpGain implements Listener{
     }
     else if(McRPG.getInstance().isWorldGuardEnabled() && e.getGainType() != GainReason.REDEEM && e.getGainType() != GainReason.ARTIFACT && e.getGainType() != GainReason.COMMAND && e.getGainType() != GainReason.PARTY){
       WGSupportManager wgSupportManager = McRPG.getInstance().getWgSupportManager();
-      if(wgSupportManager.isWorldTracker(e.getMcRPGPlayer().getPlayer().getWorld())){
-        RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
-        Location loc = e.getMcRPGPlayer().getPlayer().getLocation();
-        RegionManager manager = container.get(BukkitAdapter.adapt(loc.getWorld()));
-        
-        HashMap<String, WGRegion> regions = wgSupportManager.getRegionManager().get(loc.getWorld());
-        assert manager != null;
-        ApplicableRegionSet set = manager.getApplicableRegions(BukkitAdapter.asBlockVector(loc));
+      if(wgSupportManager.isWorldTracker(gainLocation.getWorld())){
         boolean useMultiplier = false;
         double lowestMultiplier = 0;
         boolean continueSeaching = true;
-        for(ProtectedRegion region : set){
-          if(regions.containsKey(region.getId())){
-            double multiplier = regions.get(region.getId()).getExpMultiplier();
-            if(useMultiplier && multiplier < lowestMultiplier){
-              lowestMultiplier = multiplier;
-            }
-            else{
-              lowestMultiplier = multiplier;
-              useMultiplier = true;
-            }
-            if(!continueSeaching){
-              continue;
-            }
-            HashMap<String, List<String>> expExpression = regions.get(region.getId()).getExpGainExpressions();
-            if(expExpression.containsKey("All")){
-              List<String> expressions = expExpression.get("All");
-              for(String s : expressions){
-                ActionLimiterParser actionLimiterParser = new ActionLimiterParser(s, e.getMcRPGPlayer());
-                if(actionLimiterParser.evaluateExpression(e.getSkillGained().getType())){
-                  e.setCancelled(true);
-                  continueSeaching = false;
-                }
+        for(WGRegion region : wgSupportManager.getRegionCache().getRegions(gainLocation)){
+          double multiplier = region.getExpMultiplier();
+          if(useMultiplier && multiplier < lowestMultiplier){
+            lowestMultiplier = multiplier;
+          }
+          else{
+            lowestMultiplier = multiplier;
+            useMultiplier = true;
+          }
+          if(!continueSeaching){
+            continue;
+          }
+          HashMap<String, List<LimiterExpression>> expExpression = region.getExpGainExpressions();
+          if(expExpression.containsKey("All")){
+            for(LimiterExpression expression : expExpression.get("All")){
+              if(expression.test(e.getMcRPGPlayer(), e.getSkillGained().getType())){
+                e.setCancelled(true);
+                continueSeaching = false;
               }
             }
-            if(expExpression.containsKey(e.getSkillGained().getType().getName())){
-              List<String> expressions = expExpression.get(e.getSkillGained().getType().getName());
-              for(String s : expressions){
-                ActionLimiterParser actionLimiterParser = new ActionLimiterParser(s, e.getMcRPGPlayer());
-                if(actionLimiterParser.evaluateExpression()){
-                  e.setCancelled(true);
-                  continueSeaching = false;
-                }
+          }
+          if(expExpression.containsKey(e.getSkillGained().getType().getName())){
+            for(LimiterExpression expression : expExpression.get(e.getSkillGained().getType().getName())){
+              if(expression.test(e.getMcRPGPlayer())){
+                e.setCancelled(true);
+                continueSeaching = false;
               }
             }
           }
@@ -135,15 +118,12 @@ public class McRPGExpGain implements Listener{
     }
     
     FileConfiguration config = McRPG.getInstance().getFileManager().getFile(FileManager.Files.CONFIG);
-    if(McRPG.getInstance().getWorldModifierManager().getWorldModifiers().containsKey(p.getWorld().getName()) && e.getGainType() != GainReason.REDEEM && e.getGainType() != GainReason.ARTIFACT && e.getGainType() != GainReason.COMMAND && e.getGainType() != GainReason.PARTY){
-      WorldModifierManager.ExpModifierWrapper modifierWrapper = McRPG.getInstance().getWorldModifierManager().getWorldModifiers().get(p.getWorld().getName());
-      if(modifierWrapper.isModified(e.getSkillGained().getType())){
-        expMultiplier += (modifierWrapper.getModifier(e.getSkillGained().getType()) - 1);
-      }
+    if(e.getGainType() != GainReason.REDEEM && e.getGainType() != GainReason.ARTIFACT && e.getGainType() != GainReason.COMMAND && e.getGainType() != GainReason.PARTY){
+      expMultiplier += (expModifiers.getWorldModifier(e.getSkillGained().getType()) - 1);
     }
     
     if(e.getGainType() != GainReason.REDEEM && e.getGainType() != GainReason.ARTIFACT && e.getGainType() != GainReason.COMMAND && e.getGainType() != GainReason.PARTY && mp.getBoostedExp() > 0){
-      Parser boostedExpParser = new Parser(config.getString("Configuration.BoostedExpUsageRate"));
+      ExpressionEvaluation boostedExpParser = ExpressionRegistry.newEvaluation(config.getString("Configuration.BoostedExpUsageRate"));
       boostedExpParser.setVariable("gained_exp", e.getExpGained());
       int extraExp = (int) boostedExpParser.getValue();
       if(extraExp > mp.getBoostedExp()){
@@ -154,69 +134,63 @@ public class McRPGExpGain implements Listener{
     }
     BookManager bookManager = McRPG.getInstance().getBookManager();
     Random rand = new Random();
-    int bookChance = config.getBoolean("Configuration.DisableBooksInEnd", false) && p.getLocation().getBlock().getBiome().name().contains("END") ? 100001 : rand.nextInt(100000);
-    bookChance = (e.getGainType() != GainReason.REDEEM && e.getGainType() != GainReason.ARTIFACT && e.getGainType() != GainReason.COMMAND) ? 0 : bookChance;
     Location loc = e.getMcRPGPlayer().getPlayer().getLocation();
     
-    if(bookManager.getEnabledUnlockEvents().contains("ExpGain")){
-      if(!bookManager.getUnlockExcluded().contains(skill.getName())){
-        double chance = bookManager.getDefaultUnlockChance();
-        if(bookManager.getExpChances().containsKey("Unlock") && bookManager.getExpChances().get("Unlock").containsKey(skill)){
-          chance = bookManager.getExpChances().get("Unlock").get(skill);
-        }
-        chance *= 1000;
-        if(chance >= bookChance){
-          loc.getWorld().dropItemNaturally(loc, SkillBookFactory.generateUnlockBook());
+    //Books are rolled for every gain added up into this event, the same as if they had been given one at a time
+    for(int gain = 0; gain < e.getGainCount(); gain++){
+      int bookChance = config.getBoolean("Configuration.DisableBooksInEnd", false) && p.getLocation().getBlock().getBiome().name().contains("END") ? 100001 : rand.nextInt(100000);
+      bookChance = (e.getGainType() != GainReason.REDEEM && e.getGainType() != GainReason.ARTIFACT && e.getGainType() != GainReason.COMMAND) ? 0 : bookChance;
+      
+      if(bookManager.getEnabledUnlockEvents().contains("ExpGain")){
+        if(!bookManager.getUnlockExcluded().contains(skill.getName())){
+          double chance = bookManager.getDefaultUnlockChance();
+          if(bookManager.getExpChances().containsKey("Unlock") && bookManager.getExpChances().get("Unlock").containsKey(skill)){
+            chance = bookManager.getExpChances().get("Unlock").get(skill);
+          }
+          chance *= 1000;
+          if(chance >= bookChance){
+            loc.getWorld().dropItemNaturally(loc, SkillBookFactory.generateUnlockBook());
+          }
         }
       }
-    }
-    if(bookManager.getEnabledUpgradeEvents().contains("ExpGain")){
-      if(!bookManager.getUpgradeExcluded().contains(skill.getName())){
-        double chance = bookManager.getDefaultUpgradeChance();
-        if(bookManager.getExpChances().containsKey("Upgrade") && bookManager.getExpChances().get("Upgrade").containsKey(skill)){
-          chance = bookManager.getExpChances().get("Upgrade").get(skill);
-        }
-        chance *= 1000;
-        if(chance >= bookChance){
-          loc.getWorld().dropItemNaturally(loc, SkillBookFactory.generateUpgradeBook());
+      if(bookManager.getEnabledUpgradeEvents().contains("ExpGain")){
+        if(!bookManager.getUpgradeExcluded().contains(skill.getName())){
+          double chance = bookManager.getDefaultUpgradeChance();
+          if(bookManager.getExpChances().containsKey("Upgrade") && bookManager.getExpChances().get("Upgrade").containsKey(skill)){
+            chance = bookManager.getExpChances().get("Upgrade").get(skill);
+          }
+          chance *= 1000;
+          if(chance >= bookChance){
+            loc.getWorld().dropItemNaturally(loc, SkillBookFactory.generateUpgradeBook());
+          }
         }
       }
     }
     
     //Blood
-    ItemStack heldItem = p.getInventory().getItemInMainHand();
-    if(heldItem.getType() != Material.AIR){
-      NBTItem nbtItem = new NBTItem(heldItem);
-      if((e.getGainType() == GainReason.BREAK && BloodManager.BloodType.TOOL.isMaterialApplicable(heldItem.getType()))
-           || (e.getGainType() == GainReason.KILL && BloodManager.BloodType.WEAPON.isMaterialApplicable(heldItem.getType()))){
-        if(nbtItem.hasKey("McRPGBloodItem")){
-          int multiplier = nbtItem.getInteger("ExpBoost");
-          expMultiplier += (double) (multiplier/100);
-    
-          double chance = nbtItem.getDouble("ShatterChance");
-          int val = (int) (chance * 1000);
-          if(val >= rand.nextInt(100000)){
-            p.getInventory().setItemInMainHand(new ItemStack(Material.AIR));
-            p.updateInventory();
-            p.playSound(p.getLocation(), Sound.ENTITY_ITEM_BREAK, 0.5f, 1f);
-            p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() + McRPG.getInstance().getLangFile().getString("Messages.Blood.ItemShatter")));
-          }
-        }
+    PlayerExpModifiers.BloodBoost heldBlood = expModifiers.getHeldBlood();
+    if(heldBlood != null && ((e.getGainType() == GainReason.BREAK && heldBlood.isTool()) || (e.getGainType() == GainReason.KILL && heldBlood.isWeapon()))){
+      expMultiplier += (double) (heldBlood.getExpBoost()/100);
+      
+      if(rollShatter(heldBlood.getShatterChance(), e.getGainCount(), rand)){
+        p.getInventory().setItemInMainHand(new ItemStack(Material.AIR));
+        p.updateInventory();
+        p.playSound(p.getLocation(), Sound.ENTITY_ITEM_BREAK, 0.5f, 1f);
+        p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() + McRPG.getInstance().getLangFile().getString("Messages.Blood.ItemShatter")));
+        expModifiers.invalidateItems();
       }
     }
-    ItemStack[] armorContents = p.getInventory().getArmorContents();
-    for(int i = 0; i < armorContents.length; i++){
-      ItemStack itemStack = p.getInventory().getArmorContents()[i];
-      if(itemStack != null && itemStack.getType() != Material.AIR){
-        NBTItem nbtItem = new NBTItem(itemStack);
-        if(nbtItem.hasKey("McRPGBloodItem")){
-          int multiplier = nbtItem.getInteger("ExpBoost");
-          
-          expMultiplier += (double) (multiplier/100);
+    if(expModifiers.hasArmorBlood()){
+      ItemStack[] armorContents = null;
+      for(int i = 0; i < 4; i++){
+        PlayerExpModifiers.BloodBoost armorBlood = expModifiers.getArmorBlood(i);
+        if(armorBlood != null){
+          expMultiplier += (double) (armorBlood.getExpBoost()/100);
           
-          double chance = nbtItem.getDouble("ShatterChance");
-          int val = (int) (chance * 1000);
-          if(val >= rand.nextInt(100000)){
+          if(rollShatter(armorBlood.getShatterChance(), e.getGainCount(), rand)){
+            if(armorContents == null){
+              armorContents = p.getInventory().getArmorContents();
+            }
             armorContents[i] = new ItemStack(Material.AIR);
             p.updateInventory();
             p.playSound(p.getLocation(), Sound.ENTITY_ITEM_BREAK, 0.5f, 1f);
@@ -224,8 +198,12 @@ public class McRPGExpGain implements Listener{
           }
         }
       }
+      //Only write the armor back when something actually shattered
+      if(armorContents != null){
+        p.getInventory().setArmorContents(armorContents);
+        expModifiers.invalidateItems();
+      }
     }
-    p.getInventory().setArmorContents(armorContents);
     
     //Divine Escape exp debuff
     if(e.getMcRPGPlayer().getDivineEscapeExpDebuff() > 0 && e.getGainType() != GainReason.REDEEM && e.getGainType() != GainReason.ARTIFACT && e.getGainType() != GainReason.COMMAND){
@@ -296,6 +274,24 @@ public class McRPGExpGain implements Listener{
     }
   }
   
+  /**
+   * Rolls a blood item's shatter chance once for every gain added up into the event, the same as if they had been given one at a time
+   *
+   * @param chance    The shatter chance of the item
+   * @param gainCount How many gains were added up into the event
+   * @param rand      The {@link Random} to roll with
+   * @return {@code true} if the item shattered
+   */
+  private static boolean rollShatter(double chance, int gainCount, Random rand){
+    int val = (int) (chance * 1000);
+    for(int i = 0; i < gainCount; i++){
+      if(val >= rand.nextInt(100000)){
+        return true;
+      }
+    }
+    return false;
+  }
+  
   public static void addDemetersShrineEffect(UUID uuid, double multiplier, int duration){
     demetersShrineMultipliers.put(uuid, multiplier);
     new BukkitRunnable(){
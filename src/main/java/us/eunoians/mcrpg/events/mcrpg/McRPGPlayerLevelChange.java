@@ -14,6 +14,7 @@ import us.eunoians.mcrpg.api.displays.DisplayManager;
 import us.eunoians.mcrpg.api.displays.ExpDisplayType;
 import us.eunoians.mcrpg.api.events.mcrpg.AbilityUnlockEvent;
 import us.eunoians.mcrpg.api.events.mcrpg.McRPGPlayerLevelChangeEvent;
+import us.eunoians.mcrpg.api.leaderboards.LeaderboardManager;
 import us.eunoians.mcrpg.api.util.FileManager;
 import us.eunoians.mcrpg.api.util.Methods;
 import us.eunoians.mcrpg.players.McRPGPlayer;
@@ -156,4 +157,14 @@ public class McRPGPlayerLevelChange implements Listener {
       }
     }
   }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void updateLeaderboards(McRPGPlayerLevelChangeEvent e) {
+    LeaderboardManager leaderboardManager = McRPG.getInstance().getLeaderboardManager();
+    //The skill's level has already changed even if the event is cancelled, so always use whatever level it is at now.
+    //The leaderboards aren't created until the database is ready
+    if(leaderboardManager != null) {
+      leaderboardManager.updatePlayer(e.getMcRPGPlayer(), e.getSkillLeveled().getType());
+    }
+  }
 }
@@ -1,11 +1,5 @@
 package us.eunoians.mcrpg.events.vanilla;
 
-import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import com.sk89q.worldguard.WorldGuard;
-import com.sk89q.worldguard.protection.ApplicableRegionSet;
-import com.sk89q.worldguard.protection.managers.RegionManager;
-import com.sk89q.worldguard.protection.regions.ProtectedRegion;
-import com.sk89q.worldguard.protection.regions.RegionContainer;
 import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
@@ -75,16 +69,16 @@ import us.eunoians.mcrpg.types.DefaultAbilities;
 import us.eunoians.mcrpg.types.GainReason;
 import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
+import us.eunoians.mcrpg.util.blockmeta.PlacedBlockMask;
 import us.eunoians.mcrpg.util.mcmmo.HerbalismMethods;
 import us.eunoians.mcrpg.util.mcmmo.ItemUtils;
-import us.eunoians.mcrpg.util.worldguard.ActionLimiterParser;
+import us.eunoians.mcrpg.util.worldguard.LimiterExpression;
 import us.eunoians.mcrpg.util.worldguard.WGRegion;
 import us.eunoians.mcrpg.util.worldguard.WGSupportManager;
 
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
@@ -183,21 +177,15 @@ public class BreakEvent implements Listener {
             if (McRPG.getInstance().isWorldGuardEnabled()) {
                 WGSupportManager wgSupportManager = McRPG.getInstance().getWgSupportManager();
                 if (wgSupportManager.isWorldTracker(event.getBlock().getWorld())) {
-                    RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
-                    Location loc = event.getBlock().getLocation();
-                    RegionManager manager = container.get(BukkitAdapter.adapt(loc.getWorld()));
-                    HashMap<String, WGRegion> regions = wgSupportManager.getRegionManager().get(loc.getWorld());
-                    assert manager != null;
-                    ApplicableRegionSet set = manager.getApplicableRegions(BukkitAdapter.asBlockVector(loc));
-                    for (ProtectedRegion region : set) {
-                        if (regions.containsKey(region.getId()) && regions.get(region.getId()).getBreakExpressions().containsKey(event.getBlock().getType())) {
-                            List<String> expressions = regions.get(region.getId()).getBreakExpressions().get(event.getBlock().getType());
-                            for (String s : expressions) {
-                                ActionLimiterParser actionLimiterParser = new ActionLimiterParser(s, mp);
-                                if (actionLimiterParser.evaluateExpression()) {
-                                    event.setCancelled(true);
-                                    return;
-                                }
+                    for (WGRegion region : wgSupportManager.getRegionCache().getRegions(event.getBlock().getLocation())) {
+                        List<LimiterExpression> expressions = region.getBreakExpressions().get(event.getBlock().getType());
+                        if (expressions == null) {
+                            continue;
+                        }
+                        for (LimiterExpression expression : expressions) {
+                            if (expression.test(mp)) {
+                                event.setCancelled(true);
+                                return;
                             }
                         }
                     }
@@ -218,7 +206,7 @@ public class BreakEvent implements Listener {
                     if (DefaultAbilities.EXTRACTION.isEnabled() && mp.getBaseAbility(DefaultAbilities.EXTRACTION).isToggled()) {
                         if (woodCutting.getStringList("ExtraLumberBlocks").contains(block.getType().toString())) {
                             Extraction extraction = (Extraction) mp.getBaseAbility(DefaultAbilities.EXTRACTION);
-                            Parser parser = DefaultAbilities.EXTRACTION.getActivationEquation();
+                            ExpressionEvaluation parser = DefaultAbilities.EXTRACTION.getActivationEvaluation();
                             parser.setVariable("excavation_level", mp.getSkill(Skills.EXCAVATION).getCurrentLevel());
                             parser.setVariable("power_level", mp.getPowerLevel());
                             int chance = (int) (parser.getValue() * 1000);
@@ -243,12 +231,14 @@ public class BreakEvent implements Listener {
                         if (chance >= val) {
                             ArrayList<Block> blocks = new ArrayList<>();
                             int radius = excavationConfig.getInt("LargerSpadeConfig.Tier" + Methods.convertToNumeral(largerSpade.getCurrentTier()) + ".Radius");
+                            PlacedBlockMask placedBlocks = McRPG.getPlaceStore().getTrueInBox(block.getWorld(), block.getX() - radius, block.getY() - radius,
+                                    block.getZ() - radius, block.getX() + radius, block.getY() + radius, block.getZ() + radius);
                             for (int x1 = -radius; x1 <= radius; x1++) {
                                 for (int y1 = -radius; y1 <= radius; y1++) {
                                     for (int z1 = -radius; z1 <= radius; z1++) {
                                         Block b = block.getLocation().add(x1, y1, z1).getBlock();
                                         if (canLargerSpade(b.getType())) {
-                                            if (!McRPG.getPlaceStore().isTrue(b)) {
+                                            if (!placedBlocks.isTrue(b)) {
                                                 blocks.add(b);
                                             }
                                         }
@@ -258,16 +248,7 @@ public class BreakEvent implements Listener {
                             LargerSpadeEvent largerSpadeEvent = new LargerSpadeEvent(mp, largerSpade, blocks);
                             Bukkit.getPluginManager().callEvent(largerSpadeEvent);
                             if (!largerSpadeEvent.isCancelled()) {
-                                for (Block b : blocks) {
-                                    if (b == null || b.getType() == Material.AIR) {
-                                        continue;
-                                    }
-                                    LargerSpadeTestEvent largerSpadeTestEvent = new LargerSpadeTestEvent(p, b);
-                                    Bukkit.getPluginManager().callEvent(largerSpadeTestEvent);
-                                    if (largerSpadeTestEvent.hasPassedChecks()) {
-                                        b.breakNaturally(p.getItemInHand());
-                                    }
-                                }
+                                McRPG.getInstance().getAreaBreakScheduler().queue(p, blocks, LargerSpadeTestEvent::new);
                             }
                         }
                     }
@@ -468,7 +449,7 @@ public class BreakEvent implements Listener {
                     if (DefaultAbilities.EXTRA_LUMBER.isEnabled() && mp.getBaseAbility(DefaultAbilities.EXTRA_LUMBER).isToggled()) {
                         if (woodCutting.getStringList("ExtraLumberBlocks").contains(block.getType().toString())) {
                             ExtraLumber extraLumber = (ExtraLumber) mp.getBaseAbility(DefaultAbilities.EXTRA_LUMBER);
-                            Parser parser = DefaultAbilities.EXTRA_LUMBER.getActivationEquation();
+                            ExpressionEvaluation parser = DefaultAbilities.EXTRA_LUMBER.getActivationEvaluation();
                             parser.setVariable("woodcutting_level", mp.getSkill(Skills.WOODCUTTING).getCurrentLevel());
                             parser.setVariable("power_level", mp.getPowerLevel());
                             int chance = (int) (parser.getValue() * 1000);
@@ -510,13 +491,15 @@ public class BreakEvent implements Listener {
                         if (chance >= val) {
                             ArrayList<Block> blocks = new ArrayList<>();
                             int radius = woodCutting.getInt("HeavySwingConfig.Tier" + Methods.convertToNumeral(heavySwing.getCurrentTier()) + ".Radius");
+                            PlacedBlockMask placedBlocks = McRPG.getPlaceStore().getTrueInBox(block.getWorld(), block.getX() - radius, block.getY() - radius,
+                                    block.getZ() - radius, block.getX() + radius, block.getY() + radius, block.getZ() + radius);
                             for (int x1 = -radius; x1 <= radius; x1++) {
                                 for (int y1 = -radius; y1 <= radius; y1++) {
                                     for (int z1 = -radius; z1 <= radius; z1++) {
                                         Block b = block.getLocation().add(x1, y1, z1).getBlock();
                                         if ((b.getType().toString().contains("LOG") && b.getType() == block.getType()) ||
                                                 (b.getType().toString().contains("LEAVES") && block.getType().toString().contains(b.getType().toString().replace("_LEAVES", "")))) {
-                                            if (!McRPG.getPlaceStore().isTrue(b)) {
+                                            if (!placedBlocks.isTrue(b)) {
                                                 blocks.add(b);
                                             }
                                         }
@@ -526,13 +509,7 @@ public class BreakEvent implements Listener {
                             HeavySwingEvent heavySwingEvent = new HeavySwingEvent(mp, heavySwing, blocks);
                             Bukkit.getPluginManager().callEvent(heavySwingEvent);
                             if (!heavySwingEvent.isCancelled()) {
-                                for (Block b : blocks) {
-                                    HeavySwingTestEvent heavySwingTestEvent = new HeavySwingTestEvent(p, b);
-                                    Bukkit.getPluginManager().callEvent(heavySwingTestEvent);
-                                    if (heavySwingTestEvent.hasPassedChecks()) {
-                                        b.breakNaturally(p.getItemInHand());
-                                    }
-                                }
+                                McRPG.getInstance().getAreaBreakScheduler().queue(p, blocks, HeavySwingTestEvent::new);
                             }
                         }
                     }
@@ -554,7 +531,7 @@ public class BreakEvent implements Listener {
                     if (DefaultAbilities.TOO_MANY_PLANTS.isEnabled() && mp.getBaseAbility(DefaultAbilities.TOO_MANY_PLANTS).isToggled()) {
                         if (herbalism.getStringList("TooManyPlantsBlocks").contains(block.getType().toString())) {
                             TooManyPlants tooManyPlants = (TooManyPlants) mp.getBaseAbility(DefaultAbilities.TOO_MANY_PLANTS);
-                            Parser parser = DefaultAbilities.TOO_MANY_PLANTS.getActivationEquation();
+                            ExpressionEvaluation parser = DefaultAbilities.TOO_MANY_PLANTS.getActivationEvaluation();
                             parser.setVariable("herbalism_level", mp.getSkill(Skills.HERBALISM).getCurrentLevel());
                             parser.setVariable("power_level", mp.getPowerLevel());
                             int chance = (int) (parser.getValue() * 1000);
@@ -675,7 +652,7 @@ public class BreakEvent implements Listener {
                             }
                         }
 
-                        Parser parser = DefaultAbilities.DOUBLE_DROP.getActivationEquation();
+                        ExpressionEvaluation parser = DefaultAbilities.DOUBLE_DROP.getActivationEvaluation();
                         parser.setVariable("mining_level", mp.getSkill(Skills.MINING).getCurrentLevel());
                         parser.setVariable("power_level", mp.getPowerLevel());
                         double chance = (parser.getValue() + doubleDrop.getBonusChance() + boost) * 1000;
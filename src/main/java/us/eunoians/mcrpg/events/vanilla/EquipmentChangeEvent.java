@@ -0,0 +1,96 @@
+package us.eunoians.mcrpg.events.vanilla;
+
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerItemBreakEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import us.eunoians.mcrpg.api.exceptions.McRPGPlayerNotFoundException;
+import us.eunoians.mcrpg.players.PlayerManager;
+
+import java.util.UUID;
+
+/**
+ * Tells a player's {@link us.eunoians.mcrpg.api.util.exp.PlayerExpModifiers} to read their held item and armor again whenever either
+ * might have changed, since an item can be swapped for another of the same type without anything else noticing
+ *
+ * @author DiamondDagger590
+ */
+public class EquipmentChangeEvent implements Listener {
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void itemHeld(PlayerItemHeldEvent e) {
+    invalidate(e.getPlayer().getUniqueId());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void swapHands(PlayerSwapHandItemsEvent e) {
+    invalidate(e.getPlayer().getUniqueId());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void inventoryClick(InventoryClickEvent e) {
+    invalidate(e.getWhoClicked());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void inventoryDrag(InventoryDragEvent e) {
+    invalidate(e.getWhoClicked());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void dropItem(PlayerDropItemEvent e) {
+    invalidate(e.getPlayer().getUniqueId());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void pickupItem(EntityPickupItemEvent e) {
+    if(e.getEntity() instanceof Player) {
+      invalidate(e.getEntity().getUniqueId());
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void itemBreak(PlayerItemBreakEvent e) {
+    invalidate(e.getPlayer().getUniqueId());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void interact(PlayerInteractEvent e) {
+    //Right clicking armor puts it on
+    if(e.getItem() == null) {
+      return;
+    }
+    EquipmentSlot slot = e.getItem().getType().getEquipmentSlot();
+    if(slot == EquipmentSlot.HEAD || slot == EquipmentSlot.CHEST || slot == EquipmentSlot.LEGS || slot == EquipmentSlot.FEET) {
+      invalidate(e.getPlayer().getUniqueId());
+    }
+  }
+
+  private void invalidate(HumanEntity humanEntity) {
+    if(humanEntity instanceof Player) {
+      invalidate(humanEntity.getUniqueId());
+    }
+  }
+
+  private void invalidate(UUID uuid) {
+    if(!PlayerManager.isPlayerStored(uuid)) {
+      return;
+    }
+    try {
+      PlayerManager.getPlayer(uuid).getExpModifiers().invalidateItems();
+    }
+    catch(McRPGPlayerNotFoundException exception) {
+      return;
+    }
+  }
+}
@@ -25,7 +25,8 @@ import us.eunoians.mcrpg.players.McRPGPlayer;
 import us.eunoians.mcrpg.players.PlayerManager;
 import us.eunoians.mcrpg.skills.Fishing;
 import us.eunoians.mcrpg.types.*;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
+import us.eunoians.mcrpg.util.ExpressionRegistry;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -113,20 +114,20 @@ public class FishCatchEvent implements Listener {
             GreatRodEvent greatRodEvent = new GreatRodEvent(mp, (GreatRod) mp.getBaseAbility(DefaultAbilities.GREAT_ROD));
             Bukkit.getPluginManager().callEvent(greatRodEvent);
             if(!greatRodEvent.isCancelled()){
-              Parser equation = DefaultAbilities.GREAT_ROD.getActivationEquation();
+              ExpressionEvaluation equation = DefaultAbilities.GREAT_ROD.getActivationEvaluation();
               equation.setVariable("fishing_level", fishing.getCurrentLevel());
               c += equation.getValue();
             }
             if(fishingRod.getEnchantments().containsKey(Enchantment.LUCK_OF_THE_SEA)){
               if(category.equalsIgnoreCase("Treasure")){
-                Parser parser = new Parser(fishingConfig.getString("LuckOfSeaModifiers.TreasureModifier"));
+                ExpressionEvaluation parser = ExpressionRegistry.newEvaluation(fishingConfig.getString("LuckOfSeaModifiers.TreasureModifier"));
                 parser.setVariable("level", fishingRod.getEnchantmentLevel(Enchantment.LUCK_OF_THE_SEA));
                 c += parser.getValue();
               }
             }
           }
           else if(category.equalsIgnoreCase("Junk") && fishingRod.getEnchantments().containsKey(Enchantment.LUCK_OF_THE_SEA)){
-            Parser parser = new Parser(fishingConfig.getString("LuckOfSeaModifiers.JunkModifier"));
+            ExpressionEvaluation parser = ExpressionRegistry.newEvaluation(fishingConfig.getString("LuckOfSeaModifiers.JunkModifier"));
             parser.setVariable("level", fishingRod.getEnchantmentLevel(Enchantment.LUCK_OF_THE_SEA));
             c -= parser.getValue();
           }
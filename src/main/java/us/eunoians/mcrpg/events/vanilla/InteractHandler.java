@@ -43,6 +43,7 @@ import us.eunoians.mcrpg.api.util.FileManager;
 import us.eunoians.mcrpg.api.util.Methods;
 import us.eunoians.mcrpg.api.util.brewing.BrewingStandManager;
 import us.eunoians.mcrpg.api.util.brewing.standmeta.BrewingGUI;
+import us.eunoians.mcrpg.api.util.mining.OreScan;
 import us.eunoians.mcrpg.gui.GUITracker;
 import us.eunoians.mcrpg.players.McRPGPlayer;
 import us.eunoians.mcrpg.players.PlayerManager;
@@ -360,79 +361,37 @@ public class InteractHandler implements Listener {
         Calendar cal = Calendar.getInstance();
         cal.add(Calendar.SECOND, oreScannerEvent.getCooldown());
         mp.addAbilityOnCooldown(UnlockedAbilities.ORE_SCANNER, cal.getTimeInMillis());
-        Location goldOre = null;
-        Location emeraldOre = null;
-        Location diamondOre = null;
-        int goldOreAmount = 0;
-        int emeraldOreAmount = 0;
-        int diamondOreAmount = 0;
-        for(int x = -1 * radius; x < radius; x++) {
-          for(int z = -1 * radius; z < radius; z++) {
-            for(int y = -1 * radius; y < radius; y++) {
-              Block block = p.getLocation().add(x, y, z).getBlock();
-              Material blockType = block.getType();
-              if(blockType == Material.GOLD_ORE) {
-                if(goldOre == null) {
-                  goldOre = block.getLocation();
-                }
-                else {
-                  if(p.getLocation().distance(goldOre) > p.getLocation().distance(block.getLocation())) {
-                    goldOre = block.getLocation();
-                  }
-                }
-                goldOreAmount++;
-              }
-              else if(blockType == Material.EMERALD_ORE) {
-                if(emeraldOre == null) {
-                  emeraldOre = block.getLocation();
-                }
-                else {
-                  if(p.getLocation().distance(emeraldOre) > p.getLocation().distance(block.getLocation())) {
-                    emeraldOre = block.getLocation();
-                  }
-                }
-                emeraldOreAmount++;
-              }
-              else if(blockType == Material.DIAMOND_ORE) {
-                if(diamondOre == null) {
-                  diamondOre = block.getLocation();
-                }
-                else {
-                  if(p.getLocation().distance(diamondOre) > p.getLocation().distance(block.getLocation())) {
-                    diamondOre = block.getLocation();
-                  }
-                }
-                diamondOreAmount++;
-              }
-            }
+        OreScan.scan(p.getLocation(), radius).thenAccept(result -> {
+          if(!p.isOnline()) {
+            return;
           }
-        }
-        if(diamondOre == null && goldOre == null && emeraldOre == null) {
-          p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() +
-                  McRPG.getInstance().getLangFile().getString("Messages.Abilities.OreScanner.NothingFound")));
-          return;
-        }
-        else {
-          p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() +
-                  McRPG.getInstance().getLangFile().getString("Messages.Abilities.OreScanner.PointingToValuable")));
-        }
-        Location lookAt = null;
-        if(goldOre != null) {
-          lookAt = goldOre;
-          p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() +
-                  McRPG.getInstance().getLangFile().getString("Messages.Abilities.OreScanner.GoldFound").replace("%Amount%", Integer.toString(goldOreAmount))));
-        }
-        if(emeraldOre != null) {
-          lookAt = emeraldOre;
-          p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() +
-                  McRPG.getInstance().getLangFile().getString("Messages.Abilities.OreScanner.EmeraldsFound").replace("%Amount%", Integer.toString(emeraldOreAmount))));
-        }
-        if(diamondOre != null) {
-          lookAt = diamondOre;
-          p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() +
-                  McRPG.getInstance().getLangFile().getString("Messages.Abilities.OreScanner.DiamondsFound").replace("%Amount%", Integer.toString(diamondOreAmount))));
-        }
-        p.teleport(Methods.lookAt(p.getLocation(), lookAt));
+          if(result.isEmpty()) {
+            p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() +
+                    McRPG.getInstance().getLangFile().getString("Messages.Abilities.OreScanner.NothingFound")));
+            return;
+          }
+          else {
+            p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() +
+                    McRPG.getInstance().getLangFile().getString("Messages.Abilities.OreScanner.PointingToValuable")));
+          }
+          Location lookAt = null;
+          if(result.goldOre() != null) {
+            lookAt = result.goldOre();
+            p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() +
+                    McRPG.getInstance().getLangFile().getString("Messages.Abilities.OreScanner.GoldFound").replace("%Amount%", Integer.toString(result.goldAmount()))));
+          }
+          if(result.emeraldOre() != null) {
+            lookAt = result.emeraldOre();
+            p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() +
+                    McRPG.getInstance().getLangFile().getString("Messages.Abilities.OreScanner.EmeraldsFound").replace("%Amount%", Integer.toString(result.emeraldAmount()))));
+          }
+          if(result.diamondOre() != null) {
+            lookAt = result.diamondOre();
+            p.sendMessage(Methods.color(p, McRPG.getInstance().getPluginPrefix() +
+                    McRPG.getInstance().getLangFile().getString("Messages.Abilities.OreScanner.DiamondsFound").replace("%Amount%", Integer.toString(result.diamondAmount()))));
+          }
+          p.teleport(Methods.lookAt(p.getLocation(), lookAt));
+        });
       }
       
       //Handle Mass Harvest
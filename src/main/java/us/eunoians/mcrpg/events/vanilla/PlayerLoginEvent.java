@@ -15,8 +15,7 @@ public class PlayerLoginEvent implements Listener{
     if(PlayerLogoutEvent.hasPlayer(p.getUniqueId())){
       PlayerLogoutEvent.cancelRemove(p.getUniqueId());
     }
-    else{
-      PlayerManager.addMcRPGPlayer(e.getPlayer(), true);
-    }
+    //Also covers players whose logout grace period ended between pre-login and joining, as they get their prefetched data back
+    PlayerManager.addMcRPGPlayer(e.getPlayer(), true);
   }
 }
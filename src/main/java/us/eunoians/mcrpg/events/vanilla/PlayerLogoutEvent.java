@@ -47,6 +47,11 @@ public class PlayerLogoutEvent implements Listener {
             ShiftToggle.removePlayerCharging(player);
         }
 
+        McRPG.getInstance().getAreaBreakScheduler().cancel(player.getUniqueId());
+        McRPG.getInstance().getExpGainAggregator().flush(player.getUniqueId());
+        McRPG.getInstance().getExpPermissionManager().refreshPlayer(player.getUniqueId());
+        PlayerManager.startLogoutGrace(player.getUniqueId());
+
         BukkitTask task = new BukkitRunnable() {
             @Override
             public void run() {
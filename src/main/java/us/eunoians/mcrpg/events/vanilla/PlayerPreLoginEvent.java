@@ -0,0 +1,29 @@
+package us.eunoians.mcrpg.events.vanilla;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import us.eunoians.mcrpg.players.PlayerManager;
+
+/**
+ * Starts loading a player's data while they are still logging in so it is ready by the time they join
+ */
+public class PlayerPreLoginEvent implements Listener{
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void preLoginEvent(AsyncPlayerPreLoginEvent e){
+    if(e.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED){
+      PlayerManager.prefetchPlayer(e.getUniqueId());
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void loginEvent(PlayerLoginEvent e){
+    //The login was denied after pre-login (ie whitelist or a full server), so the player won't be joining
+    if(e.getResult() != PlayerLoginEvent.Result.ALLOWED){
+      PlayerManager.discardPrefetchedPlayer(e.getPlayer().getUniqueId());
+    }
+  }
+}
@@ -26,7 +26,7 @@ import us.eunoians.mcrpg.players.PlayerManager;
 import us.eunoians.mcrpg.types.DefaultAbilities;
 import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
 
 import java.util.*;
 
@@ -156,7 +156,7 @@ public class ShootEvent implements Listener {
         }
         else{
           if(e.getProjectile().getType() == EntityType.ARROW && DefaultAbilities.DAZE.isEnabled() && mp.getBaseAbility(DefaultAbilities.DAZE).isToggled()){
-            Parser parser = DefaultAbilities.DAZE.getActivationEquation();
+            ExpressionEvaluation parser = DefaultAbilities.DAZE.getActivationEvaluation();
             parser.setVariable("archery_level", mp.getSkill(Skills.ARCHERY).getCurrentLevel());
             parser.setVariable("power_level", mp.getPowerLevel());
             int chance = (int) (parser.getValue() * 1000);
@@ -1,11 +1,5 @@
 package us.eunoians.mcrpg.events.vanilla;
 
-import com.sk89q.worldedit.bukkit.BukkitAdapter;
-import com.sk89q.worldguard.WorldGuard;
-import com.sk89q.worldguard.protection.ApplicableRegionSet;
-import com.sk89q.worldguard.protection.managers.RegionManager;
-import com.sk89q.worldguard.protection.regions.ProtectedRegion;
-import com.sk89q.worldguard.protection.regions.RegionContainer;
 import de.tr7zw.changeme.nbtapi.NBTItem;
 import lombok.Getter;
 import org.bukkit.Bukkit;
@@ -107,9 +101,10 @@ import us.eunoians.mcrpg.types.DefaultAbilities;
 import us.eunoians.mcrpg.types.GainReason;
 import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
+import us.eunoians.mcrpg.util.ExpressionRegistry;
 import us.eunoians.mcrpg.util.mcmmo.MobHealthbarUtils;
-import us.eunoians.mcrpg.util.worldguard.ActionLimiterParser;
+import us.eunoians.mcrpg.util.worldguard.LimiterExpression;
 import us.eunoians.mcrpg.util.worldguard.WGRegion;
 import us.eunoians.mcrpg.util.worldguard.WGSupportManager;
 
@@ -336,40 +331,34 @@ public class VanillaDamageEvent implements Listener{
             WGSupportManager wgSupportManager = McRPG.getInstance().getWgSupportManager();
             
             if(wgSupportManager.isWorldTracker(player.getWorld())){
-              RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
               Location loc = player.getLocation();
-              RegionManager manager = container.get(BukkitAdapter.adapt(loc.getWorld()));
-              HashMap<String, WGRegion> regions = wgSupportManager.getRegionManager().get(loc.getWorld());
-              assert manager != null;
-              ApplicableRegionSet set = manager.getApplicableRegions(BukkitAdapter.asBlockVector(loc));
-              for(ProtectedRegion region : set){
-                if(regions.containsKey(region.getId()) && regions.get(region.getId()).getAttackExpressions().containsKey(e.getEntity().getType())){
-                  List<String> expressions = regions.get(region.getId()).getAttackExpressions().get(e.getEntity().getType());
-                  for(String s : expressions){
-                    if(s.contains("difference")){
-                      if(!(e.getEntity() instanceof Player)){
-                        continue;
-                      }
-                      else{
-                        try{
-                          McRPGPlayer target = PlayerManager.getPlayer(e.getEntity().getUniqueId());
-                          ActionLimiterParser actionLimiterParser = new ActionLimiterParser(s, mcRPGPlayer, target);
-                          if(actionLimiterParser.evaluateExpression()){
-                            e.setCancelled(true);
-                            return;
-                          }
-                        }catch(McRPGPlayerNotFoundException exception){
-                        }
-                      }
+              for(WGRegion region : wgSupportManager.getRegionCache().getRegions(loc)){
+                List<LimiterExpression> expressions = region.getAttackExpressions().get(e.getEntity().getType());
+                if(expressions == null){
+                  continue;
+                }
+                for(LimiterExpression expression : expressions){
+                  if(expression.isDifference()){
+                    if(!(e.getEntity() instanceof Player)){
+                      continue;
                     }
                     else{
-                      ActionLimiterParser actionLimiterParser = new ActionLimiterParser(s, mcRPGPlayer);
-                      if(actionLimiterParser.evaluateExpression()){
-                        e.setCancelled(true);
-                        return;
+                      try{
+                        McRPGPlayer target = PlayerManager.getPlayer(e.getEntity().getUniqueId());
+                        if(expression.test(mcRPGPlayer, target)){
+                          e.setCancelled(true);
+                          return;
+                        }
+                      }catch(McRPGPlayerNotFoundException exception){
                       }
                     }
                   }
+                  else{
+                    if(expression.test(mcRPGPlayer)){
+                      e.setCancelled(true);
+                      return;
+                    }
+                  }
                 }
               }
             }
@@ -406,7 +395,7 @@ public class VanillaDamageEvent implements Listener{
             }
             if(!afk && player.getHealth() - e.getDamage() > 0){
               expAwarded = fitnessConfig.getInt("ExpAwardedPerDamage.FALL_DAMAGE");
-              Parser equation = new Parser(fitnessConfig.getString("FallEquation"));
+              ExpressionEvaluation equation = ExpressionRegistry.newEvaluation(fitnessConfig.getString("FallEquation"));
               equation.setVariable("damage", e.getDamage());
               equation.setVariable("exp_awarded", expAwarded);
               equation.setVariable("feather_falling_level", featherFallingLevel);
@@ -418,7 +407,7 @@ public class VanillaDamageEvent implements Listener{
             }
             Roll roll = (Roll) mcRPGPlayer.getBaseAbility(DefaultAbilities.ROLL);
             if(roll.getGenericAbility().isEnabled() && roll.isToggled()){
-              Parser rollEquation = new Parser(fitnessConfig.getString("RollConfig.RollChanceEquation"));
+              ExpressionEvaluation rollEquation = ExpressionRegistry.newEvaluation(fitnessConfig.getString("RollConfig.RollChanceEquation"));
               rollEquation.setVariable("fitness_level", mcRPGPlayer.getSkill(Skills.FITNESS).getCurrentLevel());
               int chance = (int) (rollEquation.getValue() * 1000);
               Random rand = new Random();
@@ -682,7 +671,7 @@ public class VanillaDamageEvent implements Listener{
         
         if(DefaultAbilities.GORE.isEnabled() && mp.getBaseAbility(DefaultAbilities.GORE).isToggled()){
           Gore gore = (Gore) mp.getBaseAbility(DefaultAbilities.GORE);
-          Parser parser = DefaultAbilities.GORE.getActivationEquation();
+          ExpressionEvaluation parser = DefaultAbilities.GORE.getActivationEvaluation();
           parser.setVariable("taming_level", mp.getSkill(Skills.TAMING).getCurrentLevel());
           parser.setVariable("power_level", mp.getPowerLevel());
           int chance = (int) (parser.getValue() * 1000);
@@ -782,40 +771,34 @@ public class VanillaDamageEvent implements Listener{
         WGSupportManager wgSupportManager = McRPG.getInstance().getWgSupportManager();
         
         if(wgSupportManager.isWorldTracker(damager.getWorld())){
-          RegionContainer container = WorldGuard.getInstance().getPlatform().getRegionContainer();
           Location loc = damager.getLocation();
-          RegionManager manager = container.get(BukkitAdapter.adapt(loc.getWorld()));
-          HashMap<String, WGRegion> regions = wgSupportManager.getRegionManager().get(loc.getWorld());
-          assert manager != null;
-          ApplicableRegionSet set = manager.getApplicableRegions(BukkitAdapter.asBlockVector(loc));
-          for(ProtectedRegion region : set){
-            if(regions.containsKey(region.getId()) && regions.get(region.getId()).getAttackExpressions().containsKey(e.getEntity().getType())){
-              List<String> expressions = regions.get(region.getId()).getAttackExpressions().get(e.getEntity().getType());
-              for(String s : expressions){
-                if(s.contains("difference")){
-                  if(!(e.getEntity() instanceof Player)){
-                    continue;
-                  }
-                  else{
-                    try{
-                      McRPGPlayer mcRPGPlayer = PlayerManager.getPlayer(e.getEntity().getUniqueId());
-                      ActionLimiterParser actionLimiterParser = new ActionLimiterParser(s, mp, mcRPGPlayer);
-                      if(actionLimiterParser.evaluateExpression()){
-                        e.setCancelled(true);
-                        return;
-                      }
-                    }catch(McRPGPlayerNotFoundException exception){
-                    }
-                  }
+          for(WGRegion region : wgSupportManager.getRegionCache().getRegions(loc)){
+            List<LimiterExpression> expressions = region.getAttackExpressions().get(e.getEntity().getType());
+            if(expressions == null){
+              continue;
+            }
+            for(LimiterExpression expression : expressions){
+              if(expression.isDifference()){
+                if(!(e.getEntity() instanceof Player)){
+                  continue;
                 }
                 else{
-                  ActionLimiterParser actionLimiterParser = new ActionLimiterParser(s, mp);
-                  if(actionLimiterParser.evaluateExpression()){
-                    e.setCancelled(true);
-                    return;
+                  try{
+                    McRPGPlayer mcRPGPlayer = PlayerManager.getPlayer(e.getEntity().getUniqueId());
+                    if(expression.test(mp, mcRPGPlayer)){
+                      e.setCancelled(true);
+                      return;
+                    }
+                  }catch(McRPGPlayerNotFoundException exception){
                   }
                 }
               }
+              else{
+                if(expression.test(mp)){
+                  e.setCancelled(true);
+                  return;
+                }
+              }
             }
           }
         }
@@ -1165,7 +1148,7 @@ public class VanillaDamageEvent implements Listener{
           if(DefaultAbilities.BLEED.isEnabled()){
             if(playersSkill.getAbility(DefaultAbilities.BLEED).isToggled()){
               Bleed bleed = (Bleed) playersSkill.getAbility(DefaultAbilities.BLEED);
-              Parser parser = DefaultAbilities.BLEED.getActivationEquation();
+              ExpressionEvaluation parser = DefaultAbilities.BLEED.getActivationEvaluation();
               if(e.getEntity() instanceof Player){
                 Player damagedPlayer = (Player) e.getEntity();
                 McRPGPlayer dmged;
@@ -1363,7 +1346,7 @@ public class VanillaDamageEvent implements Listener{
                 bonusChance = heavyStrikeEvent.getBonusChance();
               }
             }
-            Parser parser = DefaultAbilities.SHRED.getActivationEquation();
+            ExpressionEvaluation parser = DefaultAbilities.SHRED.getActivationEvaluation();
             parser.setVariable("axes_level", axes.getCurrentLevel());
             parser.setVariable("power_level", mp.getPowerLevel());
             int chance = (int) (parser.getValue() + bonusChance) * 1000;
@@ -1524,7 +1507,7 @@ public class VanillaDamageEvent implements Listener{
         if(distance > config.getInt("DistanceBonusCap")){
           distance = config.getInt("DistanceBonusCap");
         }
-        Parser parser = new Parser(config.getString("DistanceBonus"));
+        ExpressionEvaluation parser = ExpressionRegistry.newEvaluation(config.getString("DistanceBonus"));
         parser.setVariable("block_distance", distance);
         double mobSpawnValue = 1.0;
         if(e.getEntity().hasMetadata("ExpModifier")){
@@ -46,6 +46,7 @@ import org.bukkit.event.block.BlockPistonExtendEvent;
 import org.bukkit.event.block.BlockPistonRetractEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.block.EntityBlockFormEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.inventory.ItemStack;
 import org.jetbrains.annotations.NotNull;
@@ -57,6 +58,9 @@ import us.eunoians.mcrpg.api.events.mcrpg.mining.BlastTestEvent;
 import us.eunoians.mcrpg.api.util.brewing.BrewingStandManager;
 import us.eunoians.mcrpg.players.McRPGPlayer;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This code is not mine. It is copyright from the original McRPG allowed for use by their license.
  * This code has been modified from it source material
@@ -91,14 +95,12 @@ public class WorldListener implements Listener {
 //        }
 
         BlockFace direction = event.getDirection();
-        Block movedBlock;
+        List<Block> movedBlocks = new ArrayList<>(event.getBlocks().size());
         for (Block block : event.getBlocks()) {
-            movedBlock = block.getRelative(direction);
-
-            if (isWithinWorldBounds(movedBlock)) {
-                McRPG.getPlaceStore().setTrue(movedBlock);
-            }
+            movedBlocks.add(block.getRelative(direction));
         }
+        //Blocks outside of the world bounds are skipped
+        McRPG.getPlaceStore().setTrue(movedBlocks);
     }
 
     /**
@@ -123,18 +125,16 @@ public class WorldListener implements Listener {
 
         // Get opposite direction so we get correct block
         BlockFace direction = event.getDirection();
-        Block movedBlock = event.getBlock().getRelative(direction);
-
-        //Spigot makes bad things happen in its API
-        if (isWithinWorldBounds(movedBlock)) {
-            McRPG.getPlaceStore().setTrue(movedBlock);
-        }
+        List<Block> movedBlocks = new ArrayList<>(event.getBlocks().size() + 1);
+        movedBlocks.add(event.getBlock().getRelative(direction));
 
         for (Block block : event.getBlocks()) {
+            //Spigot makes bad things happen in its API
             if (isWithinWorldBounds(block)) {
-                McRPG.getPlaceStore().setTrue(block.getRelative(direction));
+                movedBlocks.add(block.getRelative(direction));
             }
         }
+        McRPG.getPlaceStore().setTrue(movedBlocks);
     }
 
     /**
@@ -225,9 +225,9 @@ public class WorldListener implements Listener {
      */
     @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockMultiPlace(BlockMultiPlaceEvent event) {
+        List<Block> placedBlocks = new ArrayList<>(event.getReplacedBlockStates().size());
         for (BlockState replacedBlockState : event.getReplacedBlockStates()) {
-            BlockState blockState = replacedBlockState.getBlock().getState();
-            Block block = blockState.getBlock();
+            Block block = replacedBlockState.getBlock();
 
             /* Check if the blocks placed should be monitored so they do not give out XP in the future */
             if (isWithinWorldBounds(block)) {
@@ -237,13 +237,12 @@ public class WorldListener implements Listener {
 //                    return;
 //                }
                 //TODO update this in rewrite
-
-                //Track unnatural blocks
-                for (BlockState replacedStates : event.getReplacedBlockStates()) {
-                    McRPG.getPlaceStore().setTrue(replacedStates);
-                }
+                placedBlocks.add(block);
             }
         }
+
+        //Track unnatural blocks
+        McRPG.getPlaceStore().setTrue(placedBlocks);
     }
 
     @EventHandler (priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -302,6 +301,18 @@ public class WorldListener implements Listener {
         }
     }
 
+    /**
+     * Monitor ChunkLoad events so placed block data can be read before it is needed.
+     *
+     * @param event The event to watch
+     */
+    @EventHandler (priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+
+        Chunk chunk = event.getChunk();
+        McRPG.getPlaceStore().chunkLoaded(chunk.getX(), chunk.getZ(), event.getWorld());
+    }
+
     /**
      * Monitor ChunkUnload events.
      *
@@ -13,7 +13,7 @@ import us.eunoians.mcrpg.players.McRPGPlayer;
 import us.eunoians.mcrpg.types.DefaultAbilities;
 import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
 
 import java.text.NumberFormat;
 import java.util.ArrayList;
@@ -58,7 +58,7 @@ public class ReplaceSkillsGUI extends GUI {
         for(String s : meta.getLore()){
           for(Skills skill : Skills.values()){
             s = s.replaceAll("%" + skill.getName() + "_Level%", Integer.toString(player.getSkill(skill).getCurrentLevel()));
-            Parser equation = skill.getDefaultAbility().getActivationEquation();
+            ExpressionEvaluation equation = skill.getDefaultAbility().getActivationEvaluation();
             equation.setVariable(skill.getName().toLowerCase() + "_level", player.getSkill(skill).getCurrentLevel());
             equation.setVariable("power_level", player.getPowerLevel());
 
@@ -74,7 +74,7 @@ public class ReplaceSkillsGUI extends GUI {
             String s2 = Methods.color(fishingConfig.getString("GreatRodConfig.Item.CategoryText")
                     .replace("%Category%", category).replace("%Chance%", Double.toString(c)));
             if(category.equalsIgnoreCase("Treasure") && DefaultAbilities.GREAT_ROD.isEnabled() && player.getBaseAbility(DefaultAbilities.GREAT_ROD).isToggled()){
-              Parser equation = DefaultAbilities.GREAT_ROD.getActivationEquation();
+              ExpressionEvaluation equation = DefaultAbilities.GREAT_ROD.getActivationEvaluation();
               equation.setVariable("fishing_level", player.getSkill(Skills.FISHING).getCurrentLevel());
               s2 += Methods.color(" + " + nf.format(equation.getValue()) + "%");
             }
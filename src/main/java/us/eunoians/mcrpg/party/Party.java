@@ -29,7 +29,7 @@ import us.eunoians.mcrpg.players.PlayerManager;
 import us.eunoians.mcrpg.types.PartyPermissions;
 import us.eunoians.mcrpg.types.PartyRoles;
 import us.eunoians.mcrpg.types.PartyUpgrades;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpCurve;
 
 import java.io.File;
 import java.io.IOException;
@@ -322,10 +322,11 @@ public class Party {
         if (!partyExpGainEvent.isCancelled()) {
             partyExp += partyExpGainEvent.getExpGained();
             int levelsGained = 0;
-            while (partyExp >= expToLevel) {
-                partyLevel++;
-                levelsGained++;
-                partyExp -= expToLevel;
+            if (partyExp >= expToLevel) {
+                ExpCurve.LevelProgress levelProgress = McRPG.getInstance().getPartyManager().getExpCurve().addExp(partyLevel, partyExp, null);
+                levelsGained = levelProgress.level() - partyLevel;
+                partyLevel = levelProgress.level();
+                partyExp = (int) levelProgress.exp();
                 calculateExpToLevel();
             }
             if (levelsGained > 0) {
@@ -353,9 +354,7 @@ public class Party {
     }
 
     private void calculateExpToLevel() {
-        Parser parser = McRPG.getInstance().getPartyManager().getExpEquation();
-        parser.setVariable("party_level", partyLevel);
-        expToLevel = (int) parser.getValue();
+        expToLevel = McRPG.getInstance().getPartyManager().getExpCurve().getExpToLevel(partyLevel, null);
     }
 
     public List<Player> getOnlinePlayers() {
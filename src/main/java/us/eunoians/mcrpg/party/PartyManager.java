@@ -3,18 +3,27 @@ package us.eunoians.mcrpg.party;
 import org.bukkit.scheduler.BukkitRunnable;
 import us.eunoians.mcrpg.McRPG;
 import us.eunoians.mcrpg.api.util.FileManager;
+import us.eunoians.mcrpg.util.ExpCurve;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
+import us.eunoians.mcrpg.util.ExpressionRegistry;
 import us.eunoians.mcrpg.util.Parser;
 
 import java.io.File;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 public class PartyManager {
 
+    //The variables set before the party exp equation is evaluated
+    private static final Set<String> EXP_EQUATION_VARIABLES = Set.of("party_level");
+
     private Map<UUID, Party> partyMap = new HashMap<>();
     private File partyFolder = new File(McRPG.getInstance().getDataFolder(), "parties");
+    //Built from the exp equation the first time it is needed and rebuilt whenever the configs are reloaded
+    private volatile ExpCurve expCurve;
 
     public PartyManager() {
         if (!partyFolder.exists()) {
@@ -58,8 +67,48 @@ public class PartyManager {
         return party;
     }
 
+    /**
+     * @deprecated This parses the party exp equation again on every call. Use {@link #getExpEvaluation()} instead.
+     */
+    @Deprecated
     public Parser getExpEquation() {
-        return new Parser(McRPG.getInstance().getFileManager().getFile(FileManager.Files.PARTY_CONFIG).getString("PartyExp.ExpEquation"));
+        return new Parser(getExpEquationSource());
+    }
+
+    /**
+     * Gets a new {@link ExpressionEvaluation} of the party exp equation, which only uses {@code party_level}
+     *
+     * @return A new {@link ExpressionEvaluation} of the party exp equation
+     * @throws us.eunoians.mcrpg.util.ParseError If the configured equation is malformed or uses any other variable
+     */
+    public ExpressionEvaluation getExpEvaluation() {
+        return ExpressionRegistry.newEvaluation(getExpEquationSource(), EXP_EQUATION_VARIABLES);
+    }
+
+    private String getExpEquationSource() {
+        return McRPG.getInstance().getFileManager().getFile(FileManager.Files.PARTY_CONFIG).getString("PartyExp.ExpEquation");
+    }
+
+    /**
+     * Gets the {@link ExpCurve} that parties level up along, which is built from the party exp equation the first time it is needed
+     *
+     * @return The {@link ExpCurve} that parties level up along
+     */
+    public ExpCurve getExpCurve() {
+        ExpCurve curve = expCurve;
+        if (curve == null) {
+            curve = new ExpCurve(ExpressionRegistry.getExpression(getExpEquationSource(), EXP_EQUATION_VARIABLES), "party_level", getMaxLevel());
+            expCurve = curve;
+        }
+        return curve;
+    }
+
+    /**
+     * Rebuilds the {@link ExpCurve} that parties level up along from the current config. This should be called whenever the configs are reloaded
+     */
+    public void reloadExpCurve() {
+        expCurve = null;
+        getExpCurve();
     }
 
     public int getMaxLevel() {
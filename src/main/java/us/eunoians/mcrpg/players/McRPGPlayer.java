@@ -24,9 +24,11 @@ import us.eunoians.mcrpg.api.events.mcrpg.unarmed.SmitingFistEvent;
 import us.eunoians.mcrpg.api.leaderboards.PlayerRank;
 import us.eunoians.mcrpg.api.util.Methods;
 import us.eunoians.mcrpg.api.util.RedeemBit;
+import us.eunoians.mcrpg.api.util.exp.PlayerExpModifiers;
 import us.eunoians.mcrpg.database.builder.Database;
 import us.eunoians.mcrpg.database.tables.PlayerDataDAO;
 import us.eunoians.mcrpg.database.tables.PlayerLoadoutDAO;
+import us.eunoians.mcrpg.database.tables.PlayerSaveBatch;
 import us.eunoians.mcrpg.database.tables.PlayerSettingsDAO;
 import us.eunoians.mcrpg.database.tables.SkillDAO;
 import us.eunoians.mcrpg.database.tables.SkillDataSnapshot;
@@ -51,6 +53,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.sql.Connection;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -59,7 +63,9 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 public class McRPGPlayer {
 
@@ -93,6 +99,10 @@ public class McRPGPlayer {
     @Getter
     private boolean isLoadingRankData = false;
 
+    private MovementPassives movementPassives;
+    @Getter
+    private final PlayerExpModifiers expModifiers = new PlayerExpModifiers();
+
     //Ability data
     @Getter
     @Setter
@@ -243,14 +253,35 @@ public class McRPGPlayer {
     @Nullable
     private CompletableFuture<Void> copyFuture;
 
+    /**
+     * Completes once all of this player's data has been loaded from the database
+     */
+    @Getter
+    @Nullable
+    private CompletableFuture<Void> loadFuture;
+
+    //What was last written to the database, used to skip saving data that hasn't changed. A null baseline means it needs to be written
+    private volatile PlayerDataDAO.PlayerDataSnapshot lastSavedPlayerData;
+    private volatile PlayerSettingsDAO.PlayerSettingsSnapshot lastSavedPlayerSettings;
+    private volatile List<UnlockedAbilities> lastSavedLoadout;
+    private volatile Set<UnlockedAbilities> lastSavedPendingAbilities;
+    private volatile Map<UnlockedAbilities, Long> lastSavedCooldowns;
+    private volatile Map<Material, Boolean> lastSavedRemoteTransferItems;
+
+    //Saves are captured and queued in order under this lock so that each player's saves are written in the order they were captured
+    private static final Object SAVE_ORDER_LOCK = new Object();
+    //Completes once the last save this player was part of is written or has failed, so the next one can wait on it
+    private CompletableFuture<Void> lastSave = CompletableFuture.completedFuture(null);
+
     public McRPGPlayer(UUID uuid) {
         this.uuid = uuid;
         this.guardianSummonChance = McRPG.getInstance().getConfig().getDouble("PlayerConfiguration.PoseidonsGuardian.DefaultSummonChance");
         Database database = McRPG.getInstance().getDatabaseManager().getDatabase();
         Connection connection = database.getConnection();
 
-        PlayerDataDAO.getPlayerData(connection, uuid).thenAccept(playerDataSnapshot -> {
+        CompletableFuture<Void> playerDataFuture = PlayerDataDAO.getPlayerData(connection, uuid).thenAccept(playerDataSnapshot -> {
 
+            this.lastSavedPlayerData = playerDataSnapshot;
             this.abilityPoints = playerDataSnapshot.getAbilityPoints();
             this.redeemableExp = playerDataSnapshot.getRedeemableExp();
             this.redeemableLevels = playerDataSnapshot.getRedeemableLevels();
@@ -302,7 +333,8 @@ public class McRPGPlayer {
             }.runTask(McRPG.getInstance());
         });
 
-        PlayerSettingsDAO.getPlayerSettings(connection, uuid).thenAccept(playerSettingsSnapshot -> {
+        CompletableFuture<Void> playerSettingsFuture = PlayerSettingsDAO.getPlayerSettings(connection, uuid).thenAccept(playerSettingsSnapshot -> {
+            this.lastSavedPlayerSettings = playerSettingsSnapshot;
             this.healthbarType = playerSettingsSnapshot.getHealthbarType();
             this.keepHandEmpty = playerSettingsSnapshot.isKeepHandEmpty();
             this.displayType = playerSettingsSnapshot.getDisplayType();
@@ -314,34 +346,21 @@ public class McRPGPlayer {
         });
 
         //TODO Need to make this more dynamic to allow for third party plugins to register custom skills
-        CompletableFuture<SkillDataSnapshot>[] completableFutures = new CompletableFuture[Skills.values().length];
-
-        for (int i = 0; i < Skills.values().length; i++) {
-
-            Skills skillType = Skills.values()[i];
-
-            CompletableFuture<SkillDataSnapshot> completableFuture = SkillDAO.getAllPlayerSkillInformation(connection, uuid, skillType);
-
-            completableFuture
-                .thenAccept(this::initializeSkill)
-                .exceptionally(throwable -> {
-                    throwable.printStackTrace();
-                    return null;
-                });
-
-            completableFutures[i] = completableFuture;
-        }
-
-        CompletableFuture.allOf(completableFutures)
-            .thenAccept(unused -> {
+        CompletableFuture<Void> skillFuture = SkillDAO.getAllPlayerSkillInformation(connection, uuid)
+            .thenCompose(skillDataSnapshots -> {
 
+                initializeSkills(skillDataSnapshots);
+                this.lastSavedPendingAbilities = new HashSet<>(pendingUnlockAbilities);
+                this.lastSavedCooldowns = new HashMap<>(abilitiesOnCooldown);
                 updatePowerLevel();
 
                 for (Skill skill : skills) {
                     skill.updateExpToLevel();
                 }
 
-                PlayerLoadoutDAO.getPlayerLoadout(connection, uuid).thenAccept(unlockedAbilityList -> {
+                return PlayerLoadoutDAO.getPlayerLoadout(connection, uuid).thenAccept(unlockedAbilityList -> {
+
+                    lastSavedLoadout = new ArrayList<>(unlockedAbilityList);
 
                     int maxAbilities = McRPG.getInstance().getConfig().getInt("PlayerConfiguration.AmountOfTotalAbilities");
 
@@ -371,11 +390,10 @@ public class McRPGPlayer {
                         abilityLoadout.remove(abilityType);
                     }
                 });
-            }).exceptionally(throwable -> {
-                throwable.printStackTrace();
-                return null;
             });
 
+        //Any failure has to reach the load future so that a partly loaded player is never activated and saved over their real data
+        this.loadFuture = CompletableFuture.allOf(playerDataFuture, playerSettingsFuture, skillFuture);
     }
 
     //A very sloppy solution for copying, but this whole class is a mess so #techdebt
@@ -456,33 +474,15 @@ public class McRPGPlayer {
         });
 
         //TODO Need to make this more dynamic to allow for third party plugins to register custom skills
-        CompletableFuture<SkillDataSnapshot>[] skillFutures = new CompletableFuture[Skills.values().length];
-
-        for (int i = 0; i < Skills.values().length; i++) {
-
-            Skills skillType = Skills.values()[i];
-
-            CompletableFuture<SkillDataSnapshot> completableFuture = SkillDAO.getAllPlayerSkillInformation(connection, playerToLoadFromUUID, skillType);
-
-            completableFuture
-                .thenAccept(this::initializeSkill)
-                .exceptionally(throwable -> {
-                    throwable.printStackTrace();
-                    return null;
-                });
-
-            skillFutures[i] = completableFuture;
-            completableFutures.add(completableFuture);
-        }
-
-        CompletableFuture<Void> compositeSkillFuture = CompletableFuture.allOf(skillFutures);
+        CompletableFuture<Void> compositeSkillFuture = SkillDAO.getAllPlayerSkillInformation(connection, playerToLoadFromUUID)
+            .thenAccept(this::initializeSkills);
         completableFutures.add(compositeSkillFuture);
 
         CompletableFuture<List<UnlockedAbilities>> loadoutFuture = PlayerLoadoutDAO.getPlayerLoadout(connection, uuid);
         completableFutures.add(loadoutFuture);
 
-        compositeSkillFuture
-            .thenAccept(unused -> {
+        CompletableFuture<Void> skillSetupFuture = compositeSkillFuture
+            .thenCompose(unused -> {
 
                 updatePowerLevel();
 
@@ -490,7 +490,7 @@ public class McRPGPlayer {
                     skill.updateExpToLevel();
                 }
 
-                loadoutFuture.thenAccept(unlockedAbilityList -> {
+                return loadoutFuture.thenAccept(unlockedAbilityList -> {
 
                     int maxAbilities = McRPG.getInstance().getConfig().getInt("PlayerConfiguration.AmountOfTotalAbilities");
 
@@ -520,21 +520,47 @@ public class McRPGPlayer {
                         abilityLoadout.remove(abilityType);
                     }
                 });
-            }).exceptionally(throwable -> {
-                throwable.printStackTrace();
-                return null;
             });
+        completableFutures.add(skillSetupFuture);
 
         CompletableFuture<?>[] futureArray = new CompletableFuture<?>[completableFutures.size()];
         CompletableFuture<Void> allFutures = CompletableFuture.allOf(completableFutures.toArray(futureArray));
         this.copyFuture = new CompletableFuture<>();
-        allFutures.thenAccept(unused -> {
-            saveData().thenAccept(copyFuture::complete);
+        allFutures.whenComplete((unused, throwable) -> {
+            //Saving a partly loaded copy would overwrite the target's data with defaults
+            if (throwable != null) {
+                copyFuture.completeExceptionally(throwable);
+                return;
+            }
+            saveData(true).whenComplete((saved, saveThrowable) -> {
+                if (saveThrowable != null) {
+                    copyFuture.completeExceptionally(saveThrowable);
+                }
+                else {
+                    copyFuture.complete(saved);
+                }
+            });
         });
 
 
     }
 
+    /**
+     * Initializes every {@link Skill} for this player from the provided snapshots, in the order of {@link Skills#values()}
+     *
+     * @param skillDataSnapshots The {@link SkillDataSnapshot} for each {@link Skills} as loaded from the database
+     */
+    void initializeSkills(Map<Skills, SkillDataSnapshot> skillDataSnapshots) {
+        for (Skills skillType : Skills.values()) {
+
+            SkillDataSnapshot skillDataSnapshot = skillDataSnapshots.get(skillType);
+
+            if (skillDataSnapshot != null) {
+                initializeSkill(skillDataSnapshot);
+            }
+        }
+    }
+
     void initializeSkill(SkillDataSnapshot skillDataSnapshot) {
 
         Skills skillType = skillDataSnapshot.getSkillType();
@@ -759,6 +785,7 @@ public class McRPGPlayer {
             }
         }
 
+        boolean changed = !toRemove.isEmpty();
         if (!toRemove.isEmpty()) {
             for (UnlockedAbilities ab : toRemove) {
                 abilitiesOnCooldown.remove(ab);
@@ -766,6 +793,7 @@ public class McRPGPlayer {
         }
         if (endTimeForReplaceCooldown != 0 && Calendar.getInstance().getTimeInMillis() >= endTimeForReplaceCooldown) {
             this.endTimeForReplaceCooldown = 0;
+            changed = true;
             if (Bukkit.getOfflinePlayer(uuid).isOnline()) {
                 this.getPlayer().sendMessage(Methods.color(McRPG.getInstance().getPluginPrefix() +
                                                                McRPG.getInstance().getLangFile().getString("Messages.Players.ReplaceCooldownExpire")));
@@ -774,6 +802,7 @@ public class McRPGPlayer {
         if (divineEscapeExpEnd != 0 && divineEscapeExpEnd <= Calendar.getInstance().getTimeInMillis()) {
             divineEscapeExpEnd = 0;
             divineEscapeExpDebuff = 0;
+            changed = true;
             if (Bukkit.getOfflinePlayer(uuid).isOnline()) {
                 getPlayer().sendMessage(Methods.color(getPlayer(), McRPG.getInstance().getPluginPrefix() + McRPG.getInstance().getLangFile().getString("Messages.Abilities.DivineEscape.ExpDebuffExpire")));
             }
@@ -781,18 +810,15 @@ public class McRPGPlayer {
         if (divineEscapeDamageEnd != 0 && divineEscapeDamageEnd <= Calendar.getInstance().getTimeInMillis()) {
             divineEscapeDamageEnd = 0;
             divineEscapeDamageDebuff = 0;
+            changed = true;
             if (Bukkit.getOfflinePlayer(uuid).isOnline()) {
                 getPlayer().sendMessage(Methods.color(getPlayer(), McRPG.getInstance().getPluginPrefix() + McRPG.getInstance().getLangFile().getString("Messages.Abilities.DivineEscape.DamageDebuffExpire")));
             }
         }
 
-        Database database = McRPG.getInstance().getDatabaseManager().getDatabase();
-
-        if(database != null) {
-            Connection connection = database.getConnection();
-
-            PlayerDataDAO.savePlayerData(connection, this);
-            SkillDAO.savePlayerAbilityAttributes(connection, this);
+        //Only save when a cooldown actually expired, otherwise there is nothing new to write
+        if (changed && McRPG.getInstance().getDatabaseManager().getDatabase() != null) {
+            saveData();
         }
     }
 
@@ -820,54 +846,277 @@ public class McRPGPlayer {
         }
 
         if(database != null) {
-            Connection connection = database.getConnection();
-
-            PlayerDataDAO.savePlayerData(connection, this);
-            SkillDAO.savePlayerAbilityAttributes(connection, this);
+            saveData();
         }
     }
 
     /**
-     * Save players data
+     * Save any of this player's data that has changed since it was last saved
+     *
+     * @return A {@link CompletableFuture} that completes once all changed data has been saved
      */
     public CompletableFuture<Void> saveData() {
+        return saveData(false);
+    }
+
+    /**
+     * Save this player's data.
+     * <p>
+     * A delta save only writes the data that has changed since the last save, by checking the change counts of each {@link Skill} and {@link BaseAbility}
+     * and comparing everything else against what was last written. If nothing has changed, nothing is written. A full save rewrites everything and
+     * should be used whenever the stored data has to be exact, such as when the player logs out or the server shuts down, since it is the only save
+     * that refreshes the remaining time of every ability cooldown.
+     *
+     * @param fullSave {@code true} to write all of this player's data, or {@code false} to only write the data that has changed
+     * @return A {@link CompletableFuture} that completes once the data has been saved
+     */
+    public CompletableFuture<Void> saveData(boolean fullSave) {
+        return saveData(List.of(this), fullSave);
+    }
+
+    /**
+     * Saves the data of every provided player using a single {@link PlayerSaveBatch}, meaning all of their data is written inside of one transaction.
+     * <p>
+     * Saves can be queued in different lanes of the {@link us.eunoians.mcrpg.database.DatabaseExecutor}, so the batch isn't written until every
+     * earlier save of the players in it has finished. Otherwise an older save waiting in the background lane could be written after a newer one
+     * and put older data back.
+     *
+     * @param mcRPGPlayers The {@link McRPGPlayer}s to save
+     * @param fullSave     {@code true} to write all of each player's data, or {@code false} to only write the data that has changed
+     * @return A {@link CompletableFuture} that completes once the data has been saved
+     * @see #saveData(boolean)
+     */
+    public static CompletableFuture<Void> saveData(Collection<McRPGPlayer> mcRPGPlayers, boolean fullSave) {
 
-        CompletableFuture<Void> completableFuture = new CompletableFuture<>();
         Database database = McRPG.getInstance().getDatabaseManager().getDatabase();
-        Connection connection = database.getConnection();
+        Connection connection = database.getWriteConnection();
+        PlayerSaveBatch saveBatch = new PlayerSaveBatch();
+        List<McRPGPlayer> playersToSave = new ArrayList<>();
+        List<Runnable> remoteTransferSaves = new ArrayList<>();
+        CompletableFuture<Void> completableFuture = new CompletableFuture<>();
+        CompletableFuture<Void> earlierSaves;
 
-        CompletableFuture.allOf(PlayerDataDAO.savePlayerData(connection, this),
-                PlayerSettingsDAO.savePlayerSettings(connection, this), SkillDAO.saveAllPlayerSkillInformation(connection, this),
-                PlayerLoadoutDAO.savePlayerLoadout(connection, this))
-            .thenAccept(unused -> {
+        synchronized (SAVE_ORDER_LOCK) {
 
-                RemoteTransfer transfer = (RemoteTransfer) getBaseAbility(UnlockedAbilities.REMOTE_TRANSFER);
-                if (transfer.isUnlocked()) {
-                    File remoteTransferFile = new File(McRPG.getInstance().getDataFolder(), File.separator + "remote_transfer_data" + File.separator + uuid.toString() + ".yml");
-                    FileConfiguration data = YamlConfiguration.loadConfiguration(remoteTransferFile);
-                    for (Material mat : transfer.getItemsToSync().keySet()) {
-                        data.set("RemoteTransferBlocks." + mat.toString(), transfer.getItemsToSync().get(mat));
-                    }
-                    try {
-                        data.save(remoteTransferFile);
-                    }
-                    catch (IOException e) {
-                        e.printStackTrace();
-                    }
+            List<CompletableFuture<Void>> earlierSaveList = new ArrayList<>();
+            for (McRPGPlayer mcRPGPlayer : mcRPGPlayers) {
+
+                boolean added = mcRPGPlayer.addToSaveBatch(saveBatch, fullSave);
+                if (added) {
+                    playersToSave.add(mcRPGPlayer);
                 }
 
+                Runnable remoteTransferSave = mcRPGPlayer.prepareRemoteTransferSave(fullSave);
+                if (remoteTransferSave != null) {
+                    remoteTransferSaves.add(remoteTransferSave);
+                }
+
+                if (added || remoteTransferSave != null) {
+                    earlierSaveList.add(mcRPGPlayer.lastSave);
+                    //Never completed exceptionally, so a failed save doesn't stop the ones after it
+                    mcRPGPlayer.lastSave = completableFuture.exceptionally(throwable -> null);
+                }
+            }
+
+            if (saveBatch.isEmpty() && remoteTransferSaves.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            earlierSaves = CompletableFuture.allOf(earlierSaveList.toArray(new CompletableFuture[0]));
+        }
+
+        //Runs right away on this thread if nothing is in the way, which keeps the lane this save was queued with
+        earlierSaves.thenCompose(unused -> saveBatch.save(connection))
+            .thenAccept(unused -> {
+                remoteTransferSaves.forEach(Runnable::run);
                 completableFuture.complete(null);
             })
             .exceptionally(throwable -> {
-                throwable.printStackTrace();
+                //A busy database turning the save away is expected under load and the next save writes the same data, so it isn't worth a stack trace
+                if (throwable instanceof RejectedExecutionException || throwable.getCause() instanceof RejectedExecutionException) {
+                    McRPG.getInstance().getLogger().log(Level.WARNING, "The database is too busy to save " + playersToSave.size() + " players right now, they will be saved next time.");
+                }
+                else {
+                    throwable.printStackTrace();
+                }
+                //The whole batch was rolled back, so everything it contained has to be written again next time
+                playersToSave.forEach(McRPGPlayer::markUnsaved);
                 completableFuture.completeExceptionally(throwable);
                 return null;
             });
 
-
         return completableFuture;
     }
 
+    /**
+     * Adds the data of this player that needs saving to the provided {@link PlayerSaveBatch}. Everything that is added is treated as saved
+     * from this point on, so {@link #markUnsaved()} needs to be called if the batch fails to save.
+     *
+     * @param saveBatch The {@link PlayerSaveBatch} to add this player's data to
+     * @param fullSave  {@code true} to add all of this player's data, or {@code false} to only add the data that has changed
+     * @return {@code true} if anything was added to the batch
+     */
+    private boolean addToSaveBatch(PlayerSaveBatch saveBatch, boolean fullSave) {
+
+        boolean added = false;
+
+        if (fullSave) {
+            saveBatch.addAll(this);
+            added = true;
+        }
+
+        //Baselines are updated as soon as the data is captured so that a change made while the save is running is picked up by the next save
+        PlayerDataDAO.PlayerDataSnapshot playerData = PlayerDataDAO.PlayerDataSnapshot.fromPlayer(this);
+        if (!playerData.equals(lastSavedPlayerData)) {
+            saveBatch.addPlayerData(this);
+            added = true;
+        }
+        lastSavedPlayerData = playerData;
+
+        PlayerSettingsDAO.PlayerSettingsSnapshot playerSettings = PlayerSettingsDAO.PlayerSettingsSnapshot.fromPlayer(this);
+        if (!playerSettings.equals(lastSavedPlayerSettings)) {
+            saveBatch.addPlayerSettings(this);
+            added = true;
+        }
+        lastSavedPlayerSettings = playerSettings;
+
+        List<UnlockedAbilities> loadout = new ArrayList<>(abilityLoadout);
+        if (!loadout.equals(lastSavedLoadout)) {
+            saveBatch.addPlayerLoadout(this);
+            added = true;
+        }
+        lastSavedLoadout = loadout;
+
+        List<Skills> changedSkills = new ArrayList<>();
+        List<GenericAbility> changedAbilities = new ArrayList<>();
+        for (Skill skill : skills) {
+
+            //The change count is read first so that a change made after it keeps the skill dirty for the next save
+            long skillChangeCount = skill.getChangeCount();
+            if (skill.isDirty()) {
+                changedSkills.add(skill.getType());
+                skill.markSaved(skillChangeCount);
+            }
+
+            for (BaseAbility baseAbility : skill.getAbilities()) {
+                long abilityChangeCount = baseAbility.getChangeCount();
+                if (baseAbility.isDirty()) {
+                    changedAbilities.add(baseAbility.getGenericAbility());
+                    baseAbility.markSaved(abilityChangeCount);
+                }
+            }
+        }
+
+        //Cooldowns are compared by their end time, so a delta save only writes them when an ability goes on or comes off of cooldown
+        Map<UnlockedAbilities, Long> cooldowns = new HashMap<>(abilitiesOnCooldown);
+        Set<UnlockedAbilities> pendingAbilities = new HashSet<>(pendingUnlockAbilities);
+        Set<UnlockedAbilities> changedAttributes = new HashSet<>();
+
+        for (GenericAbility genericAbility : changedAbilities) {
+            if (genericAbility instanceof UnlockedAbilities unlockedAbility) {
+                changedAttributes.add(unlockedAbility);
+            }
+        }
+
+        if (lastSavedCooldowns == null || lastSavedPendingAbilities == null) {
+            for (Skills skillType : Skills.values()) {
+                Collections.addAll(changedAttributes, skillType.getUnlockedAbilities());
+            }
+        }
+        else {
+            for (Map.Entry<UnlockedAbilities, Long> cooldownEntry : cooldowns.entrySet()) {
+                if (!cooldownEntry.getValue().equals(lastSavedCooldowns.get(cooldownEntry.getKey()))) {
+                    changedAttributes.add(cooldownEntry.getKey());
+                }
+            }
+            for (UnlockedAbilities unlockedAbility : lastSavedCooldowns.keySet()) {
+                if (!cooldowns.containsKey(unlockedAbility)) {
+                    changedAttributes.add(unlockedAbility);
+                }
+            }
+            for (UnlockedAbilities unlockedAbility : pendingAbilities) {
+                if (!lastSavedPendingAbilities.contains(unlockedAbility)) {
+                    changedAttributes.add(unlockedAbility);
+                }
+            }
+            for (UnlockedAbilities unlockedAbility : lastSavedPendingAbilities) {
+                if (!pendingAbilities.contains(unlockedAbility)) {
+                    changedAttributes.add(unlockedAbility);
+                }
+            }
+        }
+
+        lastSavedCooldowns = cooldowns;
+        lastSavedPendingAbilities = pendingAbilities;
+
+        if (!changedSkills.isEmpty() || !changedAbilities.isEmpty() || !changedAttributes.isEmpty()) {
+            saveBatch.addSkillData(this, changedSkills)
+                .addAbilityToggles(this, changedAbilities)
+                .addAbilityAttributes(this, changedAttributes);
+            added = true;
+        }
+
+        return added;
+    }
+
+    /**
+     * Marks all of this player's data as unsaved so that the next save writes all of it again. This is used whenever a save fails
+     * and has been rolled back.
+     */
+    private void markUnsaved() {
+
+        lastSavedPlayerData = null;
+        lastSavedPlayerSettings = null;
+        lastSavedLoadout = null;
+        lastSavedCooldowns = null;
+        lastSavedPendingAbilities = null;
+
+        for (Skill skill : skills) {
+            skill.markChanged();
+            for (BaseAbility baseAbility : skill.getAbilities()) {
+                baseAbility.markChanged();
+            }
+        }
+    }
+
+    /**
+     * Captures the items synced by this player's {@link RemoteTransfer} if they need to be saved
+     *
+     * @param fullSave {@code true} if the items should be saved even if they haven't changed
+     * @return A {@link Runnable} that writes the captured items to this player's remote transfer file, or {@code null} if there is nothing to save
+     */
+    @Nullable
+    private Runnable prepareRemoteTransferSave(boolean fullSave) {
+
+        RemoteTransfer transfer = (RemoteTransfer) getBaseAbility(UnlockedAbilities.REMOTE_TRANSFER);
+
+        if (transfer == null || !transfer.isUnlocked()) {
+            return null;
+        }
+
+        Map<Material, Boolean> remoteTransferItems = new HashMap<>(transfer.getItemsToSync());
+        if (!fullSave && remoteTransferItems.equals(lastSavedRemoteTransferItems)) {
+            return null;
+        }
+
+        lastSavedRemoteTransferItems = remoteTransferItems;
+
+        return () -> {
+            File remoteTransferFile = new File(McRPG.getInstance().getDataFolder(), File.separator + "remote_transfer_data" + File.separator + uuid.toString() + ".yml");
+            FileConfiguration data = YamlConfiguration.loadConfiguration(remoteTransferFile);
+            for (Material mat : remoteTransferItems.keySet()) {
+                data.set("RemoteTransferBlocks." + mat.toString(), remoteTransferItems.get(mat));
+            }
+            try {
+                data.save(remoteTransferFile);
+            }
+            catch (IOException e) {
+                lastSavedRemoteTransferItems = null;
+                e.printStackTrace();
+            }
+        };
+    }
+
     /**
      * @param abilities The ability to add to the pending list
      */
@@ -877,7 +1126,7 @@ public class McRPGPlayer {
         Database database = McRPG.getInstance().getDatabaseManager().getDatabase();
 
         if(database != null) {
-            SkillDAO.savePlayerAbilityAttributes(database.getConnection(), this);
+            saveData();
         }
     }
 
@@ -890,7 +1139,7 @@ public class McRPGPlayer {
         Database database = McRPG.getInstance().getDatabaseManager().getDatabase();
 
         if(database != null) {
-            SkillDAO.savePlayerAbilityAttributes(database.getConnection(), this);
+            saveData();
         }
     }
 
@@ -935,6 +1184,19 @@ public class McRPGPlayer {
         return abilityLoadout.stream().filter(ability1 -> ability1.getName().equalsIgnoreCase(ability.getName())).findFirst().orElse(null) != null;
     }
 
+    /**
+     * Gets the passives that do something when this player moves, working them out again first if this player's loadout, the tiers of
+     * those passives or the configs have changed since they were last worked out
+     *
+     * @return The {@link MovementPassives} for this player
+     */
+    public MovementPassives getMovementPassives() {
+        if (movementPassives == null || !movementPassives.isCurrent(this)) {
+            movementPassives = new MovementPassives(this);
+        }
+        return movementPassives;
+    }
+
     /**
      * @param skill The skill to check if they have an active ability for
      * @return true if the player has an active ability, false if not
@@ -0,0 +1,151 @@
+package us.eunoians.mcrpg.players;
+
+import org.bukkit.World;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import us.eunoians.mcrpg.McRPG;
+import us.eunoians.mcrpg.abilities.fitness.RunnersDiet;
+import us.eunoians.mcrpg.abilities.woodcutting.NymphsVitality;
+import us.eunoians.mcrpg.api.util.FileManager;
+import us.eunoians.mcrpg.api.util.Methods;
+import us.eunoians.mcrpg.types.UnlockedAbilities;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The passives that do something when a player moves, worked out ahead of time from the player's loadout and the skill configs so that
+ * moving doesn't have to read any configs.
+ * <p>
+ * A player's passives are worked out again by {@link McRPGPlayer#getMovementPassives()} when their loadout changes, when the tier of one
+ * of the passives changes or after the configs are reloaded. Whether a passive is toggled on is always read from the ability itself.
+ *
+ * @author DiamondDagger590
+ */
+public class MovementPassives {
+
+    private static int configGeneration = 0;
+
+    private final int generation;
+    private final int loadoutHash;
+
+    @Nullable
+    private final NymphsVitality nymphsVitality;
+    private final int nymphsVitalityTier;
+    private final int nymphsVitalityMinHunger;
+    private final Set<String> nymphsVitalityBiomes;
+
+    @Nullable
+    private final RunnersDiet runnersDiet;
+    private final int runnersDietTier;
+    private final int runnersDietMinHunger;
+
+    private UUID lastWorld;
+    private boolean lastWorldDisabled;
+
+    MovementPassives(@NotNull McRPGPlayer mcRPGPlayer) {
+        this.generation = configGeneration;
+        this.loadoutHash = mcRPGPlayer.getAbilityLoadout().hashCode();
+
+        if (UnlockedAbilities.NYMPHS_VITALITY.isEnabled() && mcRPGPlayer.doesPlayerHaveAbilityInLoadout(UnlockedAbilities.NYMPHS_VITALITY)) {
+            FileConfiguration woodCuttingConfig = McRPG.getInstance().getFileManager().getFile(FileManager.Files.WOODCUTTING_CONFIG);
+            this.nymphsVitality = (NymphsVitality) mcRPGPlayer.getBaseAbility(UnlockedAbilities.NYMPHS_VITALITY);
+            this.nymphsVitalityTier = nymphsVitality.getCurrentTier();
+            this.nymphsVitalityMinHunger = woodCuttingConfig.getInt("NymphsVitalityConfig.Tier" + Methods.convertToNumeral(nymphsVitalityTier) + ".MinimumHunger");
+            this.nymphsVitalityBiomes = new HashSet<>(woodCuttingConfig.getStringList("NymphsVitalityConfig.Biomes"));
+        }
+        else {
+            this.nymphsVitality = null;
+            this.nymphsVitalityTier = 0;
+            this.nymphsVitalityMinHunger = 0;
+            this.nymphsVitalityBiomes = Collections.emptySet();
+        }
+
+        if (UnlockedAbilities.RUNNERS_DIET.isEnabled() && mcRPGPlayer.getAbilityLoadout().contains(UnlockedAbilities.RUNNERS_DIET)) {
+            FileConfiguration fitnessConfig = McRPG.getInstance().getFileManager().getFile(FileManager.Files.FITNESS_CONFIG);
+            this.runnersDiet = (RunnersDiet) mcRPGPlayer.getBaseAbility(UnlockedAbilities.RUNNERS_DIET);
+            this.runnersDietTier = runnersDiet.getCurrentTier();
+            this.runnersDietMinHunger = fitnessConfig.getInt("RunnersDietConfig.Tier" + Methods.convertToNumeral(runnersDietTier) + ".MinHunger");
+        }
+        else {
+            this.runnersDiet = null;
+            this.runnersDietTier = 0;
+            this.runnersDietMinHunger = 0;
+        }
+    }
+
+    /**
+     * Makes every player's movement passives be worked out again the next time they move. Should be called whenever the configs are reloaded.
+     */
+    public static void invalidateAll() {
+        configGeneration++;
+    }
+
+    /**
+     * Checks if these passives still match the provided player's loadout, ability tiers and the configs
+     *
+     * @param mcRPGPlayer The player these passives were worked out for
+     * @return {@code true} if these passives can still be used
+     */
+    boolean isCurrent(@NotNull McRPGPlayer mcRPGPlayer) {
+        return generation == configGeneration && loadoutHash == mcRPGPlayer.getAbilityLoadout().hashCode()
+                   && (nymphsVitality == null || nymphsVitality.getCurrentTier() == nymphsVitalityTier)
+                   && (runnersDiet == null || runnersDiet.getCurrentTier() == runnersDietTier);
+    }
+
+    /**
+     * Checks if McRPG is disabled in the provided world by {@code Configuration.DisabledWorlds}. The answer for the last world asked about
+     * is remembered, since players spend most of their time in one world.
+     *
+     * @param world The world to check
+     * @return {@code true} if McRPG is disabled in that world
+     */
+    public boolean isWorldDisabled(@NotNull World world) {
+        if (!world.getUID().equals(lastWorld)) {
+            lastWorld = world.getUID();
+            lastWorldDisabled = McRPG.getInstance().getConfig().getStringList("Configuration.DisabledWorlds").contains(world.getName());
+        }
+        return lastWorldDisabled;
+    }
+
+    /**
+     * Gets the player's Nymph's Vitality if it is enabled, in their loadout and toggled on
+     *
+     * @return The player's Nymph's Vitality, or {@code null} if it shouldn't do anything
+     */
+    @Nullable
+    public NymphsVitality getNymphsVitality() {
+        return nymphsVitality != null && nymphsVitality.isToggled() ? nymphsVitality : null;
+    }
+
+    public int getNymphsVitalityMinHunger() {
+        return nymphsVitalityMinHunger;
+    }
+
+    /**
+     * Checks if Nymph's Vitality works in the biome with the provided name
+     *
+     * @param biomeName The name of the biome
+     * @return {@code true} if Nymph's Vitality works in that biome
+     */
+    public boolean isNymphsVitalityBiome(@NotNull String biomeName) {
+        return nymphsVitalityBiomes.contains(biomeName);
+    }
+
+    /**
+     * Gets the player's Runner's Diet if it is enabled, in their loadout and toggled on
+     *
+     * @return The player's Runner's Diet, or {@code null} if it shouldn't do anything
+     */
+    @Nullable
+    public RunnersDiet getRunnersDiet() {
+        return runnersDiet != null && runnersDiet.isToggled() ? runnersDiet : null;
+    }
+
+    public int getRunnersDietMinHunger() {
+        return runnersDietMinHunger;
+    }
+}
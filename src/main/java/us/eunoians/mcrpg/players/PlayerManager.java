@@ -1,5 +1,6 @@
 package us.eunoians.mcrpg.players;
 
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitRunnable;
@@ -8,21 +9,27 @@ import us.eunoians.mcrpg.McRPG;
 import us.eunoians.mcrpg.api.exceptions.McRPGPlayerNotFoundException;
 import us.eunoians.mcrpg.api.util.FileManager;
 import us.eunoians.mcrpg.api.util.Methods;
+import us.eunoians.mcrpg.database.DatabaseTaskPriority;
 import us.eunoians.mcrpg.types.TipType;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 
 public class PlayerManager {
 
-    //Players who are currently logged on
-    private static HashMap<UUID, McRPGPlayer> players = new HashMap<>();
-    private static ArrayList<UUID> playersFrozen = new ArrayList<UUID>();
+    //Every player McRPG has in memory along with where they are in their lifecycle
+    private static final PlayerRegistry playerRegistry = new PlayerRegistry();
+    //Players whose data started loading while they were still logging in, waiting to be claimed when they join
+    private static final Map<UUID, PrefetchedPlayer> prefetchedPlayers = new ConcurrentHashMap<>();
+    private static final long PREFETCH_EXPIRY_MILLIS = TimeUnit.SECONDS.toMillis(60);
     private static McRPG plugin;
     private static BukkitTask saveTask;
 
@@ -31,49 +38,135 @@ public class PlayerManager {
     }
 
     public static void addMcRPGPlayer(Player player, boolean freeze) {
-        if (players.containsKey(player.getUniqueId())) {
+        UUID uuid = player.getUniqueId();
+        PrefetchedPlayer prefetchedPlayer = prefetchedPlayers.remove(uuid);
+
+        //Players who are already loading or whose data is still in memory from before they logged out don't need to be loaded again
+        if (!playerRegistry.startLoading(uuid, freeze)) {
             return;
         }
-        UUID uuid = player.getUniqueId();
-        if (freeze) {
-            playersFrozen.add(uuid);
+
+        //If the player was prefetched during pre-login their data is usually already loaded by now, otherwise start loading it now
+        McRPGPlayer mp;
+        try {
+            mp = prefetchedPlayer != null ? prefetchedPlayer.mcRPGPlayer() : new McRPGPlayer(uuid);
         }
+        catch (RejectedExecutionException e) {
+            failAddingPlayer(uuid, e);
+            return;
+        }
+        CompletableFuture<Void> loadFuture = mp.getLoadFuture();
 
-        BukkitTask task = new BukkitRunnable() {
-            public void run() {
-                McRPGPlayer mp = new McRPGPlayer(uuid);
-                mp.getUsedTips().add(TipType.LOGIN_TIP);
-                if (mp.isOnline()) {
-                    if (!McRPG.getInstance().getFileManager().getFile(FileManager.Files.CONFIG).getBoolean("Configuration.DisableTips") && !mp.isIgnoreTips()) {
-                        List<String> possibleMessages = McRPG.getInstance().getLangFile().getStringList("Messages.Tips.LoginTips");
-                        Random rand = new Random();
-                        int val = rand.nextInt(possibleMessages.size());
-                        new BukkitRunnable() {
-                            @Override
-                            public void run() {
-                                if (mp.isOnline()) {
-                                    mp.getPlayer().sendMessage(Methods.color(mp.getPlayer(), possibleMessages.get(val)));
-                                }
-                            }
-                        }.runTaskLater(McRPG.getInstance(), 40L);
+        if (loadFuture == null || (loadFuture.isDone() && !loadFuture.isCompletedExceptionally())) {
+            finishAddingPlayer(mp);
+            return;
+        }
+
+        loadFuture.whenComplete((unused, throwable) -> {
+
+            if (!plugin.isEnabled()) {
+                return;
+            }
+
+            new BukkitRunnable() {
+                @Override
+                public void run() {
+                    if (throwable != null) {
+                        failAddingPlayer(uuid, throwable);
+                    }
+                    else {
+                        finishAddingPlayer(mp);
                     }
-                    players.put(uuid, mp);
                 }
-                playersFrozen.remove(uuid);
+            }.runTask(plugin);
+        });
+    }
+
+    /**
+     * Handles a player whose data failed to load, or couldn't start loading since the database was too busy. The partly loaded {@link McRPGPlayer} is thrown away instead of being activated, since saving
+     * it would overwrite the player's real data with defaults, and the player is kicked so that they can try again once the database recovers.
+     *
+     * @param uuid      The {@link UUID} of the player that failed to load
+     * @param throwable Why the load failed
+     */
+    private static void failAddingPlayer(UUID uuid, Throwable throwable) {
+        plugin.getLogger().log(Level.SEVERE, "Unable to load the McRPG data of " + uuid + ", they will be kicked so nothing is saved over their data", throwable);
+        playerRegistry.transition(uuid, PlayerState.LOADING, PlayerState.UNLOADED);
+        prefetchedPlayers.remove(uuid);
+        Player player = Bukkit.getPlayer(uuid);
+        if (player != null && player.isOnline()) {
+            player.kickPlayer(Methods.color("&cYour McRPG data could not be loaded. Please rejoin in a moment."));
+        }
+    }
+
+    private static void finishAddingPlayer(McRPGPlayer mp) {
+        mp.getUsedTips().add(TipType.LOGIN_TIP);
+        if (!mp.isOnline()) {
+            playerRegistry.transition(mp.getUuid(), PlayerState.LOADING, PlayerState.UNLOADED);
+        }
+        else if (playerRegistry.activate(mp)) {
+            if (!McRPG.getInstance().getFileManager().getFile(FileManager.Files.CONFIG).getBoolean("Configuration.DisableTips") && !mp.isIgnoreTips()) {
+                List<String> possibleMessages = McRPG.getInstance().getLangFile().getStringList("Messages.Tips.LoginTips");
+                Random rand = new Random();
+                int val = rand.nextInt(possibleMessages.size());
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        if (mp.isOnline()) {
+                            mp.getPlayer().sendMessage(Methods.color(mp.getPlayer(), possibleMessages.get(val)));
+                        }
+                    }
+                }.runTaskLater(McRPG.getInstance(), 40L);
             }
-        }.runTaskAsynchronously(plugin);
+        }
     }
 
-    public static boolean isPlayerFrozen(UUID uuid) {
-        if (isPlayerStored(uuid)) {
-            playersFrozen.remove(uuid);
+    /**
+     * Starts loading the data of the player with the provided {@link UUID} before they have finished logging in, so that by the time
+     * they join their data is usually already loaded and {@link #addMcRPGPlayer(Player, boolean)} doesn't need to wait on the database.
+     * <p>
+     * If the player's data is still in memory because they are rejoining inside of their logout grace period or while their final save is
+     * being written, that {@link McRPGPlayer} is reused instead of loading their data again.
+     * <p>
+     * This is safe to call from the async pre-login thread. If the player never joins, the prefetched data is discarded either by
+     * {@link #discardPrefetchedPlayer(UUID)} or once it expires.
+     *
+     * @param uuid The {@link UUID} of the player to prefetch
+     */
+    public static void prefetchPlayer(UUID uuid) {
+        long now = System.currentTimeMillis();
+        McRPGPlayer storedPlayer = playerRegistry.getLoadedPlayer(uuid);
+
+        if (storedPlayer != null) {
+            prefetchedPlayers.put(uuid, new PrefetchedPlayer(storedPlayer, now));
+            return;
         }
-        return playersFrozen.contains(uuid);
+
+        //A prefetch that failed is started again rather than reused, so a database hiccup doesn't keep failing the player's logins
+        prefetchedPlayers.compute(uuid, (key, prefetchedPlayer) -> prefetchedPlayer == null || prefetchedPlayer.isExpired(now) || prefetchedPlayer.hasFailed()
+                                                                        ? new PrefetchedPlayer(new McRPGPlayer(uuid), now) : prefetchedPlayer);
+    }
+
+    /**
+     * Discards any data prefetched by {@link #prefetchPlayer(UUID)} for the player with the provided {@link UUID}. This should be called
+     * whenever a login is cancelled after the player was prefetched.
+     * <p>
+     * Nothing is saved for a prefetched player until they join, so discarding them never loses any data.
+     *
+     * @param uuid The {@link UUID} of the player whose prefetched data should be discarded
+     */
+    public static void discardPrefetchedPlayer(UUID uuid) {
+        prefetchedPlayers.remove(uuid);
+    }
+
+    public static boolean isPlayerFrozen(UUID uuid) {
+        return playerRegistry.isFrozen(uuid);
     }
 
     public static McRPGPlayer getPlayer(UUID uuid) throws McRPGPlayerNotFoundException {
-        if (players.containsKey(uuid)) {
-            return players.get(uuid);
+        McRPGPlayer mcRPGPlayer = playerRegistry.getStoredPlayer(uuid);
+        if (mcRPGPlayer != null) {
+            return mcRPGPlayer;
         }
         else {
             throw new McRPGPlayerNotFoundException("Player is not found or loaded yet.");
@@ -81,18 +174,62 @@ public class PlayerManager {
     }
 
     public static boolean isPlayerStored(UUID uuid) {
-        return players.containsKey(uuid);
+        return playerRegistry.getStoredPlayer(uuid) != null;
+    }
+
+    /**
+     * Runs the provided {@link Consumer} for every stored {@link McRPGPlayer}, which is any player who is {@link PlayerState#ACTIVE} or in their
+     * {@link PlayerState#LOGOUT_GRACE}
+     *
+     * @param consumer The {@link Consumer} to run for each stored {@link McRPGPlayer}
+     */
+    public static void forEachStoredPlayer(Consumer<McRPGPlayer> consumer) {
+        playerRegistry.forEachStoredPlayer(consumer);
+    }
+
+    /**
+     * Gets the {@link PlayerState} of the player with the provided {@link UUID}
+     *
+     * @param uuid The {@link UUID} of the player
+     * @return The {@link PlayerState} of the player, which is {@link PlayerState#UNLOADED} if McRPG has nothing in memory for them
+     */
+    public static PlayerState getPlayerState(UUID uuid) {
+        return playerRegistry.getState(uuid);
+    }
+
+    /**
+     * Moves the player with the provided {@link UUID} into their {@link PlayerState#LOGOUT_GRACE}, keeping their data in memory in case they rejoin
+     * until {@link #removePlayer(UUID)} is called
+     *
+     * @param uuid The {@link UUID} of the player who logged out
+     */
+    public static void startLogoutGrace(UUID uuid) {
+        playerRegistry.transition(uuid, PlayerState.ACTIVE, PlayerState.LOGOUT_GRACE);
     }
 
     public static void removePlayer(UUID uuid) {
+        McRPGPlayer mcRPGPlayer = playerRegistry.getStoredPlayer(uuid);
+
+        if (mcRPGPlayer == null || !(playerRegistry.transition(uuid, PlayerState.LOGOUT_GRACE, PlayerState.SAVING)
+                                         || playerRegistry.transition(uuid, PlayerState.ACTIVE, PlayerState.SAVING))) {
+            return;
+        }
+
+        if (!plugin.isEnabled()) {
+            playerRegistry.transition(uuid, PlayerState.SAVING, PlayerState.UNLOADED);
+            return;
+        }
 
-        if(players.containsKey(uuid)){
-            McRPGPlayer mcRPGPlayer = players.remove(uuid);
+        //The player stays in memory until the save finishes so that rejoining in the meantime reuses their data instead of reading stale data.
+        //The save is written after any earlier save of theirs that is still waiting, such as a sweep in the background lane, so it finishes last
+        mcRPGPlayer.saveData(true).whenComplete((unused, throwable) -> {
 
-            if(plugin.isEnabled()){
-                mcRPGPlayer.saveData();
+            if (throwable != null) {
+                throwable.printStackTrace();
             }
-        }
+
+            playerRegistry.transition(uuid, PlayerState.SAVING, PlayerState.UNLOADED);
+        });
     }
 
     public static void startSave(Plugin p) {
@@ -103,6 +240,7 @@ public class PlayerManager {
             saveTask.cancel();
         }
 
+        //Runs on the main thread since the save batch copies every player's data as it is built, and only the write itself is done in the background
         saveTask = new BukkitRunnable() {
             @Override
             public void run() {
@@ -111,25 +249,19 @@ public class PlayerManager {
                     PlayerManager.run();
                 }
             }
-        }.runTaskTimerAsynchronously(p, 500, ((McRPG) p).getFileManager().getFile(FileManager.Files.CONFIG).getInt("Configuration.SaveInterval") * 1200);
+        }.runTaskTimer(p, 500, ((McRPG) p).getFileManager().getFile(FileManager.Files.CONFIG).getInt("Configuration.SaveInterval") * 1200);
 
         System.out.println(Methods.color(plugin.getPluginPrefix() + "&aPlayer saving task has been started!"));
 
         new BukkitRunnable() {
             @Override
             public void run() {
-                Collection<McRPGPlayer> clone = ((HashMap<UUID, McRPGPlayer>) players.clone()).values();
-
                 if (p.isEnabled()) {
 
-                    for (McRPGPlayer mp : clone) {
+                    long now = System.currentTimeMillis();
+                    prefetchedPlayers.values().removeIf(prefetchedPlayer -> prefetchedPlayer.isExpired(now));
 
-                        if (isPlayerFrozen(mp.getUuid())) {
-                            continue;
-                        }
-
-                        mp.updateCooldowns();
-                    }
+                    playerRegistry.forEachStoredPlayer(McRPGPlayer::updateCooldowns);
                 }
             }
         }.runTaskTimer(p, 0, 20);
@@ -137,28 +269,18 @@ public class PlayerManager {
 
 
     private static CompletableFuture<Void> run() {
-        List<McRPGPlayer> playerList = new ArrayList<>(players.values());
-
-        CompletableFuture<Void>[] completableFutures = new CompletableFuture[playerList.size()];
+        List<McRPGPlayer> playerList = playerRegistry.getStoredPlayers();
 
-        for (int i = 0; i < playerList.size(); i++) {
-            completableFutures[i] = playerList.get(i).saveData();
-        }
-
-        return CompletableFuture.allOf(completableFutures);
+        //Every player is saved in one batch so the whole sweep only needs a single commit, and nobody is waiting on it so it can wait behind player loads
+        return plugin.getDatabaseManager().getDatabaseExecutorService()
+                   .supplyWithPriority(DatabaseTaskPriority.BACKGROUND, () -> McRPGPlayer.saveData(playerList, false));
     }
 
     private static CompletableFuture<Void> runAndShutdown() {
-        List<McRPGPlayer> playerList = new ArrayList<>(players.values());
-        players.clear();
+        List<McRPGPlayer> playerList = playerRegistry.unloadAll();
+        prefetchedPlayers.clear();
 
-        CompletableFuture<Void>[] completableFutures = new CompletableFuture[playerList.size()];
-
-        for (int i = 0; i < playerList.size(); i++) {
-            completableFutures[i] = playerList.get(i).saveData();
-        }
-
-        return CompletableFuture.allOf(completableFutures);
+        return McRPGPlayer.saveData(playerList, true);
     }
 
     public static void saveAll() {
@@ -181,4 +303,22 @@ public class PlayerManager {
 
         return completableFuture;
     }
+
+    /**
+     * A {@link McRPGPlayer} that was prefetched during pre-login and is waiting for the player to join
+     *
+     * @param mcRPGPlayer  The prefetched {@link McRPGPlayer}
+     * @param prefetchTime The time in millis that the player was prefetched
+     */
+    private record PrefetchedPlayer(McRPGPlayer mcRPGPlayer, long prefetchTime) {
+
+        private boolean isExpired(long now) {
+            return now - prefetchTime > PREFETCH_EXPIRY_MILLIS;
+        }
+
+        private boolean hasFailed() {
+            CompletableFuture<Void> loadFuture = mcRPGPlayer.getLoadFuture();
+            return loadFuture != null && loadFuture.isCompletedExceptionally();
+        }
+    }
 }
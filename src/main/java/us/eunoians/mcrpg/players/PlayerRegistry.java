@@ -0,0 +1,223 @@
+package us.eunoians.mcrpg.players;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Tracks every {@link McRPGPlayer} that is in memory along with the {@link PlayerState} that they are currently in.
+ * <p>
+ * Everything is backed by a single {@link ConcurrentHashMap} and every state change is made atomically for that player, so lookups are constant time
+ * and safe from any thread (such as the async chat thread), and iterating over the players never throws a {@link java.util.ConcurrentModificationException}
+ * or needs a copy of the registry to be made.
+ *
+ * @author DiamondDagger590
+ */
+final class PlayerRegistry {
+
+    private final Map<UUID, RegisteredPlayer> registeredPlayers = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the {@link PlayerState} of the player with the provided {@link UUID}
+     *
+     * @param uuid The {@link UUID} of the player
+     * @return The {@link PlayerState} of the player, or {@link PlayerState#UNLOADED} if they aren't in the registry
+     */
+    @NotNull
+    PlayerState getState(@NotNull UUID uuid) {
+        RegisteredPlayer registeredPlayer = registeredPlayers.get(uuid);
+        return registeredPlayer == null ? PlayerState.UNLOADED : registeredPlayer.state;
+    }
+
+    /**
+     * Checks to see if the player with the provided {@link UUID} is frozen while their data loads
+     *
+     * @param uuid The {@link UUID} of the player
+     * @return {@code true} if the player is {@link PlayerState#LOADING} and was registered as frozen
+     */
+    boolean isFrozen(@NotNull UUID uuid) {
+        RegisteredPlayer registeredPlayer = registeredPlayers.get(uuid);
+        return registeredPlayer != null && registeredPlayer.frozen && registeredPlayer.state == PlayerState.LOADING;
+    }
+
+    /**
+     * Gets the stored {@link McRPGPlayer} for the provided {@link UUID}, which is any player who is {@link PlayerState#ACTIVE} or
+     * in their {@link PlayerState#LOGOUT_GRACE}
+     *
+     * @param uuid The {@link UUID} of the player
+     * @return The stored {@link McRPGPlayer}, or {@code null} if the player isn't stored
+     */
+    @Nullable
+    McRPGPlayer getStoredPlayer(@NotNull UUID uuid) {
+        RegisteredPlayer registeredPlayer = registeredPlayers.get(uuid);
+        return registeredPlayer != null && isStored(registeredPlayer.state) ? registeredPlayer.mcRPGPlayer : null;
+    }
+
+    /**
+     * Gets the {@link McRPGPlayer} for the provided {@link UUID} if their data is in memory at all, which unlike {@link #getStoredPlayer(UUID)}
+     * also includes players who are {@link PlayerState#SAVING}
+     *
+     * @param uuid The {@link UUID} of the player
+     * @return The {@link McRPGPlayer} in memory, or {@code null} if the player's data isn't in memory
+     */
+    @Nullable
+    McRPGPlayer getLoadedPlayer(@NotNull UUID uuid) {
+        RegisteredPlayer registeredPlayer = registeredPlayers.get(uuid);
+        return registeredPlayer != null ? registeredPlayer.mcRPGPlayer : null;
+    }
+
+    /**
+     * Registers the player with the provided {@link UUID} as {@link PlayerState#LOADING} if McRPG has nothing in memory for them.
+     * <p>
+     * If the player's data is still in memory because they are in their {@link PlayerState#LOGOUT_GRACE} or are {@link PlayerState#SAVING},
+     * they are moved straight back to {@link PlayerState#ACTIVE} instead, as the data in memory is newer than what is in the database.
+     *
+     * @param uuid   The {@link UUID} of the player
+     * @param frozen If the player should be frozen while their data loads
+     * @return {@code true} if the player was registered as {@link PlayerState#LOADING} and their data now needs to be loaded
+     */
+    boolean startLoading(@NotNull UUID uuid, boolean frozen) {
+        boolean[] startedLoading = new boolean[1];
+
+        registeredPlayers.compute(uuid, (key, registeredPlayer) -> {
+
+            if (registeredPlayer == null) {
+                startedLoading[0] = true;
+                return new RegisteredPlayer(frozen);
+            }
+
+            if (registeredPlayer.state != PlayerState.LOADING) {
+                registeredPlayer.state = PlayerState.ACTIVE;
+            }
+            return registeredPlayer;
+        });
+
+        return startedLoading[0];
+    }
+
+    /**
+     * Moves a {@link PlayerState#LOADING} player to {@link PlayerState#ACTIVE} now that the provided {@link McRPGPlayer} has finished loading
+     *
+     * @param mcRPGPlayer The {@link McRPGPlayer} that has finished loading
+     * @return {@code true} if the player was activated, or {@code false} if they were no longer loading
+     */
+    boolean activate(@NotNull McRPGPlayer mcRPGPlayer) {
+        boolean[] activated = new boolean[1];
+
+        registeredPlayers.computeIfPresent(mcRPGPlayer.getUuid(), (key, registeredPlayer) -> {
+
+            if (registeredPlayer.state == PlayerState.LOADING) {
+                registeredPlayer.mcRPGPlayer = mcRPGPlayer;
+                registeredPlayer.state = PlayerState.ACTIVE;
+                activated[0] = true;
+            }
+            return registeredPlayer;
+        });
+
+        return activated[0];
+    }
+
+    /**
+     * Moves the player with the provided {@link UUID} from the expected {@link PlayerState} to a new one
+     *
+     * @param uuid     The {@link UUID} of the player
+     * @param expected The {@link PlayerState} the player needs to be in for the transition to happen
+     * @param newState The {@link PlayerState} to move the player to. If this is {@link PlayerState#UNLOADED} the player is removed from the registry
+     * @return {@code true} if the player was in the expected {@link PlayerState} and has been moved to the new one
+     */
+    boolean transition(@NotNull UUID uuid, @NotNull PlayerState expected, @NotNull PlayerState newState) {
+        boolean[] transitioned = new boolean[1];
+
+        registeredPlayers.computeIfPresent(uuid, (key, registeredPlayer) -> {
+
+            if (registeredPlayer.state != expected) {
+                return registeredPlayer;
+            }
+
+            transitioned[0] = true;
+            registeredPlayer.state = newState;
+            return newState == PlayerState.UNLOADED ? null : registeredPlayer;
+        });
+
+        return transitioned[0];
+    }
+
+    /**
+     * Runs the provided {@link Consumer} for every stored {@link McRPGPlayer}, which is any player who is {@link PlayerState#ACTIVE} or
+     * in their {@link PlayerState#LOGOUT_GRACE}.
+     * <p>
+     * This iterates over the registry directly, so players that change state while this runs may or may not be included.
+     *
+     * @param consumer The {@link Consumer} to run for each stored {@link McRPGPlayer}
+     */
+    void forEachStoredPlayer(@NotNull Consumer<McRPGPlayer> consumer) {
+        for (RegisteredPlayer registeredPlayer : registeredPlayers.values()) {
+            McRPGPlayer mcRPGPlayer = registeredPlayer.mcRPGPlayer;
+
+            if (mcRPGPlayer != null && isStored(registeredPlayer.state)) {
+                consumer.accept(mcRPGPlayer);
+            }
+        }
+    }
+
+    /**
+     * Gets a {@link List} of every stored {@link McRPGPlayer}, which is any player who is {@link PlayerState#ACTIVE} or in their {@link PlayerState#LOGOUT_GRACE}
+     *
+     * @return A {@link List} of every stored {@link McRPGPlayer}
+     */
+    @NotNull
+    List<McRPGPlayer> getStoredPlayers() {
+        List<McRPGPlayer> storedPlayers = new ArrayList<>();
+        forEachStoredPlayer(storedPlayers::add);
+        return storedPlayers;
+    }
+
+    /**
+     * Removes every player from the registry, moving them all to {@link PlayerState#UNLOADED}
+     *
+     * @return A {@link List} of every {@link McRPGPlayer} whose data was in memory and so may still need saving
+     */
+    @NotNull
+    List<McRPGPlayer> unloadAll() {
+        List<McRPGPlayer> unloadedPlayers = new ArrayList<>();
+
+        for (UUID uuid : registeredPlayers.keySet()) {
+            registeredPlayers.computeIfPresent(uuid, (key, registeredPlayer) -> {
+
+                if (registeredPlayer.mcRPGPlayer != null) {
+                    unloadedPlayers.add(registeredPlayer.mcRPGPlayer);
+                }
+                registeredPlayer.state = PlayerState.UNLOADED;
+                return null;
+            });
+        }
+
+        return unloadedPlayers;
+    }
+
+    private static boolean isStored(@NotNull PlayerState state) {
+        return state == PlayerState.ACTIVE || state == PlayerState.LOGOUT_GRACE;
+    }
+
+    /**
+     * A player in the registry. Fields are only ever changed while holding the map's lock for that player, and are volatile so that
+     * lookups from other threads always see the latest state.
+     */
+    private static final class RegisteredPlayer {
+
+        private final boolean frozen;
+        private volatile PlayerState state = PlayerState.LOADING;
+        @Nullable
+        private volatile McRPGPlayer mcRPGPlayer;
+
+        private RegisteredPlayer(boolean frozen) {
+            this.frozen = frozen;
+        }
+    }
+}
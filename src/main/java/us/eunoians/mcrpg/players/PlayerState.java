@@ -0,0 +1,39 @@
+package us.eunoians.mcrpg.players;
+
+/**
+ * The stages of the lifecycle that a {@link McRPGPlayer} goes through while McRPG has them in memory.
+ * <p>
+ * A player normally moves from {@link #UNLOADED} to {@link #LOADING} when they join, then to {@link #ACTIVE} once their data is loaded. When they
+ * quit they enter {@link #LOGOUT_GRACE}, and if they don't rejoin before it ends they are {@link #SAVING} until their final save finishes,
+ * after which they are {@link #UNLOADED} again. Rejoining during {@link #LOGOUT_GRACE} or {@link #SAVING} moves them straight back to {@link #ACTIVE}.
+ *
+ * @author DiamondDagger590
+ */
+public enum PlayerState {
+
+    /**
+     * The player's data is still being loaded from the database. Players in this state are frozen and can't be looked up yet.
+     */
+    LOADING,
+
+    /**
+     * The player is online and their data is loaded.
+     */
+    ACTIVE,
+
+    /**
+     * The player has logged out but their data is kept in memory for a short while in case they rejoin.
+     */
+    LOGOUT_GRACE,
+
+    /**
+     * The player's grace period has ended and their final save is being written. Their data is only kept in memory so that it can be
+     * reused if they rejoin before the save has finished.
+     */
+    SAVING,
+
+    /**
+     * McRPG has nothing in memory for the player.
+     */
+    UNLOADED
+}
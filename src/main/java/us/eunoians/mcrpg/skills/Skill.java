@@ -2,8 +2,9 @@ package us.eunoians.mcrpg.skills;
 
 
 import lombok.Getter;
-import lombok.Setter;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.jetbrains.annotations.Nullable;
 import us.eunoians.mcrpg.McRPG;
 import us.eunoians.mcrpg.abilities.BaseAbility;
 import us.eunoians.mcrpg.api.displays.ExpDisplayFactory;
@@ -19,11 +20,13 @@ import us.eunoians.mcrpg.types.DisplayType;
 import us.eunoians.mcrpg.types.GainReason;
 import us.eunoians.mcrpg.types.GenericAbility;
 import us.eunoians.mcrpg.types.Skills;
-import us.eunoians.mcrpg.util.Parser;
+import us.eunoians.mcrpg.util.ExpCurve;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
 
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /*
 A parent skill class that defines the basic behaviour of every skill
@@ -39,13 +42,11 @@ public abstract class Skill {
      * The current level of the player in the skill
      */
     @Getter
-    @Setter
     private int currentLevel;
     /**
      * The current exp a player has towards leveling up in this skill
      */
     @Getter
-    @Setter
     private int currentExp;
     /**
      * The exp needed for a player to reach the next level in the skill
@@ -63,16 +64,21 @@ public abstract class Skill {
     @Getter
     private McRPGPlayer player;
 
+    /**
+     * How many times the level or exp of this skill has changed, and how many of those changes have been saved. A save only marks the
+     * changes it captured as saved, so exp gained while a save is running is still picked up by the next one.
+     */
+    private final AtomicLong changeCount = new AtomicLong();
+    private volatile long savedChangeCount = 0;
+
     public Skill(Skills type, Map<GenericAbility, BaseAbility> abilityMap, int currentLevel, int currentExp, McRPGPlayer player) {
         this.type = type;
         this.currentLevel = currentLevel;
         this.currentExp = currentExp;
         this.abilityMap = abilityMap;
         this.player = player;
-        Parser equation = type.getExpEquation();
-        equation.setVariable("skill_level", currentLevel);
-        equation.setVariable("power_level", player.getPowerLevel());
-        this.expToLevel = (int) equation.getValue();
+        ExpCurve expCurve = type.getExpCurve();
+        this.expToLevel = expCurve.getExpToLevel(currentLevel, getExpVariables(expCurve));
     }
 
     /**
@@ -113,55 +119,145 @@ public abstract class Skill {
         return type.getName();
     }
 
+    /**
+     * @param currentLevel The new level of the player in the skill
+     */
+    public void setCurrentLevel(int currentLevel) {
+        if (this.currentLevel != currentLevel) {
+            this.currentLevel = currentLevel;
+            markChanged();
+        }
+    }
+
+    /**
+     * @param currentExp The new exp a player has towards leveling up in this skill
+     */
+    public void setCurrentExp(int currentExp) {
+        if (this.currentExp != currentExp) {
+            this.currentExp = currentExp;
+            markChanged();
+        }
+    }
+
+    /**
+     * @return true if the level or exp of this skill has changed since it was last saved
+     */
+    public boolean isDirty() {
+        return changeCount.get() != savedChangeCount;
+    }
+
+    /**
+     * This should be read before the skill's data is captured for a save and passed to {@link #markSaved(long)} afterwards
+     *
+     * @return How many times the level or exp of this skill has changed
+     */
+    public long getChangeCount() {
+        return changeCount.get();
+    }
+
+    /**
+     * Marks this skill as having unsaved changes, such as when a save that contained it failed
+     */
+    public void markChanged() {
+        changeCount.incrementAndGet();
+    }
+
+    /**
+     * Marks the changes up to the provided change count as saved. Any change made after that count was read keeps this skill dirty.
+     *
+     * @param capturedChangeCount The {@link #getChangeCount()} read before the skill's data was captured for the save
+     */
+    public void markSaved(long capturedChangeCount) {
+        this.savedChangeCount = capturedChangeCount;
+    }
+
     public void updateExpToLevel() {
-        Parser parser = type.getExpEquation();
-        parser.setVariable("skill_level", currentLevel);
-        parser.setVariable("power_level", player.getPowerLevel());
+        ExpCurve expCurve = type.getExpCurve();
+        expToLevel = expCurve.getExpToLevel(currentLevel, getExpVariables(expCurve));
+    }
+
+    /**
+     * Gets the variables other than the skill level that the exp equation can use, which are only needed if the equation depends on them
+     *
+     * @param expCurve The {@link ExpCurve} of this skill
+     * @return An {@link ExpressionEvaluation} with every variable other than the skill level set, or {@code null} if the curve doesn't need one
+     */
+    @Nullable
+    private ExpressionEvaluation getExpVariables(ExpCurve expCurve) {
+        if (expCurve.isTabulated()) {
+            return null;
+        }
+        ExpressionEvaluation variables = expCurve.newEvaluation();
+        variables.setVariable("power_level", player.getPowerLevel());
         Party party = player.getPartyID() == null ? null : McRPG.getInstance().getPartyManager().getParty(player.getPartyID());
         int partyLevel = party == null ? 0 : party.getPartyLevel();
-        parser.setVariable("party_level", partyLevel);
-        expToLevel = (int) parser.getValue();
+        variables.setVariable("party_level", partyLevel);
+        return variables;
     }
 
     /**
+     * Gives exp in this skill, which may be held onto until the next tick and added up with the player's other gains if
+     * {@code Configuration.ExpAggregation} is enabled for the gain reason
+     *
      * @param exp        The exp gained
      * @param gainReason The reason the player is gaining the exp
      */
     public void giveExp(McRPGPlayer player, int exp, GainReason gainReason) {
+        if (McRPG.getInstance().getExpGainAggregator().queue(player, this, exp, gainReason)) {
+            return;
+        }
+        giveExp(player, exp, gainReason, 1);
+    }
+
+    /**
+     * Gives exp in this skill right away
+     *
+     * @param exp        The exp gained
+     * @param gainReason The reason the player is gaining the exp
+     * @param gainCount  How many gains were added up into the provided exp
+     */
+    public void giveExp(McRPGPlayer player, int exp, GainReason gainReason, int gainCount) {
+        giveExp(player, exp, gainReason, gainCount, null);
+    }
+
+    /**
+     * Gives exp in this skill right away
+     *
+     * @param exp          The exp gained
+     * @param gainReason   The reason the player is gaining the exp
+     * @param gainCount    How many gains were added up into the provided exp
+     * @param gainLocation Where the player was when they gained the exp, or {@code null} to use where they are now
+     */
+    public void giveExp(McRPGPlayer player, int exp, GainReason gainReason, int gainCount, @Nullable Location gainLocation) {
         if (!player.isOnline()) {
             return;
         }
-        McRPGPlayerExpGainEvent expEvent = new McRPGPlayerExpGainEvent(player, exp, this, gainReason);
+        McRPGPlayerExpGainEvent expEvent = new McRPGPlayerExpGainEvent(player, exp, this, gainReason, gainCount, gainLocation);
         Bukkit.getPluginManager().callEvent(expEvent);
         if (expEvent.isCancelled()) {
             return;
         }
         exp = expEvent.getExpGained();
+        markChanged();
         int oldLevel = currentLevel;
         if (exp + currentExp >= expToLevel) {
-            int leftOverExp = currentExp + exp - expToLevel;
-            currentLevel++;
-            Parser parser = type.getExpEquation();
-            parser.setVariable("skill_level", currentLevel);
-            parser.setVariable("power_level", player.getPowerLevel());
-            expToLevel = (int) parser.getValue();
-            currentExp = leftOverExp;
-            while (currentExp >= expToLevel) {
-                if (currentLevel >= type.getMaxLevel()) {
-                    expToLevel = 0;
-                    currentExp = 0;
-                    leftOverExp = 0;
-                    break;
-                }
-                leftOverExp = currentExp - expToLevel;
-                currentLevel++;
-                parser.setVariable("skill_level", currentLevel);
-                parser.setVariable("power_level", player.getPowerLevel());
-                expToLevel = (int) parser.getValue();
-                currentExp = leftOverExp;
+            //Large grants can cross a lot of levels, so let the curve work out where they land instead of going one level at a time
+            ExpCurve expCurve = type.getExpCurve();
+            ExpressionEvaluation variables = getExpVariables(expCurve);
+            ExpCurve.LevelProgress levelProgress = expCurve.addExp(currentLevel, (long) currentExp + exp, variables);
+            currentLevel = levelProgress.level();
+            if (currentLevel >= expCurve.getMaxLevel()) {
+                expToLevel = 0;
+                currentExp = 0;
+            }
+            else {
+                expToLevel = expCurve.getExpToLevel(currentLevel, variables);
+                currentExp = (int) levelProgress.exp();
+            }
+            if (currentLevel != oldLevel) {
+                McRPGPlayerLevelChangeEvent event = new McRPGPlayerLevelChangeEvent(player, oldLevel, currentLevel, this);
+                Bukkit.getPluginManager().callEvent(event);
             }
-            McRPGPlayerLevelChangeEvent event = new McRPGPlayerLevelChangeEvent(player, oldLevel, currentLevel, this);
-            Bukkit.getPluginManager().callEvent(event);
         }
         else {
             currentExp += exp;
@@ -205,22 +301,22 @@ public abstract class Skill {
      */
     public void giveLevels(McRPGPlayer player, int levels, boolean resetExp) {
         int old = currentLevel;
+        markChanged();
         currentLevel += levels;
         if (currentLevel > type.getMaxLevel()) {
             currentLevel = type.getMaxLevel();
         }
         McRPGPlayerLevelChangeEvent event = new McRPGPlayerLevelChangeEvent(player, old, currentLevel, this);
         Bukkit.getPluginManager().callEvent(event);
-        Parser parser = type.getExpEquation();
-        parser.setVariable("skill_level", currentLevel);
-        parser.setVariable("power_level", player.getPowerLevel());
-        expToLevel = (int) parser.getValue();
+        ExpCurve expCurve = type.getExpCurve();
+        expToLevel = expCurve.getExpToLevel(currentLevel, getExpVariables(expCurve));
         if (resetExp) {
             currentExp = 0;
         }
     }
 
     public void resetSkill() {
+        markChanged();
         expToLevel = 0;
         currentLevel = 0;
         currentExp = 0;
@@ -16,9 +16,12 @@ import us.eunoians.mcrpg.abilities.taming.Gore;
 import us.eunoians.mcrpg.abilities.unarmed.StickyFingers;
 import us.eunoians.mcrpg.abilities.woodcutting.ExtraLumber;
 import us.eunoians.mcrpg.api.util.FileManager;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
+import us.eunoians.mcrpg.util.ExpressionRegistry;
 import us.eunoians.mcrpg.util.Parser;
 
 import java.util.Arrays;
+import java.util.Set;
 
 /**
  * All abilities that come default with a skill should be stored in this enum
@@ -47,6 +50,8 @@ public enum DefaultAbilities implements GenericAbility{
   private FileManager.Files file;
   @Getter
   private boolean cooldown = false; // no default abilities have cooldowns
+  //The variables set before the activation equation is evaluated, worked out the first time they are needed
+  private Set<String> activationVariables;
   
   DefaultAbilities(String name, Class<? extends BaseAbility> clazz, AbilityType type, FileManager.Files file){
     this.name = name;
@@ -90,7 +95,31 @@ public enum DefaultAbilities implements GenericAbility{
              .findFirst().orElse(null);
   }
 
+  /**
+   * @deprecated This parses the activation equation again on every call. Use {@link #getActivationEvaluation()} instead.
+   */
+  @Deprecated
   public Parser getActivationEquation(){
-    return new Parser(McRPG.getInstance().getFileManager().getFile(file).getString(name.replaceAll(" ", "") + "Config." + name.replaceAll(" ", "") + "ChanceEquation"));
+    return new Parser(getActivationEquationSource());
+  }
+
+  /**
+   * Gets a new {@link ExpressionEvaluation} of this ability's activation chance equation, which only uses the level of this ability's
+   * skill (such as {@code swords_level}) and {@code power_level}
+   *
+   * @return A new {@link ExpressionEvaluation} of this ability's activation chance equation
+   * @throws us.eunoians.mcrpg.util.ParseError If the configured equation is malformed or uses any other variable
+   */
+  public ExpressionEvaluation getActivationEvaluation(){
+    Set<String> variables = activationVariables;
+    if(variables == null){
+      variables = Set.of(getSkill().getName().toLowerCase() + "_level", "power_level");
+      activationVariables = variables;
+    }
+    return ExpressionRegistry.newEvaluation(getActivationEquationSource(), variables);
+  }
+
+  private String getActivationEquationSource(){
+    return McRPG.getInstance().getFileManager().getFile(file).getString(name.replaceAll(" ", "") + "Config." + name.replaceAll(" ", "") + "ChanceEquation");
   }
 }
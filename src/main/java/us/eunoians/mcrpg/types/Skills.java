@@ -4,10 +4,14 @@ import lombok.Getter;
 import us.eunoians.mcrpg.McRPG;
 import us.eunoians.mcrpg.api.util.FileManager;
 import us.eunoians.mcrpg.skills.*;
+import us.eunoians.mcrpg.util.ExpCurve;
+import us.eunoians.mcrpg.util.ExpressionEvaluation;
+import us.eunoians.mcrpg.util.ExpressionRegistry;
 import us.eunoians.mcrpg.util.Parser;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -31,6 +35,11 @@ public enum Skills {
   UNARMED("Unarmed", Unarmed.class, STICKY_FINGERS, TIGHTER_GRIP, DISARM, IRON_ARM, BERSERK, SMITING_FIST, DENSE_IMPACT),
   WOODCUTTING("Woodcutting", Woodcutting.class, EXTRA_LUMBER, HEAVY_SWING, NYMPHS_VITALITY, DRYADS_GIFT, HESPERIDES_APPLES, TEMPORAL_HARVEST, DEMETERS_SHRINE);
 
+  /**
+   * The variables an exp equation can use, which are the ones documented in each skill's config and set before the equation is evaluated
+   */
+  public static final Set<String> EXP_EQUATION_VARIABLES = Set.of("skill_level", "power_level", "party_level");
+
   @Getter
   private String name;
 
@@ -43,6 +52,9 @@ public enum Skills {
   @Getter
   private UnlockedAbilities[] unlockedAbilities;
 
+  //Built from the exp equation the first time it is needed and rebuilt whenever the configs are reloaded
+  private volatile ExpCurve expCurve;
+
   Skills(String name, Class<? extends Skill> clazz, DefaultAbilities defaultAbility, UnlockedAbilities... unlockedAbilities){
     this.name = name;
     this.clazz = clazz;
@@ -50,9 +62,55 @@ public enum Skills {
     this.unlockedAbilities = unlockedAbilities;
   }
 
+  /**
+   * @deprecated This parses the exp equation again on every call. Use {@link #getExpEvaluation()} instead.
+   */
+  @Deprecated
   public Parser getExpEquation(){
+    return new Parser(getExpEquationSource());
+  }
+
+  /**
+   * Gets a new {@link ExpressionEvaluation} of this skill's exp equation, which can use any of the {@link #EXP_EQUATION_VARIABLES}
+   *
+   * @return A new {@link ExpressionEvaluation} of this skill's exp equation
+   * @throws us.eunoians.mcrpg.util.ParseError If the configured equation is malformed or uses any other variable
+   */
+  public ExpressionEvaluation getExpEvaluation(){
+    return ExpressionRegistry.newEvaluation(getExpEquationSource(), EXP_EQUATION_VARIABLES);
+  }
+
+  private String getExpEquationSource(){
     FileManager.Files file = Arrays.stream(FileManager.Files.values()).filter(f -> f.getFileName().contains(name.toLowerCase())).findFirst().orElse(FileManager.Files.SWORDS_CONFIG);
-    return new Parser(McRPG.getInstance().getFileManager().getFile(file).getString("ExpEquation"));
+    return McRPG.getInstance().getFileManager().getFile(file).getString("ExpEquation");
+  }
+
+  /**
+   * Gets the {@link ExpCurve} of this skill, which should be used instead of {@link #getExpEvaluation()} whenever the exp needed to level up
+   * is being worked out
+   *
+   * @return The {@link ExpCurve} of this skill
+   */
+  public ExpCurve getExpCurve(){
+    ExpCurve curve = expCurve;
+    if(curve == null){
+      curve = createExpCurve();
+      expCurve = curve;
+    }
+    return curve;
+  }
+
+  private ExpCurve createExpCurve(){
+    return new ExpCurve(ExpressionRegistry.getExpression(getExpEquationSource(), EXP_EQUATION_VARIABLES), "skill_level", getMaxLevel());
+  }
+
+  /**
+   * Rebuilds the {@link ExpCurve} of every skill from the current configs. This should be called whenever the configs are reloaded
+   */
+  public static void reloadExpCurves(){
+    for(Skills skill : values()){
+      skill.expCurve = skill.createExpCurve();
+    }
   }
 
   public String getDisplayName(){
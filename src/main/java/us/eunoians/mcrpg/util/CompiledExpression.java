@@ -0,0 +1,289 @@
+package us.eunoians.mcrpg.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * An equation that has been parsed once by {@link Parser} and compiled into an immutable evaluator.
+ * <p>
+ * Every variable in the equation is given a slot when it is compiled, so evaluating only needs an array of values instead of walking a tree of
+ * nodes that need their variables set by name. Any part of the equation that doesn't use a variable is also worked out ahead of time.
+ * <p>
+ * A {@link CompiledExpression} holds no state while being evaluated, so a single instance can be shared between every thread. Values for the
+ * variables are provided either as an array laid out by {@link #getVariableSlot(String)} or through an {@link ExpressionEvaluation} from
+ * {@link #newEvaluation()}.
+ * <p>
+ * Instances should normally be obtained from {@link ExpressionRegistry} so that each equation is only compiled once.
+ *
+ * @author DiamondDagger590
+ */
+public final class CompiledExpression {
+
+    private final String source;
+    private final Map<String, Integer> variableSlots;
+    private final Evaluator evaluator;
+
+    /**
+     * Parses and compiles the provided equation
+     *
+     * @param source The equation to compile
+     * @throws ParseError If the equation is malformed
+     */
+    public CompiledExpression(@NotNull String source) throws ParseError {
+        this.source = source;
+        Map<String, Integer> variableSlots = new LinkedHashMap<>();
+        this.evaluator = compile(new Parser(source).getTree(), variableSlots);
+        this.variableSlots = Collections.unmodifiableMap(variableSlots);
+    }
+
+    /**
+     * Gets the equation that this expression was compiled from
+     *
+     * @return The equation that this expression was compiled from
+     */
+    @NotNull
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the number of different variables used by this expression, which is the size of the array expected by {@link #evaluate(double[])}
+     *
+     * @return The number of different variables used by this expression
+     */
+    public int getVariableCount() {
+        return variableSlots.size();
+    }
+
+    /**
+     * Gets the slot that the value of the provided variable should be placed in when calling {@link #evaluate(double[])}
+     *
+     * @param name The case sensitive name of the variable
+     * @return The slot of the variable, or {@code -1} if this expression doesn't use the variable
+     */
+    public int getVariableSlot(@NotNull String name) {
+        Integer slot = variableSlots.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Checks that this expression only uses the provided variables. {@link Parser} and {@link ExpressionEvaluation} both treat a variable
+     * that is never set as {@code 0}, so without this a misspelt variable in a config would quietly make the whole equation wrong.
+     *
+     * @param knownVariables The case sensitive names of every variable that is set before this expression is evaluated
+     * @return This expression
+     * @throws ParseError If this expression uses a variable that isn't in {@code knownVariables}
+     */
+    @NotNull
+    public CompiledExpression requireVariables(@NotNull Collection<String> knownVariables) throws ParseError {
+        for (String name : variableSlots.keySet()) {
+            if (!knownVariables.contains(name)) {
+                throw new ParseError("Unknown variable '" + name + "' in equation " + source + ", expected one of " + knownVariables);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Evaluates this expression using the provided variable values
+     *
+     * @param variables The value of each variable, indexed by {@link #getVariableSlot(String)}. Must be at least {@link #getVariableCount()} long
+     * @return The value of this expression
+     */
+    public double evaluate(@NotNull double[] variables) {
+        return evaluator.evaluate(variables);
+    }
+
+    /**
+     * Creates a new {@link ExpressionEvaluation} that can be used to set the variables of this expression by name before evaluating it
+     *
+     * @return A new {@link ExpressionEvaluation} with every variable set to {@code 0}
+     */
+    @NotNull
+    public ExpressionEvaluation newEvaluation() {
+        return new ExpressionEvaluation(this);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    @NotNull
+    private static Evaluator compile(@NotNull ExpressionNode node, @NotNull Map<String, Integer> variableSlots) {
+
+        switch (node.getType()) {
+
+            case ExpressionNode.CONSTANT_NODE:
+                return new ConstantEvaluator(node.getValue());
+
+            case ExpressionNode.VARIABLE_NODE:
+                int slot = variableSlots.computeIfAbsent(node.getSubtype(), name -> variableSlots.size());
+                return variables -> variables[slot];
+
+            case ExpressionNode.OPERATOR_NODE:
+                ExpressionNode[] children = node.getChildrenNodes();
+                return compileOperator(node.getSubtype().charAt(0), compile(children[0], variableSlots), compile(children[1], variableSlots));
+
+            case ExpressionNode.FUNCTION_NODE:
+                return compileFunction(((FunctionNode) node).function, compile(node.getChildrenNodes()[0], variableSlots));
+
+            default:
+                throw new ParseError("Unknown expression node type " + node.getType(), 0);
+        }
+    }
+
+    @NotNull
+    private static Evaluator compileOperator(char operator, @NotNull Evaluator left, @NotNull Evaluator right) {
+
+        Evaluator evaluator;
+
+        switch (operator) {
+            case '+':
+                evaluator = variables -> left.evaluate(variables) + right.evaluate(variables);
+                break;
+            case '-':
+                evaluator = variables -> left.evaluate(variables) - right.evaluate(variables);
+                break;
+            case '*':
+                evaluator = variables -> left.evaluate(variables) * right.evaluate(variables);
+                break;
+            case '/':
+                evaluator = variables -> left.evaluate(variables) / right.evaluate(variables);
+                break;
+            case '%':
+                evaluator = variables -> left.evaluate(variables) % right.evaluate(variables);
+                break;
+            case '^':
+                evaluator = variables -> Math.pow(left.evaluate(variables), right.evaluate(variables));
+                break;
+            default:
+                throw new ParseError("Unknown operator " + operator, 0);
+        }
+
+        //Anything that doesn't depend on a variable only needs to be worked out once
+        if (left instanceof ConstantEvaluator && right instanceof ConstantEvaluator) {
+            return new ConstantEvaluator(evaluator.evaluate(new double[0]));
+        }
+        return evaluator;
+    }
+
+    @NotNull
+    private static Evaluator compileFunction(int function, @NotNull Evaluator child) {
+
+        //Matches the order of FunctionNode.FUNCTIONS
+        DoubleUnaryOperator operator;
+        switch (function) {
+            case 0:
+                operator = value -> -value;
+                break;
+            case 1:
+                operator = Math::sin;
+                break;
+            case 2:
+                operator = Math::cos;
+                break;
+            case 3:
+                operator = Math::tan;
+                break;
+            case 4:
+                operator = Math::asin;
+                break;
+            case 5:
+                operator = Math::acos;
+                break;
+            case 6:
+                operator = Math::atan;
+                break;
+            case 7:
+                operator = Sfun::sinh;
+                break;
+            case 8:
+                operator = Sfun::cosh;
+                break;
+            case 9:
+                operator = Sfun::tanh;
+                break;
+            case 10:
+                operator = Sfun::asinh;
+                break;
+            case 11:
+                operator = Sfun::acosh;
+                break;
+            case 12:
+                operator = Sfun::atanh;
+                break;
+            case 13:
+                operator = Math::log;
+                break;
+            case 14:
+                operator = value -> Math.log(value) * 0.43429448190325182765;
+                break;
+            case 15:
+                operator = Math::abs;
+                break;
+            case 16:
+                //rand has to be rolled every time it is evaluated, so it can never be worked out ahead of time
+                return variables -> Math.random() * child.evaluate(variables);
+            case 17:
+                operator = Math::sqrt;
+                break;
+            case 18:
+                operator = Sfun::erf;
+                break;
+            case 19:
+                operator = Sfun::erfc;
+                break;
+            case 20:
+                operator = Sfun::gamma;
+                break;
+            case 21:
+                operator = Math::exp;
+                break;
+            case 22:
+                operator = Sfun::cot;
+                break;
+            case 23:
+                operator = value -> Math.log(value) * 1.442695040888963407360;
+                break;
+            default:
+                throw new ParseError("Unknown function " + function, 0);
+        }
+
+        if (child instanceof ConstantEvaluator) {
+            return new ConstantEvaluator(operator.applyAsDouble(((ConstantEvaluator) child).value));
+        }
+        return variables -> operator.applyAsDouble(child.evaluate(variables));
+    }
+
+    /**
+     * A compiled piece of an expression
+     */
+    @FunctionalInterface
+    private interface Evaluator {
+
+        double evaluate(double[] variables);
+    }
+
+    /**
+     * A compiled piece of an expression whose value never changes
+     */
+    private static final class ConstantEvaluator implements Evaluator {
+
+        private final double value;
+
+        private ConstantEvaluator(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double evaluate(double[] variables) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package us.eunoians.mcrpg.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The amount of exp needed to get from each level to the next, as defined by an exp equation.
+ * <p>
+ * If the equation depends on nothing but the level, every value up to the max level is worked out once when the curve is created and stored
+ * alongside a running total, so looking up a level is an array read and working out how many levels an amount of exp is worth is a
+ * binary search instead of one evaluation per level crossed.
+ * <p>
+ * Equations that also depend on other variables (such as {@code power_level}) can't be worked out ahead of time, so they fall back to
+ * evaluating the equation using an {@link ExpressionEvaluation} that the caller has already set the other variables on.
+ *
+ * @author DiamondDagger590
+ */
+public final class ExpCurve {
+
+    private final CompiledExpression expression;
+    private final String levelVariable;
+    private final int maxLevel;
+    //Both are null if the equation can't be worked out ahead of time
+    @Nullable
+    private final int[] expToLevel;
+    @Nullable
+    private final long[] totalExp;
+
+    /**
+     * Creates a new curve, working out every level ahead of time if possible
+     *
+     * @param expression    The {@link CompiledExpression} that gives the exp needed to get from a level to the next one
+     * @param levelVariable The name of the variable in the expression that holds the level
+     * @param maxLevel      The highest level that can be reached
+     */
+    public ExpCurve(@NotNull CompiledExpression expression, @NotNull String levelVariable, int maxLevel) {
+        this.expression = expression;
+        this.levelVariable = levelVariable;
+        this.maxLevel = Math.max(0, maxLevel);
+
+        int levelSlot = expression.getVariableSlot(levelVariable);
+        boolean levelOnly = expression.getVariableCount() == 0 || (expression.getVariableCount() == 1 && levelSlot >= 0);
+
+        int[] expToLevel = levelOnly ? new int[this.maxLevel + 1] : null;
+        long[] totalExp = levelOnly ? new long[this.maxLevel + 1] : null;
+
+        if (levelOnly) {
+            double[] variables = new double[expression.getVariableCount()];
+
+            for (int level = 0; level <= this.maxLevel; level++) {
+
+                if (levelSlot >= 0) {
+                    variables[levelSlot] = level;
+                }
+                expToLevel[level] = (int) expression.evaluate(variables);
+
+                //A level that costs nothing would break the binary search, so leave curves like that to be worked out one level at a time
+                if (level < this.maxLevel && expToLevel[level] <= 0) {
+                    expToLevel = null;
+                    totalExp = null;
+                    break;
+                }
+                if (level > 0) {
+                    totalExp[level] = totalExp[level - 1] + expToLevel[level - 1];
+                }
+            }
+        }
+
+        this.expToLevel = expToLevel;
+        this.totalExp = totalExp;
+    }
+
+    /**
+     * Gets the highest level that can be reached on this curve
+     *
+     * @return The highest level that can be reached on this curve
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * Checks to see if every level of this curve was worked out ahead of time, in which case no {@link ExpressionEvaluation} needs to be
+     * provided when using this curve
+     *
+     * @return {@code true} if every level of this curve was worked out ahead of time
+     */
+    public boolean isTabulated() {
+        return expToLevel != null;
+    }
+
+    /**
+     * Creates a new {@link ExpressionEvaluation} of this curve's equation that any variables other than the level can be set on
+     *
+     * @return A new {@link ExpressionEvaluation} of this curve's equation
+     */
+    @NotNull
+    public ExpressionEvaluation newEvaluation() {
+        return expression.newEvaluation();
+    }
+
+    /**
+     * Gets the exp needed to get from the provided level to the next one
+     *
+     * @param level     The level to get the exp for
+     * @param variables An {@link ExpressionEvaluation} from {@link #newEvaluation()} with any variables other than the level already set.
+     *                  This is only used if the curve isn't {@link #isTabulated() tabulated} or the level is outside of the curve, and if
+     *                  it is {@code null} any other variables are treated as {@code 0}
+     * @return The exp needed to get from the provided level to the next one
+     */
+    public int getExpToLevel(int level, @Nullable ExpressionEvaluation variables) {
+
+        if (expToLevel != null && level >= 0 && level < expToLevel.length) {
+            return expToLevel[level];
+        }
+
+        ExpressionEvaluation evaluation = variables != null ? variables : newEvaluation();
+        evaluation.setVariable(levelVariable, level);
+        return (int) evaluation.getValue();
+    }
+
+    /**
+     * Works out where a player at the provided level ends up after having the provided amount of exp, levelling up for as long as there is
+     * enough exp to do so and the max level hasn't been reached
+     *
+     * @param level     The level that the exp is being added at
+     * @param exp       The exp available, including any exp that was already towards the next level
+     * @param variables An {@link ExpressionEvaluation} with any variables other than the level already set, see {@link #getExpToLevel(int, ExpressionEvaluation)}
+     * @return The {@link LevelProgress} after using up as much of the exp as possible
+     */
+    @NotNull
+    public LevelProgress addExp(int level, long exp, @Nullable ExpressionEvaluation variables) {
+
+        if (totalExp != null && level >= 0 && level <= maxLevel) {
+
+            //Find the highest level whose total exp from the current level is still affordable
+            long target = totalExp[level] + exp;
+            int low = level;
+            int high = maxLevel;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (totalExp[mid] <= target) {
+                    low = mid;
+                }
+                else {
+                    high = mid - 1;
+                }
+            }
+
+            return new LevelProgress(low, target - totalExp[low]);
+        }
+
+        ExpressionEvaluation evaluation = variables != null ? variables : newEvaluation();
+        int expToLevel = getExpToLevel(level, evaluation);
+        while (level < maxLevel && exp >= expToLevel) {
+            exp -= expToLevel;
+            level++;
+            expToLevel = getExpToLevel(level, evaluation);
+        }
+
+        return new LevelProgress(level, exp);
+    }
+
+    /**
+     * The level and leftover exp that a player ends up with after exp is added with {@link #addExp(int, long, ExpressionEvaluation)}
+     *
+     * @param level The level reached
+     * @param exp   The exp left over towards the level after the one reached
+     */
+    public record LevelProgress(int level, long exp) {
+    }
+}
@@ -0,0 +1,57 @@
+package us.eunoians.mcrpg.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Holds the variable values for a single evaluation of a {@link CompiledExpression}, allowing variables to be set by name in the same way
+ * as with a {@link Parser}.
+ * <p>
+ * Unlike the {@link CompiledExpression} it belongs to, this is not thread safe and should be created for each use with
+ * {@link CompiledExpression#newEvaluation()}, which is cheap as it only allocates space for the variables.
+ *
+ * @author DiamondDagger590
+ */
+public final class ExpressionEvaluation {
+
+    private final CompiledExpression expression;
+    private final double[] variables;
+
+    ExpressionEvaluation(@NotNull CompiledExpression expression) {
+        this.expression = expression;
+        this.variables = new double[expression.getVariableCount()];
+    }
+
+    /**
+     * Sets the value for a given variable. Variables that aren't used by the expression are ignored
+     *
+     * @param name  The case sensitive name of the variable
+     * @param value The value for the variable
+     */
+    public void setVariable(@NotNull String name, double value) {
+        int slot = expression.getVariableSlot(name);
+        if (slot >= 0) {
+            variables[slot] = value;
+        }
+    }
+
+    /**
+     * Evaluates the expression using the variables that have been set, with any variables that were never set treated as {@code 0} in the
+     * same way as a {@link Parser}. Equations read from a config should be checked with {@link CompiledExpression#requireVariables} so
+     * that a misspelt variable is reported instead.
+     *
+     * @return The value of the expression
+     */
+    public double getValue() {
+        return expression.evaluate(variables);
+    }
+
+    /**
+     * Gets the {@link CompiledExpression} being evaluated
+     *
+     * @return The {@link CompiledExpression} being evaluated
+     */
+    @NotNull
+    public CompiledExpression getExpression() {
+        return expression;
+    }
+}
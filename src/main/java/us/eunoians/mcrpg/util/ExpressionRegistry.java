@@ -0,0 +1,87 @@
+package us.eunoians.mcrpg.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches a {@link CompiledExpression} for every equation that has been used, keyed by the equation's text, so that each configured equation
+ * is only parsed and compiled once instead of every time it is evaluated.
+ * <p>
+ * The cache is cleared whenever the configuration files are reloaded so that equations which are no longer configured don't stay in memory.
+ *
+ * @author DiamondDagger590
+ */
+public final class ExpressionRegistry {
+
+    private static final Map<String, CompiledExpression> expressions = new ConcurrentHashMap<>();
+
+    private ExpressionRegistry() {
+    }
+
+    /**
+     * Gets the {@link CompiledExpression} for the provided equation, compiling it if it hasn't been used since the last reload
+     *
+     * @param source The equation to get the {@link CompiledExpression} for
+     * @return The {@link CompiledExpression} for the provided equation
+     * @throws ParseError If the equation is malformed
+     */
+    @NotNull
+    public static CompiledExpression getExpression(@NotNull String source) throws ParseError {
+        CompiledExpression expression = expressions.get(source);
+
+        if (expression == null) {
+            expression = expressions.computeIfAbsent(source, CompiledExpression::new);
+        }
+        return expression;
+    }
+
+    /**
+     * Gets the {@link CompiledExpression} for the provided equation, making sure that it only uses the provided variables
+     *
+     * @param source         The equation to get the {@link CompiledExpression} for
+     * @param knownVariables The case sensitive names of every variable that is set before the equation is evaluated
+     * @return The {@link CompiledExpression} for the provided equation
+     * @throws ParseError If the equation is malformed or uses a variable that isn't in {@code knownVariables}
+     * @see CompiledExpression#requireVariables(Collection)
+     */
+    @NotNull
+    public static CompiledExpression getExpression(@NotNull String source, @NotNull Collection<String> knownVariables) throws ParseError {
+        return getExpression(source).requireVariables(knownVariables);
+    }
+
+    /**
+     * Creates a new {@link ExpressionEvaluation} for the provided equation, which is a shortcut for
+     * {@code getExpression(source).newEvaluation()}
+     *
+     * @param source The equation to evaluate
+     * @return A new {@link ExpressionEvaluation} for the provided equation
+     * @throws ParseError If the equation is malformed
+     */
+    @NotNull
+    public static ExpressionEvaluation newEvaluation(@NotNull String source) throws ParseError {
+        return getExpression(source).newEvaluation();
+    }
+
+    /**
+     * Creates a new {@link ExpressionEvaluation} for the provided equation, making sure that it only uses the provided variables
+     *
+     * @param source         The equation to evaluate
+     * @param knownVariables The case sensitive names of every variable that is set before the equation is evaluated
+     * @return A new {@link ExpressionEvaluation} for the provided equation
+     * @throws ParseError If the equation is malformed or uses a variable that isn't in {@code knownVariables}
+     */
+    @NotNull
+    public static ExpressionEvaluation newEvaluation(@NotNull String source, @NotNull Collection<String> knownVariables) throws ParseError {
+        return getExpression(source, knownVariables).newEvaluation();
+    }
+
+    /**
+     * Removes every cached {@link CompiledExpression}. This should be called whenever the configuration files are reloaded.
+     */
+    public static void clear() {
+        expressions.clear();
+    }
+}
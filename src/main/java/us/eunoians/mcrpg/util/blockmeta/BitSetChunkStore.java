@@ -22,10 +22,11 @@ import java.util.UUID;
 /**
  * This code is not mine. It is copyright from the original mcMMO allowed for use by their license. Modified 2/16/22
  * It was released under the GPLv3 license
+ *
+ * Chunks are now stored as a {@link SectionedChunkStore}, this is only still used to read chunks saved in format version 9 and older
  */
 public class BitSetChunkStore implements ChunkStore {
-    private static final int CURRENT_VERSION = 9;
-    private static final int MAGIC_NUMBER = 0xEA5EDEBB;
+    static final int MAGIC_NUMBER = 0xEA5EDEBB;
 
     private final int cx;
     private final int cz;
@@ -127,7 +128,7 @@ public class BitSetChunkStore implements ChunkStore {
         return (z * 16 + x) + (256 * (y + yOffset));
     }
 
-    private static int getWorldMin(@NotNull UUID worldUid) {
+    static int getWorldMin(@NotNull UUID worldUid) {
         World world = Bukkit.getWorld(worldUid);
 
         // Not sure how this case could come up, but might as well handle it gracefully.  Loading a chunkstore for an unloaded world?
@@ -138,7 +139,7 @@ public class BitSetChunkStore implements ChunkStore {
         return world.getMinHeight();
     }
 
-    private static int getWorldMax(@NotNull UUID worldUid) {
+    static int getWorldMax(@NotNull UUID worldUid) {
         World world = Bukkit.getWorld(worldUid);
 
         // Not sure how this case could come up, but might as well handle it gracefully.  Loading a chunkstore for an unloaded world?
@@ -149,27 +150,24 @@ public class BitSetChunkStore implements ChunkStore {
         return world.getMaxHeight();
     }
 
-    private void serialize(@NotNull DataOutputStream out) throws IOException {
-        out.writeInt(MAGIC_NUMBER);
-        out.writeInt(CURRENT_VERSION);
-
-        out.writeLong(worldUid.getLeastSignificantBits());
-        out.writeLong(worldUid.getMostSignificantBits());
-        out.writeInt(cx);
-        out.writeInt(cz);
-        out.writeInt(worldMin);
-        out.writeInt(worldMax);
-
-        // Store the byte array directly so we don't have the object type info overhead
-        byte[] storeData = store.toByteArray();
-        out.writeInt(storeData.length);
-        out.write(storeData);
-
-        dirty = false;
+    /**
+     * Copies every block set in this store into a new {@link SectionedChunkStore}, which is how chunks saved in the older formats are
+     * migrated. The copy is marked as dirty so that it gets saved in the new format.
+     *
+     * @return A {@link SectionedChunkStore} with the same blocks set as this store
+     */
+    @NotNull
+    SectionedChunkStore toSectioned() {
+        SectionedChunkStore sectioned = new SectionedChunkStore(worldUid, worldMin, worldMax, cx, cz);
+        for (int index = store.nextSetBit(0); index >= 0; index = store.nextSetBit(index + 1)) {
+            sectioned.set(index & 15, worldMin + (index >>> 8), (index >>> 4) & 15, true);
+        }
+        sectioned.setDirty(true);
+        return sectioned;
     }
 
     @NotNull
-    private static BitSetChunkStore deserialize(@NotNull DataInputStream in) throws IOException {
+    private static ChunkStore deserialize(@NotNull DataInputStream in) throws IOException {
         int magic = in.readInt();
         // Can be used to determine the format of the file
         int fileVersionNumber = in.readInt();
@@ -177,6 +175,9 @@ public class BitSetChunkStore implements ChunkStore {
         if (magic != MAGIC_NUMBER || fileVersionNumber < 8) {
             throw new IOException();
         }
+        if (fileVersionNumber >= SectionedChunkStore.FORMAT_VERSION) {
+            return SectionedChunkStore.deserialize(in);
+        }
 
         long lsb = in.readLong();
         long msb = in.readLong();
@@ -218,9 +219,7 @@ public class BitSetChunkStore implements ChunkStore {
 
         BitSetChunkStore chunkStore = new BitSetChunkStore(worldUid, currentWorldMin, currentWorldMax, cx, cz);
         chunkStore.store.or(stored);
-        chunkStore.dirty = currentWorldMin != worldMin || currentWorldMax != worldMax;
-
-        return chunkStore;
+        return chunkStore.toSectioned();
     }
 
     public static class Serialization {
@@ -257,11 +256,20 @@ public class BitSetChunkStore implements ChunkStore {
         }
 
         public static void writeChunkStore(@NotNull DataOutputStream outputStream, @NotNull ChunkStore chunkStore) throws IOException {
-            if (!(chunkStore instanceof BitSetChunkStore)) {
-                throw new InvalidClassException("ChunkStore must be instance of BitSetChunkStore");
+            SectionedChunkStore sectioned;
+            if (chunkStore instanceof SectionedChunkStore) {
+                sectioned = (SectionedChunkStore) chunkStore;
+            }
+            // Older stores are always saved in the current format
+            else if (chunkStore instanceof BitSetChunkStore) {
+                sectioned = ((BitSetChunkStore) chunkStore).toSectioned();
+                chunkStore.setDirty(false);
+            }
+            else {
+                throw new InvalidClassException("ChunkStore must be instance of SectionedChunkStore or BitSetChunkStore");
             }
             outputStream.writeShort(STREAM_MAGIC);
-            ((BitSetChunkStore) chunkStore).serialize(outputStream);
+            sectioned.serialize(outputStream);
         }
 
         // Handles loading the old serialized class
@@ -299,7 +307,7 @@ public class BitSetChunkStore implements ChunkStore {
                 }
 
                 @NotNull
-                public BitSetChunkStore convert() {
+                public SectionedChunkStore convert() {
                     int currentWorldMin = getWorldMin(worldUid);
                     int currentWorldMax = getWorldMax(worldUid);
 
@@ -314,8 +322,7 @@ public class BitSetChunkStore implements ChunkStore {
                         }
                     }
                     // Mark dirty so it will be re-written in new format on close
-                    converted.dirty = true;
-                    return converted;
+                    return converted.toSectioned();
                 }
             }
 
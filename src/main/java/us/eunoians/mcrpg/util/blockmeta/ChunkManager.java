@@ -1,8 +1,11 @@
 package us.eunoians.mcrpg.util.blockmeta;
 
 import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+
 /**
  * This code is not mine. It is copyright from the original mcMMO allowed for use by their license. Modified 2/16/22
  * It was released under the GPLv3 license
@@ -13,5 +16,47 @@ public interface ChunkManager extends UserBlockTracker {
 
     void chunkUnloaded(int cx, int cz, @NotNull World world);
 
+    /**
+     * Called when a chunk loads so that its data can start being read before it is first needed. Does nothing by default.
+     *
+     * @param cx    The x coordinate of the chunk
+     * @param cz    The z coordinate of the chunk
+     * @param world The world the chunk is in
+     */
+    default void chunkLoaded(int cx, int cz, @NotNull World world) {
+    }
+
     void unloadWorld(@NotNull World world);
+
+    /**
+     * Gets every block set to true inside of a box, looking each chunk up only once instead of once per block. The parts of the box above
+     * or below the world are treated as false.
+     *
+     * @param world The world the box is in
+     * @param minX  The lowest x coordinate in the box
+     * @param minY  The lowest y coordinate in the box
+     * @param minZ  The lowest z coordinate in the box
+     * @param maxX  The highest x coordinate in the box, inclusive
+     * @param maxY  The highest y coordinate in the box, inclusive
+     * @param maxZ  The highest z coordinate in the box, inclusive
+     * @return A {@link PlacedBlockMask} of which blocks in the box are set to true
+     */
+    @NotNull
+    PlacedBlockMask getTrueInBox(@NotNull World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
+
+    /**
+     * Sets every provided block to true, looking each chunk up only once for blocks that are next to each other. Blocks outside of the world
+     * height are skipped.
+     *
+     * @param blocks The blocks to set
+     */
+    void setTrue(@NotNull Collection<Block> blocks);
+
+    /**
+     * Sets every provided block to false, looking each chunk up only once for blocks that are next to each other. Blocks outside of the world
+     * height are skipped.
+     *
+     * @param blocks The blocks to set
+     */
+    void setFalse(@NotNull Collection<Block> blocks);
 }
@@ -1,6 +1,8 @@
 package us.eunoians.mcrpg.util.blockmeta;
 
 import org.jetbrains.annotations.NotNull;
+import us.eunoians.mcrpg.McRPG;
+import us.eunoians.mcrpg.api.util.FileManager;
 
 /**
  * This code is not mine. It is copyright from the original mcMMO allowed for use by their license. Modified 2/16/22
@@ -12,7 +14,8 @@ public class ChunkManagerFactory {
     public static ChunkManager getChunkManager() {
 
         if (true) { //PersistentDataConfig.getInstance().useBlockTracker()) {
-            return new HashChunkManager();
+            return new ConcurrentChunkManager(McRPG.getInstance().getFileManager().getFile(FileManager.Files.CONFIG)
+                    .getInt("Configuration.PlacedBlockSaveInterval", 300));
         }
 
         return new NullChunkManager();
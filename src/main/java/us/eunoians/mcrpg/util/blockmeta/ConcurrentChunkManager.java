@@ -0,0 +1,764 @@
+package us.eunoians.mcrpg.util.blockmeta;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import us.eunoians.mcrpg.McRPG;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * A {@link ChunkManager} that stores the same region files as {@link HashChunkManager}, but is built to be hit from many threads at once.
+ * <p>
+ * Chunks are keyed by their coordinates packed into a primitive long and split across a fixed number of lock stripes per world, so looking up
+ * a block never allocates and only ever contends with lookups for chunks in the same stripe, rather than every call in the plugin sharing
+ * one lock. Chunks that have no stored data are also remembered until they unload, so checking a block in an untouched chunk doesn't go back to
+ * the disk every time.
+ * <p>
+ * Region files are read and written on a dedicated I/O thread where possible. Chunks are read ahead of time when they load through
+ * {@link #chunkLoaded(int, int, World)}, and dirty chunks are only copied into memory when they unload, leaving the compressing and
+ * writing to the I/O thread. Until that write lands, the copied chunk is kept around so that a chunk which loads again straight away
+ * doesn't read the old data back from the disk. Chunks that stay loaded can also be saved the same way on a fixed interval, one stripe at
+ * a time. Unloading a world doesn't wait for its chunks to be saved either, they are saved and its region files closed on the I/O thread
+ * once everything already queued for it is done.
+ * <p>
+ * Locks are always taken in the order stripe and then region files, never the other way around, and nothing ever waits on the I/O thread
+ * while holding a stripe.
+ *
+ * @author DiamondDagger590
+ */
+public class ConcurrentChunkManager implements ChunkManager {
+
+    //Must be a power of two
+    private static final int STRIPE_COUNT = 64;
+
+    private static final long IO_SHUTDOWN_TIMEOUT_SECONDS = 60;
+
+    private final Map<UUID, WorldChunkStores> worlds = new ConcurrentHashMap<>();
+    //Worlds that have unloaded but whose chunks are still being saved on the I/O thread
+    private final Map<UUID, CompletableFuture<Void>> unloadingWorlds = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ioExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "McRPG Placed Block IO");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Only used on the I/O thread
+    private int nextFlushStripe = 0;
+
+    /**
+     * Creates a new manager that only saves chunks when they unload
+     */
+    public ConcurrentChunkManager() {
+        this(0);
+    }
+
+    /**
+     * Creates a new manager that also saves every dirty chunk in the background while it stays loaded, so that chunks which are kept
+     * loaded for a long time don't lose all of their changes if the server crashes
+     *
+     * @param flushIntervalSeconds How often in seconds every dirty chunk is saved, or {@code 0} to only save chunks when they unload
+     */
+    public ConcurrentChunkManager(long flushIntervalSeconds) {
+        if (flushIntervalSeconds > 0) {
+            // One stripe is saved at a time so that the writes are spread out over the whole interval instead of all happening at once
+            long period = Math.max(1, TimeUnit.SECONDS.toMillis(flushIntervalSeconds) / STRIPE_COUNT);
+            ioExecutor.scheduleWithFixedDelay(this::flushNextStripe, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void closeAll() {
+        //Let every queued read and write finish before saving what is left, after this all I/O happens on the calling thread
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(IO_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                McRPG.getInstance().getLogger().log(Level.WARNING, "Timed out waiting for placed block data to finish saving.");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (WorldChunkStores worldChunkStores : worlds.values()) {
+            World world = Bukkit.getWorld(worldChunkStores.worldId);
+            worldChunkStores.unloadAll(world);
+        }
+        worlds.clear();
+    }
+
+    @Override
+    public void chunkUnloaded(int cx, int cz, @NotNull World world) {
+        WorldChunkStores worldChunkStores = worlds.get(world.getUID());
+        if (worldChunkStores != null) {
+            worldChunkStores.unloadChunk(cx, cz, world);
+        }
+    }
+
+    @Override
+    public void chunkLoaded(int cx, int cz, @NotNull World world) {
+        getWorldChunkStores(world).prefetchChunk(cx, cz, world);
+    }
+
+    @Override
+    public void unloadWorld(@NotNull World world) {
+        WorldChunkStores worldChunkStores = worlds.remove(world.getUID());
+        if (worldChunkStores != null) {
+            //Queued behind every read and write already waiting for this world, so its region files are only closed once those are done
+            UUID worldId = world.getUID();
+            CompletableFuture<Void> unloaded = new CompletableFuture<>();
+            unloadingWorlds.put(worldId, unloaded);
+            runIO(() -> {
+                try {
+                    worldChunkStores.unloadAll(world);
+                }
+                finally {
+                    unloadingWorlds.remove(worldId, unloaded);
+                    unloaded.complete(null);
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean isTrue(@NotNull Block block) {
+        return isTrue(block.getX(), block.getY(), block.getZ(), block.getWorld());
+    }
+
+    @Override
+    public boolean isTrue(@NotNull BlockState blockState) {
+        return isTrue(blockState.getX(), blockState.getY(), blockState.getZ(), blockState.getWorld());
+    }
+
+    @Override
+    public void setTrue(@NotNull Block block) {
+        set(block.getX(), block.getY(), block.getZ(), block.getWorld(), true);
+    }
+
+    @Override
+    public void setTrue(@NotNull BlockState blockState) {
+        set(blockState.getX(), blockState.getY(), blockState.getZ(), blockState.getWorld(), true);
+    }
+
+    @Override
+    public void setFalse(@NotNull Block block) {
+        set(block.getX(), block.getY(), block.getZ(), block.getWorld(), false);
+    }
+
+    @Override
+    public void setFalse(@NotNull BlockState blockState) {
+        set(blockState.getX(), blockState.getY(), blockState.getZ(), blockState.getWorld(), false);
+    }
+
+    private boolean isTrue(int x, int y, int z, @NotNull World world) {
+        int cx = x >> 4;
+        int cz = z >> 4;
+        long chunkKey = toKey(cx, cz);
+        WorldChunkStores worldChunkStores = getWorldChunkStores(world);
+        Stripe stripe = worldChunkStores.getStripe(chunkKey);
+
+        synchronized (stripe) {
+            ChunkStore chunkStore = worldChunkStores.getOrLoadChunk(stripe, chunkKey, cx, cz, world);
+            // Block offsets are worked out the same way as HashChunkManager so existing region files stay readable
+            return chunkStore != null && chunkStore.isTrue(Math.abs(x) % 16, y, Math.abs(z) % 16);
+        }
+    }
+
+    private void set(int x, int y, int z, @NotNull World world, boolean value) {
+        int cx = x >> 4;
+        int cz = z >> 4;
+        long chunkKey = toKey(cx, cz);
+        WorldChunkStores worldChunkStores = getWorldChunkStores(world);
+        Stripe stripe = worldChunkStores.getStripe(chunkKey);
+
+        synchronized (stripe) {
+            // If setting to false, no need to create an empty chunkstore
+            ChunkStore chunkStore = worldChunkStores.getOrCreateChunk(stripe, chunkKey, cx, cz, world, value);
+            if (chunkStore != null) {
+                chunkStore.set(Math.abs(x) % 16, y, Math.abs(z) % 16, value);
+            }
+        }
+    }
+
+    @Override
+    @NotNull
+    public PlacedBlockMask getTrueInBox(@NotNull World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        PlacedBlockMask mask = new PlacedBlockMask(minX, minY, minZ, maxX, maxY, maxZ);
+        int fromY = Math.max(minY, world.getMinHeight());
+        int toY = Math.min(maxY, world.getMaxHeight() - 1);
+        if (fromY > toY) {
+            return mask;
+        }
+
+        WorldChunkStores worldChunkStores = getWorldChunkStores(world);
+        for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+            int fromX = Math.max(minX, cx << 4);
+            int toX = Math.min(maxX, (cx << 4) + 15);
+
+            for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                int fromZ = Math.max(minZ, cz << 4);
+                int toZ = Math.min(maxZ, (cz << 4) + 15);
+                long chunkKey = toKey(cx, cz);
+                Stripe stripe = worldChunkStores.getStripe(chunkKey);
+
+                synchronized (stripe) {
+                    ChunkStore chunkStore = worldChunkStores.getOrLoadChunk(stripe, chunkKey, cx, cz, world);
+                    // Most chunks have nothing placed in them, so skip them without looking at any blocks
+                    if (chunkStore == null || chunkStore.isEmpty()) {
+                        continue;
+                    }
+
+                    for (int y = fromY; y <= toY; y++) {
+                        for (int z = fromZ; z <= toZ; z++) {
+                            for (int x = fromX; x <= toX; x++) {
+                                if (chunkStore.isTrue(Math.abs(x) % 16, y, Math.abs(z) % 16)) {
+                                    mask.setTrue(x, y, z);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public void setTrue(@NotNull Collection<Block> blocks) {
+        set(blocks, true);
+    }
+
+    @Override
+    public void setFalse(@NotNull Collection<Block> blocks) {
+        set(blocks, false);
+    }
+
+    private void set(@NotNull Collection<Block> blocks, boolean value) {
+        Block[] toSet = blocks.toArray(new Block[0]);
+        int index = 0;
+
+        while (index < toSet.length) {
+            Block first = toSet[index];
+            World world = first.getWorld();
+            int cx = first.getX() >> 4;
+            int cz = first.getZ() >> 4;
+            long chunkKey = toKey(cx, cz);
+            WorldChunkStores worldChunkStores = getWorldChunkStores(world);
+            Stripe stripe = worldChunkStores.getStripe(chunkKey);
+
+            synchronized (stripe) {
+                ChunkStore chunkStore = worldChunkStores.getOrCreateChunk(stripe, chunkKey, cx, cz, world, value);
+
+                // Every following block in the same chunk shares this lookup
+                do {
+                    Block block = toSet[index];
+                    if (chunkStore != null && block.getY() >= world.getMinHeight() && block.getY() < world.getMaxHeight()) {
+                        chunkStore.set(Math.abs(block.getX()) % 16, block.getY(), Math.abs(block.getZ()) % 16, value);
+                    }
+                    index++;
+                }
+                while (index < toSet.length && toSet[index].getWorld().equals(world)
+                        && toSet[index].getX() >> 4 == cx && toSet[index].getZ() >> 4 == cz);
+            }
+        }
+    }
+
+    @NotNull
+    private WorldChunkStores getWorldChunkStores(@NotNull World world) {
+        UUID worldId = world.getUID();
+        WorldChunkStores worldChunkStores = worlds.get(worldId);
+        if (worldChunkStores != null) {
+            return worldChunkStores;
+        }
+        //A world that loads again before its old chunks finished saving has to wait for them, otherwise it could read the old data back
+        CompletableFuture<Void> unloading = unloadingWorlds.get(worldId);
+        if (unloading != null) {
+            unloading.join();
+        }
+        return worlds.computeIfAbsent(worldId, WorldChunkStores::new);
+    }
+
+    private void flushNextStripe() {
+        int stripeIndex = nextFlushStripe;
+        nextFlushStripe = (stripeIndex + 1) & (STRIPE_COUNT - 1);
+
+        // An exception escaping a repeating task would stop it from ever running again
+        try {
+            for (WorldChunkStores worldChunkStores : worlds.values()) {
+                worldChunkStores.flushStripe(stripeIndex);
+            }
+        }
+        catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Runs the provided task on the I/O thread, or on the calling thread if the I/O thread has been shut down
+     */
+    private void runIO(@NotNull Runnable task) {
+        try {
+            ioExecutor.execute(task);
+        }
+        catch (RejectedExecutionException e) {
+            task.run();
+        }
+    }
+
+    private static long toKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A group of chunks that share a lock. A {@code null} value in {@link #chunks} means the chunk is known to have no stored data.
+     */
+    private static final class Stripe {
+
+        private final LongObjectMap<ChunkStore> chunks = new LongObjectMap<>();
+        // Chunks being read ahead of time on the I/O thread
+        private final LongObjectMap<CompletableFuture<ChunkStore>> pendingLoads = new LongObjectMap<>();
+        // Chunks that have been copied to be written but haven't been written to their region file yet
+        private final LongObjectMap<PendingWrite> pendingWrites = new LongObjectMap<>();
+    }
+
+    /**
+     * A copy of a chunk store waiting to be written by the I/O thread. A new one is made each time a chunk is copied so that a write can
+     * tell if it is still the latest one for its chunk.
+     *
+     * @param chunkStore The chunk store that was copied, which is reused if the chunk loads again before the write lands
+     * @param data       The uncompressed copy of the chunk store to write
+     */
+    private record PendingWrite(@NotNull ChunkStore chunkStore, byte[] data) {
+    }
+
+    /**
+     * Every chunk and region file in use for a single world
+     */
+    private final class WorldChunkStores {
+
+        private final UUID worldId;
+        private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+        // Both guarded by regionLock. Region files are kept open for as long as any chunk inside of them is cached
+        private final Object regionLock = new Object();
+        private final Map<Long, McMMOSimpleRegionFile> regionFiles = new HashMap<>();
+        private final Map<Long, Integer> regionUsage = new HashMap<>();
+
+        private WorldChunkStores(@NotNull UUID worldId) {
+            this.worldId = worldId;
+            for (int i = 0; i < STRIPE_COUNT; i++) {
+                stripes[i] = new Stripe();
+            }
+        }
+
+        @NotNull
+        private Stripe getStripe(long chunkKey) {
+            long hash = chunkKey * 0x9E3779B97F4A7C15L;
+            return stripes[(int) (hash >>> 58) & (STRIPE_COUNT - 1)];
+        }
+
+        /**
+         * Gets the chunk store for the provided chunk, loading it from its region file if it isn't cached yet. Must be called while holding
+         * the lock of the provided {@link Stripe}.
+         */
+        @Nullable
+        private ChunkStore getOrLoadChunk(@NotNull Stripe stripe, long chunkKey, int cx, int cz, @NotNull World world) {
+            int slot = stripe.chunks.indexOf(chunkKey);
+            if (slot >= 0) {
+                return stripe.chunks.valueAt(slot);
+            }
+
+            ChunkStore loaded;
+            PendingWrite unwritten = stripe.pendingWrites.remove(chunkKey);
+            CompletableFuture<ChunkStore> pendingLoad = stripe.pendingLoads.remove(chunkKey);
+
+            // A chunk that hasn't finished saving is newer than what is on the disk, so it is just put back in the cache
+            if (unwritten != null) {
+                loaded = unwritten.chunkStore();
+            }
+            // Waiting on the I/O thread here could deadlock as it may need this stripe, so only use the read ahead if it's already done
+            else if (pendingLoad != null && pendingLoad.isDone() && !pendingLoad.isCompletedExceptionally()) {
+                loaded = pendingLoad.join();
+            }
+            else {
+                loaded = loadChunk(world, cx, cz);
+            }
+
+            stripe.chunks.put(chunkKey, loaded);
+            acquireRegion(cx, cz);
+            return loaded;
+        }
+
+        /**
+         * Starts reading the provided chunk on the I/O thread if it isn't cached or already being read, so that it is ready by the time it
+         * is needed
+         */
+        private void prefetchChunk(int cx, int cz, @NotNull World world) {
+            long chunkKey = toKey(cx, cz);
+            Stripe stripe = getStripe(chunkKey);
+            CompletableFuture<ChunkStore> pendingLoad = new CompletableFuture<>();
+
+            synchronized (stripe) {
+                if (stripe.chunks.indexOf(chunkKey) >= 0 || stripe.pendingLoads.indexOf(chunkKey) >= 0) {
+                    return;
+                }
+
+                PendingWrite unwritten = stripe.pendingWrites.remove(chunkKey);
+                if (unwritten != null) {
+                    stripe.chunks.put(chunkKey, unwritten.chunkStore());
+                    acquireRegion(cx, cz);
+                    return;
+                }
+                stripe.pendingLoads.put(chunkKey, pendingLoad);
+            }
+
+            runIO(() -> {
+                McMMOSimpleRegionFile regionFile = null;
+                ChunkStore loaded = null;
+                try {
+                    regionFile = openRegion(world, cx, cz, false);
+                    loaded = regionFile == null ? null : readChunkStore(regionFile, cx, cz);
+                    pendingLoad.complete(loaded);
+                }
+                catch (RuntimeException e) {
+                    pendingLoad.completeExceptionally(e);
+                    e.printStackTrace();
+                }
+
+                boolean installed = false;
+                synchronized (stripe) {
+                    // Only install the read if nothing else has loaded or unloaded the chunk in the meantime
+                    if (stripe.pendingLoads.get(chunkKey) == pendingLoad) {
+                        stripe.pendingLoads.remove(chunkKey);
+                        if (!pendingLoad.isCompletedExceptionally()) {
+                            stripe.chunks.put(chunkKey, loaded);
+                            if (regionFile == null) {
+                                acquireRegion(cx, cz);
+                            }
+                            installed = true;
+                        }
+                    }
+                }
+
+                // The region was opened for this read, so it either stays held by the installed chunk or gets given back
+                if (regionFile != null && !installed) {
+                    releaseRegion(cx, cz);
+                }
+            });
+        }
+
+        /**
+         * Gets the chunk store for the provided chunk like {@link #getOrLoadChunk(Stripe, long, int, int, World)}, creating an empty one
+         * if there isn't one yet and {@code create} is {@code true}. Must be called while holding the lock of the provided {@link Stripe}.
+         */
+        @Nullable
+        private ChunkStore getOrCreateChunk(@NotNull Stripe stripe, long chunkKey, int cx, int cz, @NotNull World world, boolean create) {
+            ChunkStore chunkStore = getOrLoadChunk(stripe, chunkKey, cx, cz, world);
+            if (chunkStore == null && create) {
+                chunkStore = new SectionedChunkStore(world, cx, cz);
+                stripe.chunks.put(chunkKey, chunkStore);
+            }
+            return chunkStore;
+        }
+
+        private void unloadChunk(int cx, int cz, @NotNull World world) {
+            long chunkKey = toKey(cx, cz);
+            Stripe stripe = getStripe(chunkKey);
+            PendingWrite pendingWrite = null;
+
+            synchronized (stripe) {
+                // Drop any read that is still in flight, the I/O thread will notice and give back its region
+                stripe.pendingLoads.remove(chunkKey);
+                if (stripe.chunks.indexOf(chunkKey) < 0) {
+                    return;
+                }
+
+                ChunkStore chunkStore = stripe.chunks.remove(chunkKey);
+                try {
+                    if (chunkStore != null && chunkStore.isDirty()) {
+                        pendingWrite = snapshotChunk(stripe, chunkKey, chunkStore);
+                    }
+                }
+                finally {
+                    releaseRegion(cx, cz);
+                }
+            }
+
+            if (pendingWrite != null) {
+                PendingWrite queuedWrite = pendingWrite;
+                runIO(() -> writePending(world, stripe, chunkKey, queuedWrite));
+            }
+        }
+
+        /**
+         * Saves every dirty chunk in the provided stripe while leaving them cached. Must be called on the I/O thread.
+         *
+         * @param stripeIndex The index of the stripe to save
+         */
+        private void flushStripe(int stripeIndex) {
+            World world = Bukkit.getWorld(worldId);
+            if (world == null) {
+                return;
+            }
+
+            Stripe stripe = stripes[stripeIndex];
+            LongObjectMap<PendingWrite> flushed = new LongObjectMap<>();
+
+            synchronized (stripe) {
+                stripe.chunks.forEach((chunkKey, chunkStore) -> {
+                    if (chunkStore != null && chunkStore.isDirty()) {
+                        try {
+                            flushed.put(chunkKey, snapshotChunk(stripe, chunkKey, chunkStore));
+                        }
+                        catch (RuntimeException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                });
+            }
+
+            flushed.forEach((chunkKey, pendingWrite) -> writePending(world, stripe, chunkKey, pendingWrite));
+        }
+
+        /**
+         * Copies the provided chunk into memory so it can be written without holding the stripe, and remembers it as a pending write so that
+         * the chunk's data is never read back from the disk before the write lands. Must be called while holding the lock of the provided
+         * {@link Stripe}.
+         */
+        @NotNull
+        private PendingWrite snapshotChunk(@NotNull Stripe stripe, long chunkKey, @NotNull ChunkStore chunkStore) {
+            PendingWrite pendingWrite = new PendingWrite(chunkStore, serializeChunkStore(chunkStore));
+            stripe.pendingWrites.put(chunkKey, pendingWrite);
+            return pendingWrite;
+        }
+
+        /**
+         * Writes a chunk copied by {@link #snapshotChunk(Stripe, long, ChunkStore)} to its region file
+         */
+        private void writePending(@NotNull World world, @NotNull Stripe stripe, long chunkKey, @NotNull PendingWrite pendingWrite) {
+            ChunkStore chunkStore = pendingWrite.chunkStore();
+            int cx = chunkStore.getChunkX();
+            int cz = chunkStore.getChunkZ();
+            boolean written = writeSerialized(world, cx, cz, pendingWrite.data());
+
+            synchronized (stripe) {
+                if (!written) {
+                    chunkStore.setDirty(true);
+                }
+                if (stripe.pendingWrites.get(chunkKey) == pendingWrite) {
+                    stripe.pendingWrites.remove(chunkKey);
+                    // Keep failed writes cached so the data isn't lost, they will be written again when they next unload or get flushed
+                    if (!written && stripe.chunks.indexOf(chunkKey) < 0) {
+                        stripe.chunks.put(chunkKey, chunkStore);
+                        acquireRegion(cx, cz);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Saves every dirty chunk and closes every region file for this world
+         *
+         * @param world The world to save the chunks to, or {@code null} if the world is no longer loaded in which case nothing is saved
+         */
+        private void unloadAll(@Nullable World world) {
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    if (world != null) {
+                        stripe.chunks.forEach((chunkKey, chunkStore) -> {
+                            if (chunkStore == null || !chunkStore.isDirty()) {
+                                return;
+                            }
+                            try {
+                                writeChunkStore(world, chunkStore);
+                            }
+                            catch (RuntimeException e) {
+                                e.printStackTrace();
+                            }
+                        });
+                    }
+                    stripe.chunks.clear();
+                    stripe.pendingLoads.clear();
+                    stripe.pendingWrites.clear();
+                }
+            }
+
+            synchronized (regionLock) {
+                for (McMMOSimpleRegionFile regionFile : regionFiles.values()) {
+                    regionFile.close();
+                }
+                regionFiles.clear();
+                regionUsage.clear();
+            }
+        }
+
+        @Nullable
+        private ChunkStore loadChunk(@NotNull World world, int cx, int cz) {
+            synchronized (regionLock) {
+                McMMOSimpleRegionFile regionFile = getRegionFile(world, cx, cz, false);
+                if (regionFile == null) {
+                    return null; // If there is no region file, there can't be a chunk
+                }
+                return readChunkStore(regionFile, cx, cz);
+            }
+        }
+
+        @Nullable
+        private ChunkStore readChunkStore(@NotNull McMMOSimpleRegionFile regionFile, int cx, int cz) {
+            try (DataInputStream in = regionFile.getInputStream(cx, cz)) {
+                if (in == null) {
+                    return null; // No chunk
+                }
+                return BitSetChunkStore.Serialization.readChunkStore(in);
+            }
+            catch (Exception ignored) {
+            }
+            return null;
+        }
+
+        /**
+         * Serializes the provided chunk store into memory without compressing it, so it can be written later on the I/O thread
+         */
+        @NotNull
+        private byte[] serializeChunkStore(@NotNull ChunkStore chunkStore) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                BitSetChunkStore.Serialization.writeChunkStore(new DataOutputStream(bytes), chunkStore);
+                return bytes.toByteArray();
+            }
+            catch (IOException e) {
+                throw new RuntimeException("Unable to write chunk meta data for " + chunkStore.getChunkX() + ", " + chunkStore.getChunkZ(), e);
+            }
+        }
+
+        /**
+         * Compresses and writes an already serialized chunk store to its region file. The region is held open while writing so the region
+         * lock is only needed to find it.
+         *
+         * @return {@code true} if the chunk store was written
+         */
+        private boolean writeSerialized(@NotNull World world, int cx, int cz, byte[] data) {
+            McMMOSimpleRegionFile regionFile;
+            try {
+                regionFile = openRegion(world, cx, cz, true);
+            }
+            catch (RuntimeException e) {
+                e.printStackTrace();
+                return false;
+            }
+
+            try (DataOutputStream out = regionFile.getOutputStream(cx, cz)) {
+                out.write(data);
+                return true;
+            }
+            catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+                return false;
+            }
+            finally {
+                releaseRegion(cx, cz);
+            }
+        }
+
+        private void writeChunkStore(@NotNull World world, @NotNull ChunkStore chunkStore) {
+            synchronized (regionLock) {
+                try {
+                    McMMOSimpleRegionFile regionFile = getRegionFile(world, chunkStore.getChunkX(), chunkStore.getChunkZ(), true);
+                    try (DataOutputStream out = regionFile.getOutputStream(chunkStore.getChunkX(), chunkStore.getChunkZ())) {
+                        BitSetChunkStore.Serialization.writeChunkStore(out, chunkStore);
+                    }
+                    chunkStore.setDirty(false);
+                }
+                catch (IOException e) {
+                    throw new RuntimeException("Unable to write chunk meta data for " + chunkStore.getChunkX() + ", " + chunkStore.getChunkZ(), e);
+                }
+            }
+        }
+
+        /**
+         * Gets the region file that holds the provided chunk. Must be called while holding {@link #regionLock}.
+         *
+         * @param create If the region file should be created if it doesn't exist yet
+         * @return The region file, or {@code null} if it doesn't exist and {@code create} is {@code false}
+         */
+        private McMMOSimpleRegionFile getRegionFile(@NotNull World world, int cx, int cz, boolean create) {
+            int rx = cx >> 5;
+            int rz = cz >> 5;
+            long regionKey = toKey(rx, rz);
+
+            McMMOSimpleRegionFile regionFile = regionFiles.get(regionKey);
+            if (regionFile != null) {
+                return regionFile;
+            }
+
+            File file = new File(new File(world.getWorldFolder(), "mcmmo_regions"), "mcmmo_" + rx + "_" + rz + "_.mcm");
+            if (!file.exists()) {
+                if (!create) {
+                    return null; // Don't create the file on read-only operations
+                }
+                file.getParentFile().mkdirs();
+            }
+
+            regionFile = new McMMOSimpleRegionFile(file, rx, rz);
+            regionFiles.put(regionKey, regionFile);
+            return regionFile;
+        }
+
+        /**
+         * Gets the region file that holds the provided chunk and holds it open until {@link #releaseRegion(int, int)} is called
+         *
+         * @param create If the region file should be created if it doesn't exist yet
+         * @return The region file, or {@code null} if it doesn't exist and {@code create} is {@code false}, in which case nothing is held
+         */
+        private McMMOSimpleRegionFile openRegion(@NotNull World world, int cx, int cz, boolean create) {
+            synchronized (regionLock) {
+                McMMOSimpleRegionFile regionFile = getRegionFile(world, cx, cz, create);
+                if (regionFile != null) {
+                    acquireRegion(cx, cz);
+                }
+                return regionFile;
+            }
+        }
+
+        private void acquireRegion(int cx, int cz) {
+            synchronized (regionLock) {
+                regionUsage.merge(toKey(cx >> 5, cz >> 5), 1, Integer::sum);
+            }
+        }
+
+        private void releaseRegion(int cx, int cz) {
+            synchronized (regionLock) {
+                long regionKey = toKey(cx >> 5, cz >> 5);
+                Integer usage = regionUsage.get(regionKey);
+
+                // If it was last chunk in region, close the region file and remove it from memory
+                if (usage == null || usage <= 1) {
+                    regionUsage.remove(regionKey);
+                    McMMOSimpleRegionFile regionFile = regionFiles.remove(regionKey);
+                    if (regionFile != null) {
+                        regionFile.close();
+                    }
+                }
+                else {
+                    regionUsage.put(regionKey, usage - 1);
+                }
+            }
+        }
+    }
+}
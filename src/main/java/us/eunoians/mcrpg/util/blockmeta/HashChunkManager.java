@@ -12,6 +12,7 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -218,6 +219,41 @@ public class HashChunkManager implements ChunkManager {
         set(blockState.getX(), blockState.getY(), blockState.getZ(), blockState.getWorld(), false);
     }
 
+    @Override
+    public synchronized @NotNull PlacedBlockMask getTrueInBox(@NotNull World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        PlacedBlockMask mask = new PlacedBlockMask(minX, minY, minZ, maxX, maxY, maxZ);
+        int fromY = Math.max(minY, world.getMinHeight());
+        int toY = Math.min(maxY, world.getMaxHeight() - 1);
+
+        for (int y = fromY; y <= toY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    if (isTrue(x, y, z, world))
+                        mask.setTrue(x, y, z);
+                }
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public synchronized void setTrue(@NotNull Collection<Block> blocks) {
+        for (Block block : blocks) {
+            World world = block.getWorld();
+            if (block.getY() >= world.getMinHeight() && block.getY() < world.getMaxHeight())
+                set(block.getX(), block.getY(), block.getZ(), world, true);
+        }
+    }
+
+    @Override
+    public synchronized void setFalse(@NotNull Collection<Block> blocks) {
+        for (Block block : blocks) {
+            World world = block.getWorld();
+            if (block.getY() >= world.getMinHeight() && block.getY() < world.getMaxHeight())
+                set(block.getX(), block.getY(), block.getZ(), world, false);
+        }
+    }
+
     private synchronized void set(int x, int y, int z, @NotNull World world, boolean value){
         CoordinateKey chunkKey = blockCoordinateToChunkKey(world.getUID(), x, y, z);
 
@@ -236,7 +272,7 @@ public class HashChunkManager implements ChunkManager {
             // Mark chunk in-use for region tracking
             chunkUsageMap.computeIfAbsent(toRegionKey(chunkKey.worldID, chunkKey.x, chunkKey.z), j -> new HashSet<>()).add(chunkKey);
             // Create a new chunkstore
-            return new BitSetChunkStore(world, chunkKey.x, chunkKey.z);
+            return new SectionedChunkStore(world, chunkKey.x, chunkKey.z);
         });
 
         // Indicates setting false on empty chunkstore
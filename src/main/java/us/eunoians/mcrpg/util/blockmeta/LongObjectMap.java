@@ -0,0 +1,215 @@
+package us.eunoians.mcrpg.util.blockmeta;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A minimal open addressing hash map keyed by primitive longs, so that looking up a key never boxes it or allocates a key object.
+ * <p>
+ * {@code null} values are allowed and are distinct from a missing key, which lets callers cache that a key is known to have no value.
+ * <p>
+ * This is not thread safe, callers need to provide their own locking.
+ *
+ * @param <V> The type of value stored
+ * @author DiamondDagger590
+ */
+final class LongObjectMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    LongObjectMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Gets the slot that the provided key is stored in
+     *
+     * @param key The key to find
+     * @return The slot of the key for use with {@link #valueAt(int)}, or {@code -1} if the key isn't in this map
+     */
+    int indexOf(long key) {
+        int slot = slot(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the value stored in the provided slot
+     *
+     * @param slot A slot returned by {@link #indexOf(long)} since this map was last changed
+     * @return The value stored in the slot, which may be {@code null}
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    /**
+     * Gets the value for the provided key
+     *
+     * @param key The key to get the value for
+     * @return The value for the key, or {@code null} if there is no value or the key isn't in this map
+     */
+    @Nullable
+    V get(long key) {
+        int slot = indexOf(key);
+        return slot < 0 ? null : valueAt(slot);
+    }
+
+    /**
+     * Stores the provided value for the provided key, replacing any existing value
+     *
+     * @param key   The key to store the value for
+     * @param value The value to store, which may be {@code null}
+     */
+    void put(long key, @Nullable V value) {
+        int slot = slot(key);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+
+        if (++size > resizeThreshold) {
+            resize(keys.length << 1);
+        }
+    }
+
+    /**
+     * Removes the provided key from this map
+     *
+     * @param key The key to remove
+     * @return The value that was stored for the key, or {@code null} if there was no value or the key wasn't in this map
+     */
+    @Nullable
+    V remove(long key) {
+        int slot = indexOf(key);
+        if (slot < 0) {
+            return null;
+        }
+
+        V removed = valueAt(slot);
+        size--;
+
+        //Shift back any following entries that would no longer be reachable once this slot is empty
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int ideal = slot(keys[next]);
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        used[gap] = false;
+        values[gap] = null;
+        return removed;
+    }
+
+    /**
+     * Gets the number of keys in this map
+     *
+     * @return The number of keys in this map
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks to see if this map has no keys
+     *
+     * @return {@code true} if this map has no keys
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Runs the provided {@link Entry} consumer for every key in this map. The map must not be changed while this runs
+     *
+     * @param consumer The consumer to run for every key
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(@NotNull Entry<V> consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (used[slot]) {
+                consumer.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Removes every key from this map
+     */
+    void clear() {
+        Arrays.fill(used, false);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private int slot(long key) {
+        //Spread the bits of the key so that nearby chunk coordinates don't cluster together
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        allocate(capacity);
+        size = 0;
+
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldUsed[slot]) {
+                put(oldKeys[slot], (V) oldValues[slot]);
+            }
+        }
+    }
+
+    /**
+     * Consumes an entry of a {@link LongObjectMap} without boxing its key
+     *
+     * @param <V> The type of value stored
+     */
+    @FunctionalInterface
+    interface Entry<V> {
+
+        void accept(long key, @Nullable V value);
+    }
+}
@@ -29,7 +29,9 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.util.BitSet;
+import java.util.zip.CRC32;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.InflaterInputStream;
 
@@ -41,9 +43,18 @@ import java.util.zip.InflaterInputStream;
  * bytes 0-4096 contain 1024 integer values representing the segment index of each chunk
  * bytes 4096-8192 contain 1024 integer values representing the byte length of each chunk
  * bytes 8192-8196 is the integer value of the segment exponent
- * bytes 8196-12288 are reserved for future use
+ * bytes 8196-8216 hold the header change that is currently being made, see below
+ * bytes 8216-12288 are reserved for future use
  * bytes 12288+ contain the data segments, by default 1024 byte segments.
  * Chunk data is compressed and stored in 1 or more segments as needed.
+ *
+ * Writes never overwrite the segments of the data they replace. The new data is written to free segments and synced to the disk, then the
+ * header change is recorded in the journal and synced, and only then applied to the header. If the server or the machine crashes part way
+ * through, the header either still points at the old data or the journal is replayed when the file is next opened, so a chunk never ends up
+ * pointing at half written data.
+ * <p>
+ * The journal is left in place after a write rather than cleared, since the header it was applied to isn't synced until the next write syncs
+ * its data. It always holds the latest header change, so replaying it again is harmless.
  */
 public class McMMOSimpleRegionFile {
     private static final int DEFAULT_SEGMENT_EXPONENT = 10; // TODO, analyze real world usage and determine if a smaller segment(512) is worth it or not. (need to know average chunkstore bytesize)
@@ -53,6 +64,9 @@ public class McMMOSimpleRegionFile {
     private static final int SEEK_CHUNK_SEGMENT_INDICES = 0;
     private static final int SEEK_CHUNK_BYTE_LENGTHS = 4096;
     private static final int SEEK_FILE_INFO = 8192;
+    private static final int SEEK_JOURNAL = 8196;
+    private static final int JOURNAL_MAGIC = 0x4D434A4E;
+    private static final int JOURNAL_BYTES = 20;
     // Chunk info
     private final int[] chunkSegmentIndex = new int[NUM_CHUNKS];
     private final int[] chunkNumBytes = new int[NUM_CHUNKS];
@@ -103,8 +117,13 @@ public class McMMOSimpleRegionFile {
                 chunkSegmentIndex[i] = file.readInt();
 
             file.seek(SEEK_CHUNK_BYTE_LENGTHS);
-            for (int i = 0; i < NUM_CHUNKS; i++) {
+            for (int i = 0; i < NUM_CHUNKS; i++)
                 chunkNumBytes[i] = file.readInt();
+
+            // Finish any header change that was interrupted before marking which segments are in use
+            replayJournal();
+
+            for (int i = 0; i < NUM_CHUNKS; i++) {
                 chunkNumSegments[i] = bytesToSegments(chunkNumBytes[i]);
                 markChunkSegments(i, true);
             }
@@ -138,22 +157,83 @@ public class McMMOSimpleRegionFile {
     }
 
     private synchronized void write(int index, byte[] buffer, int size) throws IOException {
-        int oldSegmentIndex = chunkSegmentIndex[index]; // Get current segment index
-        markChunkSegments(index, false); // Clear our old segments
-        int newSegmentIndex = findContiguousSegments(oldSegmentIndex, size); // Find contiguous segments to save to
-        file.seek(newSegmentIndex << segmentExponent); // Seek to file location
+        // Old segments stay in use until the header no longer points at them, so the new data can never be written over them. Without a
+        // hint the first free gap is used, which keeps a chunk swapping between two spots rather than creeping towards the end of the file
+        int newSegmentIndex = findContiguousSegments(0, size); // Find contiguous segments to save to
+        file.seek((long) newSegmentIndex << segmentExponent); // Seek to file location
         file.write(buffer, 0, size); // Write data
+        // The journal must never reach the disk before the data it points at. This also makes the last header change durable before its
+        // journal is replaced
+        file.getFD().sync();
+
+        // Update header info
+        writeJournal(index, newSegmentIndex, size);
+        file.getFD().sync();
+        writeHeader(index, newSegmentIndex, size);
+
         // update in memory info
+        markChunkSegments(index, false); // Clear our old segments
         chunkSegmentIndex[index] = newSegmentIndex;
         chunkNumBytes[index] = size;
         chunkNumSegments[index] = bytesToSegments(size);
         // Mark segments in use
         markChunkSegments(index, true);
-        // Update header info
+    }
+
+    private synchronized void writeHeader(int index, int segmentIndex, int numBytes) throws IOException {
         file.seek(SEEK_CHUNK_SEGMENT_INDICES + (4 * index));
-        file.writeInt(chunkSegmentIndex[index]);
+        file.writeInt(segmentIndex);
         file.seek(SEEK_CHUNK_BYTE_LENGTHS + (4 * index));
-        file.writeInt(chunkNumBytes[index]);
+        file.writeInt(numBytes);
+    }
+
+    private synchronized void writeJournal(int index, int segmentIndex, int numBytes) throws IOException {
+        ByteBuffer journal = ByteBuffer.allocate(JOURNAL_BYTES);
+        journal.putInt(JOURNAL_MAGIC).putInt(index).putInt(segmentIndex).putInt(numBytes);
+        journal.putInt(journalChecksum(index, segmentIndex, numBytes));
+        file.seek(SEEK_JOURNAL);
+        file.write(journal.array()); // Written in one go so a partially written journal fails its checksum
+    }
+
+    private synchronized void clearJournal() throws IOException {
+        file.seek(SEEK_JOURNAL);
+        file.write(new byte[JOURNAL_BYTES]);
+    }
+
+    /**
+     * Applies the header change in the journal if the file was closed before it could be applied. A journal that is empty, only partly
+     * written or doesn't make sense for this file is ignored, which leaves the chunk pointing at its old data.
+     */
+    private synchronized void replayJournal() throws IOException {
+        file.seek(SEEK_JOURNAL);
+        int magic = file.readInt();
+        if (magic != JOURNAL_MAGIC)
+            return;
+
+        int index = file.readInt();
+        int segmentIndex = file.readInt();
+        int numBytes = file.readInt();
+        int checksum = file.readInt();
+
+        boolean valid = checksum == journalChecksum(index, segmentIndex, numBytes)
+                && index >= 0 && index < NUM_CHUNKS && numBytes >= 0
+                && segmentIndex >= bytesToSegments(RESERVED_HEADER_BYTES)
+                && ((long) segmentIndex << segmentExponent) + numBytes <= file.length();
+
+        if (valid) {
+            writeHeader(index, segmentIndex, numBytes);
+            chunkSegmentIndex[index] = segmentIndex;
+            chunkNumBytes[index] = numBytes;
+            // The journal can only be cleared once the header it was applied to is on the disk
+            file.getFD().sync();
+        }
+        clearJournal();
+    }
+
+    private static int journalChecksum(int index, int segmentIndex, int numBytes) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(16).putInt(JOURNAL_MAGIC).putInt(index).putInt(segmentIndex).putInt(numBytes).array());
+        return (int) crc.getValue();
     }
 
     public synchronized @Nullable DataInputStream getInputStream(int x, int z) throws IOException {
@@ -166,7 +246,7 @@ public class McMMOSimpleRegionFile {
 
         byte[] data = new byte[byteLength];
 
-        file.seek(chunkSegmentIndex[index] << segmentExponent); // Seek to file location
+        file.seek((long) chunkSegmentIndex[index] << segmentExponent); // Seek to file location
         file.readFully(data); // Read in the data
         return new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)));
     }
@@ -5,6 +5,8 @@ import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+
 /**
  * This code is not mine. It is copyright from the original mcMMO allowed for use by their license. Modified 2/16/22
  * It was released under the GPLv3 license
@@ -41,4 +43,15 @@ public class NullChunkManager implements ChunkManager {
 
     @Override
     public void setFalse(@NotNull BlockState blockState) {}
+
+    @Override
+    public @NotNull PlacedBlockMask getTrueInBox(@NotNull World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return new PlacedBlockMask(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    @Override
+    public void setTrue(@NotNull Collection<Block> blocks) {}
+
+    @Override
+    public void setFalse(@NotNull Collection<Block> blocks) {}
 }
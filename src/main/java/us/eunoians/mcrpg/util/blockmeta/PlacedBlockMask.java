@@ -0,0 +1,97 @@
+package us.eunoians.mcrpg.util.blockmeta;
+
+import org.bukkit.block.Block;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A compact bitmap of which blocks inside of a box are set to true in a {@link ChunkManager}, as returned by
+ * {@link ChunkManager#getTrueInBox(org.bukkit.World, int, int, int, int, int, int)}.
+ * <p>
+ * This is a snapshot taken when the box was queried, so it won't reflect any blocks set or unset after that.
+ *
+ * @author DiamondDagger590
+ */
+public final class PlacedBlockMask {
+
+    private final int minX;
+    private final int minY;
+    private final int minZ;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final long[] bits;
+
+    /**
+     * Creates a new mask with no blocks set, covering every block between the provided corners
+     *
+     * @throws IllegalArgumentException If the box has more blocks than can fit in a single mask
+     */
+    PlacedBlockMask(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = Math.max(0, maxX - minX + 1);
+        this.sizeY = Math.max(0, maxY - minY + 1);
+        this.sizeZ = Math.max(0, maxZ - minZ + 1);
+
+        long volume = (long) sizeX * sizeY * sizeZ;
+        if (volume > (long) Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A box of " + sizeX + "x" + sizeY + "x" + sizeZ + " blocks is too large to query at once");
+        }
+        this.bits = new long[(int) ((volume + Long.SIZE - 1) / Long.SIZE)];
+    }
+
+    /**
+     * Checks to see if the provided block was set to true when this mask was made
+     *
+     * @param block The block to check
+     * @return {@code true} if the block is inside of this mask's box and was set to true
+     */
+    public boolean isTrue(@NotNull Block block) {
+        return isTrue(block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Checks to see if the block at the provided world coordinates was set to true when this mask was made
+     *
+     * @param x The x coordinate of the block
+     * @param y The y coordinate of the block
+     * @param z The z coordinate of the block
+     * @return {@code true} if the block is inside of this mask's box and was set to true
+     */
+    public boolean isTrue(int x, int y, int z) {
+        int index = toIndex(x, y, z);
+        return index >= 0 && (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Checks to see if no blocks in this mask's box were set to true
+     *
+     * @return {@code true} if no blocks in this mask's box were set to true
+     */
+    public boolean isEmpty() {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void setTrue(int x, int y, int z) {
+        int index = toIndex(x, y, z);
+        if (index >= 0) {
+            bits[index >>> 6] |= 1L << index;
+        }
+    }
+
+    private int toIndex(int x, int y, int z) {
+        int dx = x - minX;
+        int dy = y - minY;
+        int dz = z - minZ;
+        if (dx < 0 || dx >= sizeX || dy < 0 || dy >= sizeY || dz < 0 || dz >= sizeZ) {
+            return -1;
+        }
+        return (dy * sizeZ + dz) * sizeX + dx;
+    }
+}
@@ -0,0 +1,414 @@
+package us.eunoians.mcrpg.util.blockmeta;
+
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * A {@link ChunkStore} that splits the chunk into 16 block tall sections and only allocates memory for the sections that have blocks in them.
+ * <p>
+ * Most chunks only ever have a handful of placed blocks, so a section starts out as a sorted list of the blocks that are set and only
+ * switches to a full bitmap once it fills up. A chunk with a few placed blocks takes up a few hundred bytes instead of a bit for every block
+ * in the whole height of the world, both in memory and on the disk.
+ * <p>
+ * This is saved as format version {@value #FORMAT_VERSION}. Older formats are read by {@link BitSetChunkStore.Serialization} and converted into
+ * this store, being marked as dirty so that they get rewritten in this format.
+ *
+ * @author DiamondDagger590
+ */
+public class SectionedChunkStore implements ChunkStore {
+
+    static final int FORMAT_VERSION = 10;
+
+    private static final int SECTION_HEIGHT = 16;
+    private static final int BLOCKS_PER_SECTION = 16 * 16 * SECTION_HEIGHT;
+    private static final int BITMAP_LENGTH = BLOCKS_PER_SECTION / Long.SIZE;
+    //Once a sparse section has this many blocks it is smaller as a bitmap, and a bitmap goes back to sparse once it has half as many
+    private static final int SPARSE_LIMIT = 128;
+    private static final int INITIAL_SPARSE_CAPACITY = 4;
+
+    private static final byte SPARSE_SECTION = 0;
+    private static final byte BITMAP_SECTION = 1;
+
+    private final int cx;
+    private final int cz;
+    private final int worldMin;
+    private final int worldMax;
+    @NotNull
+    private final UUID worldUid;
+    // A null section has no blocks set in it
+    private final Section[] sections;
+
+    private transient boolean dirty = false;
+
+    public SectionedChunkStore(@NotNull World world, int cx, int cz) {
+        this(world.getUID(), world.getMinHeight(), world.getMaxHeight(), cx, cz);
+    }
+
+    SectionedChunkStore(@NotNull UUID worldUid, int worldMin, int worldMax, int cx, int cz) {
+        this.cx = cx;
+        this.cz = cz;
+        this.worldUid = worldUid;
+        this.worldMin = worldMin;
+        this.worldMax = worldMax;
+        this.sections = new Section[(worldMax - worldMin + SECTION_HEIGHT - 1) / SECTION_HEIGHT];
+    }
+
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public void setDirty(boolean dirty) {
+        this.dirty = dirty;
+    }
+
+    @Override
+    public int getChunkX() {
+        return cx;
+    }
+
+    @Override
+    public int getChunkZ() {
+        return cz;
+    }
+
+    @Override
+    public int getChunkMin() {
+        return worldMin;
+    }
+
+    @Override
+    public int getChunkMax() {
+        return worldMax;
+    }
+
+    @Override
+    @NotNull
+    public UUID getWorldId() {
+        return worldUid;
+    }
+
+    @Override
+    public boolean isTrue(int x, int y, int z) {
+        checkBounds(x, y, z);
+        Section section = sections[(y - worldMin) / SECTION_HEIGHT];
+        return section != null && section.get(toSectionIndex(x, y, z));
+    }
+
+    @Override
+    public void setTrue(int x, int y, int z) {
+        set(x, y, z, true);
+    }
+
+    @Override
+    public void setFalse(int x, int y, int z) {
+        set(x, y, z, false);
+    }
+
+    @Override
+    public void set(int x, int y, int z, boolean value) {
+        checkBounds(x, y, z);
+        int sectionY = (y - worldMin) / SECTION_HEIGHT;
+        Section section = sections[sectionY];
+
+        if (section == null) {
+            if (!value) {
+                return;
+            }
+            section = new Section();
+            sections[sectionY] = section;
+        }
+
+        if (section.set(toSectionIndex(x, y, z), value)) {
+            dirty = true;
+            if (section.count == 0) {
+                sections[sectionY] = null;
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Section section : sections) {
+            if (section != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkBounds(int x, int y, int z) {
+        if (x < 0 || x >= 16 || y < worldMin || y >= worldMax || z < 0 || z >= 16) {
+            throw new IndexOutOfBoundsException(String.format("x: %d y: %d z: %d World Min: %d World Max: %d", x, y, z, worldMin, worldMax));
+        }
+    }
+
+    private int toSectionIndex(int x, int y, int z) {
+        return (((y - worldMin) % SECTION_HEIGHT) << 8) | (z << 4) | x;
+    }
+
+    /**
+     * Writes this store in format version {@value #FORMAT_VERSION}. Should only be called by {@link BitSetChunkStore.Serialization}, which
+     * writes the stream header that comes before this.
+     */
+    void serialize(@NotNull DataOutputStream out) throws IOException {
+        out.writeInt(BitSetChunkStore.MAGIC_NUMBER);
+        out.writeInt(FORMAT_VERSION);
+
+        out.writeLong(worldUid.getLeastSignificantBits());
+        out.writeLong(worldUid.getMostSignificantBits());
+        out.writeInt(cx);
+        out.writeInt(cz);
+        out.writeInt(worldMin);
+        out.writeInt(worldMax);
+
+        int sectionCount = 0;
+        for (Section section : sections) {
+            if (section != null) {
+                sectionCount++;
+            }
+        }
+        out.writeShort(sectionCount);
+
+        for (int sectionY = 0; sectionY < sections.length; sectionY++) {
+            Section section = sections[sectionY];
+            if (section == null) {
+                continue;
+            }
+
+            out.writeShort(sectionY);
+            if (section.bits != null) {
+                out.writeByte(BITMAP_SECTION);
+                for (long word : section.bits) {
+                    out.writeLong(word);
+                }
+            }
+            else {
+                out.writeByte(SPARSE_SECTION);
+                out.writeShort(section.count);
+                for (int i = 0; i < section.count; i++) {
+                    out.writeShort(section.entries[i]);
+                }
+            }
+        }
+
+        dirty = false;
+    }
+
+    /**
+     * Reads the rest of a store saved in format version {@value #FORMAT_VERSION}, after the magic number and version have already been read,
+     * and adjusts it to the current height of its world if that has changed since it was saved
+     *
+     * @param in The stream to read from
+     * @return The read store
+     */
+    @NotNull
+    static SectionedChunkStore deserialize(@NotNull DataInputStream in) throws IOException {
+        long lsb = in.readLong();
+        long msb = in.readLong();
+        UUID worldUid = new UUID(msb, lsb);
+        int cx = in.readInt();
+        int cz = in.readInt();
+        int worldMin = in.readInt();
+        int worldMax = in.readInt();
+
+        SectionedChunkStore saved = new SectionedChunkStore(worldUid, worldMin, worldMax, cx, cz);
+        int sectionCount = in.readUnsignedShort();
+
+        for (int i = 0; i < sectionCount; i++) {
+            int sectionY = in.readUnsignedShort();
+            if (sectionY >= saved.sections.length) {
+                throw new IOException("Section " + sectionY + " is outside of the saved world height");
+            }
+
+            Section section = new Section();
+            byte type = in.readByte();
+            if (type == BITMAP_SECTION) {
+                section.bits = new long[BITMAP_LENGTH];
+                for (int word = 0; word < BITMAP_LENGTH; word++) {
+                    section.bits[word] = in.readLong();
+                    section.count += Long.bitCount(section.bits[word]);
+                }
+            }
+            else if (type == SPARSE_SECTION) {
+                int count = in.readUnsignedShort();
+                if (count > SPARSE_LIMIT) {
+                    throw new IOException("Sparse section has too many entries: " + count);
+                }
+                section.entries = new short[Math.max(count, INITIAL_SPARSE_CAPACITY)];
+                for (int entry = 0; entry < count; entry++) {
+                    short index = in.readShort();
+                    if (index < 0 || index >= BLOCKS_PER_SECTION || (entry > 0 && index <= section.entries[entry - 1])) {
+                        throw new IOException("Sparse section entries are out of order or out of range");
+                    }
+                    section.entries[entry] = index;
+                }
+                section.count = count;
+            }
+            else {
+                throw new IOException("Unknown section type " + type);
+            }
+
+            if (section.count > 0) {
+                saved.sections[sectionY] = section;
+            }
+        }
+
+        int currentWorldMin = BitSetChunkStore.getWorldMin(worldUid);
+        int currentWorldMax = BitSetChunkStore.getWorldMax(worldUid);
+        if (worldMin == currentWorldMin && worldMax == currentWorldMax) {
+            return saved;
+        }
+
+        // The world height has changed since this was saved, so move every block over to a store of the new height and drop any that no longer fit
+        SectionedChunkStore resized = new SectionedChunkStore(worldUid, currentWorldMin, currentWorldMax, cx, cz);
+        saved.forEachTrue((x, y, z) -> {
+            if (y >= currentWorldMin && y < currentWorldMax) {
+                resized.set(x, y, z, true);
+            }
+        });
+        resized.dirty = true;
+        return resized;
+    }
+
+    /**
+     * Runs the provided consumer for every block that is set in this store
+     */
+    void forEachTrue(@NotNull BlockConsumer consumer) {
+        for (int sectionY = 0; sectionY < sections.length; sectionY++) {
+            Section section = sections[sectionY];
+            if (section == null) {
+                continue;
+            }
+
+            int baseY = worldMin + sectionY * SECTION_HEIGHT;
+            if (section.bits != null) {
+                for (int word = 0; word < BITMAP_LENGTH; word++) {
+                    long bits = section.bits[word];
+                    while (bits != 0) {
+                        int index = (word << 6) | Long.numberOfTrailingZeros(bits);
+                        consumer.accept(index & 15, baseY + (index >>> 8), (index >>> 4) & 15);
+                        bits &= bits - 1;
+                    }
+                }
+            }
+            else {
+                for (int i = 0; i < section.count; i++) {
+                    int index = section.entries[i];
+                    consumer.accept(index & 15, baseY + (index >>> 8), (index >>> 4) & 15);
+                }
+            }
+        }
+    }
+
+    /**
+     * Consumes the chunk relative coordinates of a block
+     */
+    @FunctionalInterface
+    interface BlockConsumer {
+
+        void accept(int x, int y, int z);
+    }
+
+    /**
+     * The blocks set in a single 16 block tall section, either as a sorted list of block indices or as a bitmap once it has too many blocks
+     * for the list to be smaller
+     */
+    private static final class Section {
+
+        // Only used while the section is sparse
+        private short[] entries = new short[INITIAL_SPARSE_CAPACITY];
+        // Only used once the section is a bitmap
+        private long[] bits;
+        private int count;
+
+        private boolean get(int index) {
+            if (bits != null) {
+                return (bits[index >>> 6] & (1L << index)) != 0;
+            }
+            return Arrays.binarySearch(entries, 0, count, (short) index) >= 0;
+        }
+
+        /**
+         * Sets the provided block in this section
+         *
+         * @return {@code true} if the value of the block changed
+         */
+        private boolean set(int index, boolean value) {
+            if (bits != null) {
+                long mask = 1L << index;
+                boolean current = (bits[index >>> 6] & mask) != 0;
+                if (current == value) {
+                    return false;
+                }
+
+                if (value) {
+                    bits[index >>> 6] |= mask;
+                    count++;
+                }
+                else {
+                    bits[index >>> 6] &= ~mask;
+                    count--;
+                    if (count <= SPARSE_LIMIT / 2) {
+                        toSparse();
+                    }
+                }
+                return true;
+            }
+
+            int position = Arrays.binarySearch(entries, 0, count, (short) index);
+            if ((position >= 0) == value) {
+                return false;
+            }
+
+            if (value) {
+                if (count == SPARSE_LIMIT) {
+                    toBitmap();
+                    return set(index, true);
+                }
+
+                int insertAt = -position - 1;
+                if (count == entries.length) {
+                    entries = Arrays.copyOf(entries, entries.length * 2);
+                }
+                System.arraycopy(entries, insertAt, entries, insertAt + 1, count - insertAt);
+                entries[insertAt] = (short) index;
+                count++;
+            }
+            else {
+                System.arraycopy(entries, position + 1, entries, position, count - position - 1);
+                count--;
+            }
+            return true;
+        }
+
+        private void toBitmap() {
+            bits = new long[BITMAP_LENGTH];
+            for (int i = 0; i < count; i++) {
+                int index = entries[i];
+                bits[index >>> 6] |= 1L << index;
+            }
+            entries = null;
+        }
+
+        private void toSparse() {
+            entries = new short[Math.max(count, INITIAL_SPARSE_CAPACITY)];
+            int position = 0;
+            for (int word = 0; word < BITMAP_LENGTH; word++) {
+                long wordBits = bits[word];
+                while (wordBits != 0) {
+                    entries[position++] = (short) ((word << 6) | Long.numberOfTrailingZeros(wordBits));
+                    wordBits &= wordBits - 1;
+                }
+            }
+            bits = null;
+        }
+    }
+}
@@ -5,6 +5,10 @@ import us.eunoians.mcrpg.players.McRPGPlayer;
 import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
 
+/**
+ * @deprecated Parses the expression again on every check. Use {@link LimiterExpression}, which is compiled once when the wg_support.yml is loaded
+ */
+@Deprecated
 public class ActionLimiterParser extends McRPGParser {
 
   @Getter
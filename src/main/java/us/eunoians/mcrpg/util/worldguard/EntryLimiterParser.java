@@ -2,6 +2,10 @@ package us.eunoians.mcrpg.util.worldguard;
 
 import us.eunoians.mcrpg.players.McRPGPlayer;
 
+/**
+ * @deprecated Parses the expression again on every check. Use {@link LimiterExpression}, which is compiled once when the wg_support.yml is loaded
+ */
+@Deprecated
 public class EntryLimiterParser extends McRPGParser {
 
   public boolean evaluateExpression(McRPGPlayer player, String expression) {
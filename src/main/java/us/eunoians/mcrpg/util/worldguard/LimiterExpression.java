@@ -0,0 +1,241 @@
+package us.eunoians.mcrpg.util.worldguard;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import us.eunoians.mcrpg.abilities.BaseAbility;
+import us.eunoians.mcrpg.players.McRPGPlayer;
+import us.eunoians.mcrpg.skills.Skill;
+import us.eunoians.mcrpg.types.Skills;
+import us.eunoians.mcrpg.types.UnlockedAbilities;
+
+/**
+ * A limiter expression from the wg_support.yml such as {@code skill_level(mining) > 100}, compiled once when the file is loaded so that
+ * checking it against a player is only a lookup and a comparison instead of splitting and parsing the expression every time.
+ * <p>
+ * This understands the same expressions as {@link ActionLimiterParser} and {@link EntryLimiterParser}.
+ *
+ * @author DiamondDagger590
+ */
+public class LimiterExpression {
+
+  private final String expression;
+  private final Variable variable;
+  private final Comparison comparison;
+  private final int value;
+  @Nullable
+  private final Skills skill;
+  @Nullable
+  private final UnlockedAbilities ability;
+
+  private LimiterExpression(@NotNull String expression, @NotNull Variable variable, @NotNull Comparison comparison, int value,
+                            @Nullable Skills skill, @Nullable UnlockedAbilities ability) {
+    this.expression = expression;
+    this.variable = variable;
+    this.comparison = comparison;
+    this.value = value;
+    this.skill = skill;
+    this.ability = ability;
+  }
+
+  /**
+   * Compiles the provided expression
+   *
+   * @param expression The expression from the wg_support.yml
+   * @return The compiled expression, or {@code null} if the expression isn't valid
+   */
+  @Nullable
+  public static LimiterExpression compile(@NotNull String expression) {
+    String[] info = expression.trim().split(" ");
+    if(info.length != 3) {
+      return null;
+    }
+    Comparison comparison = Comparison.fromSign(info[1]);
+    if(comparison == null) {
+      return null;
+    }
+    int value;
+    try {
+      value = Integer.parseInt(info[2]);
+    }
+    catch(NumberFormatException e) {
+      return null;
+    }
+
+    String variableName = info[0];
+    if(Skills.isSkill(variableName)) {
+      return new LimiterExpression(expression, Variable.SKILL_LEVEL, comparison, value, Skills.fromString(variableName), null);
+    }
+    else if(variableName.equalsIgnoreCase("power_level")) {
+      return new LimiterExpression(expression, Variable.POWER_LEVEL, comparison, value, null, null);
+    }
+    else if(variableName.equalsIgnoreCase("power_level_difference")) {
+      return new LimiterExpression(expression, Variable.POWER_LEVEL_DIFFERENCE, comparison, value, null, null);
+    }
+
+    String parameter = getParameter(variableName);
+    if(variableName.contains("skill_difference") && Skills.isSkill(parameter)) {
+      return new LimiterExpression(expression, Variable.SKILL_DIFFERENCE, comparison, value, Skills.fromString(parameter), null);
+    }
+    else if(variableName.contains("skill_level")) {
+      if(parameter.equalsIgnoreCase("self")) {
+        return new LimiterExpression(expression, Variable.OWN_SKILL_LEVEL, comparison, value, null, null);
+      }
+      return Skills.isSkill(parameter) ? new LimiterExpression(expression, Variable.SKILL_LEVEL, comparison, value, Skills.fromString(parameter), null) : null;
+    }
+    else if(variableName.contains("ability_tier")) {
+      if(parameter.equalsIgnoreCase("self")) {
+        return new LimiterExpression(expression, Variable.OWN_ABILITY_TIER, comparison, value, null, null);
+      }
+      UnlockedAbilities ability = UnlockedAbilities.fromString(parameter);
+      return ability != null ? new LimiterExpression(expression, Variable.ABILITY_TIER, comparison, value, null, ability) : null;
+    }
+    return null;
+  }
+
+  /**
+   * Checks this expression against a single player. Expressions that compare against a second player or that need to know the skill or
+   * ability being used are never met by this.
+   *
+   * @param player The player to check
+   * @return {@code true} if the condition is met
+   */
+  public boolean test(@NotNull McRPGPlayer player) {
+    switch(variable) {
+      case SKILL_LEVEL:
+        return comparison.test(getSkillLevel(player, skill), value);
+      case POWER_LEVEL:
+        return comparison.test(player.getPowerLevel(), value);
+      case ABILITY_TIER:
+        return comparison.test(getAbilityTier(player, ability), value);
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Checks this expression for a player attacking another player, which is the only way the {@code difference} expressions are met
+   *
+   * @param player The attacking player
+   * @param target The player being attacked
+   * @return {@code true} if the condition is met
+   */
+  public boolean test(@NotNull McRPGPlayer player, @NotNull McRPGPlayer target) {
+    switch(variable) {
+      case POWER_LEVEL_DIFFERENCE:
+        return comparison.test(player.getPowerLevel() - target.getPowerLevel(), value);
+      case SKILL_DIFFERENCE:
+        return comparison.test(getSkillLevel(player, skill) - getSkillLevel(target, skill), value);
+      default:
+        return test(player);
+    }
+  }
+
+  /**
+   * Checks a {@code skill_level(self)} expression against the provided player's level in the provided skill
+   *
+   * @param player The player to check
+   * @param skill  The skill that {@code self} refers to
+   * @return {@code true} if this is a {@code skill_level(self)} expression and the condition is met
+   */
+  public boolean test(@NotNull McRPGPlayer player, @NotNull Skills skill) {
+    return variable == Variable.OWN_SKILL_LEVEL && comparison.test(getSkillLevel(player, skill), value);
+  }
+
+  /**
+   * Checks an {@code ability_tier(self)} expression against the provided player's tier of the provided ability
+   *
+   * @param player  The player to check
+   * @param ability The ability that {@code self} refers to
+   * @return {@code true} if this is an {@code ability_tier(self)} expression and the condition is met
+   */
+  public boolean test(@NotNull McRPGPlayer player, @NotNull UnlockedAbilities ability) {
+    return variable == Variable.OWN_ABILITY_TIER && comparison.test(getAbilityTier(player, ability), value);
+  }
+
+  /**
+   * Checks if this expression compares against a second player and so can only be met by {@link #test(McRPGPlayer, McRPGPlayer)}
+   *
+   * @return {@code true} if this expression compares two players
+   */
+  public boolean isDifference() {
+    return variable == Variable.POWER_LEVEL_DIFFERENCE || variable == Variable.SKILL_DIFFERENCE;
+  }
+
+  @NotNull
+  public String getExpression() {
+    return expression;
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  private static int getSkillLevel(@NotNull McRPGPlayer player, @Nullable Skills skillType) {
+    Skill playerSkill = skillType == null ? null : player.getSkill(skillType);
+    return playerSkill == null ? 0 : playerSkill.getCurrentLevel();
+  }
+
+  private static int getAbilityTier(@NotNull McRPGPlayer player, @Nullable UnlockedAbilities abilityType) {
+    BaseAbility baseAbility = player.getBaseAbility(abilityType);
+    return baseAbility == null ? 0 : baseAbility.getCurrentTier();
+  }
+
+  @NotNull
+  private static String getParameter(@NotNull String variableName) {
+    int start = variableName.indexOf('(');
+    int end = variableName.lastIndexOf(')');
+    if(start == -1) {
+      return "";
+    }
+    return variableName.substring(start + 1, end > start ? end : variableName.length());
+  }
+
+  private enum Variable {
+    SKILL_LEVEL,
+    OWN_SKILL_LEVEL,
+    POWER_LEVEL,
+    POWER_LEVEL_DIFFERENCE,
+    SKILL_DIFFERENCE,
+    ABILITY_TIER,
+    OWN_ABILITY_TIER
+  }
+
+  private enum Comparison {
+    GREATER,
+    GREATER_OR_EQUAL,
+    LESS,
+    LESS_OR_EQUAL;
+
+    @Nullable
+    private static Comparison fromSign(@NotNull String sign) {
+      switch(sign) {
+        case ">":
+          return GREATER;
+        case ">=":
+        case "=>":
+          return GREATER_OR_EQUAL;
+        case "<":
+          return LESS;
+        case "<=":
+        case "=<":
+          return LESS_OR_EQUAL;
+        default:
+          return null;
+      }
+    }
+
+    private boolean test(int first, int second) {
+      switch(this) {
+        case GREATER:
+          return first > second;
+        case GREATER_OR_EQUAL:
+          return first >= second;
+        case LESS:
+          return first < second;
+        default:
+          return first <= second;
+      }
+    }
+  }
+}
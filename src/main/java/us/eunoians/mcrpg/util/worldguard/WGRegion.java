@@ -5,6 +5,8 @@ import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.EntityType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import us.eunoians.mcrpg.McRPG;
 import us.eunoians.mcrpg.api.util.FileManager;
 import us.eunoians.mcrpg.api.util.Methods;
@@ -12,31 +14,37 @@ import us.eunoians.mcrpg.types.ActionParserType;
 import us.eunoians.mcrpg.types.Skills;
 import us.eunoians.mcrpg.types.UnlockedAbilities;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class WGRegion {
 
   @Getter
   boolean failedLoad = false;
   @Getter
-  private HashMap<Material, List<String>> breakExpressions = new HashMap<>();
+  private HashMap<Material, List<LimiterExpression>> breakExpressions = new HashMap<>();
   @Getter
-  private HashMap<EntityType, List<String>> attackExpressions = new HashMap<>();
+  private HashMap<EntityType, List<LimiterExpression>> attackExpressions = new HashMap<>();
   @Getter
-  private HashMap<String, List<String>> expGainExpressions = new HashMap<>();
+  private HashMap<String, List<LimiterExpression>> expGainExpressions = new HashMap<>();
   @Getter
-  private HashMap<String, List<String>> abilityExpressions = new HashMap<>();
+  private HashMap<String, List<LimiterExpression>> abilityExpressions = new HashMap<>();
   @Getter
-  private List<String> enterExpressions;
+  private List<LimiterExpression> enterExpressions = new ArrayList<>();
   @Getter
   private double expMultiplier;
 
   public WGRegion(String key) {
     FileConfiguration config = McRPG.getInstance().getFileManager().getFile(FileManager.Files.WORLDGUARD_CONFIG);
     expMultiplier = config.getDouble(key + "RegionExpMultiplier");
-    enterExpressions = config.getStringList(key + "McRPGLimiters.BanEntry");
+    for(String s : config.getStringList(key + "McRPGLimiters.BanEntry")) {
+      LimiterExpression expression = compileExpression(key, s);
+      if(expression != null) {
+        enterExpressions.add(expression);
+      }
+    }
     List<String> actionExpressions = config.getStringList(key + "McRPGLimiters.BanAction");
     for(String s : actionExpressions) {
       String[] info = s.split("-");
@@ -55,12 +63,7 @@ public class WGRegion {
           failedLoad = true;
           return;
         }
-        if(breakExpressions.containsKey(mat)) {
-          breakExpressions.get(mat).add(info[2]);
-        }
-        else {
-          breakExpressions.put(mat, Collections.singletonList(info[2]));
-        }
+        addExpression(breakExpressions, mat, key, info[2]);
       }
       else if(type == ActionParserType.ATTACK) {
         EntityType entityType = EntityType.fromName(info[1]);
@@ -70,12 +73,7 @@ public class WGRegion {
           failedLoad = true;
           return;
         }
-        if(attackExpressions.containsKey(entityType)) {
-          attackExpressions.get(entityType).add(info[2]);
-        }
-        else {
-          attackExpressions.put(entityType, Collections.singletonList(info[2]));
-        }
+        addExpression(attackExpressions, entityType, key, info[2]);
       }
       else if(type == ActionParserType.EXP_GAIN) {
         if(!(info[1].equalsIgnoreCase("all") || Skills.isSkill(info[1]))) {
@@ -84,12 +82,7 @@ public class WGRegion {
           failedLoad = true;
           return;
         }
-        if(expGainExpressions.containsKey(info[1])) {
-          expGainExpressions.get(info[1]).add(info[2]);
-        }
-        else {
-          expGainExpressions.put(info[1], Collections.singletonList(info[2]));
-        }
+        addExpression(expGainExpressions, info[1], key, info[2]);
       }
       else if(type == ActionParserType.ABILITY_ACTIVATE) {
         String abilityString = info[1];
@@ -98,13 +91,24 @@ public class WGRegion {
                   McRPG.getInstance().getLangFile().getString("Messages.WorldGuard.InvalidAbilityParameter").replace("%path%", key)));
           failedLoad = true;
         }
-        if(abilityExpressions.containsKey(abilityString)){
-          abilityExpressions.get(abilityString).add(info[2]);
-        }
-        else{
-          abilityExpressions.put(abilityString, Collections.singletonList(info[2]));
-        }
+        addExpression(abilityExpressions, abilityString, key, info[2]);
       }
     }
   }
+
+  private static <T> void addExpression(@NotNull Map<T, List<LimiterExpression>> expressions, @NotNull T type, @NotNull String key, @NotNull String expression) {
+    LimiterExpression limiterExpression = compileExpression(key, expression);
+    if(limiterExpression != null) {
+      expressions.computeIfAbsent(type, t -> new ArrayList<>()).add(limiterExpression);
+    }
+  }
+
+  @Nullable
+  private static LimiterExpression compileExpression(@NotNull String key, @NotNull String expression) {
+    LimiterExpression limiterExpression = LimiterExpression.compile(expression);
+    if(limiterExpression == null) {
+      McRPG.getInstance().getLogger().warning("The limiter expression '" + expression + "' at " + key + "McRPGLimiters is invalid and will be ignored.");
+    }
+    return limiterExpression;
+  }
 }
@@ -0,0 +1,176 @@
+package us.eunoians.mcrpg.util.worldguard;
+
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.math.BlockVector3;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.ApplicableRegionSet;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedCuboidRegion;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Remembers which of the regions set up in the wg_support.yml apply at each position, so that the listeners checking limiter expressions
+ * don't have to ask WorldGuard for the regions at a position every time something happens there.
+ * <p>
+ * Positions are cached by chunk section (16x16x16 blocks) when every tracked region touching the section covers all of it, which is
+ * the case everywhere except near region edges, and by block otherwise. WorldGuard doesn't say when regions change, so a world's cache is
+ * thrown out whenever its region manager is replaced (such as by {@code /rg reload}) or its amount of regions changes, and otherwise
+ * every {@code Configuration.WorldGuardRegionCacheSeconds} seconds.
+ *
+ * @author DiamondDagger590
+ */
+public class WGRegionCache {
+
+  private static final String SECTION_PROBE_ID = "mcrpg_section_probe";
+  private static final int MAX_CACHED_BLOCKS = 100000;
+
+  //Marks a section that regions only partly cover, so it has to be cached by block instead
+  private static final List<WGRegion> SPLIT_SECTION = Collections.unmodifiableList(new ArrayList<>());
+
+  private final WGSupportManager supportManager;
+  private final long cacheMillis;
+  private final Map<UUID, WorldCache> worldCaches = new HashMap<>();
+
+  public WGRegionCache(@NotNull WGSupportManager supportManager, long cacheMillis) {
+    this.supportManager = supportManager;
+    this.cacheMillis = cacheMillis;
+  }
+
+  /**
+   * Gets the regions from the wg_support.yml that apply at the provided location, in the same order WorldGuard would give them
+   *
+   * @param location The location to get the regions at
+   * @return The {@link WGRegion}s at that location, which is empty if there are none or the world isn't tracked
+   */
+  @NotNull
+  public List<WGRegion> getRegions(@NotNull Location location) {
+    World world = location.getWorld();
+    if(world == null) {
+      return Collections.emptyList();
+    }
+    Map<String, WGRegion> trackedRegions = supportManager.getRegionManager().get(world);
+    RegionManager regionManager = WorldGuard.getInstance().getPlatform().getRegionContainer().get(BukkitAdapter.adapt(world));
+    if(trackedRegions == null || regionManager == null) {
+      return Collections.emptyList();
+    }
+
+    int x = location.getBlockX();
+    int y = location.getBlockY();
+    int z = location.getBlockZ();
+    if(cacheMillis <= 0) {
+      return toTrackedRegions(regionManager.getApplicableRegions(BlockVector3.at(x, y, z)), trackedRegions);
+    }
+
+    long now = System.currentTimeMillis();
+    WorldCache worldCache = worldCaches.get(world.getUID());
+    if(worldCache == null || !worldCache.isValid(regionManager, now, cacheMillis)) {
+      worldCache = new WorldCache(regionManager, now);
+      worldCaches.put(world.getUID(), worldCache);
+    }
+
+    long sectionKey = getSectionKey(x >> 4, y >> 4, z >> 4);
+    List<WGRegion> regions = worldCache.sections.get(sectionKey);
+    if(regions == null) {
+      regions = getSectionRegions(regionManager, trackedRegions, x >> 4, y >> 4, z >> 4);
+      worldCache.sections.put(sectionKey, regions);
+    }
+    if(regions != SPLIT_SECTION) {
+      return regions;
+    }
+
+    long blockKey = getBlockKey(x, y, z);
+    regions = worldCache.blocks.get(blockKey);
+    if(regions == null) {
+      if(worldCache.blocks.size() >= MAX_CACHED_BLOCKS) {
+        worldCache.blocks.clear();
+      }
+      regions = toTrackedRegions(regionManager.getApplicableRegions(BlockVector3.at(x, y, z)), trackedRegions);
+      worldCache.blocks.put(blockKey, regions);
+    }
+    return regions;
+  }
+
+  /**
+   * Throws out everything cached, for use when regions are known to have changed
+   */
+  public void invalidate() {
+    worldCaches.clear();
+  }
+
+  /**
+   * Gets the tracked regions that cover the whole of the provided section, or {@link #SPLIT_SECTION} if any tracked region only covers part
+   * of it or isn't a cuboid
+   */
+  @NotNull
+  private static List<WGRegion> getSectionRegions(@NotNull RegionManager regionManager, @NotNull Map<String, WGRegion> trackedRegions,
+                                                  int sectionX, int sectionY, int sectionZ) {
+    BlockVector3 min = BlockVector3.at(sectionX << 4, sectionY << 4, sectionZ << 4);
+    BlockVector3 max = min.add(15, 15, 15);
+    ApplicableRegionSet touchingRegions = regionManager.getApplicableRegions(new ProtectedCuboidRegion(SECTION_PROBE_ID, min, max));
+    for(ProtectedRegion region : touchingRegions) {
+      if(trackedRegions.containsKey(region.getId())
+           && !(region instanceof ProtectedCuboidRegion && region.contains(min) && region.contains(max))) {
+        return SPLIT_SECTION;
+      }
+    }
+    return toTrackedRegions(touchingRegions, trackedRegions);
+  }
+
+  @NotNull
+  private static List<WGRegion> toTrackedRegions(@NotNull ApplicableRegionSet applicableRegions, @NotNull Map<String, WGRegion> trackedRegions) {
+    List<ProtectedRegion> matchingRegions = new ArrayList<>();
+    for(ProtectedRegion region : applicableRegions) {
+      if(trackedRegions.containsKey(region.getId())) {
+        matchingRegions.add(region);
+      }
+    }
+    if(matchingRegions.isEmpty()) {
+      return Collections.emptyList();
+    }
+    //Highest priority first, the same as WorldGuard sorts them
+    Collections.sort(matchingRegions);
+    List<WGRegion> regions = new ArrayList<>(matchingRegions.size());
+    for(ProtectedRegion region : matchingRegions) {
+      regions.add(trackedRegions.get(region.getId()));
+    }
+    return Collections.unmodifiableList(regions);
+  }
+
+  private static long getSectionKey(int sectionX, int sectionY, int sectionZ) {
+    return ((long) sectionX & 0x3FFFFF) | (((long) sectionZ & 0x3FFFFF) << 22) | (((long) sectionY & 0xFFFFF) << 44);
+  }
+
+  private static long getBlockKey(int x, int y, int z) {
+    return ((long) x & 0x7FFFFFF) | (((long) z & 0x7FFFFFF) << 27) | (((long) y & 0x3FF) << 54);
+  }
+
+  private static class WorldCache {
+
+    private final RegionManager regionManager;
+    private final int regionCount;
+    private final long createdAt;
+    private final Map<Long, List<WGRegion>> sections = new HashMap<>();
+    private final Map<Long, List<WGRegion>> blocks = new HashMap<>();
+
+    private WorldCache(@NotNull RegionManager regionManager, long createdAt) {
+      this.regionManager = regionManager;
+      this.regionCount = regionManager.size();
+      this.createdAt = createdAt;
+    }
+
+    private boolean isValid(@Nullable RegionManager currentRegionManager, long now, long cacheMillis) {
+      return currentRegionManager == regionManager && currentRegionManager.size() == regionCount && now - createdAt < cacheMillis;
+    }
+  }
+}
@@ -13,10 +13,14 @@ public class WGSupportManager {
 
   @Getter
   private HashMap<World, HashMap<String, WGRegion>> regionManager = new HashMap<>();
+  @Getter
+  private final WGRegionCache regionCache;
 
 
   public WGSupportManager(McRPG plugin){
     FileConfiguration config = plugin.getFileManager().getFile(FileManager.Files.WORLDGUARD_CONFIG);
+    long cacheMillis = Math.max(0, plugin.getFileManager().getFile(FileManager.Files.CONFIG).getInt("Configuration.WorldGuardRegionCacheSeconds", 5)) * 1000L;
+    regionCache = new WGRegionCache(this, cacheMillis);
 
     for(String s : config.getConfigurationSection("WorldGuardSupport").getKeys(false)){
       if(s.equals("TestRegion")){
@@ -0,0 +1,53 @@
+package us.eunoians.mcrpg.api.leaderboards;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a {@link LeaderboardIndex} ranks players the same way the database does and that a paged leaderboard never ranks a
+ * player over someone it isn't holding
+ *
+ * @author DiamondDagger590
+ */
+public class LeaderboardIndexTest {
+
+    @Test
+    public void tiedPlayersShareRank() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        LeaderboardIndex leaderboardIndex = LeaderboardIndex.empty().update(first, 50).update(second, 50).update(third, 10);
+
+        //The same as RANK() in the database: 1, 1, 3
+        assertEquals(1, leaderboardIndex.getRank(first));
+        assertEquals(1, leaderboardIndex.getRank(second));
+        assertEquals(3, leaderboardIndex.getRank(third));
+    }
+
+    @Test
+    public void trimmedPlayersRaiseMinimumLevel() {
+        UUID top = UUID.randomUUID();
+        UUID middle = UUID.randomUUID();
+        UUID bottom = UUID.randomUUID();
+        LeaderboardIndex leaderboardIndex = LeaderboardIndex.empty().update(top, 30).update(middle, 20).update(bottom, 10).trim(2);
+
+        assertEquals(2, leaderboardIndex.size());
+        assertEquals(10, leaderboardIndex.getMinimumLevel());
+        assertEquals(-1, leaderboardIndex.getRank(bottom));
+    }
+
+    @Test
+    public void playersBelowMinimumLevelAreTakenOff() {
+        UUID top = UUID.randomUUID();
+        UUID dropped = UUID.randomUUID();
+        LeaderboardIndex leaderboardIndex = LeaderboardIndex.empty().update(top, 30).update(dropped, 20).withMinimumLevel(15);
+
+        //Players who weren't loaded could be at level 15, so someone dropping to 5 can't be ranked from here anymore
+        leaderboardIndex = leaderboardIndex.update(dropped, 5);
+        assertEquals(-1, leaderboardIndex.getRank(dropped));
+        assertEquals(1, leaderboardIndex.size());
+    }
+}
@@ -0,0 +1,112 @@
+package us.eunoians.mcrpg.util;
+
+import org.junit.jupiter.api.Test;
+import us.eunoians.mcrpg.types.Skills;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a {@link CompiledExpression} gives the same results as the {@link Parser} it replaced for every equation in the default configs
+ *
+ * @author DiamondDagger590
+ */
+public class CompiledExpressionTest {
+
+    private static final Path RESOURCES = Paths.get("src", "main", "resources");
+    //Keys in the default configs whose values are equations
+    private static final Pattern EQUATION_LINE = Pattern.compile("^\\s*\\w*(?:Equation|Chance):\\s*(.+?)\\s*$");
+    private static final double[] VARIABLE_VALUES = {0, 1, 3, 25, 100, 1000};
+
+    @Test
+    public void defaultEquationsMatchParser() throws IOException {
+        List<String> equations = readDefaultEquations();
+        assertFalse(equations.isEmpty(), "No equations were found in " + RESOURCES.toAbsolutePath());
+
+        for (String equation : equations) {
+            CompiledExpression compiledExpression = new CompiledExpression(equation);
+            Set<String> variables = new Parser(equation).getParsedVariables();
+
+            for (double value : VARIABLE_VALUES) {
+                Parser parser = new Parser(equation);
+                ExpressionEvaluation evaluation = compiledExpression.newEvaluation();
+                for (String variable : variables) {
+                    parser.setVariable(variable, value);
+                    evaluation.setVariable(variable, value);
+                }
+                double expected = parser.getValue();
+                assertEquals(expected, evaluation.getValue(), Math.abs(expected) * 1e-12, equation + " with every variable set to " + value);
+            }
+        }
+    }
+
+    @Test
+    public void unknownVariablesAreRejected() {
+        CompiledExpression expression = new CompiledExpression("2000+(20*(skil_level))");
+        assertThrows(ParseError.class, () -> expression.requireVariables(Set.of("skill_level", "power_level")));
+    }
+
+    @Test
+    public void knownVariablesAreAccepted() {
+        CompiledExpression expression = new CompiledExpression("2000+(20*(skill_level))+power_level");
+        assertSame(expression, expression.requireVariables(Set.of("skill_level", "power_level")));
+    }
+
+    @Test
+    public void skillExpEquationsAcceptPartyLevel() {
+        CompiledExpression expression = new CompiledExpression("2000+(20*(skill_level))+(5*party_level)");
+        assertSame(expression, expression.requireVariables(Skills.EXP_EQUATION_VARIABLES));
+    }
+
+    @Test
+    public void skillExpEquationsAcceptDocumentedPlaceholders() throws IOException {
+        Pattern placeholder = Pattern.compile("^#\\s*%(\\w+)%");
+        try (Stream<Path> paths = Files.list(RESOURCES.resolve("skills"))) {
+            for (Path file : paths.filter(path -> path.toString().endsWith(".yml")).collect(Collectors.toList())) {
+                for (String line : Files.readAllLines(file)) {
+                    Matcher matcher = placeholder.matcher(line);
+                    if (matcher.find()) {
+                        assertTrue(Skills.EXP_EQUATION_VARIABLES.contains(matcher.group(1)), matcher.group(1) + " is documented in " + file + " but rejected");
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<String> readDefaultEquations() throws IOException {
+        List<String> equations = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(RESOURCES)) {
+            files = paths.filter(path -> path.toString().endsWith(".yml")).collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            for (String line : Files.readAllLines(file)) {
+                Matcher matcher = EQUATION_LINE.matcher(line);
+                if (!matcher.matches()) {
+                    continue;
+                }
+                String equation = matcher.group(1).replace("'", "").replace("\"", "");
+                //rand is rolled on every evaluation so two evaluations can never be compared
+                if (!equation.isEmpty() && !equation.startsWith("#") && !equation.contains("rand")) {
+                    equations.add(equation);
+                }
+            }
+        }
+        return equations;
+    }
+}
@@ -0,0 +1,126 @@
+package us.eunoians.mcrpg.util.blockmeta;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a {@link McMMOSimpleRegionFile} finishes a header change from its journal when the file was closed before the header could
+ * be written, and that a journal which fails its checksum leaves the chunk pointing at its old data
+ *
+ * @author DiamondDagger590
+ */
+public class McMMOSimpleRegionFileTest {
+
+    private static final int SEEK_JOURNAL = 8196;
+    private static final int JOURNAL_MAGIC = 0x4D434A4E;
+    private static final int SEGMENT_EXPONENT = 10;
+
+    private static final int CHUNK_X = 3;
+    private static final int CHUNK_Z = 4;
+    private static final int CHUNK_INDEX = (CHUNK_X << 5) + CHUNK_Z;
+
+    private static final int OLD_VALUE = 111;
+    private static final int NEW_VALUE = 222;
+
+    @Test
+    public void journalIsReplayedWhenHeaderWasNotWritten() throws IOException {
+        File file = createRegionWithValue(OLD_VALUE);
+        writeUnappliedChange(file, NEW_VALUE, false);
+
+        assertEquals(NEW_VALUE, readValue(file));
+        //The replayed header is on the disk now, so opening the file again with an empty journal still finds the new data
+        assertEquals(NEW_VALUE, readValue(file));
+    }
+
+    @Test
+    public void journalWithBadChecksumIsIgnored() throws IOException {
+        File file = createRegionWithValue(OLD_VALUE);
+        writeUnappliedChange(file, NEW_VALUE, true);
+
+        assertEquals(OLD_VALUE, readValue(file));
+    }
+
+    @Test
+    public void completedWritesSurviveReopening() throws IOException {
+        File file = createRegionWithValue(OLD_VALUE);
+        McMMOSimpleRegionFile regionFile = new McMMOSimpleRegionFile(file, 0, 0);
+        try (DataOutputStream outputStream = regionFile.getOutputStream(CHUNK_X, CHUNK_Z)) {
+            outputStream.writeInt(NEW_VALUE);
+        }
+        finally {
+            regionFile.close();
+        }
+
+        assertEquals(NEW_VALUE, readValue(file));
+    }
+
+    private static File createRegionWithValue(int value) throws IOException {
+        File file = File.createTempFile("mcmmo_0_0", ".mcm");
+        file.deleteOnExit();
+        //The region file writes its own header into an empty file
+        assertTrue(file.delete());
+
+        McMMOSimpleRegionFile regionFile = new McMMOSimpleRegionFile(file, 0, 0);
+        try (DataOutputStream outputStream = regionFile.getOutputStream(CHUNK_X, CHUNK_Z)) {
+            outputStream.writeInt(value);
+        }
+        finally {
+            regionFile.close();
+        }
+        return file;
+    }
+
+    /**
+     * Does everything a write does up to the header: the new data is appended after the old data and the journal points at it, but the
+     * header still points at the old data, the same as if the server stopped right before writing it
+     */
+    private static void writeUnappliedChange(File file, int value, boolean corruptChecksum) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (DataOutputStream outputStream = new DataOutputStream(new DeflaterOutputStream(compressed))) {
+            outputStream.writeInt(value);
+        }
+        byte[] data = compressed.toByteArray();
+
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            int segmentSize = 1 << SEGMENT_EXPONENT;
+            int segmentIndex = (int) ((randomAccessFile.length() + segmentSize - 1) >> SEGMENT_EXPONENT);
+            randomAccessFile.seek((long) segmentIndex << SEGMENT_EXPONENT);
+            randomAccessFile.write(data);
+
+            CRC32 crc = new CRC32();
+            crc.update(ByteBuffer.allocate(16).putInt(JOURNAL_MAGIC).putInt(CHUNK_INDEX).putInt(segmentIndex).putInt(data.length).array());
+            int checksum = (int) crc.getValue();
+            if (corruptChecksum) {
+                checksum ^= 1;
+            }
+
+            randomAccessFile.seek(SEEK_JOURNAL);
+            randomAccessFile.write(ByteBuffer.allocate(20).putInt(JOURNAL_MAGIC).putInt(CHUNK_INDEX).putInt(segmentIndex).putInt(data.length)
+                    .putInt(checksum).array());
+        }
+    }
+
+    private static int readValue(File file) throws IOException {
+        McMMOSimpleRegionFile regionFile = new McMMOSimpleRegionFile(file, 0, 0);
+        try (DataInputStream inputStream = regionFile.getInputStream(CHUNK_X, CHUNK_Z)) {
+            assertNotNull(inputStream);
+            return inputStream.readInt();
+        }
+        finally {
+            regionFile.close();
+        }
+    }
+}
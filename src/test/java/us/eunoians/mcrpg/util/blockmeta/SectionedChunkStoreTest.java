@@ -0,0 +1,299 @@
+package us.eunoians.mcrpg.util.blockmeta;
+
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a {@link SectionedChunkStore} reads back exactly what it wrote in format version {@value SectionedChunkStore#FORMAT_VERSION},
+ * and that chunks saved in the older formats are read into the same blocks
+ *
+ * @author DiamondDagger590
+ */
+public class SectionedChunkStoreTest {
+
+    //The stream magic, store magic, version, world uuid, chunk coordinates, world height and section count that come before the sections
+    private static final int HEADER_LENGTH = 2 + 4 + 4 + 16 + 8 + 8 + 2;
+    private static final String LEGACY_CLASS_NAME = "com.gmail.nossr50.util.blockmeta.chunkmeta.PrimitiveChunkStore";
+
+    @Test
+    public void emptyStoreRoundTrips() throws IOException {
+        World world = TestWorlds.create(-64, 320);
+        SectionedChunkStore store = new SectionedChunkStore(world, 3, -7);
+
+        byte[] bytes = write(store);
+        assertEquals(HEADER_LENGTH, bytes.length);
+
+        ChunkStore read = read(bytes);
+        assertTrue(read.isEmpty());
+        assertEquals(3, read.getChunkX());
+        assertEquals(-7, read.getChunkZ());
+        assertEquals(world.getUID(), read.getWorldId());
+    }
+
+    @Test
+    public void sparseSectionRoundTrips() throws IOException {
+        World world = TestWorlds.create(-64, 320);
+        SectionedChunkStore store = new SectionedChunkStore(world, 0, 0);
+        store.setTrue(3, -64 + 17, 5);
+
+        byte[] bytes = write(store);
+        //One sparse section: section y, type, entry count and then each entry
+        assertEquals(HEADER_LENGTH + 2 + 1 + 2 + 2, bytes.length);
+        ByteBuffer section = ByteBuffer.wrap(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        assertEquals(1, section.getShort());
+        assertEquals(0, section.get());
+        assertEquals(1, section.getShort());
+        assertEquals((1 << 8) | (5 << 4) | 3, section.getShort());
+
+        assertSameBlocks(Set.of(new BlockPosition(3, -64 + 17, 5)), read(bytes), world);
+    }
+
+    @Test
+    public void bitmapSectionRoundTrips() throws IOException {
+        World world = TestWorlds.create(-64, 320);
+        SectionedChunkStore store = new SectionedChunkStore(world, 0, 0);
+        Set<BlockPosition> placed = placeRandomBlocks(store, new Random(1), 300, 0, 16);
+        placed.add(new BlockPosition(15, 15, 15));
+        store.setTrue(15, 15, 15);
+
+        byte[] bytes = write(store);
+        //One bitmap section: section y, type and a bit for every block in the section
+        assertEquals(HEADER_LENGTH + 2 + 1 + 4096 / 8, bytes.length);
+        ByteBuffer section = ByteBuffer.wrap(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        assertEquals(4, section.getShort());
+        assertEquals(1, section.get());
+        int index = (15 << 8) | (15 << 4) | 15;
+        long word = ByteBuffer.wrap(bytes, HEADER_LENGTH + 3 + (index >>> 6) * 8, 8).getLong();
+        assertTrue((word & (1L << index)) != 0);
+
+        assertSameBlocks(placed, read(bytes), world);
+    }
+
+    @Test
+    public void negativeAndEdgeHeightsRoundTrip() throws IOException {
+        World world = TestWorlds.create(-64, 320);
+        SectionedChunkStore store = new SectionedChunkStore(world, -1, 1);
+        Set<BlockPosition> placed = placeRandomBlocks(store, new Random(2), 500, -64, 320);
+        for (BlockPosition position : new BlockPosition[]{new BlockPosition(0, -64, 0), new BlockPosition(15, -1, 15),
+            new BlockPosition(7, 0, 8), new BlockPosition(15, 319, 0)}) {
+            store.setTrue(position.x(), position.y(), position.z());
+            placed.add(position);
+        }
+
+        ChunkStore read = read(write(store));
+        assertSameBlocks(placed, read, world);
+        assertFalse(read.isDirty());
+    }
+
+    @Test
+    public void sectionsGoBackToSparseOnceMostBlocksAreRemoved() throws IOException {
+        World world = TestWorlds.create(-64, 320);
+        SectionedChunkStore store = new SectionedChunkStore(world, 0, 0);
+        Set<BlockPosition> placed = placeRandomBlocks(store, new Random(3), 200, 32, 48);
+        Set<BlockPosition> kept = new HashSet<>();
+        int remaining = 0;
+        for (BlockPosition position : placed) {
+            if (remaining++ < 20) {
+                kept.add(position);
+            }
+            else {
+                store.setFalse(position.x(), position.y(), position.z());
+            }
+        }
+
+        byte[] bytes = write(store);
+        assertEquals(HEADER_LENGTH + 2 + 1 + 2 + 2 * kept.size(), bytes.length);
+        assertSameBlocks(kept, read(bytes), world);
+    }
+
+    @Test
+    public void version9StoreIsMigrated() throws IOException {
+        World world = TestWorlds.create(-64, 320);
+        Set<BlockPosition> placed = new HashSet<>(Set.of(new BlockPosition(0, -64, 0), new BlockPosition(4, -1, 9),
+            new BlockPosition(15, 0, 15), new BlockPosition(1, 200, 2), new BlockPosition(8, 319, 8)));
+
+        ChunkStore read = read(writeBitSetFormat(9, world.getUID(), 2, 3, -64, 320, placed));
+        assertInstanceOf(SectionedChunkStore.class, read);
+        assertTrue(read.isDirty());
+        assertEquals(2, read.getChunkX());
+        assertEquals(3, read.getChunkZ());
+        assertSameBlocks(placed, read, world);
+
+        //Written back in the current format without losing anything
+        assertSameBlocks(placed, read(write(read)), world);
+    }
+
+    @Test
+    public void version8StoreIsMigrated() throws IOException {
+        World world = TestWorlds.create(0, 256);
+        Set<BlockPosition> placed = new HashSet<>(Set.of(new BlockPosition(0, 0, 0), new BlockPosition(12, 64, 3), new BlockPosition(15, 255, 15)));
+
+        ChunkStore read = read(writeBitSetFormat(8, world.getUID(), 0, 0, 0, 256, placed));
+        assertInstanceOf(SectionedChunkStore.class, read);
+        assertSameBlocks(placed, read, world);
+    }
+
+    @Test
+    public void legacyStoreIsMigrated() throws IOException {
+        World world = TestWorlds.create(-64, 320);
+        Set<BlockPosition> placed = new HashSet<>(Set.of(new BlockPosition(0, 0, 0), new BlockPosition(5, 63, 11), new BlockPosition(15, 255, 15)));
+        boolean[][][] legacyStore = new boolean[16][16][256];
+        for (BlockPosition position : placed) {
+            legacyStore[position.x()][position.z()][position.y()] = true;
+        }
+
+        ChunkStore read = read(writeLegacyFormat(new LegacyChunkStore(world.getUID(), 4, -4, legacyStore)));
+        assertInstanceOf(SectionedChunkStore.class, read);
+        assertTrue(read.isDirty());
+        assertEquals(4, read.getChunkX());
+        assertEquals(-4, read.getChunkZ());
+        assertSameBlocks(placed, read, world);
+    }
+
+    private static Set<BlockPosition> placeRandomBlocks(ChunkStore store, Random random, int count, int minY, int maxY) {
+        Set<BlockPosition> placed = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            BlockPosition position = new BlockPosition(random.nextInt(16), minY + random.nextInt(maxY - minY), random.nextInt(16));
+            store.setTrue(position.x(), position.y(), position.z());
+            placed.add(position);
+        }
+        return placed;
+    }
+
+    private static void assertSameBlocks(Set<BlockPosition> expected, ChunkStore store, World world) {
+        assertEquals(world.getMinHeight(), store.getChunkMin());
+        assertEquals(world.getMaxHeight(), store.getChunkMax());
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                for (int y = world.getMinHeight(); y < world.getMaxHeight(); y++) {
+                    assertEquals(expected.contains(new BlockPosition(x, y, z)), store.isTrue(x, y, z), "Block at " + x + ", " + y + ", " + z);
+                }
+            }
+        }
+    }
+
+    private static byte[] write(ChunkStore store) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            BitSetChunkStore.Serialization.writeChunkStore(out, store);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ChunkStore read(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return BitSetChunkStore.Serialization.readChunkStore(in);
+        }
+    }
+
+    /**
+     * Writes a chunk the way {@link BitSetChunkStore} used to before format version {@value SectionedChunkStore#FORMAT_VERSION}
+     */
+    private static byte[] writeBitSetFormat(int version, UUID worldUid, int cx, int cz, int worldMin, int worldMax, Set<BlockPosition> placed) throws IOException {
+        BitSet bits = new BitSet();
+        for (BlockPosition position : placed) {
+            bits.set((position.z() * 16 + position.x()) + 256 * (position.y() - worldMin));
+        }
+        byte[] store = bits.toByteArray();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeShort(BitSetChunkStore.Serialization.STREAM_MAGIC);
+            out.writeInt(BitSetChunkStore.MAGIC_NUMBER);
+            out.writeInt(version);
+            out.writeLong(worldUid.getLeastSignificantBits());
+            out.writeLong(worldUid.getMostSignificantBits());
+            out.writeInt(cx);
+            out.writeInt(cz);
+            if (version >= 9) {
+                out.writeInt(worldMin);
+            }
+            out.writeInt(worldMax);
+            out.writeInt(store.length);
+            out.write(store);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Serializes the provided store and renames its class to the one mcMMO used to write chunks with
+     */
+    private static byte[] writeLegacyFormat(LegacyChunkStore legacyChunkStore) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(legacyChunkStore);
+        }
+        byte[] serialized = bytes.toByteArray();
+        byte[] from = toClassNameBytes(LegacyChunkStore.class.getName());
+        byte[] to = toClassNameBytes(LEGACY_CLASS_NAME);
+
+        for (int i = 0; i <= serialized.length - from.length; i++) {
+            if (ByteBuffer.wrap(serialized, i, from.length).equals(ByteBuffer.wrap(from))) {
+                ByteArrayOutputStream renamed = new ByteArrayOutputStream();
+                renamed.write(serialized, 0, i);
+                renamed.write(to);
+                renamed.write(serialized, i + from.length, serialized.length - i - from.length);
+                return renamed.toByteArray();
+            }
+        }
+        throw new IllegalStateException("Class name not found in the serialized store");
+    }
+
+    private static byte[] toClassNameBytes(String className) {
+        byte[] name = className.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(2 + name.length).putShort((short) name.length).put(name).array();
+    }
+
+    private record BlockPosition(int x, int y, int z) {
+    }
+
+    /**
+     * Writes the same stream that mcMMO's {@code PrimitiveChunkStore} did, which stored every block of the chunk as a {@code boolean[x][z][y]}
+     */
+    private static final class LegacyChunkStore implements Serializable {
+
+        private static final long serialVersionUID = -1L;
+
+        private final UUID worldUid;
+        private final int cx;
+        private final int cz;
+        private final boolean[][][] store;
+
+        private LegacyChunkStore(UUID worldUid, int cx, int cz, boolean[][][] store) {
+            this.worldUid = worldUid;
+            this.cx = cx;
+            this.cz = cz;
+            this.store = store;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.writeInt(BitSetChunkStore.MAGIC_NUMBER);
+            out.writeInt(7);
+            out.writeLong(worldUid.getLeastSignificantBits());
+            out.writeLong(worldUid.getMostSignificantBits());
+            out.writeInt(cx);
+            out.writeInt(cz);
+            out.writeObject(store);
+        }
+    }
+}
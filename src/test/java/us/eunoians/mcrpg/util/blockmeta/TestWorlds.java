@@ -0,0 +1,88 @@
+package us.eunoians.mcrpg.util.blockmeta;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Stand in worlds for tests, registered with a stand in {@link Server} so that chunk stores can look up the height of their world through
+ * {@link Bukkit#getWorld(UUID)}
+ *
+ * @author DiamondDagger590
+ */
+final class TestWorlds {
+
+    private static final Map<UUID, World> WORLDS = new ConcurrentHashMap<>();
+
+    private TestWorlds() {
+    }
+
+    /**
+     * Creates a world with the provided height and registers it with the test server
+     *
+     * @param minHeight The lowest y in the world
+     * @param maxHeight One more than the highest y in the world
+     * @return The created world
+     */
+    @NotNull
+    static synchronized World create(int minHeight, int maxHeight) {
+        if (Bukkit.getServer() == null) {
+            Bukkit.setServer(createServer());
+        }
+        UUID uuid = UUID.randomUUID();
+        World world = (World) Proxy.newProxyInstance(World.class.getClassLoader(), new Class<?>[]{World.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getUID":
+                    return uuid;
+                case "getName":
+                    return "test-" + uuid;
+                case "getMinHeight":
+                    return minHeight;
+                case "getMaxHeight":
+                    return maxHeight;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return uuid.hashCode();
+                case "toString":
+                    return "test world " + uuid;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        WORLDS.put(uuid, world);
+        return world;
+    }
+
+    @NotNull
+    private static Server createServer() {
+        Logger logger = Logger.getLogger("McRPGTest");
+        return (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[]{Server.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getLogger":
+                    return logger;
+                case "getName":
+                case "getVersion":
+                case "getBukkitVersion":
+                    return "test";
+                case "getWorld":
+                    return args[0] instanceof UUID ? WORLDS.get(args[0]) : null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "test server";
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}